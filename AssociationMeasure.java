@@ -0,0 +1,19 @@
+/**
+ * Measures of how strongly two words are associated, used to rank word pairs by something other than their raw count.
+ * Each measure compares the count of a pair with the count expected if its two words occurred independently.
+ * @author Josh Hager
+ */
+public enum AssociationMeasure {
+
+    /** pointwise mutual information, log2 of observed over expected count; favours rare, exclusive pairs */
+    PMI,
+
+    /**
+     * Dunning's log-likelihood ratio over the 2x2 contingency table of the pair; reliable for rare and common pairs.
+     * Signed: negative for a pair seen less often than expected, so avoided pairs never rank as strong ones.
+     */
+    LOG_LIKELIHOOD,
+
+    /** t-score, the difference between observed and expected count in standard deviations; favours frequent pairs */
+    T_SCORE
+}
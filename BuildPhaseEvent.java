@@ -0,0 +1,39 @@
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Java Flight Recorder event emitted by BuildStats at the end of each WordStat build phase.  The event only costs
+ * anything while a recording with it enabled is running.
+ * @author Josh Hager
+ */
+@Name("WordStat.BuildPhase")
+@Label("WordStat Build Phase")
+@Category("WordStat")
+@Description("One phase of building a WordStat, such as tokenizing or sorting the entries")
+public class BuildPhaseEvent extends Event {
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Items")
+    @Description("The number of words or entries processed")
+    long items;
+
+    @Label("Input Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Entries Created")
+    long entries;
+
+    @Label("Rehashes")
+    long rehashes;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
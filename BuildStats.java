@@ -0,0 +1,311 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Timing and allocation measurements for each phase of building a WordStat, such as tokenizing or sorting the entries.
+ * Measurements are only taken at the start and end of each phase, never per word, so recording costs a few clock reads
+ * per build.  Recording can be switched off for all builds with setEnabled(false).  Each finished phase is also emitted
+ * as a BuildPhaseEvent for Java Flight Recorder, and the most recent build can be read over JMX after registerMBean().
+ * @author Josh Hager
+ */
+public class BuildStats {
+
+    /* whether new builds are recorded */
+    private static volatile boolean enabled = true;
+
+    /* the most recently finished build, read by the MBean */
+    private static volatile BuildStats lastBuild;
+
+    /* reads the bytes allocated by the current thread, null if the JVM does not support it */
+    private static final com.sun.management.ThreadMXBean ALLOCATION_BEAN = allocationBean();
+
+    /* the finished phases, in the order they ran */
+    private ArrayList<Phase> phases = new ArrayList<Phase>();
+
+    /* the phase that has begun but not ended */
+    private String currentName;
+    private long currentStart;
+    private long currentAllocated;
+    private BuildPhaseEvent currentEvent;
+
+    /**
+     * Creates a new, empty BuildStats.
+     */
+    public BuildStats() {
+    }
+
+    /**
+     * Checks whether new builds are recorded.
+     * @return true if builds are recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Switches recording of new builds on or off.  Builds that have already started are not affected.
+     * @param enabled true to record builds
+     */
+    public static void setEnabled(boolean enabled) {
+        BuildStats.enabled = enabled;
+    }
+
+    /**
+     * Gets the most recently finished build that was recorded.
+     * @return the BuildStats of the last build, null if no build has been recorded
+     */
+    public static BuildStats getLastBuild() {
+        return lastBuild;
+    }
+
+    /**
+     * Registers an MBean named "WordStat:type=BuildStats" that exposes the most recently finished build over JMX.
+     * Registering more than once has no effect.
+     * @throws JMException if the MBean cannot be registered
+     */
+    public static synchronized void registerMBean() throws JMException {
+        ObjectName name = new ObjectName("WordStat:type=BuildStats");
+
+        if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new BuildStatsMonitor(), name);
+        }
+    }
+
+    /**
+     * Begins timing a phase.
+     * @param name the name of the phase
+     */
+    public void begin(String name) {
+        currentName = name;
+        currentAllocated = allocatedBytes();
+        currentEvent = new BuildPhaseEvent();
+        currentEvent.begin();
+        currentStart = System.nanoTime();
+    }
+
+    /**
+     * Ends the phase that was begun most recently and adds it to the finished phases.
+     * @param items the number of words or entries processed in the phase
+     * @param bytes the number of bytes of input read in the phase
+     * @param entries the number of HashEntries created in the phase
+     * @param rehashes the number of times a HashTable was rehashed in the phase
+     * @return the finished phase
+     * @throws IllegalStateException if no phase has begun
+     */
+    public Phase end(long items, long bytes, long entries, long rehashes) {
+        if (currentName == null) {
+            throw new IllegalStateException("no phase has begun");
+        }
+
+        long nanos = System.nanoTime() - currentStart;
+
+        long allocated = currentAllocated < 0 ? -1 : allocatedBytes() - currentAllocated;
+        Phase phase = new Phase(currentName, nanos, items, bytes, entries, rehashes, allocated);
+        phases.add(phase);
+
+        currentEvent.end();
+        if (currentEvent.shouldCommit()) {
+            currentEvent.phase = phase.getName();
+            currentEvent.items = items;
+            currentEvent.bytes = bytes;
+            currentEvent.entries = entries;
+            currentEvent.rehashes = rehashes;
+            currentEvent.allocatedBytes = allocated;
+            currentEvent.commit();
+        }
+
+        currentName = null;
+        currentEvent = null;
+        return phase;
+    }
+
+    /**
+     * Adds a phase that was timed elsewhere, such as the tokenize phase recorded by a Tokenizer.
+     * @param phase the finished phase
+     */
+    public void add(Phase phase) {
+        phases.add(phase);
+    }
+
+    /**
+     * Marks this build as finished, making it the build returned by getLastBuild and the MBean.
+     */
+    public void finish() {
+        lastBuild = this;
+    }
+
+    /**
+     * Gets the finished phases, in the order they ran.
+     * @return an unmodifiable list of the finished phases
+     */
+    public List<Phase> getPhases() {
+        return Collections.unmodifiableList(phases);
+    }
+
+    /**
+     * Gets a finished phase by name.
+     * @param name the name of the phase
+     * @return the phase, null if no phase with that name has finished
+     */
+    public Phase getPhase(String name) {
+        for (Phase phase : phases) {
+            if (phase.getName().equals(name)) {
+                return phase;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the total wall time of the finished phases.
+     * @return the total time in nanoseconds
+     */
+    public long getTotalNanos() {
+        long total = 0;
+
+        for (Phase phase : phases) {
+            total += phase.getNanos();
+        }
+
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder b = new StringBuilder();
+
+        for (Phase phase : phases) {
+            b.append(phase).append('\n');
+        }
+
+        b.append(String.format("total: %.3f ms", getTotalNanos() / 1e6));
+        return b.toString();
+    }
+
+    /**
+     * Gets the number of bytes allocated by the current thread so far.
+     * @return the number of bytes, -1 if the JVM cannot measure it
+     */
+    static long allocatedBytes() {
+        if (ALLOCATION_BEAN == null) {
+            return -1;
+        }
+
+        return ALLOCATION_BEAN.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Finds the HotSpot ThreadMXBean, which can measure per-thread allocation.
+     * @return the bean, null if the JVM does not provide it or cannot measure allocation
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean hotSpotBean = (com.sun.management.ThreadMXBean)bean;
+
+            if (hotSpotBean.isThreadAllocatedMemorySupported() && hotSpotBean.isThreadAllocatedMemoryEnabled()) {
+                return hotSpotBean;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * The measurements of one finished build phase.
+     */
+    public static class Phase {
+
+        private String name;
+
+        private long nanos;
+
+        private long items;
+
+        private long bytes;
+
+        private long entries;
+
+        private long rehashes;
+
+        private long allocatedBytes;
+
+        /**
+         * Creates a new Phase.
+         * @param name the name of the phase
+         * @param nanos the wall time of the phase in nanoseconds
+         * @param items the number of words or entries processed
+         * @param bytes the number of bytes of input read
+         * @param entries the number of HashEntries created
+         * @param rehashes the number of HashTable rehashes
+         * @param allocatedBytes the number of bytes allocated by the building thread, -1 if unknown
+         */
+        public Phase(String name, long nanos, long items, long bytes, long entries, long rehashes, long allocatedBytes) {
+            this.name = name;
+            this.nanos = nanos;
+            this.items = items;
+            this.bytes = bytes;
+            this.entries = entries;
+            this.rehashes = rehashes;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public long getItems() {
+            return items;
+        }
+
+        public long getBytes() {
+            return bytes;
+        }
+
+        public long getEntries() {
+            return entries;
+        }
+
+        public long getRehashes() {
+            return rehashes;
+        }
+
+        public long getAllocatedBytes() {
+            return allocatedBytes;
+        }
+
+        /**
+         * Gets the number of words or entries processed per second.
+         * @return the items per second, 0 if the phase took no measurable time
+         */
+        public double getItemsPerSecond() {
+            return nanos == 0 ? 0 : items * 1e9 / nanos;
+        }
+
+        /**
+         * Gets the number of bytes of input read per second.
+         * @return the bytes per second, 0 if the phase took no measurable time
+         */
+        public double getBytesPerSecond() {
+            return nanos == 0 ? 0 : bytes * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %.3f ms, %d items (%.0f/s), %d bytes (%.0f/s), %d entries, %d rehashes, %d bytes allocated",
+                                    name, nanos / 1e6, items, getItemsPerSecond(), bytes, getBytesPerSecond(), 
+                                    entries, rehashes, allocatedBytes);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+import java.util.Map;
+
+/**
+ * The JMX view of the most recently finished WordStat build, registered by BuildStats.registerMBean().
+ * @author Josh Hager
+ */
+public interface BuildStatsMXBean {
+
+    /**
+     * Gets the total wall time of the last build.
+     * @return the time in milliseconds, 0 if no build has been recorded
+     */
+    double getLastBuildMillis();
+
+    /**
+     * Gets the wall time of each phase of the last build.
+     * @return a map from phase name to time in milliseconds
+     */
+    Map<String, Double> getLastPhaseMillis();
+
+    /**
+     * Gets the tokenize rate of the last build.
+     * @return the words tokenized per second, 0 if the last build was not tokenized by a recorded Tokenizer
+     */
+    double getLastTokensPerSecond();
+
+    /**
+     * Gets the measurements of the last build as text, one phase per line.
+     * @return the measurements, "" if no build has been recorded
+     */
+    String getLastBuildSummary();
+}
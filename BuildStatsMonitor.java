@@ -0,0 +1,46 @@
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The MBean registered by BuildStats.registerMBean(), reading from BuildStats.getLastBuild().
+ * @author Josh Hager
+ */
+public class BuildStatsMonitor implements BuildStatsMXBean {
+
+    @Override
+    public double getLastBuildMillis() {
+        BuildStats last = BuildStats.getLastBuild();
+        return last == null ? 0 : last.getTotalNanos() / 1e6;
+    }
+
+    @Override
+    public Map<String, Double> getLastPhaseMillis() {
+        LinkedHashMap<String, Double> millis = new LinkedHashMap<String, Double>();
+        BuildStats last = BuildStats.getLastBuild();
+
+        if (last != null) {
+            for (BuildStats.Phase phase : last.getPhases()) {
+                millis.put(phase.getName(), phase.getNanos() / 1e6);
+            }
+        }
+
+        return millis;
+    }
+
+    @Override
+    public double getLastTokensPerSecond() {
+        BuildStats last = BuildStats.getLastBuild();
+
+        if (last == null || last.getPhase("tokenize") == null) {
+            return 0;
+        }
+
+        return last.getPhase("tokenize").getItemsPerSecond();
+    }
+
+    @Override
+    public String getLastBuildSummary() {
+        BuildStats last = BuildStats.getLastBuild();
+        return last == null ? "" : last.toString();
+    }
+}
@@ -0,0 +1,82 @@
+import org.junit.After;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * A class to test BuildStats.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class BuildStatsTest {
+
+    @After
+    public void enable(){
+        BuildStats.setEnabled(true);
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testPhases(){
+        BuildStats test = new BuildStats();
+
+        test.begin("first");
+        BuildStats.Phase phase = test.end(10, 20, 3, 1);
+        assertEquals("first", phase.getName());                                                         //phase is returned
+        assertEquals(10, phase.getItems());
+        assertEquals(20, phase.getBytes());
+        assertEquals(3, phase.getEntries());
+        assertEquals(1, phase.getRehashes());
+        assertTrue(phase.getNanos() >= 0);
+
+        test.add(new BuildStats.Phase("second", 2000000000L, 10, 20, 0, 0, 0));
+        assertEquals(2, test.getPhases().size());                                                       //added phase
+        assertEquals(5.0, test.getPhase("second").getItemsPerSecond(), 1e-9);                           //items per second
+        assertEquals(10.0, test.getPhase("second").getBytesPerSecond(), 1e-9);                          //bytes per second
+        assertNull(test.getPhase("third"));                                                             //phase does not exist
+
+        try{
+            test.end(0, 0, 0, 0);
+            fail("No exception thrown when no phase has begun");
+        }
+        catch(IllegalStateException e){
+            /* correct exception was thrown */                                                          //no phase has begun
+        }
+    }
+
+    @Test
+    public void testWordStatBuild() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                        IllegalArgumentException, InvocationTargetException{
+        WordStat test = new WordStat(new String[]{"the", "knights", "who", "say", "ni", "ni"});
+        BuildStats stats = test.getBuildStats();
+
+        assertNotNull(stats);
+        assertEquals(6, stats.getPhase("tokenize").getItems());                                         //tokenize phase is included
+        assertEquals(5, stats.getPhase("hashWords").getEntries());                                      //entries created
+        assertEquals(5, stats.getPhase("hashWordPairs").getEntries());
+        assertEquals(5, stats.getPhase("sortPairs").getItems());                                        //sorted entries
+        assertEquals(8, stats.getPhases().size());                                                      //every phase is recorded
+        assertEquals(stats, BuildStats.getLastBuild());                                                 //last build
+
+        BuildStats.setEnabled(false);
+        test = new WordStat(new String[]{"ni"});
+        assertNull(test.getBuildStats());                                                               //switched off
+    }
+
+    @Test
+    public void testMBean() throws JMException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                IllegalArgumentException, InvocationTargetException{
+        BuildStats.registerMBean();
+        BuildStats.registerMBean();                                                                     //registering twice
+
+        new WordStat(new String[]{"ni", "ni"});
+        Object summary = ManagementFactory.getPlatformMBeanServer()
+                                            .getAttribute(new ObjectName("WordStat:type=BuildStats"), "LastBuildSummary");
+        assertTrue(summary.toString().contains("hashSortedPairs"));                                     //last build over JMX
+    }
+}
@@ -0,0 +1,483 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.ToIntFunction;
+
+/**
+ * An index of how often words occur at a fixed distance from each other, for every distance up to a window size.
+ * Words are given int ids as they are added, and each (word, word d positions later) pair is counted in a PairCountTable
+ * for offset d.  Preceding collocations do not need their own counts, since the count of b at offset -d from a is the
+ * count of a at offset d from b.  Once all words have been added, compile() turns the counts into sorted arrays so that
+ * collocation queries read a single row instead of scanning every pair.
+ * @author Josh Hager
+ */
+public class CollocationIndex {
+
+    /* the largest offset that is counted */
+    private int window;
+
+    /* stores words as keys and their ids as values */
+    private HashTable wordIds = new HashTable();
+
+    /* stores words at the index of their id */
+    private ArrayList<String> words = new ArrayList<String>();
+
+    /* the counts for offset d are in offsetCounts[d - 1], keyed by pack(first id, second id); null once compiled */
+    private PairCountTable[] offsetCounts;
+
+    /* the ids of the last window words added, used as a ring buffer */
+    private int[] recent;
+
+    /* the number of valid ids in recent */
+    private int recentCount = 0;
+
+    /* the number of words added since the index was created */
+    private int position = 0;
+
+    /* for offset d, the words following word a are followWords[d - 1][followStart[d - 1][a]] up to followStart[d - 1][a + 1] */
+    private int[][] followStart;
+    private int[][] followWords;
+    private int[][] followCounts;
+
+    /* for offset d, the words preceding word b are stored in the same layout as the following words */
+    private int[][] precedeStart;
+    private int[][] precedeWords;
+    private int[][] precedeCounts;
+
+    /**
+     * Creates a new CollocationIndex that counts words up to a specified distance apart.
+     * @param window the largest offset to count, at least 1
+     * @throws IllegalArgumentException if window is less than 1
+     */
+    public CollocationIndex(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window must be at least 1");
+        }
+
+        this.window = window;
+        this.recent = new int[window];
+        this.offsetCounts = new PairCountTable[window];
+
+        for (int d = 0; d < window; d++) {
+            offsetCounts[d] = new PairCountTable();
+        }
+    }
+
+    /**
+     * Adds the next word in the text, counting it against each of the previous words within the window.
+     * @param word the word to add
+     * @throws IllegalStateException if the index has already been compiled
+     */
+    public void addWord(String word) {
+        if (isCompiled()) {
+            throw new IllegalStateException("index has already been compiled");
+        }
+
+        int id = assignId(word);
+
+        for (int d = 1; d <= recentCount; d++) {
+            int previous = recent[Math.floorMod(position - d, window)];
+            offsetCounts[d - 1].add(PairCountTable.pack(previous, id), 1);
+        }
+
+        recent[Math.floorMod(position, window)] = id;
+        position++;
+
+        if (recentCount < window) {
+            recentCount++;
+        }
+    }
+
+    /**
+     * Adds a count to a pair of words at an offset directly, for building an index from counts made elsewhere.
+     * @param first the first word of the pair
+     * @param second the word offset positions after the first word
+     * @param offset the distance between the words, between 1 and window
+     * @param count the number of times the pair occurred
+     * @throws IllegalStateException if the index has already been compiled
+     * @throws IllegalArgumentException if offset is less than 1 or greater than the window
+     */
+    public void addPair(String first, String second, int offset, int count) {
+        if (isCompiled()) {
+            throw new IllegalStateException("index has already been compiled");
+        }
+
+        if (offset < 1 || offset > window) {
+            throw new IllegalArgumentException("offset must be between 1 and " + window);
+        }
+
+        offsetCounts[offset - 1].add(PairCountTable.pack(assignId(first), assignId(second)), count);
+    }
+
+    /**
+     * Adds every count of another compiled index, for each offset up to the smaller of the two windows.
+     * @param other the compiled index to add the counts of
+     * @throws IllegalStateException if this index has already been compiled, or the other index has not been
+     */
+    public void addCounts(CollocationIndex other) {
+        if (isCompiled()) {
+            throw new IllegalStateException("index has already been compiled");
+        }
+
+        if (!other.isCompiled()) {
+            throw new IllegalStateException("index to add has not been compiled");
+        }
+
+        int[] ids = new int[other.words.size()];
+
+        for (int id = 0; id < ids.length; id++) {
+            ids[id] = assignId(other.words.get(id));
+        }
+
+        for (int d = 0; d < Math.min(window, other.window); d++) {
+            int[] start = other.followStart[d];
+
+            for (int first = 0; first < start.length - 1; first++) {
+                for (int j = start[first]; j < start[first + 1]; j++) {
+                    offsetCounts[d].add(PairCountTable.pack(ids[first], ids[other.followWords[d][j]]), other.followCounts[d][j]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ends the current sequence of words, so that the next word added is not counted against the words before it.
+     */
+    public void endSequence() {
+        recentCount = 0;
+    }
+
+    /**
+     * Compiles the counts into sorted arrays.  Each row is sorted in decreasing order of count, with ties broken by the
+     * order the words first appeared in.  No words can be added afterwards.
+     */
+    public void compile() {
+        if (isCompiled()) {
+            return;
+        }
+
+        int vocabularySize = words.size();
+
+        followStart = new int[window][];
+        followWords = new int[window][];
+        followCounts = new int[window][];
+        precedeStart = new int[window][];
+        precedeWords = new int[window][];
+        precedeCounts = new int[window][];
+
+        for (int d = 0; d < window; d++) {
+            PairCountTable counts = offsetCounts[d];
+            int[] firsts = new int[counts.size()];
+            int[] seconds = new int[counts.size()];
+            int[] values = new int[counts.size()];
+            int n = 0;
+
+            for (int slot = 0; slot < counts.capacity(); slot++) {
+                if (counts.isFilled(slot)) {
+                    firsts[n] = PairCountTable.first(counts.keyAt(slot));
+                    seconds[n] = PairCountTable.second(counts.keyAt(slot));
+                    values[n] = counts.valueAt(slot);
+                    n++;
+                }
+            }
+
+            followStart[d] = new int[vocabularySize + 1];
+            followWords[d] = new int[n];
+            followCounts[d] = new int[n];
+            buildRows(firsts, seconds, values, followStart[d], followWords[d], followCounts[d]);
+
+            precedeStart[d] = new int[vocabularySize + 1];
+            precedeWords[d] = new int[n];
+            precedeCounts[d] = new int[n];
+            buildRows(seconds, firsts, values, precedeStart[d], precedeWords[d], precedeCounts[d]);
+
+            offsetCounts[d] = null;
+        }
+
+        offsetCounts = null;
+        recent = null;
+    }
+
+    /**
+     * Returns the k most common collocations of a base word at a relative position.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word, between -window and window but not 0
+     * @return a String[] containing the k most common collocations of the base word, in decreasing order of their count
+     * @throws kIsTooLargeException if k exceeds the number of different collocations the word has at that position
+     * @throws UnsupportedOperationException if i is 0 or further from the base word than the window
+     * @throws IllegalStateException if the index has not been compiled
+     */
+    public String[] mostCommon(int k, String baseWord, int i) throws kIsTooLargeException {
+        checkOffset(i);
+
+        int[] start = i > 0 ? followStart[i - 1] : precedeStart[-i - 1];
+        int[] rowWords = i > 0 ? followWords[i - 1] : precedeWords[-i - 1];
+        int id = idOf(baseWord);
+
+        if (id == -1 || k > start[id + 1] - start[id]) {
+            throw new kIsTooLargeException();
+        }
+
+        String[] mostCommon = new String[k];
+
+        /* rows are already sorted, so the k most common collocations are the first k in the row */
+        for (int j = 0; j < k; j++) {
+            mostCommon[j] = words.get(rowWords[start[id] + j]);
+        }
+
+        return mostCommon;
+    }
+
+    /**
+     * Returns the k most common collocations of a base word at a relative position, with collocations of the same count
+     * ordered by a rank, such as the rank of their pair with the base word, rather than by the order they first appeared
+     * in.  Only the collocations with a count at least that of the kth are ranked.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word, between -window and window but not 0
+     * @param rank gives the rank of each collocation, where a lower rank comes first; it must rank every collocation of a
+     * higher count first
+     * @return a String[] containing the k most common collocations of the base word, in decreasing order of their count
+     * @throws kIsTooLargeException if k exceeds the number of different collocations the word has at that position
+     * @throws UnsupportedOperationException if i is 0 or further from the base word than the window
+     * @throws IllegalStateException if the index has not been compiled
+     */
+    public String[] mostCommon(int k, String baseWord, int i, ToIntFunction<String> rank) throws kIsTooLargeException {
+        checkOffset(i);
+
+        int[] start = i > 0 ? followStart[i - 1] : precedeStart[-i - 1];
+        int[] rowWords = i > 0 ? followWords[i - 1] : precedeWords[-i - 1];
+        int[] rowCounts = i > 0 ? followCounts[i - 1] : precedeCounts[-i - 1];
+        int id = idOf(baseWord);
+
+        if (id == -1 || k > start[id + 1] - start[id]) {
+            throw new kIsTooLargeException();
+        }
+
+        if (k == 0) {
+            return new String[0];
+        }
+
+        /* the row is sorted by count, so only the collocations tied with the kth can change places */
+        int end = start[id] + k;
+        while (end < start[id + 1] && rowCounts[end] == rowCounts[end - 1]) {
+            end++;
+        }
+
+        long[] ranked = new long[end - start[id]];
+
+        for (int j = 0; j < ranked.length; j++) {
+            ranked[j] = PairCountTable.pack(rank.applyAsInt(words.get(rowWords[start[id] + j])), rowWords[start[id] + j]);
+        }
+
+        Arrays.sort(ranked);
+
+        String[] mostCommon = new String[k];
+
+        for (int j = 0; j < k; j++) {
+            mostCommon[j] = words.get(PairCountTable.second(ranked[j]));
+        }
+
+        return mostCommon;
+    }
+
+    /**
+     * Returns the k most common words occurring within n positions of a base word, on either side, with the counts at
+     * each offset added together.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param n the number of positions on either side of the base word to include, between 1 and window
+     * @return a String[] containing the k most common collocations of the base word, in decreasing order of their count
+     * @throws kIsTooLargeException if k exceeds the number of different words within n positions of the base word
+     * @throws UnsupportedOperationException if n is less than 1 or greater than the window
+     * @throws IllegalStateException if the index has not been compiled
+     */
+    public String[] mostCommonWithin(int k, String baseWord, int n) throws kIsTooLargeException {
+        if (n < 1) {
+            throw new UnsupportedOperationException();
+        }
+
+        checkOffset(n);
+
+        int id = idOf(baseWord);
+
+        if (id == -1) {
+            throw new kIsTooLargeException();
+        }
+
+        PairCountTable totals = new PairCountTable();
+
+        for (int d = 0; d < n; d++) {
+            addRow(totals, followStart[d], followWords[d], followCounts[d], id);
+            addRow(totals, precedeStart[d], precedeWords[d], precedeCounts[d], id);
+        }
+
+        if (k > totals.size()) {
+            throw new kIsTooLargeException();
+        }
+
+        long[] ordered = new long[totals.size()];
+        int j = 0;
+
+        for (int slot = 0; slot < totals.capacity(); slot++) {
+            if (totals.isFilled(slot)) {
+                ordered[j++] = sortKey(totals.valueAt(slot), (int)totals.keyAt(slot));
+            }
+        }
+
+        Arrays.sort(ordered);
+
+        String[] mostCommon = new String[k];
+
+        for (j = 0; j < k; j++) {
+            mostCommon[j] = words.get(PairCountTable.second(ordered[j]));
+        }
+
+        return mostCommon;
+    }
+
+    /**
+     * Creates a CollocationRanker over the pairs of directly adjacent words, using the word ids and rows of this index so
+     * that no pair has to be split into its words or looked up.
+     * @param wordCounts stores every word of the index as a key with its count as the value
+     * @param totalWords the total number of words in the text
+     * @return the ranker
+     * @throws IllegalStateException if the index has not been compiled
+     */
+    public CollocationRanker ranker(HashTable wordCounts, long totalWords) {
+        checkOffset(1);
+
+        String[] rankerWords = words.toArray(new String[0]);
+        int[] counts = new int[rankerWords.length];
+
+        for (int id = 0; id < rankerWords.length; id++) {
+            counts[id] = wordCounts.get(rankerWords[id]);
+        }
+
+        int[] start = followStart[0];
+        int[] firstIds = new int[followWords[0].length];
+
+        for (int first = 0; first < start.length - 1; first++) {
+            Arrays.fill(firstIds, start[first], start[first + 1], first);
+        }
+
+        return new CollocationRanker(rankerWords, counts, firstIds, followWords[0], followCounts[0], totalWords);
+    }
+
+    /**
+     * Gets the largest offset counted by this index.
+     * @return the window of this index
+     */
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * Checks whether this index has been compiled.
+     * @return true if compile() has been called
+     */
+    public boolean isCompiled() {
+        return offsetCounts == null;
+    }
+
+    /**
+     * Gets the id of a word.
+     * @param word the word
+     * @return the id of the word, -1 if the word has not been added
+     */
+    private int idOf(String word) {
+        return wordIds.get(word);
+    }
+
+    /**
+     * Gets the id of a word, giving it the next id if it has not been added before.
+     * @param word the word
+     * @return the id of the word
+     */
+    private int assignId(String word) {
+        int id = idOf(word);
+
+        if (id == -1) {
+            id = words.size();
+            wordIds.put(word, id);
+            words.add(word);
+        }
+
+        return id;
+    }
+
+    /**
+     * Checks that an offset can be answered by this compiled index.
+     * @param i the offset
+     */
+    private void checkOffset(int i) {
+        if (i == 0 || Math.abs(i) > window) {
+            throw new UnsupportedOperationException();
+        }
+
+        if (!isCompiled()) {
+            throw new IllegalStateException("index has not been compiled");
+        }
+    }
+
+    /**
+     * A helper method to add the counts in one row of a compiled offset to a table keyed by word id.
+     * @param totals the table to add the counts to
+     * @param start the start of each row of the offset
+     * @param rowWords the word ids of the offset, grouped by row
+     * @param rowCounts the counts of the offset, grouped by row
+     * @param id the id of the row to add
+     */
+    private static void addRow(PairCountTable totals, int[] start, int[] rowWords, int[] rowCounts, int id) {
+        for (int j = start[id]; j < start[id + 1]; j++) {
+            totals.add(rowWords[j], rowCounts[j]);
+        }
+    }
+
+    /**
+     * A helper method to group pairs into rows by their row id, with each row sorted in decreasing order of count and
+     * then increasing order of the other id.
+     * @param rowIds the id each pair is grouped by
+     * @param otherIds the other id of each pair
+     * @param counts the count of each pair
+     * @param start filled with the start of each row, with one extra element marking the end of the last row
+     * @param rowWords filled with the other id of each pair, grouped by row
+     * @param rowCounts filled with the count of each pair, grouped by row
+     */
+    private static void buildRows(int[] rowIds, int[] otherIds, int[] counts, int[] start, int[] rowWords, int[] rowCounts) {
+        for (int rowId : rowIds) {
+            start[rowId + 1]++;
+        }
+
+        for (int r = 1; r < start.length; r++) {
+            start[r] += start[r - 1];
+        }
+
+        long[] ordered = new long[rowIds.length];
+        int[] next = Arrays.copyOf(start, start.length - 1);
+
+        for (int j = 0; j < rowIds.length; j++) {
+            ordered[next[rowIds[j]]++] = sortKey(counts[j], otherIds[j]);
+        }
+
+        for (int r = 0; r < start.length - 1; r++) {
+            Arrays.sort(ordered, start[r], start[r + 1]);
+        }
+
+        for (int j = 0; j < ordered.length; j++) {
+            rowWords[j] = PairCountTable.second(ordered[j]);
+            rowCounts[j] = Integer.MAX_VALUE - PairCountTable.first(ordered[j]);
+        }
+    }
+
+    /**
+     * Packs a count and a word id so that sorting the packed values in increasing order sorts by decreasing count,
+     * then increasing id.
+     * @param count the count
+     * @param id the word id
+     * @return the packed sort key
+     */
+    private static long sortKey(int count, int id) {
+        return PairCountTable.pack(Integer.MAX_VALUE - count, id);
+    }
+}
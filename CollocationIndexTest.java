@@ -0,0 +1,139 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+
+/**
+ * A class to test CollocationIndex.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class CollocationIndexTest {
+
+    /**
+     * A helper method to build a compiled CollocationIndex from a list of words.
+     * @param window the window of the index
+     * @param words the words to add
+     * @return the compiled index
+     */
+    private static CollocationIndex build(int window, String... words){
+        CollocationIndex index = new CollocationIndex(window);
+
+        for(String word : words){
+            index.addWord(word);
+        }
+
+        index.compile();
+        return index;
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testMostCommon() throws kIsTooLargeException{
+        CollocationIndex test = build(3, "a", "b", "c", "d", "a", "x", "y", "d");
+
+        assertEquals("[d]", Arrays.toString(test.mostCommon(1, "a", 3)));                              //offset 3, repeated
+        assertEquals("[c, y]", Arrays.toString(test.mostCommon(2, "a", 2)));                           //offset 2, ties in order of appearance
+        assertEquals("[a]", Arrays.toString(test.mostCommon(1, "d", -3)));                             //negative offset
+        assertEquals("[b, x]", Arrays.toString(test.mostCommon(2, "a", 1)));                           //offset 1
+
+        try{
+            test.mostCommon(2, "a", 3);
+            fail("No exception thrown when not enough collocs");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //not enough collocs
+        }
+
+        try{
+            test.mostCommon(1, "quandale", 2);
+            fail("No exception thrown when word is not in index");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //word is not in index
+        }
+
+        try{
+            test.mostCommon(1, "a", 4);
+            fail("No exception thrown when offset is outside window");
+        }
+        catch(UnsupportedOperationException e){
+            /* correct exception was thrown */                                                          //offset outside window
+        }
+    }
+
+    @Test
+    public void testMostCommonWithin() throws kIsTooLargeException{
+        CollocationIndex test = build(2, "x", "a", "y", "y", "a", "x", "z");
+
+        assertEquals("[x, y]", Arrays.toString(test.mostCommonWithin(2, "a", 1)));                    //window 1, both sides, tie in order of appearance
+        assertEquals("[y, x, z]", Arrays.toString(test.mostCommonWithin(3, "a", 2)));                  //window 2, counts are added
+
+        try{
+            test.mostCommonWithin(5, "a", 2);
+            fail("No exception thrown when not enough collocs");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //not enough collocs
+        }
+    }
+
+    @Test
+    public void testEndSequence() throws kIsTooLargeException{
+        CollocationIndex test = new CollocationIndex(2);
+        test.addWord("a");
+        test.endSequence();
+        test.addWord("b");
+        test.addWord("c");
+        test.compile();
+
+        try{
+            test.mostCommon(1, "a", 1);
+            fail("Pair counted across the end of a sequence");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //no pairs across sequences
+        }
+
+        assertEquals("[c]", Arrays.toString(test.mostCommon(1, "b", 1)));                              //pairs after the end are counted
+    }
+
+    @Test
+    public void testCompile(){
+        CollocationIndex test = build(1, "a", "b");
+
+        try{
+            test.addWord("c");
+            fail("No exception thrown when adding after compile");
+        }
+        catch(IllegalStateException e){
+            /* correct exception was thrown */                                                          //add after compile
+        }
+
+        try{
+            new CollocationIndex(0);
+            fail("No exception thrown when window is 0");
+        }
+        catch(IllegalArgumentException e){
+            /* correct exception was thrown */                                                          //window is 0
+        }
+    }
+
+    @Test
+    public void testAddCounts() throws kIsTooLargeException{
+        CollocationIndex test = new CollocationIndex(2);
+        test.addCounts(build(3, "a", "b", "c", "a"));
+        test.addCounts(build(1, "c", "a", "c", "b"));
+        test.compile();
+
+        assertEquals("[b, c]", Arrays.toString(test.mostCommon(2, "a", 1)));                           //counts of both indexes
+        assertEquals("[a]", Arrays.toString(test.mostCommon(1, "c", 1)));                              //counts added together
+        assertEquals("[c]", Arrays.toString(test.mostCommon(1, "a", 2)));                              //offsets within both windows
+
+        try{
+            test.addCounts(build(1, "a"));
+            fail("Counts added after compiling");
+        }
+        catch(IllegalStateException e){
+            /* correct exception was thrown */                                                          //already compiled
+        }
+    }
+}
@@ -0,0 +1,398 @@
+import java.util.Arrays;
+
+/**
+ * Ranks word pairs by an AssociationMeasure.  Words are given int ids, and the ids and counts of every pair are kept in
+ * parallel int arrays, so that scoring all pairs is a single loop over primitives rather than a lookup and calculation per
+ * pair object, and the best pairs are selected with a bounded heap of array indices instead of a full sort.  The scores
+ * under each measure are computed once and kept, and the pairs are also indexed by their first and by their second word,
+ * so that the collocations of one word are ranked by reading only that word's row.
+ * @author Josh Hager
+ */
+public class CollocationRanker {
+
+    private static final double LN_2 = Math.log(2);
+
+    /* stores words at the index of their id, and words as keys with their ids as values */
+    private String[] words;
+    private HashTable wordIds;
+
+    /* the count of each word, indexed by id */
+    private int[] wordCounts;
+
+    /* the ids of the first and second word of each pair, and the count of each pair */
+    private int[] firstIds;
+    private int[] secondIds;
+    private int[] pairCounts;
+
+    /* the pairs whose first word has id a are followPairs[followStart[a]] up to followStart[a + 1] */
+    private int[] followStart;
+    private int[] followPairs;
+
+    /* the pairs whose second word has id b, in the same layout */
+    private int[] precedeStart;
+    private int[] precedePairs;
+
+    /* the scores of every pair under each measure, indexed by the measure's ordinal; null until first asked for */
+    private double[][] scoreCache = new double[AssociationMeasure.values().length][];
+
+    /* the total number of words in the text */
+    private long totalWords;
+
+    /**
+     * Creates a new CollocationRanker over a set of word pairs.  All arrays are indexed by pair and must be the same length.
+     * @param firstWords the first word of each pair
+     * @param secondWords the second word of each pair
+     * @param pairCounts the count of each pair
+     * @param firstCounts the count of the first word of each pair
+     * @param secondCounts the count of the second word of each pair
+     * @param totalWords the total number of words in the text
+     */
+    public CollocationRanker(String[] firstWords, String[] secondWords, int[] pairCounts, int[] firstCounts, 
+                                int[] secondCounts, long totalWords){
+        HashTable ids = new HashTable();
+        String[] words = new String[2 * pairCounts.length];
+        int[] wordCounts = new int[2 * pairCounts.length];
+        int[] firstIds = new int[pairCounts.length];
+        int[] secondIds = new int[pairCounts.length];
+        int n = 0;
+
+        for(int p = 0; p < pairCounts.length; p++){
+            for(int side = 0; side < 2; side++){
+                String word = side == 0 ? firstWords[p] : secondWords[p];
+                int id = ids.get(word);
+
+                if(id == -1){
+                    id = n++;
+                    ids.put(word, id);
+                    words[id] = word;
+                    wordCounts[id] = side == 0 ? firstCounts[p] : secondCounts[p];
+                }
+
+                if(side == 0){
+                    firstIds[p] = id;
+                }
+                else{
+                    secondIds[p] = id;
+                }
+            }
+        }
+
+        init(Arrays.copyOf(words, n), ids, Arrays.copyOf(wordCounts, n), firstIds, secondIds, pairCounts, totalWords);
+    }
+
+    /**
+     * Creates a new CollocationRanker over a set of word pairs given by word id.  The pair arrays are indexed by pair and
+     * must be the same length.
+     * @param words the word with each id
+     * @param wordCounts the count of the word with each id
+     * @param firstIds the id of the first word of each pair
+     * @param secondIds the id of the second word of each pair
+     * @param pairCounts the count of each pair
+     * @param totalWords the total number of words in the text
+     */
+    public CollocationRanker(String[] words, int[] wordCounts, int[] firstIds, int[] secondIds, int[] pairCounts, 
+                                long totalWords){
+        HashTable ids = new HashTable(Math.max(2 * words.length, 1));
+
+        for(int id = 0; id < words.length; id++){
+            ids.put(words[id], id);
+        }
+
+        init(words, ids, wordCounts, firstIds, secondIds, pairCounts, totalWords);
+    }
+
+    /**
+     * A helper method for the constructors that keeps the arrays and indexes the pairs by their first and second word.
+     * @param words the word with each id
+     * @param wordIds stores words as keys and their ids as values
+     * @param wordCounts the count of the word with each id
+     * @param firstIds the id of the first word of each pair
+     * @param secondIds the id of the second word of each pair
+     * @param pairCounts the count of each pair
+     * @param totalWords the total number of words in the text
+     */
+    private void init(String[] words, HashTable wordIds, int[] wordCounts, int[] firstIds, int[] secondIds, 
+                        int[] pairCounts, long totalWords){
+        this.words = words;
+        this.wordIds = wordIds;
+        this.wordCounts = wordCounts;
+        this.firstIds = firstIds;
+        this.secondIds = secondIds;
+        this.pairCounts = pairCounts;
+        this.totalWords = totalWords;
+
+        followStart = new int[words.length + 1];
+        followPairs = new int[pairCounts.length];
+        buildRows(firstIds, followStart, followPairs);
+
+        precedeStart = new int[words.length + 1];
+        precedePairs = new int[pairCounts.length];
+        buildRows(secondIds, precedeStart, precedePairs);
+    }
+
+    /**
+     * Computes the score of every pair under a measure.
+     * @param measure the association measure
+     * @return a new array containing the score of each pair, indexed by pair
+     */
+    public double[] scores(AssociationMeasure measure){
+        return cachedScores(measure).clone();
+    }
+
+    /**
+     * Returns the k highest scoring pairs, in the form "word1 word2".
+     * @param k the number of pairs to retrieve
+     * @param measure the association measure to rank by
+     * @param minCount the smallest pair count to consider, used to stop a measure like PMI from being dominated by pairs seen once
+     * @return a String[] of the k highest scoring pairs, in decreasing order of their score
+     * @throws kIsTooLargeException if fewer than k pairs have a count of at least minCount
+     */
+    public String[] strongest(int k, AssociationMeasure measure, int minCount) throws kIsTooLargeException{
+        int[] best = topK(cachedScores(measure), k, minCount, null, 0, pairCounts.length);
+        String[] strongest = new String[k];
+
+        for(int i = 0; i < k; i++){
+            strongest[i] = words[firstIds[best[i]]] + " " + words[secondIds[best[i]]];
+        }
+
+        return strongest;
+    }
+
+    /**
+     * Returns the k highest scoring collocations of a base word, directly following (i = 1) or preceding (i = -1) it.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word, 1 or -1
+     * @param measure the association measure to rank by
+     * @param minCount the smallest pair count to consider
+     * @return a String[] of the k highest scoring collocations, in decreasing order of their score
+     * @throws kIsTooLargeException if the base word has fewer than k collocations with a count of at least minCount
+     * @throws UnsupportedOperationException if i is a number other than 1 or -1
+     */
+    public String[] strongestCollocs(int k, String baseWord, int i, AssociationMeasure measure, int minCount) 
+                                        throws kIsTooLargeException{
+        if(!(i == 1 || i == -1)){
+            throw new UnsupportedOperationException();
+        }
+
+        int id = wordIds.get(baseWord);
+
+        if(id == -1){
+            throw new kIsTooLargeException();
+        }
+
+        int[] start = i == 1 ? followStart : precedeStart;
+        int[] best = topK(cachedScores(measure), k, minCount, i == 1 ? followPairs : precedePairs, start[id], start[id + 1]);
+        int[] otherIds = i == 1 ? secondIds : firstIds;
+        String[] strongest = new String[k];
+
+        for(int j = 0; j < k; j++){
+            strongest[j] = words[otherIds[best[j]]];
+        }
+
+        return strongest;
+    }
+
+    /**
+     * A helper method to get the scores of every pair under a measure, computing them the first time they are asked for.
+     * @param measure the association measure
+     * @return the kept array of scores, which must not be changed
+     */
+    private synchronized double[] cachedScores(AssociationMeasure measure){
+        double[] scores = scoreCache[measure.ordinal()];
+
+        if(scores == null){
+            scores = computeScores(measure);
+            scoreCache[measure.ordinal()] = scores;
+        }
+
+        return scores;
+    }
+
+    /**
+     * A helper method to compute the score of every pair under a measure.
+     * @param measure the association measure
+     * @return an array containing the score of each pair, indexed by pair
+     */
+    private double[] computeScores(AssociationMeasure measure){
+        int n = pairCounts.length;
+        double[] scores = new double[n];
+        double total = totalWords;
+
+        /* one tight loop per measure, so the measure is not re-checked for every pair */
+        switch(measure){
+            case PMI:
+                for(int i = 0; i < n; i++){
+                    double firstCount = wordCounts[firstIds[i]];
+                    scores[i] = Math.log(pairCounts[i] * total / (firstCount * wordCounts[secondIds[i]])) / LN_2;
+                }
+                break;
+
+            case T_SCORE:
+                for(int i = 0; i < n; i++){
+                    double expected = (double)wordCounts[firstIds[i]] * wordCounts[secondIds[i]] / total;
+                    scores[i] = (pairCounts[i] - expected) / Math.sqrt(pairCounts[i]);
+                }
+                break;
+
+            case LOG_LIKELIHOOD:
+                for(int i = 0; i < n; i++){
+                    int firstCount = wordCounts[firstIds[i]];
+                    int secondCount = wordCounts[secondIds[i]];
+                    double k11 = pairCounts[i];
+                    double k12 = Math.max(firstCount - k11, 0);
+                    double k21 = Math.max(secondCount - k11, 0);
+                    double k22 = Math.max(total - k11 - k12 - k21, 0);
+
+                    double g2 = 2 * (xLogX(k11) + xLogX(k12) + xLogX(k21) + xLogX(k22)
+                                        - xLogX(k11 + k12) - xLogX(k21 + k22)
+                                        - xLogX(k11 + k21) - xLogX(k12 + k22)
+                                        + xLogX(k11 + k12 + k21 + k22));
+
+                    /* signed, so a pair seen less often than its words' counts predict ranks below every real collocation */
+                    scores[i] = k11 < (double)firstCount * secondCount / total ? -g2 : g2;
+                }
+                break;
+        }
+
+        return scores;
+    }
+
+    /**
+     * A helper method to select the indexes of the k highest scores using a min-heap of size k, where the root is the
+     * worst of the best pairs found so far.  Ties are broken by the higher pair count, then by the lower index.
+     * @param scores the score of each pair
+     * @param k the number of indexes to select
+     * @param minCount the smallest pair count to consider
+     * @param pairs if not null, the pair indexes to consider are pairs[from] up to pairs[to]; if null, they are from up to to
+     * @param from the start of the pairs to consider
+     * @param to the end of the pairs to consider
+     * @return the selected indexes, in decreasing order of score
+     * @throws kIsTooLargeException if fewer than k pairs are eligible
+     */
+    private int[] topK(double[] scores, int k, int minCount, int[] pairs, int from, int to) throws kIsTooLargeException{
+        int[] heap = new int[Math.max(k, 0)];
+        int size = 0;
+
+        for(int j = from; j < to; j++){
+            int p = pairs == null ? j : pairs[j];
+
+            if(pairCounts[p] < minCount){
+                continue;
+            }
+
+            if(size < k){
+                heap[size] = p;
+                siftUp(heap, size, scores);
+                size++;
+            }
+            else if(k > 0 && isBetter(p, heap[0], scores)){
+                heap[0] = p;
+                siftDown(heap, size, scores);
+            }
+        }
+
+        if(size < k){
+            throw new kIsTooLargeException();
+        }
+
+        /* repeatedly removing the root puts the worst pair at the back */
+        int[] ordered = new int[k];
+        for(int j = k - 1; j >= 0; j--){
+            ordered[j] = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size, scores);
+        }
+
+        return ordered;
+    }
+
+    /**
+     * Checks whether pair a ranks above pair b.
+     * @param a the index of the first pair
+     * @param b the index of the second pair
+     * @param scores the score of each pair
+     * @return true if a has the higher score, or the same score and the higher count, or the same score and count and
+     * the lower index
+     */
+    private boolean isBetter(int a, int b, double[] scores){
+        if(scores[a] != scores[b]){
+            return scores[a] > scores[b];
+        }
+
+        if(pairCounts[a] != pairCounts[b]){
+            return pairCounts[a] > pairCounts[b];
+        }
+
+        return a < b;
+    }
+
+    private void siftUp(int[] heap, int i, double[] scores){
+        while(i > 0){
+            int parent = (i - 1) / 2;
+
+            if(!isBetter(heap[parent], heap[i], scores)){
+                break;
+            }
+
+            swap(heap, parent, i);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int[] heap, int size, double[] scores){
+        int i = 0;
+
+        while(2 * i + 1 < size){
+            int child = 2 * i + 1;
+
+            if(child + 1 < size && isBetter(heap[child], heap[child + 1], scores)){
+                child++;
+            }
+
+            if(!isBetter(heap[i], heap[child], scores)){
+                break;
+            }
+
+            swap(heap, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(int[] heap, int a, int b){
+        int temp = heap[a];
+        heap[a] = heap[b];
+        heap[b] = temp;
+    }
+
+    /**
+     * A helper method to group pair indexes into rows by the id of one of their words, keeping each row in pair order.
+     * @param rowIds the id each pair is grouped by
+     * @param start filled with the start of each row, with one extra element marking the end of the last row
+     * @param rowPairs filled with the pair indexes, grouped by row
+     */
+    private static void buildRows(int[] rowIds, int[] start, int[] rowPairs){
+        for(int rowId : rowIds){
+            start[rowId + 1]++;
+        }
+
+        for(int r = 1; r < start.length; r++){
+            start[r] += start[r - 1];
+        }
+
+        int[] next = Arrays.copyOf(start, start.length - 1);
+
+        for(int p = 0; p < rowIds.length; p++){
+            rowPairs[next[rowIds[p]]++] = p;
+        }
+    }
+
+    /**
+     * Computes x * ln(x), taken to be 0 when x is 0.
+     * @param x a non-negative number
+     * @return x * ln(x)
+     */
+    private static double xLogX(double x){
+        return x == 0 ? 0 : x * Math.log(x);
+    }
+}
@@ -0,0 +1,121 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+
+/**
+ * A class to test CollocationRanker.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class CollocationRankerTest {
+
+    /* "of the" is frequent but its words are everywhere; "holy grail" is rare but its words only occur together */
+    private CollocationRanker ranker = new CollocationRanker(new String[]{"of", "holy", "the", "a"},
+                                                            new String[]{"the", "grail", "knights", "witch"},
+                                                            new int[]{10, 2, 6, 1},
+                                                            new int[]{20, 2, 30, 10},
+                                                            new int[]{30, 2, 6, 1},
+                                                            100);
+
+    @Test
+    public void testScores(){
+        double[] scores = ranker.scores(AssociationMeasure.PMI);
+
+        assertEquals(Math.log(50) / Math.log(2), scores[1], 1e-9);                                      //PMI
+        
+        scores = ranker.scores(AssociationMeasure.T_SCORE);
+        assertEquals((10 - 6.0) / Math.sqrt(10), scores[0], 1e-9);                                      //t-score
+
+        scores = ranker.scores(AssociationMeasure.LOG_LIKELIHOOD);
+        assertEquals(true, scores[1] > 0);                                                              //log-likelihood is positive
+        assertEquals(4, scores.length);                                                                 //one score per pair
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testStrongest() throws kIsTooLargeException{
+        assertEquals("[holy grail, a witch]", 
+                        Arrays.toString(ranker.strongest(2, AssociationMeasure.PMI, 1)));               //PMI prefers exclusive pairs
+
+        assertEquals("[holy grail]", 
+                        Arrays.toString(ranker.strongest(1, AssociationMeasure.PMI, 2)));               //minCount removes rare pairs
+
+        assertEquals("[the knights]", 
+                        Arrays.toString(ranker.strongest(1, AssociationMeasure.T_SCORE, 1)));           //t-score prefers frequent pairs
+
+        assertEquals(4, ranker.strongest(4, AssociationMeasure.LOG_LIKELIHOOD, 1).length);              //k equals number of pairs
+
+        try{
+            ranker.strongest(4, AssociationMeasure.PMI, 2);
+            fail("No exception thrown when not enough pairs");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //not enough pairs
+        }
+    }
+
+    @Test
+    public void testNegativeAssociation() throws kIsTooLargeException{
+        /* "the the" is seen once though its words fill half the text; "holy grail" is rare but exclusive */
+        CollocationRanker test = new CollocationRanker(new String[]{"the", "holy"}, new String[]{"the", "grail"},
+                                                        new int[]{1, 3}, new int[]{50, 3}, new int[]{50, 3}, 100);
+        double[] scores = test.scores(AssociationMeasure.LOG_LIKELIHOOD);
+
+        assertEquals(true, scores[0] < 0);                                                              //fewer than expected is negative
+        assertEquals(true, scores[1] > 0);
+        assertEquals("[holy grail, the the]", 
+                        Arrays.toString(test.strongest(2, AssociationMeasure.LOG_LIKELIHOOD, 1)));      //avoided pair ranks last
+    }
+
+    @Test
+    public void testWordIds() throws kIsTooLargeException{
+        /* the same pairs as ranker, given by word id: of, the, holy, grail, knights, a, witch */
+        CollocationRanker test = new CollocationRanker(new String[]{"of", "the", "holy", "grail", "knights", "a", "witch"},
+                                                        new int[]{20, 30, 2, 2, 6, 10, 1},
+                                                        new int[]{0, 2, 1, 5}, new int[]{1, 3, 4, 6}, new int[]{10, 2, 6, 1}, 100);
+
+        for(AssociationMeasure measure : AssociationMeasure.values()){
+            assertArrayEquals(ranker.scores(measure), test.scores(measure), 1e-9);                      //same scores as words
+        }
+
+        assertEquals("[holy grail, a witch]", Arrays.toString(test.strongest(2, AssociationMeasure.PMI, 1)));
+        assertEquals("[knights]", Arrays.toString(test.strongestCollocs(1, "the", 1, AssociationMeasure.PMI, 1)));
+
+        test.scores(AssociationMeasure.PMI)[1] = -1;
+        assertEquals("[holy grail]", 
+                        Arrays.toString(test.strongest(1, AssociationMeasure.PMI, 1)));                 //kept scores not changed by caller
+
+        try{
+            test.strongestCollocs(1, "shrubbery", 1, AssociationMeasure.PMI, 1);
+            fail("No exception thrown for a word with no pairs");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //unknown base word
+        }
+    }
+
+    @Test
+    public void testStrongestCollocs() throws kIsTooLargeException{
+        assertEquals("[grail]", 
+                        Arrays.toString(ranker.strongestCollocs(1, "holy", 1, AssociationMeasure.PMI, 1)));     //i = 1
+
+        assertEquals("[of]", 
+                        Arrays.toString(ranker.strongestCollocs(1, "the", -1, AssociationMeasure.PMI, 1)));     //i = -1
+
+        try{
+            ranker.strongestCollocs(2, "holy", 1, AssociationMeasure.PMI, 1);
+            fail("No exception thrown when not enough collocs");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //not enough collocs
+        }
+
+        try{
+            ranker.strongestCollocs(1, "holy", 2, AssociationMeasure.PMI, 1);
+            fail("No exception thrown when i != 1 or -1");
+        }
+        catch(UnsupportedOperationException e){
+            /* correct exception was thrown */                                                          //i != 1 or -1
+        }
+    }
+}
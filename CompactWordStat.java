@@ -0,0 +1,504 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only copy of the word and word pair statistics of a WordStat in as little memory as possible, made by
+ * WordStat.compact, for machines where the HashTables of a WordStat do not fit.
+ *
+ * The distinct words are sorted by their UTF-8 bytes and front coded in blocks of 16: the first word of each block is
+ * stored whole, and every other word as the length of the prefix it shares with the word before it plus the rest of its
+ * bytes.  A word is found by a binary search over the first words of the blocks followed by a scan of one block, and its
+ * position in sorted order is its index.  The counts and ranks of the words are int[]s by index.  Word pairs are stored
+ * by the indices of their words instead of as "w1 w2" Strings: the second words of the pairs starting with each word are a
+ * sorted run of one int[], found by the first word's index and searched with a binary search, with the count and rank
+ * of each pair in parallel int[]s.  A second int[] groups the pairs by their second word, for preceding collocations.
+ *
+ * Collocations are only stored for offsets 1 and -1, and are matched on whole words.  A CompactWordStat is never changed
+ * after it is made, so it can be read from any number of threads.
+ * @author Josh Hager
+ */
+public class CompactWordStat {
+
+    /* the number of words in each front-coded block */
+    private static final int BLOCK_SIZE = 16;
+
+    /* the front-coded words, and the position in it where each block starts */
+    private final byte[] vocabulary;
+    private final int[] blockStart;
+
+    /* the number of distinct words, and the length in bytes of the longest */
+    private final int size;
+    private final int longestWord;
+
+    /* the count and rank of each word, by index */
+    private final int[] counts;
+    private final int[] ranks;
+
+    /* the pairs starting with word w are pairs pairStart[w] up to pairStart[w + 1], sorted by the index of their second word */
+    private final int[] pairStart;
+    private final int[] pairSecond;
+    private final int[] pairCounts;
+    private final int[] pairRanks;
+
+    /* the pairs ending with word w are pairs precedePairs[precedeStart[w]] up to precedePairs[precedeStart[w + 1] - 1] */
+    private final int[] precedeStart;
+    private final int[] precedePairs;
+
+    /**
+     * Creates a new CompactWordStat from the entries of a WordStat.
+     * @param wordEntries the word entries, each holding its count and rank
+     * @param pairEntries the word pair entries ("word1 word2"), each holding its count and rank
+     */
+    CompactWordStat(ArrayList<HashEntry> wordEntries, ArrayList<HashEntry> pairEntries) {
+        size = wordEntries.size();
+
+        /* sort the words by their bytes */
+        byte[][] words = new byte[size][];
+        Integer[] order = new Integer[size];
+
+        for (int i = 0; i < size; i++) {
+            words[i] = wordEntries.get(i).getKey().getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(words[a], words[b]));
+
+        byte[][] sorted = new byte[size][];
+        counts = new int[size];
+        ranks = new int[size];
+        HashTable indices = new HashTable(Math.max(1, size * 2));
+        int longest = 0;
+
+        for (int i = 0; i < size; i++) {
+            HashEntry entry = wordEntries.get(order[i]);
+
+            sorted[i] = words[order[i]];
+            counts[i] = entry.getValue();
+            ranks[i] = entry.getRank();
+            indices.put(entry.getKey(), i);
+            longest = Math.max(longest, sorted[i].length);
+        }
+
+        longestWord = longest;
+        blockStart = new int[(size + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        vocabulary = frontCode(sorted, blockStart);
+
+        /* sort the pairs by the indices of their first and then second words */
+        int pairs = pairEntries.size();
+        long[] keys = new long[pairs];
+
+        for (int p = 0; p < pairs; p++) {
+            String pair = pairEntries.get(p).getKey();
+            int space = pair.indexOf(' ');
+            long first = indices.get(pair.substring(0, space));
+            long second = indices.get(pair.substring(space + 1));
+
+            keys[p] = (first << 32) | second;
+        }
+
+        Integer[] pairOrder = new Integer[pairs];
+        for (int p = 0; p < pairs; p++) {
+            pairOrder[p] = p;
+        }
+
+        Arrays.sort(pairOrder, (a, b) -> Long.compare(keys[a], keys[b]));
+
+        pairStart = new int[size + 1];
+        pairSecond = new int[pairs];
+        pairCounts = new int[pairs];
+        pairRanks = new int[pairs];
+        precedeStart = new int[size + 1];
+
+        for (int p = 0; p < pairs; p++) {
+            long key = keys[pairOrder[p]];
+            HashEntry entry = pairEntries.get(pairOrder[p]);
+
+            pairStart[(int)(key >>> 32) + 1]++;
+            pairSecond[p] = (int)key;
+            pairCounts[p] = entry.getValue();
+            pairRanks[p] = entry.getRank();
+            precedeStart[(int)key + 1]++;
+        }
+
+        for (int w = 0; w < size; w++) {
+            pairStart[w + 1] += pairStart[w];
+            precedeStart[w + 1] += precedeStart[w];
+        }
+
+        precedePairs = new int[pairs];
+        int[] filled = Arrays.copyOf(precedeStart, size);
+
+        for (int p = 0; p < pairs; p++) {
+            precedePairs[filled[pairSecond[p]]++] = p;
+        }
+    }
+
+    /**
+     * Gets the word count of a specified word.
+     * @param word the word to get the count of
+     * @return the count of that word
+     */
+    public int wordCount(String word) {
+        int index = indexOf(word);
+        return index == -1 ? 0 : counts[index];
+    }
+
+    /**
+     * Gets the count of a specified word pair.
+     * @param w1 the first word in the pair
+     * @param w2 the second word in the pair
+     * @return the count of the word pair
+     */
+    public int wordPairCount(String w1, String w2) {
+        int pair = pairOf(w1, w2);
+        return pair == -1 ? 0 : pairCounts[pair];
+    }
+
+    /**
+     * Gets the rank of the specified word, where 1 is the rank of the most common word.
+     * @param word the word to get the rank of
+     * @return the rank of the word
+     * @throws NoSuchElementException if the word is not in the text
+     */
+    public int wordRank(String word) throws NoSuchElementException {
+        int index = indexOf(word);
+
+        if (index == -1) {
+            throw new NoSuchElementException();
+        }
+
+        return ranks[index];
+    }
+
+    /**
+     * Gets the rank of the specified word pair, where 1 is the rank of the most common word pair.
+     * @param w1 the first word in the word pair
+     * @param w2 the second word in the word pair
+     * @return the rank of the word pair
+     * @throws NoSuchElementException if the word pair is not in the text
+     */
+    public int wordPairRank(String w1, String w2) throws NoSuchElementException {
+        int pair = pairOf(w1, w2);
+
+        if (pair == -1) {
+            throw new NoSuchElementException();
+        }
+
+        return pairRanks[pair];
+    }
+
+    /**
+     * Returns the k most common collocations of a base word directly after or before it, in decreasing order of the count
+     * of their pair with the base word.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word, 1 (directly following base word) or -1 (directly preceding base word)
+     * @return a String[] containing the k most common collocations of the base word
+     * @throws kIsTooLargeException if k exceeds the number of word pairs in the text, or k exceeds the number of different collocations a word has
+     * @throws UnsupportedOperationException if i is not 1 or -1
+     */
+    public String[] mostCommonCollocs(int k, String baseWord, int i) throws kIsTooLargeException {
+        if (i != 1 && i != -1) {
+            throw new UnsupportedOperationException();
+        }
+
+        int base = indexOf(baseWord);
+
+        if (k > pairSecond.length || base == -1) {
+            throw new kIsTooLargeException();
+        }
+
+        int from = i == 1 ? pairStart[base] : precedeStart[base];
+        int to = i == 1 ? pairStart[base + 1] : precedeStart[base + 1];
+
+        if (k > to - from) {
+            throw new kIsTooLargeException();
+        }
+
+        /* order the pairs of the row by rank, keeping each pair's position in the low bits */
+        long[] row = new long[to - from];
+
+        for (int j = from; j < to; j++) {
+            int pair = i == 1 ? j : precedePairs[j];
+            row[j - from] = ((long)pairRanks[pair] << 32) | pair;
+        }
+
+        Arrays.sort(row);
+
+        String[] mostCommonCollocs = new String[k];
+        byte[] scratch = new byte[longestWord];
+
+        for (int j = 0; j < k; j++) {
+            int pair = (int)row[j];
+            mostCommonCollocs[j] = wordAt(i == 1 ? pairSecond[pair] : firstWordOf(pair), scratch);
+        }
+
+        return mostCommonCollocs;
+    }
+
+    /**
+     * Gets the number of distinct words.
+     * @return the number of distinct words
+     */
+    public int uniqueWords() {
+        return size;
+    }
+
+    /**
+     * Gets the number of distinct word pairs.
+     * @return the number of distinct word pairs
+     */
+    public int uniqueWordPairs() {
+        return pairSecond.length;
+    }
+
+    /**
+     * Gets the number of bytes the front-coded words take.
+     * @return the size of the vocabulary in bytes
+     */
+    public int vocabularyBytes() {
+        return vocabulary.length;
+    }
+
+    /**
+     * Gets the number of bytes all of the arrays of this CompactWordStat take, not counting object headers.
+     * @return the size in bytes
+     */
+    public long memoryBytes() {
+        return vocabulary.length + 4L * (blockStart.length + counts.length + ranks.length + pairStart.length
+                                         + pairSecond.length + pairCounts.length + pairRanks.length
+                                         + precedeStart.length + precedePairs.length);
+    }
+
+    /**
+     * Finds the index of a word.
+     * @param word the word
+     * @return the index of the word in sorted order, or -1 if it is not in the text
+     */
+    int indexOf(String word) {
+        if (size == 0) {
+            return -1;
+        }
+
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+
+        /* find the last block whose first word is not after the key */
+        int low = 0;
+        int high = blockStart.length - 1;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            int position = blockStart[middle];
+            int length = readVarint(position);
+            position += varintLength(length);
+
+            if (Arrays.compareUnsigned(vocabulary, position, position + length, key, 0, key.length) <= 0) {
+                low = middle;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+
+        /* scan the block, rebuilding each word from the one before it */
+        byte[] scratch = new byte[Math.max(longestWord, 1)];
+        int position = blockStart[low];
+        int length = 0;
+
+        for (int index = low * BLOCK_SIZE; index < Math.min(size, (low + 1) * BLOCK_SIZE); index++) {
+            long read = readWord(position, index % BLOCK_SIZE == 0, scratch);
+            position = (int)(read >>> 32);
+            length = (int)read;
+
+            int compare = Arrays.compareUnsigned(scratch, 0, length, key, 0, key.length);
+
+            if (compare == 0) {
+                return index;
+            }
+            if (compare > 0) {
+                return -1;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * A helper method to find the position of a word pair in the pair arrays.
+     * @param w1 the first word
+     * @param w2 the second word
+     * @return the position of the pair, or -1 if it is not in the text
+     */
+    private int pairOf(String w1, String w2) {
+        int first = indexOf(w1);
+        int second = first == -1 ? -1 : indexOf(w2);
+
+        if (second == -1) {
+            return -1;
+        }
+
+        int pair = Arrays.binarySearch(pairSecond, pairStart[first], pairStart[first + 1], second);
+        return pair < 0 ? -1 : pair;
+    }
+
+    /**
+     * A helper method to find the first word of a pair from its position, with a binary search of pairStart.
+     * @param pair the position of the pair
+     * @return the index of its first word
+     */
+    private int firstWordOf(int pair) {
+        int low = 0;
+        int high = size - 1;
+
+        /* the last word whose run of pairs starts at or before the pair */
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (pairStart[middle] <= pair) {
+                low = middle;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * A helper method to decode the word at an index.
+     * @param index the index of the word
+     * @param scratch a buffer at least as long as the longest word
+     * @return the word
+     */
+    private String wordAt(int index, byte[] scratch) {
+        int block = index / BLOCK_SIZE;
+        int position = blockStart[block];
+        int length = 0;
+
+        for (int i = block * BLOCK_SIZE; i <= index; i++) {
+            long read = readWord(position, i % BLOCK_SIZE == 0, scratch);
+            position = (int)(read >>> 32);
+            length = (int)read;
+        }
+
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A helper method to decode one front-coded word into a buffer holding the word before it.
+     * @param position the position of the word in the vocabulary
+     * @param whole true if the word is the first of its block and stored whole
+     * @param scratch the buffer, holding the word before it
+     * @return the position of the next word in the high 32 bits and the length of this word in the low 32 bits
+     */
+    private long readWord(int position, boolean whole, byte[] scratch) {
+        int shared = 0;
+
+        if (!whole) {
+            shared = readVarint(position);
+            position += varintLength(shared);
+        }
+
+        int rest = readVarint(position);
+        position += varintLength(rest);
+
+        System.arraycopy(vocabulary, position, scratch, shared, rest);
+        return ((long)(position + rest) << 32) | (shared + rest);
+    }
+
+    /**
+     * A helper method to read a varint from the vocabulary.
+     * @param position the position of its first byte
+     * @return the value
+     */
+    private int readVarint(int position) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+
+        do {
+            b = vocabulary[position++];
+            value |= (b & 0x7f) << shift;
+            shift += 7;
+        } while (b < 0);
+
+        return value;
+    }
+
+    /**
+     * A helper method to find the number of bytes a varint takes.
+     * @param value the value
+     * @return the number of bytes, 1 to 5
+     */
+    private static int varintLength(int value) {
+        int length = 1;
+
+        while ((value >>>= 7) != 0) {
+            length++;
+        }
+
+        return length;
+    }
+
+    /**
+     * A helper method to front code sorted words in blocks.
+     * @param sorted the words, sorted by their bytes
+     * @param blockStart filled with the position where each block starts
+     * @return the front-coded words
+     */
+    private static byte[] frontCode(byte[][] sorted, int[] blockStart) {
+        byte[] out = new byte[64];
+        int length = 0;
+
+        for (int i = 0; i < sorted.length; i++) {
+            byte[] word = sorted[i];
+            int shared = 0;
+
+            if (i % BLOCK_SIZE == 0) {
+                blockStart[i / BLOCK_SIZE] = length;
+            }
+            else {
+                byte[] previous = sorted[i - 1];
+                int limit = Math.min(previous.length, word.length);
+
+                while (shared < limit && previous[shared] == word[shared]) {
+                    shared++;
+                }
+            }
+
+            if (length + word.length - shared + 10 > out.length) {
+                out = Arrays.copyOf(out, Math.max(out.length * 2, length + word.length + 10));
+            }
+
+            if (i % BLOCK_SIZE != 0) {
+                length = writeVarint(out, length, shared);
+            }
+
+            length = writeVarint(out, length, word.length - shared);
+            System.arraycopy(word, shared, out, length, word.length - shared);
+            length += word.length - shared;
+        }
+
+        return Arrays.copyOf(out, length);
+    }
+
+    /**
+     * A helper method to write a varint, 7 bits to a byte with the high bit set on every byte but the last.
+     * @param out the buffer
+     * @param position the position to write at
+     * @param value the value, not negative
+     * @return the position after the varint
+     */
+    private static int writeVarint(byte[] out, int position, int value) {
+        while (value >= 0x80) {
+            out[position++] = (byte)(value | 0x80);
+            value >>>= 7;
+        }
+
+        out[position++] = (byte)value;
+        return position;
+    }
+}
@@ -0,0 +1,155 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * A class to test CompactWordStat.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class CompactWordStatTest {
+                                                                                        //CONDITION:
+    @Test
+    public void testCounts() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        CompactWordStat test = new WordStat(new String[0]).compact();
+        assertEquals(0, test.wordCount("bulbasaur"));                                   //zero words
+        assertEquals(0, test.wordPairCount("bulbasaur", "squirtle"));
+        assertEquals(0, test.uniqueWords());
+
+        test = new WordStat(new String[]{"bulbasaur", "squirtle", "bulbasaur", "squirtle", "bulbasaur"}).compact();
+        assertEquals(3, test.wordCount("bulbasaur"));                                   //>1 word
+        assertEquals(2, test.wordCount("squirtle"));
+        assertEquals(0, test.wordCount("charizard"));                                   //word is not in text
+        assertEquals(0, test.wordCount("bulba"));                                       //prefix of a word
+        assertEquals(2, test.wordPairCount("bulbasaur", "squirtle"));                   //word pair
+        assertEquals(0, test.wordPairCount("squirtle", "squirtle"));                    //word pair is not in text
+        assertEquals(2, test.uniqueWords());
+        assertEquals(2, test.uniqueWordPairs());
+
+        test = new WordStat(new String[]{"caf\u00e9", "cafe", "caf\u00e9", "\u65e5\u672c"}).compact();
+        assertEquals(2, test.wordCount("caf\u00e9"));                                  //multi-byte characters
+        assertEquals(1, test.wordCount("cafe"));
+        assertEquals(1, test.wordCount("\u65e5\u672c"));
+        assertEquals(1, test.wordPairCount("cafe", "caf\u00e9"));
+    }
+
+    @Test
+    public void testMatchesWordStat() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                            IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        /* many pairs of the same few words, so that collocations with equal counts are compared too */
+        String[] inputWords = new String[5000];
+        for(int i = 0; i < inputWords.length; i++){
+            inputWords[i] = letters((i * 7919) % 211 % (1 + i % 53), 3);
+        }
+
+        WordStat stat = new WordStat(inputWords);
+        CompactWordStat test = stat.compact();
+        String[] words = stat.mostCommonWords(test.uniqueWords());
+
+        for(String word : words){
+            assertEquals(stat.wordCount(word), test.wordCount(word));                   //every word, same count and rank
+            assertEquals(stat.wordRank(word), test.wordRank(word));
+
+            for(String second : words){
+                assertEquals(stat.wordPairCount(word, second), test.wordPairCount(word, second));   //every pair
+            }
+
+            for(int i : new int[]{-1, 1}){
+                for(int k = 1; k <= 4; k++){
+                    assertArrayEquals(TestWords.collocs(stat::mostCommonCollocs, k, word, i),
+                                        TestWords.collocs(test::mostCommonCollocs, k, word, i));   //same collocations
+                }
+            }
+        }
+
+        for(String pair : stat.mostCommonWordPairs(test.uniqueWordPairs())){
+            String[] split = pair.split(" ");
+            assertEquals(stat.wordPairRank(split[0], split[1]), test.wordPairRank(split[0], split[1]));
+        }
+    }
+
+    @Test
+    public void testFrontCoding() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                        IllegalArgumentException, InvocationTargetException{
+        String[] inputWords = new String[2000];
+        int raw = 0;
+        for(int i = 0; i < inputWords.length; i++){
+            inputWords[i] = "internationalization" + letters(i, 3);
+            raw += inputWords[i].getBytes(StandardCharsets.UTF_8).length + 1;
+        }
+
+        CompactWordStat test = new WordStat(inputWords).compact();
+        assertTrue(test.vocabularyBytes() < raw / 3);                                   //shared prefixes
+        assertTrue(test.memoryBytes() >= test.vocabularyBytes());
+
+        for(String word : inputWords){
+            assertEquals(1, test.wordCount(word));                                      //every word across blocks
+        }
+        assertEquals(0, test.wordCount("internationalization"));
+        assertEquals(0, test.wordCount("internationalizationzzzz"));
+        assertEquals(0, test.wordCount("a"));                                           //before the first word
+        assertEquals(0, test.wordCount("zzz"));                                         //after the last word
+    }
+
+    @Test
+    public void testErrors() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        CompactWordStat test = new WordStat(new String[]{"the", "knights", "who", "say", "ni"}).compact();
+
+        try{
+            test.wordRank("shrubbery");
+            fail();                                                                     //word is not in text
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.wordPairRank("the", "ni");
+            fail();                                                                     //word pair is not in text
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.mostCommonCollocs(1, "the", 2);
+            fail();                                                                     //offset is not stored
+        }
+        catch(UnsupportedOperationException e){
+        }
+        catch(kIsTooLargeException e){
+            fail();
+        }
+
+        try{
+            test.mostCommonCollocs(2, "the", 1);
+            fail();                                                                     //not enough collocations
+        }
+        catch(kIsTooLargeException e){
+        }
+
+        try{
+            test.mostCommonCollocs(1, "shrubbery", -1);
+            fail();                                                                     //word is not in text
+        }
+        catch(kIsTooLargeException e){
+        }
+    }
+
+    /**
+     * A helper method to spell a number in letters, since words keep only their letters.
+     * @return the number in base 26, a to z, padded with a to the given length
+     */
+    private static String letters(int n, int length){
+        char[] spelled = new char[length];
+        for(int i = length - 1; i >= 0; i--){
+            spelled[i] = (char)('a' + n % 26);
+            n /= 26;
+        }
+        return new String(spelled);
+    }
+}
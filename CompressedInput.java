@@ -0,0 +1,105 @@
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Opens input files, decompressing them on the fly when their first bytes show they are compressed, so that compressed
+ * text can be tokenized without first writing it back out to disk.  Gzip files, including files of several concatenated
+ * gzip members, are supported.  Zstandard files are recognised but rejected, since the JDK has no Zstandard decoder.
+ * @author Josh Hager
+ */
+public class CompressedInput {
+
+    /* the size of the buffers used to read and decompress, large enough that each read call does real work */
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final int GZIP_MAGIC = 0x1f8b;
+
+    private static final int ZSTD_MAGIC = 0x28b52ffd;
+
+    private CompressedInput() {
+    }
+
+    /**
+     * Opens a file for reading, decompressing it if it is gzip compressed.
+     * @param fileName the name of the file
+     * @return a stream of the file's uncompressed bytes
+     * @throws FileNotFoundException if the file cannot be found
+     * @throws IOException if the file cannot be read, or is compressed in an unsupported format
+     */
+    public static InputStream open(String fileName) throws FileNotFoundException, IOException {
+        return open(fileName, 1);
+    }
+
+    /**
+     * Opens a file for reading, decompressing it if it is gzip compressed.  If the file is made of gzip members that
+     * record their own compressed size, as BGZF files do, and more than one thread is allowed, the members are
+     * decompressed in parallel and handed back in order.  Other gzip files are decompressed on the calling thread.
+     * @param fileName the name of the file
+     * @param threads the largest number of threads to decompress with
+     * @return a stream of the file's uncompressed bytes
+     * @throws FileNotFoundException if the file cannot be found
+     * @throws IOException if the file cannot be read, or is compressed in an unsupported format
+     */
+    public static InputStream open(String fileName, int threads) throws FileNotFoundException, IOException {
+        BufferedInputStream input = new BufferedInputStream(new FileInputStream(fileName), BUFFER_SIZE);
+
+        try {
+            int magic = peekMagic(input);
+
+            if ((magic >>> 16) == GZIP_MAGIC) {
+                if (threads > 1 && ParallelGzipInputStream.isSplittable(fileName)) {
+                    input.close();
+                    return new ParallelGzipInputStream(fileName, threads);
+                }
+
+                return new GZIPInputStream(input, BUFFER_SIZE);
+            }
+
+            if (magic == ZSTD_MAGIC) {
+                throw new IOException(fileName + " is Zstandard compressed, which is not supported; recompress it with gzip");
+            }
+
+            return input;
+        }
+        catch (IOException e) {
+            input.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a file is compressed in a format this class recognises.
+     * @param fileName the name of the file
+     * @return true if the file starts with a gzip or Zstandard header
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isCompressed(String fileName) throws IOException {
+        try (BufferedInputStream input = new BufferedInputStream(new FileInputStream(fileName), 4)) {
+            int magic = peekMagic(input);
+            return (magic >>> 16) == GZIP_MAGIC || magic == ZSTD_MAGIC;
+        }
+    }
+
+    /**
+     * Reads the first four bytes of a stream as a big-endian int without consuming them.
+     * @param input the stream, which must support mark
+     * @return the first four bytes, with missing bytes as 0
+     * @throws IOException if the stream cannot be read
+     */
+    private static int peekMagic(BufferedInputStream input) throws IOException {
+        input.mark(4);
+        int magic = 0;
+
+        for (int i = 0; i < 4; i++) {
+            int b = input.read();
+            magic = (magic << 8) | (b == -1 ? 0 : b);
+        }
+
+        input.reset();
+        return magic;
+    }
+}
@@ -0,0 +1,169 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A class to test CompressedInput and ParallelGzipInputStream.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class CompressedInputTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final String TEXT = "The Fitnessgram Pacer Test is a multistage aerobic capacity test\n" +
+                                        "that progressively gets more difficult as it continues.\n";
+
+    /**
+     * A helper method to compress bytes as one gzip member.
+     * @param bytes the bytes to compress
+     * @return the gzip member
+     * @throws IOException if the bytes cannot be compressed
+     */
+    private static byte[] gzip(byte[] bytes) throws IOException{
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try(GZIPOutputStream gzip = new GZIPOutputStream(out)){
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A helper method to compress bytes as one BGZF block, a gzip member with a "BC" extra field holding its size.
+     * @param bytes the bytes to compress
+     * @return the BGZF block
+     */
+    private static byte[] bgzfBlock(byte[] bytes){
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(bytes);
+        deflater.finish();
+        byte[] deflated = new byte[bytes.length + 64];
+        int n = deflater.deflate(deflated);
+        deflater.end();
+
+        int size = 18 + n + 8;
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{0x1f, (byte)0x8b, 8, 4, 0, 0, 0, 0, 0, (byte)0xff, 6, 0, 'B', 'C', 2, 0,
+                                (byte)(size - 1), (byte)((size - 1) >> 8)}, 0, 18);
+        out.write(deflated, 0, n);
+        long[] trailer = new long[]{crc.getValue(), bytes.length};
+        for(long value : trailer){
+            for(int i = 0; i < 4; i++){
+                out.write((int)(value >> (8 * i)));
+            }
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * A helper method to write a file in the temporary folder.
+     * @param name the name of the file
+     * @param parts the byte arrays to write one after another
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private String write(String name, byte[]... parts) throws IOException{
+        File file = new File(folder.getRoot(), name);
+        try(FileOutputStream out = new FileOutputStream(file)){
+            for(byte[] part : parts){
+                out.write(part);
+            }
+        }
+        return file.getPath();
+    }
+
+    /**
+     * A helper method to read a stream to its end.
+     * @param input the stream
+     * @return the bytes read
+     * @throws IOException if the stream cannot be read
+     */
+    private static String readAll(InputStream input) throws IOException{
+        try(input){
+            return new String(input.readAllBytes(), "UTF-8");
+        }
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testOpen() throws IOException{
+        byte[] text = TEXT.getBytes("UTF-8");
+
+        assertEquals(TEXT, readAll(CompressedInput.open(write("plain.txt", text))));                   //uncompressed file
+        assertEquals(TEXT, readAll(CompressedInput.open(write("one.gz", gzip(text)))));                //gzip file
+        assertEquals(TEXT + TEXT, readAll(CompressedInput.open(write("two.gz", gzip(text), gzip(text)))));    //multi-member gzip
+        assertEquals("", readAll(CompressedInput.open(write("empty.txt"))));                           //empty file
+
+        assertTrue(CompressedInput.isCompressed(write("three.gz", gzip(text))));
+        assertEquals(false, CompressedInput.isCompressed(write("plain2.txt", text)));
+
+        try{
+            CompressedInput.open(write("file.zst", new byte[]{0x28, (byte)0xb5, 0x2f, (byte)0xfd, 0, 0}));
+            fail("No exception thrown when file is Zstandard compressed");
+        }
+        catch(IOException e){
+            /* correct exception was thrown */                                                          //zstd file
+        }
+    }
+
+    @Test
+    public void testParallel() throws IOException{
+        StringBuilder expected = new StringBuilder();
+        ByteArrayOutputStream blocks = new ByteArrayOutputStream();
+
+        for(int i = 0; i < 50; i++){
+            String part = i + " " + TEXT;
+            expected.append(part);
+            blocks.write(bgzfBlock(part.getBytes("UTF-8")));
+        }
+        blocks.write(bgzfBlock(new byte[0]));                                                           //BGZF end of file block
+        String file = write("blocks.gz", blocks.toByteArray());
+
+        assertTrue(ParallelGzipInputStream.isSplittable(file));
+        assertTrue(CompressedInput.open(file, 4) instanceof ParallelGzipInputStream);                   //parallel is used for BGZF
+        assertEquals(expected.toString(), readAll(CompressedInput.open(file, 4)));                     //blocks come back in order
+        assertEquals(expected.toString(), readAll(CompressedInput.open(file, 1)));                     //one thread
+
+        String plain = write("plain.gz", gzip(TEXT.getBytes("UTF-8")));
+        assertEquals(false, ParallelGzipInputStream.isSplittable(plain));
+        assertEquals(TEXT, readAll(CompressedInput.open(plain, 4)));                                   //plain gzip falls back
+
+        byte[] corrupt = blocks.toByteArray();
+        corrupt[30] ^= 0x55;
+        try{
+            readAll(CompressedInput.open(write("corrupt.gz", corrupt), 4));
+            fail("No exception thrown when block is corrupt");
+        }
+        catch(IOException e){
+            /* correct exception was thrown */                                                          //corrupt block
+        }
+    }
+
+    @Test
+    public void testTokenizer() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException{
+        String plain = write("plain.txt", TEXT.getBytes("UTF-8"));
+        String compressed = write("text.gz", gzip(TEXT.getBytes("UTF-8")), gzip(TEXT.getBytes("UTF-8")));
+
+        Tokenizer expected = new Tokenizer(plain);
+        Tokenizer test = new Tokenizer(compressed);
+        assertEquals(expected.wordList().size() * 2, test.wordList().size());                           //Tokenizer reads gzip
+        assertEquals(expected.wordList().toString(), test.wordList().subList(0, expected.wordList().size()).toString());
+
+        assertEquals(4, new WordStat(compressed).wordCount("test"));                                    //WordStat reads gzip
+    }
+}
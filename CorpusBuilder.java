@@ -0,0 +1,538 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.Charset;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Builds one WordStat from many files.  Files are cut into pieces of at most a split size, and the pieces are counted on a
+ * work-stealing ForkJoinPool: the list of pieces is halved recursively, each half counted into its own HashTables, and
+ * the two halves' tables added together when both are done.  No table is shared between threads, so no lock is taken.
+ * The word pair that crosses the border between two halves is added during the same merge, which keeps the counts equal
+ * to reading the files one after another.
+ * @author Josh Hager
+ */
+public class CorpusBuilder {
+
+    /* the largest split size; a piece is read into one byte array, so it must stay well within the range of an int */
+    static final long MAX_SPLIT_SIZE = 1L << 30;
+
+    /**
+     * Whether a word pair may be made from the last word of one file and the first word of the next.
+     */
+    public enum PairPolicy {
+
+        /** the files are treated as one text, in the order they were added */
+        SPAN_FILES,
+
+        /** each file is treated as a separate text, so no pair crosses a file boundary */
+        WITHIN_FILE
+    }
+
+    /* the files to read, in order */
+    private ArrayList<Path> files = new ArrayList<Path>();
+
+    private PairPolicy pairPolicy = PairPolicy.WITHIN_FILE;
+
+    /* files larger than this many bytes are split into pieces that are counted separately */
+    private long splitSize = 16 * 1024 * 1024;
+
+    /* the charset the files are decoded with, the same default Tokenizer uses */
+    private Charset charset = Charset.defaultCharset();
+
+    /* the number of threads to count with */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /* decides which words are counted, null to count every word */
+    private TokenFilter filter;
+
+    /**
+     * Creates a new CorpusBuilder with no files.
+     */
+    public CorpusBuilder() {
+    }
+
+    /**
+     * Adds every regular file in a directory and its subdirectories, in order of their paths.
+     * @param directory the directory
+     * @return this CorpusBuilder
+     * @throws IOException if the directory cannot be read
+     */
+    public CorpusBuilder addDirectory(String directory) throws IOException {
+        return addGlob(directory, "**");
+    }
+
+    /**
+     * Adds every regular file under a directory whose path relative to the directory matches a glob, such as "**.txt" or
+     * "logs/*.log", in order of their paths.
+     * @param directory the directory
+     * @param glob the glob pattern, in the syntax of FileSystem.getPathMatcher
+     * @return this CorpusBuilder
+     * @throws IOException if the directory cannot be read
+     */
+    public CorpusBuilder addGlob(String directory, String glob) throws IOException {
+        Path root = Paths.get(directory);
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+
+        try (Stream<Path> walk = Files.walk(root)) {
+            List<Path> matches = walk.filter(Files::isRegularFile)
+                                    .filter(path -> matcher.matches(root.relativize(path)))
+                                    .sorted()
+                                    .collect(Collectors.toList());
+            files.addAll(matches);
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds files in the order given.
+     * @param fileNames the names of the files
+     * @return this CorpusBuilder
+     */
+    public CorpusBuilder addFiles(String... fileNames) {
+        for (String fileName : fileNames) {
+            files.add(Paths.get(fileName));
+        }
+
+        return this;
+    }
+
+    /**
+     * Sets whether word pairs may cross file boundaries.  The default is WITHIN_FILE.
+     * @param pairPolicy the new pair policy
+     * @return this CorpusBuilder
+     */
+    public CorpusBuilder setPairPolicy(PairPolicy pairPolicy) {
+        this.pairPolicy = pairPolicy;
+        return this;
+    }
+
+    /**
+     * Sets the largest number of bytes counted as one piece.  Larger files are split into several pieces.  The default is 16 MB.
+     * @param splitSize the new split size, at least 1 and at most 1 GB
+     * @return this CorpusBuilder
+     * @throws IllegalArgumentException if splitSize is less than 1 or more than 1 GB
+     */
+    public CorpusBuilder setSplitSize(long splitSize) {
+        if (splitSize < 1 || splitSize > MAX_SPLIT_SIZE) {
+            throw new IllegalArgumentException("splitSize must be from 1 to " + MAX_SPLIT_SIZE);
+        }
+
+        this.splitSize = splitSize;
+        return this;
+    }
+
+    /**
+     * Sets the charset the files are decoded with.  It must encode whitespace as single ASCII bytes, as UTF-8 and the
+     * ISO-8859 charsets do.  The default is the platform charset, which is what Tokenizer uses.
+     * @param charset the new charset
+     * @return this CorpusBuilder
+     */
+    public CorpusBuilder setCharset(Charset charset) {
+        this.charset = charset;
+        return this;
+    }
+
+    /**
+     * Sets the number of threads to count with.  The default is the number of available processors.
+     * @param parallelism the new number of threads, at least 1
+     * @return this CorpusBuilder
+     * @throws IllegalArgumentException if parallelism is less than 1
+     */
+    public CorpusBuilder setParallelism(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Sets the TokenFilter that decides which words are counted.  The default is to count every word.
+     * @param filter the new filter, or null to count every word
+     * @return this CorpusBuilder
+     */
+    public CorpusBuilder setTokenFilter(TokenFilter filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    /**
+     * Gets the files that have been added, in order.
+     * @return a new list of the files
+     */
+    public List<Path> getFiles() {
+        return new ArrayList<Path>(files);
+    }
+
+    /**
+     * Counts every added file and builds a WordStat from the counts.
+     * @return the new WordStat
+     * @throws IOException if a file cannot be read
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    public WordStat build() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException {
+        BuildStats stats = BuildStats.isEnabled() ? new BuildStats() : null;
+        if (stats != null) {
+            stats.begin("countCorpus");
+        }
+
+        ArrayList<Piece> pieces = new ArrayList<Piece>();
+        long bytes = 0;
+
+        for (int f = 0; f < files.size(); f++) {
+            long length = Files.size(files.get(f));
+            bytes += length;
+
+            /* a compressed file cannot be entered part way through, so it is always one piece */
+            if (CompressedInput.isCompressed(files.get(f).toString())) {
+                pieces.add(new Piece(f, files.get(f), 0, -1, length));
+                continue;
+            }
+
+            for (long start = 0; start < length; start += splitSize) {
+                pieces.add(new Piece(f, files.get(f), start, Math.min(start + splitSize, length), length));
+            }
+        }
+
+        Counts counts;
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+        try {
+            counts = pool.invoke(new CountTask(pieces, 0, pieces.size()));
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        if (stats != null) {
+            stats.end(counts.words, bytes, counts.wordTable.size() + counts.wordPairTable.size(),
+                        counts.wordTable.getRehashCount() + counts.wordPairTable.getRehashCount());
+        }
+
+        return new WordStat(counts.wordTable, counts.wordPairTable, stats);
+    }
+
+    /**
+     * Checks whether a byte is one of the whitespace characters Tokenizer splits on, as given by
+     * Utf8TokenScanner.WHITESPACE.
+     * @param b the byte
+     * @return true if the byte is a space, line feed or carriage return
+     */
+    static boolean isWhitespace(byte b) {
+        return Utf8TokenScanner.WHITESPACE[b & 0xff];
+    }
+
+    /**
+     * A byte range of one file.  The piece owns every word that begins inside the range, including a last word that
+     * runs past the end of the range.  A piece with an end of -1 is a whole compressed file.
+     */
+    private static class Piece {
+
+        /* the position of the file in the list of files */
+        private int fileIndex;
+
+        private Path file;
+
+        private long start;
+
+        private long end;
+
+        private long fileLength;
+
+        private Piece(int fileIndex, Path file, long start, long end, long fileLength) {
+            this.fileIndex = fileIndex;
+            this.file = file;
+            this.start = start;
+            this.end = end;
+            this.fileLength = fileLength;
+        }
+    }
+
+    /**
+     * The counts of a run of consecutive pieces.
+     */
+    private static class Counts {
+
+        private HashTable wordTable = new HashTable();
+
+        private HashTable wordPairTable = new HashTable();
+
+        /* the number of words counted */
+        private long words = 0;
+
+        /* the first and last word of the run and the files they came from, null and -1 if the run has no words */
+        private String firstWord;
+        private int firstFile = -1;
+        private String lastWord;
+        private int lastFile = -1;
+
+        /* true if a word dropped by a filter in BREAK mode comes before the first word or after the last word of the run */
+        private boolean brokenAtStart = false;
+        private boolean brokenAtEnd = false;
+    }
+
+    /**
+     * Counts the pieces from one index to another, splitting the range in half until a single piece is left.
+     */
+    private class CountTask extends RecursiveTask<Counts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private ArrayList<Piece> pieces;
+
+        private int from;
+
+        private int to;
+
+        private CountTask(ArrayList<Piece> pieces, int from, int to) {
+            this.pieces = pieces;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Counts compute() {
+            if (to - from <= 1) {
+                Counts counts = new Counts();
+
+                if (to > from) {
+                    try {
+                        countPiece(pieces.get(from), counts);
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                return counts;
+            }
+
+            int middle = (from + to) >>> 1;
+            CountTask left = new CountTask(pieces, from, middle);
+            CountTask right = new CountTask(pieces, middle, to);
+
+            right.fork();
+            Counts leftCounts = left.compute();
+            Counts rightCounts = right.join();
+
+            return merge(leftCounts, rightCounts);
+        }
+    }
+
+    /**
+     * Adds the counts of a run to the counts of the run directly before it, including the word pair across their border.
+     * The larger tables are kept and the smaller ones added to them.
+     * @param left the counts of the earlier run
+     * @param right the counts of the later run
+     * @return the combined counts
+     */
+    private Counts merge(Counts left, Counts right) {
+        if (left.lastWord == null) {
+            right.brokenAtStart |= left.brokenAtStart;
+            return right;
+        }
+
+        if (right.firstWord == null) {
+            left.brokenAtEnd |= right.brokenAtStart;
+            return left;
+        }
+
+        Counts merged = left.wordTable.size() >= right.wordTable.size() ? left : right;
+        Counts other = merged == left ? right : left;
+
+        merged.wordTable.addAll(other.wordTable);
+        merged.wordPairTable.addAll(other.wordPairTable);
+        merged.words = left.words + right.words;
+
+        if ((pairPolicy == PairPolicy.SPAN_FILES || left.lastFile == right.firstFile) && !left.brokenAtEnd && !right.brokenAtStart) {
+            merged.wordPairTable.add(left.lastWord + " " + right.firstWord, 1);
+        }
+
+        merged.brokenAtStart = left.brokenAtStart;
+        merged.brokenAtEnd = right.brokenAtEnd;
+
+        merged.firstWord = left.firstWord;
+        merged.firstFile = left.firstFile;
+        merged.lastWord = right.lastWord;
+        merged.lastFile = right.lastFile;
+
+        return merged;
+    }
+
+    /**
+     * Reads the words owned by a piece and counts them.
+     * @param piece the piece to count
+     * @param counts the counts to add to
+     * @throws IOException if the file cannot be read
+     */
+    private void countPiece(Piece piece, Counts counts) throws IOException {
+        if (piece.end == -1) {
+            countCompressed(piece, counts);
+            return;
+        }
+
+        try (RandomAccessFile file = new RandomAccessFile(piece.file.toFile(), "r")) {
+            long start = piece.start;
+
+            /* a word that began in the previous piece belongs to that piece, so skip to the next whitespace */
+            if (start > 0) {
+                file.seek(start - 1);
+                byte[] one = new byte[1];
+
+                while (start < piece.end && file.read(one) == 1 && !isWhitespace(one[0])) {
+                    start++;
+                }
+            }
+
+            if (start >= piece.end) {
+                return;
+            }
+
+            byte[] buffer = new byte[(int)(piece.end - start)];
+            file.seek(start);
+            file.readFully(buffer);
+
+            int length = buffer.length;
+
+            /* the last word may run past the end of the piece, so read on until the next whitespace */
+            if (piece.end < piece.fileLength && !isWhitespace(buffer[length - 1])) {
+                int b;
+
+                while ((b = file.read()) != -1 && !isWhitespace((byte)b)) {
+                    if (length == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length + 64);
+                    }
+
+                    buffer[length++] = (byte)b;
+                }
+            }
+
+            countWords(buffer, length, piece.fileIndex, counts);
+        }
+    }
+
+    /**
+     * Decompresses a whole compressed file and counts its words, one buffer at a time.  The bytes after the last
+     * whitespace in a buffer may be the start of a word, so they are carried over to the front of the next buffer.
+     * @param piece the piece covering the file
+     * @param counts the counts to add to
+     * @throws IOException if the file cannot be read or decompressed
+     */
+    private void countCompressed(Piece piece, Counts counts) throws IOException {
+        try (InputStream input = CompressedInput.open(piece.file.toString())) {
+            byte[] buffer = new byte[CompressedInput.BUFFER_SIZE];
+            int length = 0;
+            int n;
+
+            while ((n = input.read(buffer, length, buffer.length - length)) != -1) {
+                length += n;
+                int end = length;
+
+                while (end > 0 && !isWhitespace(buffer[end - 1])) {
+                    end--;
+                }
+
+                /* a word longer than the buffer: grow the buffer rather than cut the word */
+                if (end == 0 && length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    continue;
+                }
+
+                countWords(buffer, end, piece.fileIndex, counts);
+                System.arraycopy(buffer, end, buffer, 0, length - end);
+                length -= end;
+            }
+
+            countWords(buffer, length, piece.fileIndex, counts);
+        }
+    }
+
+    /**
+     * Splits bytes into words at whitespace, normalizes them and counts the words the filter keeps.  The first word is
+     * paired with the last word already in the counts, if there is one and no dropped word broke the pair.
+     * @param buffer the bytes
+     * @param length the number of bytes to use
+     * @param fileIndex the position of the file the bytes came from
+     * @param counts the counts to add to
+     */
+    private void countWords(byte[] buffer, int length, int fileIndex, Counts counts) {
+        String previous = counts.brokenAtEnd ? null : counts.lastWord;
+        int i = 0;
+
+        while (i < length) {
+            while (i < length && isWhitespace(buffer[i])) {
+                i++;
+            }
+
+            int wordStart = i;
+
+            while (i < length && !isWhitespace(buffer[i])) {
+                i++;
+            }
+
+            if (i == wordStart) {
+                break;
+            }
+
+            String word = Tokenizer.normalize(new String(buffer, wordStart, i - wordStart, charset));
+
+            if (word.isEmpty()) {
+                continue;
+            }
+
+            if (filter != null && !filter.accept(word)) {
+                if (filter.getPairMode() == TokenFilter.PairMode.BREAK) {
+                    if (counts.firstWord == null) {
+                        counts.brokenAtStart = true;
+                    }
+                    else {
+                        counts.brokenAtEnd = true;
+                    }
+
+                    previous = null;
+                }
+                continue;
+            }
+
+            counts.wordTable.put(word, 1);
+            counts.words++;
+            counts.brokenAtEnd = false;
+
+            if (previous != null) {
+                counts.wordPairTable.put(previous + " " + word, 1);
+            }
+            else if (counts.firstWord == null) {
+                counts.firstWord = word;
+                counts.firstFile = fileIndex;
+            }
+
+            previous = word;
+            counts.lastWord = word;
+            counts.lastFile = fileIndex;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A class to test CorpusBuilder.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class CorpusBuilderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * A helper method to write a file in the temporary folder.
+     * @param name the name of the file
+     * @param text the contents of the file
+     * @return the path of the file
+     * @throws IOException if the file cannot be written
+     */
+    private String write(String name, String text) throws IOException{
+        File file = new File(folder.getRoot(), name);
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), text.getBytes("UTF-8"));
+        return file.getPath();
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testPairPolicy() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException{
+        String a = write("a.txt", "the knights who say\n");
+        String b = write("b.txt", "Ni! the knights");
+
+        WordStat test = new CorpusBuilder().addFiles(a, b).build();
+        assertEquals(2, test.wordCount("knights"));                                                     //words from every file
+        assertEquals(2, test.wordPairCount("the", "knights"));
+        assertEquals(0, test.wordPairCount("say", "ni"));                                               //WITHIN_FILE
+
+        test = new CorpusBuilder().addFiles(a, b).setPairPolicy(CorpusBuilder.PairPolicy.SPAN_FILES).build();
+        assertEquals(1, test.wordPairCount("say", "ni"));                                               //SPAN_FILES
+        assertEquals(1, test.wordRank("knights"));
+    }
+
+    @Test
+    public void testSplitting() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        StringBuilder text = new StringBuilder();
+        String[] words = new String[]{"we", "are", "the", "knights", "who", "say", "Ni", "shrubbery", "a"};
+
+        for(int i = 0; i < 500; i++){
+            text.append(words[i % words.length]).append(i % 7 == 0 ? "\n" : "  ");
+        }
+        String file = write("big.txt", text.toString());
+
+        WordStat expected = new WordStat(file);
+        for(long splitSize : new long[]{1, 3, 10, 64, 1000000}){
+            WordStat test = new CorpusBuilder().addFiles(file).setSplitSize(splitSize).setParallelism(4).build();
+
+            for(String w1 : words){
+                String word = Tokenizer.normalize(w1);
+                assertEquals(expected.wordCount(word), test.wordCount(word));                           //words are not split or lost
+                for(String w2 : words){
+                    String other = Tokenizer.normalize(w2);
+                    assertEquals(expected.wordPairCount(word, other), test.wordPairCount(word, other)); //pairs across pieces are kept
+                }
+            }
+            assertEquals(Arrays.toString(expected.mostCommonWords(3)), Arrays.toString(test.mostCommonWords(3)));
+        }
+
+        new CorpusBuilder().setSplitSize(CorpusBuilder.MAX_SPLIT_SIZE);                                 //largest split size
+        try{
+            new CorpusBuilder().setSplitSize(3L * 1024 * 1024 * 1024);
+            fail("No exception thrown when a piece would not fit in a byte array");
+        }
+        catch(IllegalArgumentException e){
+            /* correct exception was thrown */                                                          //split size too large
+        }
+    }
+
+    @Test
+    public void testControlCharacters() throws IOException, NoSuchMethodException, SecurityException, 
+                                            IllegalAccessException, IllegalArgumentException, InvocationTargetException, 
+                                            kIsTooLargeException{
+        String file = write("tabs.txt", "alpha\tbeta gamma\fdelta\u000Bepsilon\r\nzeta\tNi ni alpha\tbeta\n");
+        WordStat expected = new WordStat(file);
+        String[] words = expected.mostCommonWords(expected.view().uniqueWords());
+        String[] pairs = expected.mostCommonWordPairs(expected.view().uniqueWordPairs());
+
+        for(long splitSize : new long[]{1, 4, 1000}){
+            WordStat test = new CorpusBuilder().addFiles(file).setSplitSize(splitSize).build();
+            assertEquals(words.length, test.view().uniqueWords());
+            assertEquals(pairs.length, test.view().uniqueWordPairs());
+
+            for(String word : words){
+                assertEquals(expected.wordCount(word), test.wordCount(word));                           //tab, VT and FF do not split words
+            }
+            for(String pair : pairs){
+                String[] split = pair.split(" ");
+                assertEquals(expected.wordPairCount(split[0], split[1]), test.wordPairCount(split[0], split[1]));
+            }
+        }
+        assertEquals(2, expected.wordCount("alphabeta"));
+    }
+
+    @Test
+    public void testGlob() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                IllegalArgumentException, InvocationTargetException{
+        write("logs/one.log", "ni ni");
+        write("logs/two.txt", "ni");
+        write("logs/day/three.log", "ni");
+        write("empty.log", "");
+
+        CorpusBuilder test = new CorpusBuilder().addGlob(folder.getRoot().getPath(), "**.log");
+        assertEquals(3, test.getFiles().size());                                                        //glob matches subdirectories
+        assertEquals(3, test.build().wordCount("ni"));
+
+        test = new CorpusBuilder().addDirectory(folder.getRoot().getPath());
+        assertEquals(4, test.getFiles().size());                                                        //directory
+        assertEquals(4, test.build().wordCount("ni"));                                                  //empty file
+    }
+
+    @Test
+    public void testCompressed() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException{
+        File file = new File(folder.getRoot(), "log.gz");
+        try(GZIPOutputStream out = new GZIPOutputStream(new FileOutputStream(file))){
+            for(int i = 0; i < 20000; i++){
+                out.write("ni shrubbery ".getBytes("UTF-8"));
+            }
+        }
+
+        WordStat test = new CorpusBuilder().addFiles(file.getPath()).setSplitSize(100).build();
+        assertEquals(20000, test.wordCount("shrubbery"));                                               //compressed file is read whole
+        assertEquals(19999, test.wordPairCount("shrubbery", "ni"));                                     //pairs across buffers are kept
+    }
+
+    @Test
+    public void testTokenFilter() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException{
+        StringBuilder text = new StringBuilder();
+        String[] words = new String[]{"we", "are", "the", "knights", "who", "say", "Ni", "of", "the", "shrubbery"};
+
+        for(int i = 0; i < 300; i++){
+            text.append(words[i % words.length]).append(i % 7 == 0 ? "\n" : " ");
+        }
+        String file = write("filtered.txt", text.toString());
+
+        for(TokenFilter.PairMode mode : TokenFilter.PairMode.values()){
+            TokenFilter filter = new TokenFilter().setStopWords(StopWordSet.english()).setPairMode(mode);
+            WordStat expected = new WordStat(new Tokenizer(file, StandardCharsets.UTF_8, filter), 1);
+
+            for(long splitSize : new long[]{1, 4, 1000000}){
+                WordStat test = new CorpusBuilder().addFiles(file).setCharset(StandardCharsets.UTF_8).setSplitSize(splitSize)
+                                                    .setParallelism(4).setTokenFilter(filter).build();
+
+                assertEquals(0, test.wordCount("the"));                                                 //stop words are not counted
+                for(String w1 : words){
+                    String word = Tokenizer.normalize(w1);
+                    assertEquals(expected.wordCount(word), test.wordCount(word));
+                    for(String w2 : words){
+                        String other = Tokenizer.normalize(w2);
+                        assertEquals(mode + " " + splitSize + " " + word + " " + other, 
+                                        expected.wordPairCount(word, other), test.wordPairCount(word, other)); //same pairs as Tokenizer
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+/**
+ * Measures of how much the count of a word or word pair changed between two texts, used by WordStatDiff to rank risers
+ * and fallers.  A positive score means the word became more common, and a negative score means it became less common.
+ * @author Josh Hager
+ */
+public enum DiffMeasure {
+
+    /** the change in raw count, newer count minus older count; favours words that are common in both texts */
+    DELTA,
+
+    /** log2 of the ratio of relative frequencies, with one added to each count; favours words that were rare before */
+    RATIO,
+
+    /** Dunning's log-likelihood ratio of the two counts, signed by the direction of change; favours significant changes */
+    LOG_LIKELIHOOD
+}
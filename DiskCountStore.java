@@ -0,0 +1,934 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Counts keys on local disk, for vocabularies and word pair tables too large to count in memory.  Keys are counted in a
+ * HashTable until it reaches a memory budget, then the table is sorted and written to a run file and a new table is
+ * started.  A run never changes once written, and the count of a key is the sum of its count in the table and in every
+ * run.  When there are too many runs, a background thread merges them into one, adding the counts of equal keys, so
+ * lookups stay fast.  The runs stay in the directory, so a store can be closed and opened again.
+ *
+ * Each run file holds its keys in order of their UTF-8 bytes, each key followed by its count, with a footer holding a
+ * Bloom filter of its keys and a sparse index of every 128th key and where it starts.  Only the footers are kept in
+ * memory: looking up a key skips every run whose Bloom filter rules the key out, and in any other run reads only the
+ * block of keys between two index entries.  So the heap holds the table, about 10 bits per key for the Bloom filters,
+ * and one key in 128, however many keys the runs hold.
+ *
+ * A merged run records the runs it replaces, and is written to a temporary file and renamed before they are deleted, so
+ * a store opened after a crash during a merge counts each key once.
+ * @author Josh Hager
+ */
+public class DiskCountStore implements Closeable {
+
+    private static final int MAGIC = 0x57535255;
+
+    private static final String RUN_SUFFIX = ".run";
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /* an estimate of the heap taken by each key in the table besides its chars: the HashEntry, the String and a slot */
+    private static final int ENTRY_OVERHEAD = 96;
+
+    private Path directory;
+
+    /* the keys counted since the last flush, and an estimate of the heap they take; guarded by this */
+    private HashTable table = new HashTable();
+    private long tableBytes = 0;
+
+    /* the runs, oldest first; guarded by this */
+    private ArrayList<Run> runs = new ArrayList<Run>();
+
+    /* the sequence number of the next run written */
+    private long nextSequence = 0;
+
+    private long memoryBudget = 64L * 1024 * 1024;
+    private int indexInterval = 128;
+    private int bloomBitsPerKey = 10;
+    private int compactionThreshold = 8;
+
+    /* merges runs in the background, made the first time it is needed */
+    private ExecutorService compactor;
+    private Future<?> compaction;
+
+    /* the error a background merge failed with, thrown by the next flush or close */
+    private volatile IOException compactionError;
+
+    /* held while runs are merged, so only one merge runs at a time */
+    private final Object compactionLock = new Object();
+
+    /**
+     * Opens a DiskCountStore in a directory, creating the directory if it does not exist and reading the runs already in
+     * it.  Runs replaced by a merged run that was finished are deleted, as are unfinished merged runs.
+     * @param directory the directory to keep the runs in
+     * @throws IOException if the directory or a run cannot be read
+     */
+    public DiskCountStore(String directory) throws IOException {
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+
+        HashSet<Long> replaced = new HashSet<Long>();
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(this.directory)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    Files.delete(file);
+                }
+                else if (name.endsWith(RUN_SUFFIX)) {
+                    Run run = Run.open(file);
+                    runs.add(run);
+                    nextSequence = Math.max(nextSequence, run.sequence + 1);
+
+                    for (long sequence : run.replaces) {
+                        replaced.add(sequence);
+                    }
+                }
+            }
+        }
+
+        for (Run run : new ArrayList<Run>(runs)) {
+            if (replaced.contains(run.sequence)) {
+                runs.remove(run);
+                run.close();
+                Files.delete(run.file);
+            }
+        }
+
+        runs.sort((a, b) -> Long.compare(a.sequence, b.sequence));
+    }
+
+    /**
+     * Sets the most heap the table of keys counted since the last flush may take before it is written to a run.  The
+     * default is 64 MB.
+     * @param memoryBudget the budget in bytes, at least 1
+     * @return this DiskCountStore
+     * @throws IllegalArgumentException if memoryBudget is less than 1
+     */
+    public DiskCountStore setMemoryBudget(long memoryBudget) {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("memoryBudget must be at least 1");
+        }
+
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * Sets how many keys of a run each sparse index entry stands for, in runs written afterwards.  The default is 128.
+     * @param indexInterval the number of keys, at least 1
+     * @return this DiskCountStore
+     * @throws IllegalArgumentException if indexInterval is less than 1
+     */
+    public DiskCountStore setIndexInterval(int indexInterval) {
+        if (indexInterval < 1) {
+            throw new IllegalArgumentException("indexInterval must be at least 1");
+        }
+
+        this.indexInterval = indexInterval;
+        return this;
+    }
+
+    /**
+     * Sets the number of Bloom filter bits per key in runs written afterwards.  Each added bit makes a lookup of a key
+     * that is not in a run about 1.6 times less likely to read the run.  The default is 10, for about 1% of such lookups.
+     * @param bloomBitsPerKey the number of bits, at least 1
+     * @return this DiskCountStore
+     * @throws IllegalArgumentException if bloomBitsPerKey is less than 1
+     */
+    public DiskCountStore setBloomBitsPerKey(int bloomBitsPerKey) {
+        if (bloomBitsPerKey < 1) {
+            throw new IllegalArgumentException("bloomBitsPerKey must be at least 1");
+        }
+
+        this.bloomBitsPerKey = bloomBitsPerKey;
+        return this;
+    }
+
+    /**
+     * Sets the number of runs at which a flush starts merging every run into one in the background.  The default is 8.
+     * @param compactionThreshold the number of runs, at least 2
+     * @return this DiskCountStore
+     * @throws IllegalArgumentException if compactionThreshold is less than 2
+     */
+    public DiskCountStore setCompactionThreshold(int compactionThreshold) {
+        if (compactionThreshold < 2) {
+            throw new IllegalArgumentException("compactionThreshold must be at least 2");
+        }
+
+        this.compactionThreshold = compactionThreshold;
+        return this;
+    }
+
+    /**
+     * Adds 1 to the count of a key.
+     * @param key the key
+     * @throws IOException if the table is full and cannot be written to a run
+     */
+    public void put(String key) throws IOException {
+        add(key, 1);
+    }
+
+    /**
+     * Adds an amount to the count of a key, writing the table to a run first if it has reached the memory budget.
+     * @param key the key
+     * @param amount the amount to add
+     * @throws IOException if the table is full and cannot be written to a run
+     */
+    public synchronized void add(String key, int amount) throws IOException {
+        HashEntry entry = table.getEntry(key);
+
+        if (entry != null) {
+            entry.setValue(Math.addExact(entry.getValue(), amount));
+            return;
+        }
+
+        table.put(key, amount);
+        tableBytes += ENTRY_OVERHEAD + 2L * key.length();
+
+        if (tableBytes >= memoryBudget) {
+            flush();
+        }
+    }
+
+    /**
+     * Gets the count of a key, adding its count in the table and in every run that may hold it.
+     * @param key the key
+     * @return the count, 0 if the key has not been counted
+     * @throws IOException if a run cannot be read
+     * @throws ArithmeticException if the count does not fit in an int
+     */
+    public synchronized int count(String key) throws IOException {
+        int count = Math.max(0, table.get(key));
+        byte[] bytes = null;
+        long hash = MinimalPerfectHash.hash(key, null);
+
+        for (Run run : runs) {
+            if (run.mightContain(hash)) {
+                if (bytes == null) {
+                    bytes = key.getBytes(StandardCharsets.UTF_8);
+                }
+
+                count = Math.addExact(count, run.lookup(bytes));
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Writes the table to a new run and starts a new table.  Starts merging the runs in the background if there are as
+     * many as the compaction threshold.
+     * @throws IOException if the run cannot be written, or the last background merge failed
+     */
+    public synchronized void flush() throws IOException {
+        throwCompactionError();
+
+        if (table.size() == 0) {
+            return;
+        }
+
+        ArrayList<HashEntry> entries = table.entries();
+        byte[][] keys = new byte[entries.size()][];
+        Integer[] order = new Integer[entries.size()];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = entries.get(i).getKey().getBytes(StandardCharsets.UTF_8);
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (a, b) -> Arrays.compareUnsigned(keys[a], keys[b]));
+
+        RunWriter writer = new RunWriter(nextSequence++, keys.length, new long[0]);
+        for (int i : order) {
+            writer.write(keys[i], entries.get(i).getValue());
+        }
+
+        runs.add(writer.finish());
+        table = new HashTable();
+        tableBytes = 0;
+
+        if (runs.size() >= compactionThreshold && (compaction == null || compaction.isDone())) {
+            if (compactor == null) {
+                compactor = Executors.newSingleThreadExecutor(task -> {
+                    Thread thread = new Thread(task, "DiskCountStore compaction");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+
+            compaction = compactor.submit(() -> {
+                try {
+                    compact();
+                }
+                catch (IOException e) {
+                    compactionError = e;
+                }
+            });
+        }
+    }
+
+    /**
+     * Merges every run into one, adding the counts of equal keys.  Keys can be counted and looked up while the runs are
+     * merged; the merged run takes the place of the runs it was made from once it is written.
+     * @throws IOException if a run cannot be read or the merged run cannot be written
+     */
+    public void compact() throws IOException {
+        synchronized (compactionLock) {
+            ArrayList<Run> merging;
+
+            synchronized (this) {
+                if (runs.size() < 2) {
+                    return;
+                }
+
+                merging = new ArrayList<Run>(runs);
+            }
+
+            long[] replaces = new long[merging.size()];
+            long keys = 0;
+            long sequence;
+
+            for (int i = 0; i < replaces.length; i++) {
+                replaces[i] = merging.get(i).sequence;
+                keys += merging.get(i).keys;
+            }
+
+            synchronized (this) {
+                sequence = nextSequence++;
+            }
+
+            Run merged = merge(merging, sequence, keys, replaces);
+
+            synchronized (this) {
+                runs.removeAll(merging);
+                runs.add(0, merged);
+            }
+
+            for (Run run : merging) {
+                run.close();
+                Files.delete(run.file);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of runs.
+     * @return the number of runs
+     */
+    public synchronized int runCount() {
+        return runs.size();
+    }
+
+    /**
+     * Passes every key with its count to an action, in order of the keys' UTF-8 bytes.  The table is flushed and the
+     * runs are merged first, so each key is passed once with its whole count.
+     * @param action receives each key and its count
+     * @throws IOException if the runs cannot be written, merged or read
+     */
+    public void forEach(ObjIntConsumer<String> action) throws IOException {
+        flush();
+        waitForCompaction();
+        compact();
+
+        Run run;
+        synchronized (this) {
+            if (runs.isEmpty()) {
+                return;
+            }
+            run = runs.get(0);
+        }
+
+        try (RunReader reader = new RunReader(run)) {
+            while (reader.next()) {
+                action.accept(new String(reader.key, 0, reader.keyLength, StandardCharsets.UTF_8), reader.count);
+            }
+        }
+    }
+
+    /**
+     * Writes the table to a run, waits for a background merge to finish, and closes the run files.
+     * @throws IOException if the table cannot be written, or a background merge failed
+     */
+    @Override
+    public void close() throws IOException {
+        flush();
+        waitForCompaction();
+
+        synchronized (this) {
+            if (compactor != null) {
+                compactor.shutdown();
+            }
+
+            for (Run run : runs) {
+                run.close();
+            }
+        }
+
+        throwCompactionError();
+    }
+
+    /**
+     * A helper method to wait for a background merge to finish.
+     * @throws IOException if the wait is interrupted
+     */
+    private void waitForCompaction() throws IOException {
+        Future<?> pending;
+
+        synchronized (this) {
+            pending = compaction;
+        }
+
+        if (pending != null) {
+            try {
+                pending.get(1, TimeUnit.DAYS);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("interrupted while waiting for compaction", e);
+            }
+            catch (Exception e) {
+                throw new IOException("compaction failed", e);
+            }
+        }
+    }
+
+    /**
+     * A helper method to throw the error the last background merge failed with, once.
+     * @throws IOException the error
+     */
+    private void throwCompactionError() throws IOException {
+        IOException error = compactionError;
+
+        if (error != null) {
+            compactionError = null;
+            throw error;
+        }
+    }
+
+    /**
+     * A helper method to merge runs into one with a k-way merge of their keys.
+     * @param merging the runs
+     * @param sequence the sequence number of the merged run
+     * @param keys the most keys the merged run can hold, to size its Bloom filter
+     * @param replaces the sequence numbers of the runs
+     * @return the merged run
+     * @throws IOException if a run cannot be read or the merged run cannot be written
+     */
+    private Run merge(ArrayList<Run> merging, long sequence, long keys, long[] replaces) throws IOException {
+        PriorityQueue<RunReader> readers = new PriorityQueue<RunReader>(merging.size(), (a, b) ->
+                                            Arrays.compareUnsigned(a.key, 0, a.keyLength, b.key, 0, b.keyLength));
+        ArrayList<RunReader> opened = new ArrayList<RunReader>();
+        RunWriter writer = new RunWriter(sequence, keys, replaces);
+
+        try {
+            for (Run run : merging) {
+                RunReader reader = new RunReader(run);
+                opened.add(reader);
+
+                if (reader.next()) {
+                    readers.add(reader);
+                }
+            }
+
+            while (!readers.isEmpty()) {
+                RunReader first = readers.poll();
+                byte[] key = Arrays.copyOf(first.key, first.keyLength);
+                int count = first.count;
+
+                if (first.next()) {
+                    readers.add(first);
+                }
+
+                while (!readers.isEmpty() && Arrays.equals(readers.peek().key, 0, readers.peek().keyLength,
+                                                            key, 0, key.length)) {
+                    RunReader same = readers.poll();
+                    count = Math.addExact(count, same.count);
+
+                    if (same.next()) {
+                        readers.add(same);
+                    }
+                }
+
+                writer.write(key, count);
+            }
+
+            return writer.finish();
+        }
+        catch (IOException | RuntimeException e) {
+            writer.abandon();
+            throw e;
+        }
+        finally {
+            for (RunReader reader : opened) {
+                reader.close();
+            }
+        }
+    }
+
+    /**
+     * A helper method to write a varint, 7 bits to a byte with the high bit set on every byte but the last.
+     */
+    static void writeVarint(OutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+
+        out.write(value);
+    }
+
+    /**
+     * A helper method to read a varint from a stream.
+     * @return the value, or -1 at the end of the stream
+     */
+    static int readVarint(InputStream in) throws IOException {
+        int value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+
+            if (b == -1) {
+                if (shift == 0) {
+                    return -1;
+                }
+                throw new EOFException();
+            }
+
+            value |= (b & 0x7f) << shift;
+
+            if (b < 0x80) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * A run file that has been written: its footer, and the file open for lookups.
+     */
+    private static final class Run {
+        Path file;
+        long sequence;
+        long[] replaces;
+        long keys;
+
+        /* the position after the last key */
+        long keysEnd;
+
+        /* every indexInterval-th key, and its position */
+        byte[][] indexKeys;
+        long[] indexPositions;
+
+        long[] bloom;
+        int bloomHashes;
+
+        RandomAccessFile access;
+
+        /**
+         * Reads the footer of a run file.
+         * @param file the file
+         * @return the run
+         * @throws IOException if the file cannot be read or is not a run file
+         */
+        static Run open(Path file) throws IOException {
+            Run run = new Run();
+            run.file = file;
+            run.access = new RandomAccessFile(file.toFile(), "r");
+
+            try {
+                long length = run.access.length();
+                run.access.seek(length - 12);
+                long footer = run.access.readLong();
+
+                if (run.access.readInt() != MAGIC) {
+                    throw new IOException(file + " is not a run file");
+                }
+
+                run.access.seek(footer);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(
+                                                         new RandomAccessInput(run.access), 64 * 1024));
+
+                run.sequence = in.readLong();
+                run.keys = in.readLong();
+                run.keysEnd = in.readLong();
+                run.replaces = new long[in.readInt()];
+                for (int i = 0; i < run.replaces.length; i++) {
+                    run.replaces[i] = in.readLong();
+                }
+
+                int entries = in.readInt();
+                run.indexKeys = new byte[entries][];
+                run.indexPositions = new long[entries];
+                for (int i = 0; i < entries; i++) {
+                    run.indexKeys[i] = new byte[readVarint(in)];
+                    in.readFully(run.indexKeys[i]);
+                    run.indexPositions[i] = in.readLong();
+                }
+
+                run.bloomHashes = in.readInt();
+                run.bloom = new long[in.readInt()];
+                for (int i = 0; i < run.bloom.length; i++) {
+                    run.bloom[i] = in.readLong();
+                }
+            }
+            catch (IOException | RuntimeException e) {
+                run.access.close();
+                throw e;
+            }
+
+            return run;
+        }
+
+        /**
+         * Checks the Bloom filter for a key.
+         * @param hash the hash of the key
+         * @return false if the key is certainly not in this run
+         */
+        boolean mightContain(long hash) {
+            return bloomContains(bloom, bloomHashes, hash);
+        }
+
+        /**
+         * Finds the count of a key by reading the block of keys the sparse index puts it in.
+         * @param key the UTF-8 bytes of the key
+         * @return the count, or 0 if the key is not in this run
+         * @throws IOException if the file cannot be read
+         */
+        int lookup(byte[] key) throws IOException {
+            /* the last index entry not after the key */
+            int low = 0;
+            int high = indexKeys.length - 1;
+            int block = -1;
+
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+
+                if (Arrays.compareUnsigned(indexKeys[middle], key) <= 0) {
+                    block = middle;
+                    low = middle + 1;
+                }
+                else {
+                    high = middle - 1;
+                }
+            }
+
+            if (block == -1) {
+                return 0;
+            }
+
+            long start = indexPositions[block];
+            long end = block + 1 < indexPositions.length ? indexPositions[block + 1] : keysEnd;
+            byte[] bytes = new byte[(int)(end - start)];
+
+            access.seek(start);
+            access.readFully(bytes);
+
+            int position = 0;
+            while (position < bytes.length) {
+                int[] read = new int[1];
+                int length = readBlockVarint(bytes, position, read);
+                position = read[0];
+
+                int compare = Arrays.compareUnsigned(bytes, position, position + length, key, 0, key.length);
+                position += length;
+                int count = readBlockVarint(bytes, position, read);
+                position = read[0];
+
+                if (compare == 0) {
+                    return count;
+                }
+                if (compare > 0) {
+                    return 0;
+                }
+            }
+
+            return 0;
+        }
+
+        void close() throws IOException {
+            access.close();
+        }
+
+        /**
+         * Reads a varint from a block.
+         * @param bytes the block
+         * @param position where the varint starts
+         * @param next receives the position after the varint
+         * @return the value
+         */
+        private static int readBlockVarint(byte[] bytes, int position, int[] next) {
+            int value = 0;
+            int shift = 0;
+            byte b;
+
+            do {
+                b = bytes[position++];
+                value |= (b & 0x7f) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            next[0] = position;
+            return value;
+        }
+    }
+
+    /**
+     * Writes a run file: the keys in order, then the footer.
+     */
+    private final class RunWriter {
+        private long sequence;
+        private long[] replaces;
+        private Path temp;
+        private Path file;
+        private CountingOutputStream counter;
+        private DataOutputStream out;
+        private ArrayList<byte[]> indexKeys = new ArrayList<byte[]>();
+        private ArrayList<Long> indexPositions = new ArrayList<Long>();
+        private long keys = 0;
+        private long[] bloom;
+        private int bloomHashes;
+
+        /**
+         * Starts a run file.
+         * @param sequence the sequence number of the run
+         * @param expectedKeys the most keys that will be written, to size the Bloom filter
+         * @param replaces the sequence numbers of the runs this run replaces
+         * @throws IOException if the file cannot be created
+         */
+        RunWriter(long sequence, long expectedKeys, long[] replaces) throws IOException {
+            this.sequence = sequence;
+            this.replaces = replaces;
+            this.file = directory.resolve(String.format("%016d", sequence) + RUN_SUFFIX);
+            this.temp = directory.resolve(String.format("%016d", sequence) + TEMP_SUFFIX);
+            this.counter = new CountingOutputStream(Files.newOutputStream(temp));
+            this.out = new DataOutputStream(new BufferedOutputStream(counter, 64 * 1024));
+
+            long bits = Math.max(64, expectedKeys * bloomBitsPerKey);
+            this.bloom = new long[(int)Math.min(Integer.MAX_VALUE - 8, (bits + 63) / 64)];
+            this.bloomHashes = Math.max(1, (int)Math.round(bloomBitsPerKey * Math.log(2)));
+        }
+
+        /**
+         * Writes a key, which must come after every key written before it.
+         * @param key the UTF-8 bytes of the key
+         * @param count the count
+         * @throws IOException if the file cannot be written
+         */
+        void write(byte[] key, int count) throws IOException {
+            if (keys % indexInterval == 0) {
+                out.flush();
+                indexKeys.add(key);
+                indexPositions.add(counter.written);
+            }
+
+            writeVarint(out, key.length);
+            out.write(key);
+            writeVarint(out, count);
+            bloomAdd(bloom, bloomHashes, hashOf(key));
+            keys++;
+        }
+
+        /**
+         * Writes the footer and renames the file into place.
+         * @return the run, open for lookups
+         * @throws IOException if the file cannot be written
+         */
+        Run finish() throws IOException {
+            out.flush();
+            long keysEnd = counter.written;
+
+            out.writeLong(sequence);
+            out.writeLong(keys);
+            out.writeLong(keysEnd);
+            out.writeInt(replaces.length);
+            for (long replaced : replaces) {
+                out.writeLong(replaced);
+            }
+
+            out.writeInt(indexKeys.size());
+            for (int i = 0; i < indexKeys.size(); i++) {
+                writeVarint(out, indexKeys.get(i).length);
+                out.write(indexKeys.get(i));
+                out.writeLong(indexPositions.get(i));
+            }
+
+            out.writeInt(bloomHashes);
+            out.writeInt(bloom.length);
+            for (long word : bloom) {
+                out.writeLong(word);
+            }
+
+            out.writeLong(keysEnd);
+            out.writeInt(MAGIC);
+            out.close();
+
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+            return Run.open(file);
+        }
+
+        /**
+         * Closes and deletes an unfinished run file.
+         */
+        void abandon() {
+            try {
+                out.close();
+                Files.deleteIfExists(temp);
+            }
+            catch (IOException e) {
+                /* the file is deleted when the store is next opened */
+            }
+        }
+    }
+
+    /**
+     * Reads the keys of a run in order, from its own stream, so that lookups in the run can go on meanwhile.
+     */
+    private static final class RunReader implements Closeable {
+        private DataInputStream in;
+        private long remaining;
+
+        /* the current key, in the first keyLength bytes of key, and its count */
+        byte[] key = new byte[64];
+        int keyLength;
+        int count;
+
+        RunReader(Run run) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run.file), 64 * 1024));
+            this.remaining = run.keys;
+        }
+
+        /**
+         * Moves to the next key.
+         * @return false if there are no more keys
+         * @throws IOException if the file cannot be read
+         */
+        boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+
+            keyLength = readVarint(in);
+            if (keyLength > key.length) {
+                key = new byte[Math.max(keyLength, key.length * 2)];
+            }
+
+            in.readFully(key, 0, keyLength);
+            count = readVarint(in);
+            remaining--;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * Counts the bytes written through it, so the position of each key is known.
+     */
+    static final class CountingOutputStream extends java.io.FilterOutputStream {
+        long written = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            written++;
+        }
+
+        @Override
+        public void write(byte[] b, int offset, int length) throws IOException {
+            out.write(b, offset, length);
+            written += length;
+        }
+    }
+
+    /**
+     * Reads a RandomAccessFile from its current position.
+     */
+    private static final class RandomAccessInput extends InputStream {
+        private RandomAccessFile access;
+
+        RandomAccessInput(RandomAccessFile access) {
+            this.access = access;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return access.read();
+        }
+
+        @Override
+        public int read(byte[] b, int offset, int length) throws IOException {
+            return access.read(b, offset, length);
+        }
+    }
+
+    /**
+     * A helper method to hash the UTF-8 bytes of a key the way MinimalPerfectHash.hash hashes its String, so a key can be
+     * checked against a Bloom filter without decoding it.
+     */
+    private static long hashOf(byte[] key) {
+        return MinimalPerfectHash.hash(new String(key, StandardCharsets.UTF_8), null);
+    }
+
+    /**
+     * A helper method to set the bits of a key in a Bloom filter, found by double hashing of the two halves of its hash.
+     */
+    private static void bloomAdd(long[] bloom, int hashes, long hash) {
+        long bits = (long)bloom.length * 64;
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            bloom[(int)(bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    /**
+     * A helper method to check the bits of a key in a Bloom filter.
+     */
+    private static boolean bloomContains(long[] bloom, int hashes, long hash) {
+        long bits = (long)bloom.length * 64;
+        long h1 = hash;
+        long h2 = (hash >>> 32) | 1;
+
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+
+            if ((bloom[(int)(bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
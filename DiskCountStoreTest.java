@@ -0,0 +1,129 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A class to test DiskCountStore.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class DiskCountStoreTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+                                                                                        //CONDITION:
+    @Test
+    public void testSpills() throws IOException{
+        Path directory = folder.getRoot().toPath();
+        HashTable expected = new HashTable();
+
+        try(DiskCountStore test = new DiskCountStore(directory.toString())){
+            test.setMemoryBudget(2000).setIndexInterval(4).setCompactionThreshold(1000);
+            for(int i = 0; i < 3000; i++){
+                String key = TestWords.letters((i * 7919) % 500);
+                test.put(key);
+                expected.put(key, 1);
+            }
+            test.add("swallow", 5);
+
+            assertTrue(test.runCount() > 10);                                           //table spilled to runs
+            for(int i = 0; i < 500; i++){
+                assertEquals(expected.get(TestWords.letters(i)), test.count(TestWords.letters(i)));         //counts summed across runs
+            }
+            assertEquals(5, test.count("swallow"));                                     //only in the table
+            assertEquals(0, test.count("coconut"));                                     //never counted
+        }
+    }
+
+    @Test
+    public void testCompactAndReopen() throws IOException{
+        Path directory = folder.getRoot().toPath();
+
+        try(DiskCountStore test = new DiskCountStore(directory.toString())){
+            test.setMemoryBudget(1000).setCompactionThreshold(1000);
+            for(int i = 0; i < 2000; i++){
+                test.put(TestWords.letters(i % 300));
+            }
+            test.compact();
+            assertEquals(1, test.runCount());                                           //merged into one run
+            for(int i = 0; i < 300; i++){
+                assertTrue(test.count(TestWords.letters(i)) == 6 || test.count(TestWords.letters(i)) == 7);
+            }
+        }
+
+        Files.createFile(directory.resolve("9999999999999999.tmp"));
+
+        try(DiskCountStore test = new DiskCountStore(directory.toString())){
+            assertEquals(7, test.count(TestWords.letters(0)));                                    //counts kept after reopen
+            assertEquals(6, test.count(TestWords.letters(299)));
+            test.put(TestWords.letters(0));
+            assertEquals(8, test.count(TestWords.letters(0)));                                    //counted after reopen
+
+            int[] total = new int[1];
+            test.forEach((key, count) -> total[0] += count);
+            assertEquals(2001, total[0]);                                               //every key once
+        }
+
+        assertEquals(0, directory.toFile().list((dir, name) -> name.endsWith(".tmp")).length);  //unfinished run deleted
+    }
+
+    @Test
+    public void testBackgroundCompaction() throws IOException{
+        Path directory = folder.getRoot().toPath();
+
+        try(DiskCountStore test = new DiskCountStore(directory.toString())){
+            test.setMemoryBudget(500).setCompactionThreshold(4);
+            for(int i = 0; i < 5000; i++){
+                test.put(TestWords.letters(i % 700));
+            }
+            test.flush();
+
+            for(int i = 0; i < 700; i++){
+                assertEquals(i < 100 ? 8 : 7, test.count(TestWords.letters(i)));                  //counts while merging
+            }
+        }
+
+        try(DiskCountStore test = new DiskCountStore(directory.toString())){
+            assertTrue(test.runCount() < 5000 / 5);                                     //runs were merged
+            for(int i = 0; i < 700; i++){
+                assertEquals(i < 100 ? 8 : 7, test.count(TestWords.letters(i)));
+            }
+        }
+    }
+
+    @Test
+    public void testErrors() throws IOException{
+        Path directory = folder.getRoot().toPath();
+
+        try(DiskCountStore test = new DiskCountStore(directory.toString())){
+            try{
+                test.setMemoryBudget(0);
+                fail();                                                                 //budget too small
+            }
+            catch(IllegalArgumentException e){
+            }
+
+            try{
+                test.setCompactionThreshold(1);
+                fail();                                                                 //threshold too small
+            }
+            catch(IllegalArgumentException e){
+            }
+
+            assertEquals(0, test.count("ni"));                                          //zero keys
+        }
+
+        Files.write(directory.resolve("0000000000000000.run"), new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+        try{
+            new DiskCountStore(directory.toString());
+            fail();                                                                     //not a run file
+        }
+        catch(IOException e){
+        }
+    }
+}
@@ -0,0 +1,603 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+
+/**
+ * Ranks the keys of a DiskCountStore by count, for tables many times larger than the heap.  The keys are ranked with an
+ * external merge sort: they are read in chunks that fit the memory budget, each chunk is sorted and written to a
+ * temporary file, and the chunk files are merged, at most 64 at a time, into a rank file holding every key in order of
+ * rank.  As the rank file is written each key's rank is added to a DiskCountStore of ranks, so the rank of a key is
+ * looked up the way its count is.  So the heap holds one chunk while sorting, a buffer for each chunk file while
+ * merging, and one entry in 128 of the rank file, however many keys there are.
+ *
+ * A key with a larger count has a smaller rank, starting from 1; keys with equal counts are ranked in order of their
+ * UTF-8 bytes.  Records are written with the count as its difference from the count before it and the key as the length
+ * of the prefix it shares with the key before it and the rest of its bytes, so a run of keys with equal counts and
+ * common prefixes takes little more than their suffixes.  The ranking stays in its directory, so it can be opened again
+ * without ranking the keys again.
+ * @author Josh Hager
+ */
+public class DiskRanking implements Closeable {
+
+    private static final int MAGIC = 0x5753524b;
+
+    private static final String RANKING_FILE = "ranking";
+
+    private static final String RANKS_DIRECTORY = "ranks";
+
+    /* the most chunk files merged at once */
+    private static final int FAN_IN = 64;
+
+    /* the number of records of the rank file between entries of its sparse index */
+    private static final int INTERVAL = 128;
+
+    /* an estimate of the heap taken by each key in a chunk besides its bytes */
+    private static final int RECORD_OVERHEAD = 64;
+
+    private Path directory;
+
+    /* the number of keys ranked */
+    private long size;
+
+    /* the position in the rank file of every INTERVAL-th record, and the count of the record before it */
+    private long[] indexPositions;
+    private int[] indexCounts;
+
+    /* the rank of each key */
+    private DiskCountStore ranks;
+
+    /* the number of chunk files written, to name the next one */
+    private int chunks = 0;
+
+    /**
+     * Ranks the keys of a DiskCountStore.  The store is flushed and its runs are merged first.
+     * @param counts the counts to rank
+     * @param directory the directory to keep the ranking in, which must be empty or not exist
+     * @param memoryBudget the most heap to sort a chunk in, and to count ranks in before they are written to disk
+     * @throws IOException if the counts cannot be read or the ranking cannot be written
+     * @throws IllegalArgumentException if memoryBudget is less than 1, or the directory is not empty
+     * @throws ArithmeticException if there are more keys than ranks fit in an int
+     */
+    public DiskRanking(DiskCountStore counts, String directory, long memoryBudget) throws IOException {
+        if (memoryBudget < 1) {
+            throw new IllegalArgumentException("memoryBudget must be at least 1");
+        }
+
+        this.directory = Paths.get(directory);
+        Files.createDirectories(this.directory);
+
+        try (Stream<Path> files = Files.list(this.directory)) {
+            if (files.findAny().isPresent()) {
+                throw new IllegalArgumentException(directory + " is not empty");
+            }
+        }
+
+        ArrayList<Chunk> sorted = writeChunks(counts, memoryBudget);
+
+        while (sorted.size() > FAN_IN) {
+            ArrayList<Chunk> merged = new ArrayList<Chunk>();
+
+            for (int i = 0; i < sorted.size(); i += FAN_IN) {
+                merged.add(mergeChunks(sorted.subList(i, Math.min(sorted.size(), i + FAN_IN))));
+            }
+
+            sorted = merged;
+        }
+
+        ranks = new DiskCountStore(this.directory.resolve(RANKS_DIRECTORY).toString()).setMemoryBudget(memoryBudget);
+
+        try {
+            writeRanking(sorted);
+        }
+        catch (IOException | RuntimeException e) {
+            ranks.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a ranking written before.
+     * @param directory the directory the ranking was written to
+     * @throws IOException if the ranking cannot be read
+     */
+    public DiskRanking(String directory) throws IOException {
+        this.directory = Paths.get(directory);
+        readIndex();
+        ranks = new DiskCountStore(this.directory.resolve(RANKS_DIRECTORY).toString());
+    }
+
+    /**
+     * Gets the number of keys ranked.
+     * @return the number of keys
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Gets the rank of a key.
+     * @param key the key
+     * @return the rank, 1 for the most common key
+     * @throws IOException if the ranks cannot be read
+     * @throws NoSuchElementException if the key was not ranked
+     */
+    public int rank(String key) throws IOException {
+        int rank = ranks.count(key);
+
+        if (rank < 1) {
+            throw new NoSuchElementException("no key " + key);
+        }
+
+        return rank;
+    }
+
+    /**
+     * Gets the key at a rank, reading at most 128 records of the rank file.
+     * @param rank the rank, 1 for the most common key
+     * @return the key
+     * @throws IOException if the rank file cannot be read
+     * @throws NoSuchElementException if rank is less than 1 or more than the number of keys
+     */
+    public String keyAt(long rank) throws IOException {
+        if (rank < 1 || rank > size) {
+            throw new NoSuchElementException("no rank " + rank);
+        }
+
+        int entry = (int)((rank - 1) / INTERVAL);
+
+        try (RecordReader reader = openAt(entry)) {
+            for (long i = (long)entry * INTERVAL; i < rank; i++) {
+                reader.next();
+            }
+
+            return reader.keyString();
+        }
+    }
+
+    /**
+     * Gets the k most common keys, most common first, reading the first k records of the rank file.
+     * @param k the number of keys
+     * @return the keys
+     * @throws IOException if the rank file cannot be read
+     * @throws kIsTooLargeException if k is more than the number of keys
+     */
+    public String[] mostCommon(int k) throws IOException, kIsTooLargeException {
+        if (k > size) {
+            throw new kIsTooLargeException();
+        }
+
+        String[] keys = new String[Math.max(0, k)];
+
+        try (RecordReader reader = openAt(0)) {
+            for (int i = 0; i < keys.length; i++) {
+                reader.next();
+                keys[i] = reader.keyString();
+            }
+        }
+
+        return keys;
+    }
+
+    /**
+     * Closes the ranks.
+     * @throws IOException if the ranks cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        ranks.close();
+    }
+
+    /**
+     * A helper method to read the keys of a DiskCountStore into chunks that fit the memory budget, and write each chunk
+     * to a file in order of rank.
+     * @return the chunk files
+     */
+    private ArrayList<Chunk> writeChunks(DiskCountStore counts, long memoryBudget) throws IOException {
+        ArrayList<Chunk> written = new ArrayList<Chunk>();
+        ArrayList<byte[]> keys = new ArrayList<byte[]>();
+        ArrayList<Integer> values = new ArrayList<Integer>();
+        long[] bytes = new long[1];
+
+        try {
+            counts.forEach((key, count) -> {
+                byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+                keys.add(encoded);
+                values.add(count);
+                bytes[0] += RECORD_OVERHEAD + encoded.length;
+
+                if (bytes[0] >= memoryBudget) {
+                    try {
+                        written.add(writeChunk(keys, values));
+                    }
+                    catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+
+                    keys.clear();
+                    values.clear();
+                    bytes[0] = 0;
+                }
+            });
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        if (!keys.isEmpty() || written.isEmpty()) {
+            written.add(writeChunk(keys, values));
+        }
+
+        return written;
+    }
+
+    /**
+     * A helper method to sort a chunk of keys by rank and write it to a file.
+     * @return the chunk file
+     */
+    private Chunk writeChunk(ArrayList<byte[]> keys, ArrayList<Integer> values) throws IOException {
+        Integer[] order = new Integer[keys.size()];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (a, b) -> compare(values.get(a), keys.get(a), keys.get(a).length,
+                                             values.get(b), keys.get(b), keys.get(b).length));
+
+        Chunk chunk = newChunk();
+
+        try (RecordWriter writer = new RecordWriter(Files.newOutputStream(chunk.file))) {
+            for (int i : order) {
+                writer.write(values.get(i), keys.get(i), keys.get(i).length);
+            }
+        }
+
+        chunk.records = order.length;
+        return chunk;
+    }
+
+    /**
+     * A helper method to merge chunk files into one and delete them.
+     * @return the merged chunk file
+     */
+    private Chunk mergeChunks(java.util.List<Chunk> merging) throws IOException {
+        Chunk merged = newChunk();
+
+        try (RecordWriter writer = new RecordWriter(Files.newOutputStream(merged.file))) {
+            merge(merging, (reader) -> writer.write(reader.count, reader.key, reader.keyLength));
+        }
+
+        for (Chunk chunk : merging) {
+            merged.records += chunk.records;
+        }
+
+        return merged;
+    }
+
+    /**
+     * A helper method to merge the last chunk files into the rank file, adding the rank of each key to the ranks.
+     */
+    private void writeRanking(ArrayList<Chunk> merging) throws IOException {
+        for (Chunk chunk : merging) {
+            size += chunk.records;
+        }
+
+        if (size > Integer.MAX_VALUE) {
+            throw new ArithmeticException("too many keys to rank: " + size);
+        }
+
+        int entries = (int)((size + INTERVAL - 1) / INTERVAL);
+        indexPositions = new long[entries];
+        indexCounts = new int[entries];
+
+        DiskCountStore.CountingOutputStream counter = new DiskCountStore.CountingOutputStream(
+                                                        Files.newOutputStream(directory.resolve(RANKING_FILE)));
+        long[] rank = new long[1];
+
+        try (RecordWriter writer = new RecordWriter(counter)) {
+            writer.out.writeInt(MAGIC);
+            writer.out.writeLong(size);
+
+            merge(merging, (reader) -> {
+                if (rank[0] % INTERVAL == 0) {
+                    writer.out.flush();
+                    indexPositions[(int)(rank[0] / INTERVAL)] = counter.written;
+                    indexCounts[(int)(rank[0] / INTERVAL)] = writer.lastCount;
+                    writer.restart();
+                }
+
+                writer.write(reader.count, reader.key, reader.keyLength);
+                rank[0]++;
+                ranks.add(new String(reader.key, 0, reader.keyLength, StandardCharsets.UTF_8), (int)rank[0]);
+            });
+
+            writer.out.flush();
+            long footer = counter.written;
+
+            writer.out.writeInt(entries);
+            for (int i = 0; i < entries; i++) {
+                writer.out.writeLong(indexPositions[i]);
+                writer.out.writeInt(indexCounts[i]);
+            }
+            writer.out.writeLong(footer);
+        }
+
+        ranks.flush();
+    }
+
+    /**
+     * A helper method to read the header and sparse index of the rank file.
+     */
+    private void readIndex() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory.resolve(RANKING_FILE))) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+
+            if (in.readInt() != MAGIC) {
+                throw new IOException(directory + " does not hold a ranking");
+            }
+
+            size = in.readLong();
+
+            channel.position(channel.size() - 8);
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            channel.position(in.readLong());
+            in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+
+            int entries = in.readInt();
+            indexPositions = new long[entries];
+            indexCounts = new int[entries];
+
+            for (int i = 0; i < entries; i++) {
+                indexPositions[i] = in.readLong();
+                indexCounts[i] = in.readInt();
+            }
+        }
+    }
+
+    /**
+     * A helper method to open the rank file at an entry of its sparse index.
+     */
+    private RecordReader openAt(int entry) throws IOException {
+        FileChannel channel = FileChannel.open(directory.resolve(RANKING_FILE));
+
+        if (indexPositions.length > 0) {
+            channel.position(indexPositions[entry]);
+        }
+
+        RecordReader reader = new RecordReader(Channels.newInputStream(channel));
+        reader.lastCount = indexPositions.length > 0 ? indexCounts[entry] : 0;
+        return reader;
+    }
+
+    /**
+     * A helper method to k-way merge chunk files, passing each record in order of rank to an action, and delete them.
+     */
+    private void merge(java.util.List<Chunk> merging, RecordAction action) throws IOException {
+        PriorityQueue<RecordReader> readers = new PriorityQueue<RecordReader>(Math.max(1, merging.size()), (a, b) ->
+                                                compare(a.count, a.key, a.keyLength, b.count, b.key, b.keyLength));
+        ArrayList<RecordReader> opened = new ArrayList<RecordReader>();
+
+        try {
+            for (Chunk chunk : merging) {
+                RecordReader reader = new RecordReader(Files.newInputStream(chunk.file));
+                reader.remaining = chunk.records;
+                opened.add(reader);
+
+                if (reader.next()) {
+                    readers.add(reader);
+                }
+            }
+
+            while (!readers.isEmpty()) {
+                RecordReader first = readers.poll();
+                action.accept(first);
+
+                if (first.next()) {
+                    readers.add(first);
+                }
+            }
+        }
+        finally {
+            for (RecordReader reader : opened) {
+                reader.close();
+            }
+        }
+
+        for (Chunk chunk : merging) {
+            Files.delete(chunk.file);
+        }
+    }
+
+    /**
+     * A helper method to name a new chunk file.
+     */
+    private Chunk newChunk() {
+        Chunk chunk = new Chunk();
+        chunk.file = directory.resolve("chunk" + chunks++ + ".tmp");
+        return chunk;
+    }
+
+    /**
+     * A helper method to order two records by rank: the larger count first, then the smaller key.
+     */
+    private static int compare(int count1, byte[] key1, int length1, int count2, byte[] key2, int length2) {
+        if (count1 != count2) {
+            return count1 > count2 ? -1 : 1;
+        }
+
+        return Arrays.compareUnsigned(key1, 0, length1, key2, 0, length2);
+    }
+
+    /**
+     * A helper method to write a long as a varint.
+     */
+    private static void writeLongVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7fL) != 0) {
+            out.write((int)(value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+
+        out.write((int)value);
+    }
+
+    /**
+     * A helper method to read a long written as a varint.
+     */
+    private static long readLongVarint(InputStream in) throws IOException {
+        long value = 0;
+
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+
+            if (b == -1) {
+                throw new EOFException();
+            }
+
+            value |= (long)(b & 0x7f) << shift;
+
+            if (b < 0x80) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * A chunk file and the number of records in it.
+     */
+    private static final class Chunk {
+        Path file;
+        long records;
+    }
+
+    /**
+     * Receives the records of a merge.
+     */
+    private interface RecordAction {
+        void accept(RecordReader reader) throws IOException;
+    }
+
+    /**
+     * Writes records in order of rank, each count as its difference from the count before it and each key as the
+     * length of the prefix it shares with the key before it, then the rest of its bytes.
+     */
+    private static final class RecordWriter implements Closeable {
+        DataOutputStream out;
+        int lastCount = Integer.MAX_VALUE;
+        private byte[] lastKey = new byte[0];
+        private int lastLength = 0;
+
+        RecordWriter(OutputStream out) {
+            this.out = new DataOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        }
+
+        /**
+         * Makes the next record share no prefix with the key before it, so it can be read without it.
+         */
+        void restart() {
+            lastLength = 0;
+        }
+
+        void write(int count, byte[] key, int length) throws IOException {
+            int shared = 0;
+            int most = Math.min(length, lastLength);
+
+            while (shared < most && key[shared] == lastKey[shared]) {
+                shared++;
+            }
+
+            writeLongVarint(out, (long)lastCount - count);
+            DiskCountStore.writeVarint(out, shared);
+            DiskCountStore.writeVarint(out, length - shared);
+            out.write(key, shared, length - shared);
+
+            if (lastKey.length < length) {
+                lastKey = Arrays.copyOf(lastKey, Math.max(length, lastKey.length * 2));
+            }
+
+            System.arraycopy(key, shared, lastKey, shared, length - shared);
+            lastLength = length;
+            lastCount = count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Reads records written by a RecordWriter.
+     */
+    private static final class RecordReader implements Closeable {
+        private DataInputStream in;
+
+        /* the number of records left, or -1 if it is not known */
+        long remaining = -1;
+
+        /* the current key, in the first keyLength bytes of key, and its count */
+        byte[] key = new byte[64];
+        int keyLength;
+        int count;
+        int lastCount = Integer.MAX_VALUE;
+
+        RecordReader(InputStream in) {
+            this.in = new DataInputStream(new BufferedInputStream(in, 16 * 1024));
+        }
+
+        /**
+         * Moves to the next record.
+         * @return false if there are no more records
+         * @throws IOException if the file cannot be read
+         */
+        boolean next() throws IOException {
+            if (remaining == 0) {
+                return false;
+            }
+
+            count = (int)(lastCount - readLongVarint(in));
+            int shared = DiskCountStore.readVarint(in);
+            int suffix = DiskCountStore.readVarint(in);
+
+            if (shared + suffix > key.length) {
+                key = Arrays.copyOf(key, Math.max(shared + suffix, key.length * 2));
+            }
+
+            in.readFully(key, shared, suffix);
+            keyLength = shared + suffix;
+            lastCount = count;
+
+            if (remaining > 0) {
+                remaining--;
+            }
+
+            return true;
+        }
+
+        String keyString() {
+            return new String(key, 0, keyLength, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
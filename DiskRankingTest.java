@@ -0,0 +1,133 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+
+/**
+ * A class to test DiskRanking.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class DiskRankingTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+                                                                                        //CONDITION:
+    @Test
+    public void testExternalSort() throws IOException, kIsTooLargeException{
+        Path directory = folder.getRoot().toPath();
+        ArrayList<String> expected = new ArrayList<String>();
+
+        try(DiskCountStore counts = new DiskCountStore(directory.resolve("counts").toString())){
+            counts.setMemoryBudget(4000);
+            for(int i = 0; i < 5000; i++){
+                counts.add(TestWords.letters(i), count(i));
+                expected.add(TestWords.letters(i));
+            }
+            expected.sort((a, b) -> count(index(a)) != count(index(b)) ? count(index(b)) - count(index(a))
+                                                                        : a.compareTo(b));
+
+            try(DiskRanking test = new DiskRanking(counts, directory.resolve("ranks").toString(), 4000)){
+                assertEquals(5000, test.size());
+                for(int rank = 1; rank <= 5000; rank++){
+                    assertEquals(rank, test.rank(expected.get(rank - 1)));              //merged across many chunks
+                }
+                for(int rank = 1; rank <= 5000; rank += 37){
+                    assertEquals(expected.get(rank - 1), test.keyAt(rank));             //key at a rank
+                }
+                assertEquals(expected.get(4999), test.keyAt(5000));                     //least common key
+                assertArrayEquals(expected.subList(0, 50).toArray(new String[0]), test.mostCommon(50));
+            }
+        }
+
+        try(DiskRanking test = new DiskRanking(directory.resolve("ranks").toString())){
+            assertEquals(5000, test.size());                                            //kept after reopen
+            assertEquals(1234, test.rank(expected.get(1233)));
+            assertEquals(expected.get(128), test.keyAt(129));                           //start of an index entry
+        }
+        assertEquals(0, directory.resolve("ranks").toFile().list((dir, name) -> name.endsWith(".tmp")).length);
+    }
+
+    @Test
+    public void testRankWordPairs() throws IOException, kIsTooLargeException{
+        Path directory = folder.getRoot().toPath();
+
+        try(DiskWordStat stat = new DiskWordStat(directory.resolve("counts").toString())){
+            stat.setMemoryBudget(300);
+            stat.addWords("the", "african", "swallow", "the", "african", "swallow", "the", "coconut");
+
+            try(DiskRanking test = stat.rankWordPairs(directory.resolve("pairs").toString())){
+                assertArrayEquals(new String[]{"african swallow", "swallow the", "the african", "the coconut"},
+                                    test.mostCommon(4));                                //ties in order of their bytes
+                assertEquals(3, test.rank("the african"));
+            }
+
+            try(DiskRanking test = stat.rankWords(directory.resolve("words").toString())){
+                assertEquals("the", test.keyAt(1));
+                assertEquals(4, test.size());
+            }
+        }
+    }
+
+    @Test
+    public void testErrors() throws IOException{
+        Path directory = folder.getRoot().toPath();
+
+        try(DiskCountStore counts = new DiskCountStore(directory.resolve("counts").toString())){
+            try(DiskRanking test = new DiskRanking(counts, directory.resolve("ranks").toString(), 1000)){
+                assertEquals(0, test.size());                                           //zero keys
+
+                try{
+                    test.rank("ni");
+                    fail();                                                             //key not ranked
+                }
+                catch(NoSuchElementException e){
+                }
+
+                try{
+                    test.keyAt(1);
+                    fail();                                                             //rank too large
+                }
+                catch(NoSuchElementException e){
+                }
+
+                try{
+                    test.mostCommon(1);
+                    fail();                                                             //k is too large
+                }
+                catch(kIsTooLargeException e){
+                }
+            }
+
+            try{
+                new DiskRanking(counts, directory.resolve("ranks").toString(), 1000);
+                fail();                                                                 //directory not empty
+            }
+            catch(IllegalArgumentException e){
+            }
+        }
+    }
+
+    /**
+     * A helper method to give many keys equal counts.
+     */
+    private static int count(int i){
+        return (i * 31) % 97 + 1;
+    }
+
+    /**
+     * A helper method to find the number spelled by TestWords.letters.
+     */
+    private static int index(String word){
+        int n = 0;
+        for(int i = word.length() - 1; i >= 0; i--){
+            n = n * 26 + (word.charAt(i) - 'a');
+        }
+        return n;
+    }
+}
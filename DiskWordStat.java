@@ -0,0 +1,216 @@
+import java.io.Closeable;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+
+/**
+ * Counts the words and word pairs of corpora whose vocabulary and word pair tables are too large to count in memory.
+ * The counts are kept in two DiskCountStores in a directory, one for words and one for word pairs, so the heap holds
+ * only the keys counted since the last flush, up to the memory budget, and the footers of the run files.  The counts
+ * stay in the directory, so a DiskWordStat opened again on the same directory goes on from where it was closed.
+ *
+ * Files are read as UTF-8 and split and normalized by a Utf8TokenScanner, which splits words where Tokenizer's Reader
+ * path does, so the counts of a file are the same as those of a WordStat of new Tokenizer(file, UTF_8), and of new
+ * WordStat(file) when the file is ASCII or the platform charset is UTF-8.  Word pairs do not cross from one file, or
+ * one call to addWords, to the next.
+ * @author Josh Hager
+ */
+public class DiskWordStat implements Closeable {
+
+    private DiskCountStore words;
+
+    private DiskCountStore wordPairs;
+
+    /* the most heap each table may take before it is written to disk */
+    private long memoryBudget = 64L * 1024 * 1024;
+
+    /* the last word counted, which makes a pair with the next */
+    private String lastWord;
+
+    /**
+     * Opens a DiskWordStat in a directory, creating it if it does not exist.
+     * @param directory the directory to keep the counts in
+     * @throws IOException if the directory or the counts in it cannot be read
+     */
+    public DiskWordStat(String directory) throws IOException {
+        this.words = new DiskCountStore(Paths.get(directory, "words").toString());
+
+        try {
+            this.wordPairs = new DiskCountStore(Paths.get(directory, "pairs").toString());
+        }
+        catch (IOException e) {
+            words.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the most heap each of the word and word pair tables may take before it is written to disk.
+     * @param memoryBudget the budget in bytes, at least 1
+     * @return this DiskWordStat
+     * @throws IllegalArgumentException if memoryBudget is less than 1
+     */
+    public DiskWordStat setMemoryBudget(long memoryBudget) {
+        words.setMemoryBudget(memoryBudget);
+        wordPairs.setMemoryBudget(memoryBudget);
+        this.memoryBudget = memoryBudget;
+        return this;
+    }
+
+    /**
+     * Counts the words and word pairs of a file, which may be gzip compressed.
+     * @param fileName the path of the file
+     * @throws FileNotFoundException if the file does not exist
+     * @throws IOException if the file cannot be read or the counts cannot be written
+     */
+    public synchronized void addFile(String fileName) throws FileNotFoundException, IOException {
+        Utf8TokenScanner scanner = new Utf8TokenScanner();
+        byte[] buffer = new byte[64 * 1024];
+        lastWord = null;
+
+        try (InputStream in = CompressedInput.open(fileName)) {
+            int read;
+
+            while ((read = in.read(buffer)) != -1) {
+                scanner.scan(buffer, 0, read, this::count);
+            }
+
+            scanner.finish(this::count);
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Counts words given as Strings, normalizing each with Tokenizer.normalize and skipping those left empty.
+     * @param words the words, in order
+     * @throws IOException if the counts cannot be written
+     */
+    public synchronized void addWords(String... words) throws IOException {
+        lastWord = null;
+
+        try {
+            for (String word : words) {
+                String normalized = Tokenizer.normalize(word);
+
+                if (!normalized.isEmpty()) {
+                    count(normalized);
+                }
+            }
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Gets the number of times a word was counted.
+     * @param word the word
+     * @return the count, 0 if the word was not counted
+     * @throws IOException if the counts cannot be read
+     */
+    public int wordCount(String word) throws IOException {
+        return words.count(word);
+    }
+
+    /**
+     * Gets the number of times a word pair was counted.
+     * @param first the first word of the pair
+     * @param second the second word of the pair
+     * @return the count, 0 if the pair was not counted
+     * @throws IOException if the counts cannot be read
+     */
+    public int wordPairCount(String first, String second) throws IOException {
+        return wordPairs.count(first + " " + second);
+    }
+
+    /**
+     * Writes the counts in memory to disk.
+     * @throws IOException if the counts cannot be written
+     */
+    public void flush() throws IOException {
+        words.flush();
+        wordPairs.flush();
+    }
+
+    /**
+     * Merges the runs of words and of word pairs, so each is one run.
+     * @throws IOException if the runs cannot be merged
+     */
+    public void compact() throws IOException {
+        words.compact();
+        wordPairs.compact();
+    }
+
+    /**
+     * Ranks the words by count on disk, within the memory budget.
+     * @param directory the directory to keep the ranking in, which must be empty or not exist
+     * @return the ranking, which the caller closes
+     * @throws IOException if the counts cannot be read or the ranking cannot be written
+     */
+    public DiskRanking rankWords(String directory) throws IOException {
+        return new DiskRanking(words, directory, memoryBudget);
+    }
+
+    /**
+     * Ranks the word pairs by count on disk, within the memory budget.  Each pair is ranked as its two words joined by a
+     * space.
+     * @param directory the directory to keep the ranking in, which must be empty or not exist
+     * @return the ranking, which the caller closes
+     * @throws IOException if the counts cannot be read or the ranking cannot be written
+     */
+    public DiskRanking rankWordPairs(String directory) throws IOException {
+        return new DiskRanking(wordPairs, directory, memoryBudget);
+    }
+
+    /**
+     * Gets the DiskCountStore of the word counts.
+     * @return the word counts
+     */
+    public DiskCountStore words() {
+        return words;
+    }
+
+    /**
+     * Gets the DiskCountStore of the word pair counts, keyed by the two words joined by a space.
+     * @return the word pair counts
+     */
+    public DiskCountStore wordPairs() {
+        return wordPairs;
+    }
+
+    /**
+     * Writes the counts in memory to disk and closes the stores.
+     * @throws IOException if the counts cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            words.close();
+        }
+        finally {
+            wordPairs.close();
+        }
+    }
+
+    /**
+     * A helper method to count a word, and the pair it makes with the word before it.
+     */
+    private void count(String word) {
+        try {
+            words.put(word);
+
+            if (lastWord != null) {
+                wordPairs.put(lastWord + " " + word);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        lastWord = word;
+    }
+}
@@ -0,0 +1,94 @@
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * A class to test DiskWordStat.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class DiskWordStatTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // get the current path of this .java file, **MAKE SURE .TXT FILES ARE IN SAME FOLDER**
+    public String path = this.getClass().getClassLoader().getResource("").getPath();
+                                                                                        //CONDITION:
+    @Test
+    public void testMatchesWordStat() throws FileNotFoundException, IOException, NoSuchMethodException,
+                                            SecurityException, IllegalAccessException, IllegalArgumentException,
+                                            InvocationTargetException, kIsTooLargeException{
+        Path directory = folder.getRoot().toPath();
+        WordStat stat = new WordStat(path + "\\Collocs.txt");
+        String[] words = stat.mostCommonWords(stat.view().uniqueWords());
+        String[] pairs = stat.mostCommonWordPairs(stat.view().uniqueWordPairs());
+
+        try(DiskWordStat test = new DiskWordStat(directory.toString())){
+            test.setMemoryBudget(200);
+            test.addFile(path + "\\Collocs.txt");
+
+            assertTrue(test.words().runCount() > 1);                                    //counts spilled to disk
+            for(String word : words){
+                assertEquals(stat.wordCount(word), test.wordCount(word));               //every word
+            }
+            for(String pair : pairs){
+                String[] split = pair.split(" ");
+                assertEquals(stat.wordPairCount(split[0], split[1]), test.wordPairCount(split[0], split[1]));
+            }
+            assertEquals(0, test.wordCount("coconut"));                                 //word not in file
+        }
+
+        try(DiskWordStat test = new DiskWordStat(directory.toString())){
+            test.compact();
+            for(String word : words){
+                assertEquals(stat.wordCount(word), test.wordCount(word));               //counts kept after reopen
+            }
+        }
+    }
+
+    @Test
+    public void testControlCharacters() throws IOException, NoSuchMethodException, SecurityException,
+                                            IllegalAccessException, IllegalArgumentException,
+                                            InvocationTargetException, kIsTooLargeException{
+        Path directory = folder.getRoot().toPath();
+        Path file = directory.resolve("tabs.txt");
+        Files.write(file, "alpha\tbeta gamma\fdelta\u000Bepsilon\r\nzeta\tNi ni alpha\tbeta\n".getBytes("UTF-8"));
+        WordStat stat = new WordStat(file.toString());
+
+        try(DiskWordStat test = new DiskWordStat(directory.resolve("counts").toString())){
+            test.addFile(file.toString());
+
+            for(String word : stat.mostCommonWords(stat.view().uniqueWords())){
+                assertEquals(stat.wordCount(word), test.wordCount(word));               //tab, VT and FF do not split words
+            }
+            for(String pair : stat.mostCommonWordPairs(stat.view().uniqueWordPairs())){
+                String[] split = pair.split(" ");
+                assertEquals(stat.wordPairCount(split[0], split[1]), test.wordPairCount(split[0], split[1]));
+            }
+            assertEquals(2, test.wordCount("alphabeta"));
+            assertEquals(0, test.wordCount("alpha"));
+        }
+    }
+
+    @Test
+    public void testAddWords() throws IOException{
+        Path directory = folder.getRoot().toPath();
+
+        try(DiskWordStat test = new DiskWordStat(directory.toString())){
+            test.addWords("Swallow", "african", "swallow!", "42");
+            test.addWords("swallow", "african");
+
+            assertEquals(3, test.wordCount("swallow"));                                 //normalized words
+            assertEquals(0, test.wordCount("42"));                                      //empty after normalizing
+            assertEquals(2, test.wordPairCount("swallow", "african"));
+            assertEquals(0, test.wordPairCount("swallow", "swallow"));                  //pairs do not cross calls
+        }
+    }
+}
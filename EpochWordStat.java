@@ -0,0 +1,575 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Word and word pair statistics that keep changing while they are queried.  Writers add words into a delta, and publish
+ * merges the delta into a new Epoch: an immutable copy of the counts, ranks and hash index that readers get with one
+ * volatile read.  A reader never takes a lock and sees every query of one Epoch answered from the same counts, however
+ * many words are added meanwhile; a writer only waits for another writer or for publish to swap out the delta, never for
+ * a reader.
+ *
+ * Counts only grow, so a changed word can only move up the ranking.  Publish sorts only the changed entries and merges
+ * them into the previous Epoch's ranking: the entries ranked above every changed entry, and the entries ranked below every
+ * changed entry when no new word is added, are copied as they are, and only the positions of the entries between them are
+ * recomputed in the hash index.  Words with equal counts are ranked in order of their Strings.
+ * @author Josh Hager
+ */
+public class EpochWordStat {
+
+    /**
+     * One published version of the statistics.  An Epoch is never changed, so it can be queried from any thread.
+     */
+    public static final class Epoch {
+
+        /* the number of times publish had merged a delta when this Epoch was made, starting at 0 */
+        private final long number;
+
+        /* the number of words added up to this Epoch */
+        private final long words;
+
+        private final Ranking wordRanking;
+        private final Ranking pairRanking;
+
+        /**
+         * Creates a new Epoch.
+         * @param number the number of the Epoch
+         * @param words the number of words added up to it
+         * @param wordRanking the words, by rank
+         * @param pairRanking the word pairs ("word1 word2"), by rank
+         */
+        private Epoch(long number, long words, Ranking wordRanking, Ranking pairRanking) {
+            this.number = number;
+            this.words = words;
+            this.wordRanking = wordRanking;
+            this.pairRanking = pairRanking;
+        }
+
+        /**
+         * Gets the number of this Epoch, which grows by 1 each time a delta is published.
+         * @return the number
+         */
+        public long getNumber() {
+            return number;
+        }
+
+        /**
+         * Gets the number of words added up to this Epoch.
+         * @return the number of words
+         */
+        public long totalWords() {
+            return words;
+        }
+
+        /**
+         * Gets the word count of a specified word.
+         * @param word the word to get the count of
+         * @return the count of that word
+         */
+        public int wordCount(String word) {
+            return wordRanking.count(word);
+        }
+
+        /**
+         * Gets the count of a specified word pair.
+         * @param w1 the first word in the pair
+         * @param w2 the second word in the pair
+         * @return the count of the word pair
+         */
+        public int wordPairCount(String w1, String w2) {
+            return pairRanking.count(w1 + " " + w2);
+        }
+
+        /**
+         * Gets the rank of the specified word, where 1 is the rank of the most common word.
+         * @param word the word to get the rank of
+         * @return the rank of the word
+         * @throws NoSuchElementException if the word is not in the text
+         */
+        public int wordRank(String word) throws NoSuchElementException {
+            return wordRanking.rank(word);
+        }
+
+        /**
+         * Gets the rank of the specified word pair, where 1 is the rank of the most common word pair.
+         * @param w1 the first word in the word pair
+         * @param w2 the second word in the word pair
+         * @return the rank of the word pair
+         * @throws NoSuchElementException if the word pair is not in the text
+         */
+        public int wordPairRank(String w1, String w2) throws NoSuchElementException {
+            return pairRanking.rank(w1 + " " + w2);
+        }
+
+        /**
+         * Returns the k most common words, in decreasing order of their count.
+         * @param k the number of words to retrieve
+         * @return a String[] containing the k most common words
+         * @throws kIsTooLargeException if k exceeds the number of distinct words
+         */
+        public String[] mostCommonWords(int k) throws kIsTooLargeException {
+            return wordRanking.top(k);
+        }
+
+        /**
+         * Returns the k least common words, in increasing order of their count.
+         * @param k the number of words to retrieve
+         * @return a String[] containing the k least common words
+         * @throws kIsTooLargeException if k exceeds the number of distinct words
+         */
+        public String[] leastCommonWords(int k) throws kIsTooLargeException {
+            return wordRanking.bottom(k);
+        }
+
+        /**
+         * Returns the k most common word pairs, in decreasing order of their count.
+         * @param k the number of word pairs to retrieve
+         * @return a String[] containing the k most common word pairs ("word1 word2")
+         * @throws kIsTooLargeException if k exceeds the number of distinct word pairs
+         */
+        public String[] mostCommonWordPairs(int k) throws kIsTooLargeException {
+            return pairRanking.top(k);
+        }
+
+        /**
+         * Gets the number of distinct words.
+         * @return the number of distinct words
+         */
+        public int uniqueWords() {
+            return wordRanking.size();
+        }
+
+        /**
+         * Gets the number of distinct word pairs.
+         * @return the number of distinct word pairs
+         */
+        public int uniqueWordPairs() {
+            return pairRanking.size();
+        }
+    }
+
+    /* the latest published Epoch */
+    private volatile Epoch current = new Epoch(0, 0, Ranking.EMPTY, Ranking.EMPTY);
+
+    /* the words and word pairs added since the last publish, and the number of words; guarded by deltaLock */
+    private HashTable wordDelta = new HashTable();
+    private HashTable pairDelta = new HashTable();
+    private long deltaWords = 0;
+    private final Object deltaLock = new Object();
+
+    /* held while a delta is merged, so two publishes do not both build on the same Epoch */
+    private final Object publishLock = new Object();
+
+    /* caches the results of mostCommonWords, keyed on the Epoch number; null unless enableQueryCache has been called */
+    private volatile QueryCache queryCache;
+
+    /**
+     * Creates a new EpochWordStat with no words.
+     */
+    public EpochWordStat() {
+    }
+
+    /**
+     * Adds a sequence of words, and the word pairs between them, to the delta.  The words are normalized as Tokenizer
+     * normalizes the words of a String array.  Each call is a separate sequence, so no pair is made from the last word of
+     * one call and the first word of the next.  The words are not seen by readers until the next publish.
+     * @param inputWords the words
+     */
+    public void addWords(String... inputWords) {
+        Tokenizer t = new Tokenizer(inputWords);
+        ArrayList<String> words = t.wordList();
+
+        synchronized (deltaLock) {
+            for (int i = 0; i < words.size(); i++) {
+                wordDelta.put(words.get(i), 1);
+
+                if (i > 0) {
+                    pairDelta.put(words.get(i - 1) + " " + words.get(i), 1);
+                }
+            }
+
+            deltaWords += words.size();
+        }
+    }
+
+    /**
+     * Merges the delta into a new Epoch and makes it the current one.  Words added while the merge runs go into the next
+     * delta.  If nothing has been added since the last publish, the current Epoch is kept.
+     * @return the current Epoch after publishing
+     */
+    public Epoch publish() {
+        synchronized (publishLock) {
+            HashTable words;
+            HashTable pairs;
+            long added;
+
+            synchronized (deltaLock) {
+                if (deltaWords == 0) {
+                    return current;
+                }
+
+                words = wordDelta;
+                pairs = pairDelta;
+                added = deltaWords;
+                wordDelta = new HashTable();
+                pairDelta = new HashTable();
+                deltaWords = 0;
+            }
+
+            Epoch previous = current;
+            current = new Epoch(previous.number + 1, previous.words + added,
+                                previous.wordRanking.merge(words), previous.pairRanking.merge(pairs));
+            return current;
+        }
+    }
+
+    /**
+     * Publishes at a fixed rate on a ScheduledExecutorService, until the returned future is cancelled.
+     * @param executor the executor to publish on
+     * @param period the time between publishes
+     * @param unit the unit of period
+     * @return the future of the scheduled publishes
+     */
+    public ScheduledFuture<?> publishEvery(ScheduledExecutorService executor, long period, TimeUnit unit) {
+        return executor.scheduleAtFixedRate(this::publish, period, period, unit);
+    }
+
+    /**
+     * Gets the latest published Epoch.  Every query on the Epoch is answered from the same counts, so a reader that makes
+     * several queries should get the Epoch once and query it rather than this EpochWordStat.
+     * @return the current Epoch
+     */
+    public Epoch snapshot() {
+        return current;
+    }
+
+    /**
+     * Gets the word count of a specified word in the current Epoch.
+     * @param word the word to get the count of
+     * @return the count of that word
+     */
+    public int wordCount(String word) {
+        return current.wordCount(word);
+    }
+
+    /**
+     * Gets the rank of the specified word in the current Epoch.
+     * @param word the word to get the rank of
+     * @return the rank of the word
+     * @throws NoSuchElementException if the word is not in the text
+     */
+    public int wordRank(String word) throws NoSuchElementException {
+        return current.wordRank(word);
+    }
+
+    /**
+     * Returns the k most common words in the current Epoch.
+     * @param k the number of words to retrieve
+     * @return a String[] containing the k most common words
+     * @throws kIsTooLargeException if k exceeds the number of distinct words
+     */
+    public String[] mostCommonWords(int k) throws kIsTooLargeException {
+        Epoch epoch = current;
+        QueryCache cache = queryCache;
+
+        if (cache != null) {
+            return cache.get("mostCommonWords", k, "", 0, epoch.getNumber(), epoch::mostCommonWords);
+        }
+
+        return epoch.mostCommonWords(k);
+    }
+
+    /**
+     * Puts a bounded cache in front of mostCommonWords.  Each result is cached under the number of the Epoch it was
+     * computed from, and the cache is cleared the first time a query is made on a newer Epoch, so a publish never leaves a
+     * stale result behind.
+     * @param capacity the maximum number of results to cache
+     * @return the new QueryCache, which can be used to read the hit and miss counts
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public QueryCache enableQueryCache(int capacity) {
+        QueryCache cache = new QueryCache(capacity);
+        queryCache = cache;
+        return cache;
+    }
+
+    /**
+     * Removes the query cache, if there is one.
+     */
+    public void disableQueryCache() {
+        queryCache = null;
+    }
+
+    /**
+     * Keys with counts in order of rank, and an open-addressing hash index from each key to its position.  A Ranking is
+     * never changed; merge makes a new one.
+     */
+    private static final class Ranking {
+
+        static final Ranking EMPTY = new Ranking(new String[0], new int[0], new int[16]);
+
+        /* the keys and their counts, the most common first */
+        private final String[] keys;
+        private final int[] counts;
+
+        /* for each slot, 1 + the position of the key hashed there, or 0 if the slot is empty; a power of 2 long */
+        private final int[] slots;
+
+        /**
+         * Creates a new Ranking.
+         * @param keys the keys, in order of rank
+         * @param counts the counts of the keys
+         * @param slots the hash index of the keys
+         */
+        private Ranking(String[] keys, int[] counts, int[] slots) {
+            this.keys = keys;
+            this.counts = counts;
+            this.slots = slots;
+        }
+
+        int size() {
+            return keys.length;
+        }
+
+        int count(String key) {
+            int position = positionOf(key);
+            return position == -1 ? 0 : counts[position];
+        }
+
+        int rank(String key) throws NoSuchElementException {
+            int position = positionOf(key);
+
+            if (position == -1) {
+                throw new NoSuchElementException();
+            }
+
+            return position + 1;
+        }
+
+        String[] top(int k) throws kIsTooLargeException {
+            if (k > keys.length) {
+                throw new kIsTooLargeException();
+            }
+
+            return Arrays.copyOf(keys, k);
+        }
+
+        String[] bottom(int k) throws kIsTooLargeException {
+            if (k > keys.length) {
+                throw new kIsTooLargeException();
+            }
+
+            String[] bottom = new String[k];
+            for (int i = 0; i < k; i++) {
+                bottom[i] = keys[keys.length - 1 - i];
+            }
+
+            return bottom;
+        }
+
+        /**
+         * Finds the position of a key.
+         * @param key the key
+         * @return its position, or -1 if it is not in this Ranking
+         */
+        int positionOf(String key) {
+            int slot = findSlot(slots, keys, key);
+            return slots[slot] - 1;
+        }
+
+        /**
+         * Makes a new Ranking with the counts of a delta added.  The changed keys are sorted by their new counts and
+         * merged with the unchanged keys between the first position a changed key can move to and the last position a
+         * changed key held; the keys outside that region keep their positions.
+         * @param delta the keys and the amounts to add to their counts
+         * @return the new Ranking
+         */
+        Ranking merge(HashTable delta) {
+            ArrayList<HashEntry> entries = delta.entries();
+            int changed = entries.size();
+
+            if (changed == 0) {
+                return this;
+            }
+
+            String[] changedKeys = new String[changed];
+            int[] changedCounts = new int[changed];
+            int[] oldPositions = new int[changed];
+            int added = 0;
+            int lastOld = -1;
+
+            for (int j = 0; j < changed; j++) {
+                HashEntry entry = entries.get(j);
+                int position = positionOf(entry.getKey());
+
+                changedKeys[j] = entry.getKey();
+                oldPositions[j] = position;
+                changedCounts[j] = Math.addExact(position == -1 ? 0 : counts[position], entry.getValue());
+
+                if (position == -1) {
+                    added++;
+                }
+                lastOld = Math.max(lastOld, position);
+            }
+
+            Integer[] order = new Integer[changed];
+            for (int j = 0; j < changed; j++) {
+                order[j] = j;
+            }
+            Arrays.sort(order, (a, b) -> compare(changedCounts[a], changedKeys[a], changedCounts[b], changedKeys[b]));
+
+            /* the region between the highest new position and the lowest old position of a changed key */
+            int first = order[0];
+            int low = insertionPoint(changedCounts[first], changedKeys[first]);
+            int high = added > 0 ? keys.length : lastOld + 1;
+
+            int[] removed = new int[changed - added];
+            int r = 0;
+            for (int j = 0; j < changed; j++) {
+                if (oldPositions[j] != -1) {
+                    removed[r++] = oldPositions[j];
+                }
+            }
+            Arrays.sort(removed);
+
+            int size = keys.length + added;
+            String[] newKeys = new String[size];
+            int[] newCounts = new int[size];
+
+            System.arraycopy(keys, 0, newKeys, 0, low);
+            System.arraycopy(counts, 0, newCounts, 0, low);
+
+            int old = low;
+            int next = 0;
+            r = 0;
+            while (r < removed.length && removed[r] < low) {
+                r++;
+            }
+
+            for (int p = low; p < high + added; p++) {
+                while (old < high && r < removed.length && removed[r] == old) {
+                    old++;
+                    r++;
+                }
+
+                if (next < changed && (old >= high || compare(changedCounts[order[next]], changedKeys[order[next]],
+                                                             counts[old], keys[old]) < 0)) {
+                    newKeys[p] = changedKeys[order[next]];
+                    newCounts[p] = changedCounts[order[next]];
+                    next++;
+                }
+                else {
+                    newKeys[p] = keys[old];
+                    newCounts[p] = counts[old];
+                    old++;
+                }
+            }
+
+            System.arraycopy(keys, high, newKeys, high + added, keys.length - high);
+            System.arraycopy(counts, high, newCounts, high + added, keys.length - high);
+
+            return new Ranking(newKeys, newCounts, index(newKeys, low, high + added));
+        }
+
+        /**
+         * A helper method to make the hash index of merged keys, reusing this Ranking's index when it has room: the
+         * slots of the keys in the merged region are found in the old index first, then pointed at their new positions,
+         * and the new keys are added.
+         * @param newKeys the merged keys
+         * @param low the first position of the merged region
+         * @param high the position after the merged region
+         * @return the new index
+         */
+        private int[] index(String[] newKeys, int low, int high) {
+            if (newKeys.length * 2 > slots.length) {
+                int length = Integer.highestOneBit(Math.max(16, newKeys.length * 4 - 1)) << 1;
+                int[] rebuilt = new int[length];
+
+                for (int p = 0; p < newKeys.length; p++) {
+                    rebuilt[findSlot(rebuilt, newKeys, newKeys[p])] = p + 1;
+                }
+
+                return rebuilt;
+            }
+
+            int[] found = new int[high - low];
+            for (int p = low; p < high; p++) {
+                found[p - low] = findSlot(slots, keys, newKeys[p]);
+            }
+
+            int[] copy = slots.clone();
+            for (int p = low; p < high; p++) {
+                if (slots[found[p - low]] != 0) {
+                    copy[found[p - low]] = p + 1;
+                }
+            }
+
+            /* new keys go in last, once every slot in the copy points at a position of the new keys */
+            for (int p = low; p < high; p++) {
+                if (slots[found[p - low]] == 0) {
+                    copy[findSlot(copy, newKeys, newKeys[p])] = p + 1;
+                }
+            }
+
+            return copy;
+        }
+
+        /**
+         * A helper method to find the position a key would take among this Ranking's keys.
+         * @param count the count of the key
+         * @param key the key
+         * @return the position of the first key ranked below it
+         */
+        private int insertionPoint(int count, String key) {
+            int low = 0;
+            int high = keys.length;
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+
+                if (compare(counts[middle], keys[middle], count, key) < 0) {
+                    low = middle + 1;
+                }
+                else {
+                    high = middle;
+                }
+            }
+
+            return low;
+        }
+
+        /**
+         * A helper method to order keys by rank: higher counts first, then Strings in increasing order.
+         * @return a negative number if the first key is ranked above the second, positive if below, 0 if they are the same
+         */
+        private static int compare(int count1, String key1, int count2, String key2) {
+            if (count1 != count2) {
+                return count1 > count2 ? -1 : 1;
+            }
+
+            return key1.compareTo(key2);
+        }
+
+        /**
+         * A helper method to find the slot of a key in a hash index with linear probing.
+         * @param slots the index
+         * @param keys the keys the index points into
+         * @param key the key
+         * @return the slot holding the key, or the empty slot where it would go
+         */
+        private static int findSlot(int[] slots, String[] keys, String key) {
+            int h = key.hashCode();
+            int mask = slots.length - 1;
+            int slot = (h ^ (h >>> 16)) & mask;
+
+            while (slots[slot] != 0 && !keys[slots[slot] - 1].equals(key)) {
+                slot = (slot + 1) & mask;
+            }
+
+            return slot;
+        }
+    }
+}
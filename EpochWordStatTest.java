@@ -0,0 +1,204 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A class to test EpochWordStat.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class EpochWordStatTest {
+                                                                                        //CONDITION:
+    @Test
+    public void testPublish() throws kIsTooLargeException{
+        EpochWordStat test = new EpochWordStat();
+        EpochWordStat.Epoch empty = test.snapshot();
+        assertEquals(0, empty.uniqueWords());                                           //nothing published
+
+        test.addWords("the", "knights", "who", "say", "ni", "ni");
+        assertEquals(0, test.wordCount("ni"));                                          //not published yet
+        assertSame(empty, test.snapshot());
+
+        EpochWordStat.Epoch first = test.publish();
+        assertEquals(1, first.getNumber());
+        assertEquals(2, test.wordCount("ni"));                                          //published
+        assertEquals(1, test.wordRank("ni"));
+        assertEquals(1, first.wordPairCount("ni", "ni"));
+        assertSame(first, test.publish());                                              //empty delta
+
+        test.addWords("ni", "the", "the", "the");
+        EpochWordStat.Epoch second = test.publish();
+        assertEquals(2, first.wordCount("ni"));                                         //old epoch unchanged
+        assertEquals(3, second.wordCount("ni"));
+        assertEquals(1, second.wordRank("the"));                                        //word moved up
+        assertEquals(2, second.wordRank("ni"));
+        assertEquals(1, second.wordPairCount("ni", "ni"));                              //no pair across calls
+        assertEquals(10, second.totalWords());
+        assertArrayEquals(new String[]{"the", "ni", "knights"}, second.mostCommonWords(3));   //ties by String
+        assertArrayEquals(new String[]{"who", "say"}, second.leastCommonWords(2));
+    }
+
+    @Test
+    public void testMatchesRecount() throws kIsTooLargeException{
+        EpochWordStat test = new EpochWordStat();
+        HashMap<String, Integer> words = new HashMap<String, Integer>();
+        HashMap<String, Integer> pairs = new HashMap<String, Integer>();
+        Random random = new Random(7);
+
+        for(int round = 0; round < 60; round++){
+            /* a few hundred words from a skewed vocabulary that keeps growing */
+            String[] batch = new String[1 + random.nextInt(300)];
+            for(int i = 0; i < batch.length; i++){
+                int n = (int)Math.abs(random.nextGaussian() * (5 + round * 3));
+                batch[i] = TestWords.letters(n);
+                words.merge(batch[i], 1, Integer::sum);
+                if(i > 0){
+                    pairs.merge(batch[i - 1] + " " + batch[i], 1, Integer::sum);
+                }
+            }
+
+            test.addWords(batch);
+            if(round % 3 == 2){
+                test.addWords(TestWords.letters(round * 1000));                                   //new word, ranked last
+                words.merge(TestWords.letters(round * 1000), 1, Integer::sum);
+            }
+
+            EpochWordStat.Epoch epoch = test.publish();
+            assertEquals(words.size(), epoch.uniqueWords());
+            assertEquals(pairs.size(), epoch.uniqueWordPairs());
+
+            String[] ranked = epoch.mostCommonWords(epoch.uniqueWords());
+            for(int i = 0; i < ranked.length; i++){
+                assertEquals((int)words.get(ranked[i]), epoch.wordCount(ranked[i]));    //every count
+                assertEquals(i + 1, epoch.wordRank(ranked[i]));                         //every rank
+                if(i > 0){
+                    int above = epoch.wordCount(ranked[i - 1]);
+                    int below = epoch.wordCount(ranked[i]);
+                    assertTrue(above > below || (above == below && ranked[i - 1].compareTo(ranked[i]) < 0));
+                }
+            }
+
+            String[] rankedPairs = epoch.mostCommonWordPairs(epoch.uniqueWordPairs());
+            for(int i = 0; i < rankedPairs.length; i++){
+                String[] split = rankedPairs[i].split(" ");
+                assertEquals((int)pairs.get(rankedPairs[i]), epoch.wordPairCount(split[0], split[1]));
+                assertEquals(i + 1, epoch.wordPairRank(split[0], split[1]));
+            }
+        }
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception{
+        EpochWordStat test = new EpochWordStat();
+        String[] vocabulary = new String[]{"a", "b", "c", "d", "e", "f", "g", "h"};
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<Integer>> readers = new ArrayList<Future<Integer>>();
+
+        for(int r = 0; r < 4; r++){
+            readers.add(executor.submit(() -> {
+                int mismatches = 0;
+                long last = 0;
+
+                while(writing.get()){
+                    EpochWordStat.Epoch epoch = test.snapshot();
+                    long total = 0;
+                    String[] ranked = epoch.mostCommonWords(epoch.uniqueWords());
+
+                    for(int i = 0; i < ranked.length; i++){
+                        total += epoch.wordCount(ranked[i]);
+                        if(epoch.wordRank(ranked[i]) != i + 1){
+                            mismatches++;
+                        }
+                    }
+
+                    /* every batch adds each word once more, so whole batches give equal counts */
+                    if(total != epoch.totalWords() || epoch.getNumber() < last
+                        || (ranked.length > 0 && epoch.wordCount(ranked[0]) * 8L != total)){
+                        mismatches++;
+                    }
+                    last = epoch.getNumber();
+                }
+
+                return mismatches;
+            }));
+        }
+
+        Future<?> publisher = executor.submit(() -> {
+            while(writing.get()){
+                test.publish();
+            }
+        });
+
+        for(int batch = 0; batch < 5000; batch++){
+            test.addWords(vocabulary);
+        }
+        writing.set(false);
+
+        for(Future<Integer> reader : readers){
+            assertEquals(0, (int)reader.get(60, TimeUnit.SECONDS));                     //readers never see half a batch
+        }
+        publisher.get(60, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        assertEquals(5000, test.publish().wordCount("h"));                              //every batch published
+    }
+
+    @Test
+    public void testQueryCache() throws kIsTooLargeException{
+        EpochWordStat test = new EpochWordStat();
+        QueryCache cache = test.enableQueryCache(10);
+        test.addWords("ni", "ni", "shrubbery");
+        test.publish();
+
+        assertArrayEquals(new String[]{"ni", "shrubbery"}, test.mostCommonWords(2));
+        assertArrayEquals(new String[]{"ni"}, test.mostCommonWords(1));                 //prefix of a cached result
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        test.addWords("shrubbery", "shrubbery");
+        test.publish();
+        assertArrayEquals(new String[]{"shrubbery"}, test.mostCommonWords(1));          //publish invalidates
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertArrayEquals(new String[]{"shrubbery"}, test.mostCommonWords(1));
+        assertEquals(2, cache.getHits());
+
+        test.disableQueryCache();
+        assertArrayEquals(new String[]{"shrubbery", "ni"}, test.mostCommonWords(2));
+        assertEquals(2, cache.getMisses());                                             //cache not consulted
+    }
+
+    @Test
+    public void testErrors(){
+        EpochWordStat test = new EpochWordStat();
+        test.addWords("the", "knights", "who", "say", "ni");
+        test.publish();
+
+        try{
+            test.wordRank("shrubbery");
+            fail();                                                                     //word is not in text
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.mostCommonWords(6);
+            fail();                                                                     //k is too large
+        }
+        catch(kIsTooLargeException e){
+        }
+    }
+}
@@ -0,0 +1,291 @@
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+
+/**
+ * Answers questions about how the counts of a WordStat's words are spread: the words with a count in a range, the words
+ * in a range of ranks, the count at a percentile of the vocabulary, and how many of the most common words cover a
+ * fraction of the text.  Made by WordStat.frequencyDistribution.
+ *
+ * The words are already sorted by count, so equal counts form runs.  A cumulative histogram of the runs is kept: each
+ * distinct count, the index of the first word with it, and the number of words of the text before that index.  There are
+ * far fewer distinct counts than words, and every query is a binary search of the histogram, so no query reads every
+ * word or makes a String[] of more words than it returns.
+ * @author Josh Hager
+ */
+public class FrequencyDistribution {
+
+    /* the word entries of the WordStat, in increasing order of count; shared, never changed */
+    private ArrayList<HashEntry> sortedWords;
+
+    /* each distinct count, in increasing order */
+    private int[] counts;
+
+    /* the index in sortedWords of the first word with each count, with the number of words at the end */
+    private int[] firstIndex;
+
+    /* the number of words of the text made by the words before each firstIndex, with the total at the end */
+    private long[] tokensBefore;
+
+    /**
+     * Creates a new FrequencyDistribution over sorted word entries.
+     * @param sortedWords the word entries, in increasing order of count
+     */
+    FrequencyDistribution(ArrayList<HashEntry> sortedWords) {
+        this.sortedWords = sortedWords;
+
+        int runs = 0;
+        for (int i = 0; i < sortedWords.size(); i++) {
+            if (i == 0 || sortedWords.get(i).getValue() != sortedWords.get(i - 1).getValue()) {
+                runs++;
+            }
+        }
+
+        counts = new int[runs];
+        firstIndex = new int[runs + 1];
+        tokensBefore = new long[runs + 1];
+
+        int run = -1;
+        long tokens = 0;
+
+        for (int i = 0; i < sortedWords.size(); i++) {
+            int count = sortedWords.get(i).getValue();
+
+            if (run == -1 || count != counts[run]) {
+                run++;
+                counts[run] = count;
+                firstIndex[run] = i;
+                tokensBefore[run] = tokens;
+            }
+
+            tokens += count;
+        }
+
+        firstIndex[runs] = sortedWords.size();
+        tokensBefore[runs] = tokens;
+    }
+
+    /**
+     * Gets the number of distinct words.
+     * @return the number of distinct words
+     */
+    public int uniqueWords() {
+        return sortedWords.size();
+    }
+
+    /**
+     * Gets the number of words in the text.
+     * @return the number of words
+     */
+    public long totalWords() {
+        return tokensBefore[counts.length];
+    }
+
+    /**
+     * Gets the number of distinct counts, which is the number of bars in the histogram.
+     * @return the number of distinct counts
+     */
+    public int distinctCounts() {
+        return counts.length;
+    }
+
+    /**
+     * Gets the number of distinct words with a count from min to max.
+     * @param min the smallest count
+     * @param max the largest count
+     * @return the number of words
+     */
+    public int wordsWithCountBetween(int min, int max) {
+        if (max < min) {
+            return 0;
+        }
+
+        return firstIndex[runAtLeast(max + 1L)] - firstIndex[runAtLeast(min)];
+    }
+
+    /**
+     * Gets the words with a count from min to max, in decreasing order of count.
+     * @param min the smallest count
+     * @param max the largest count
+     * @return the words, empty if there are none
+     */
+    public String[] wordsInCountRange(int min, int max) {
+        if (max < min) {
+            return new String[0];
+        }
+
+        return wordsAt(firstIndex[runAtLeast(min)], firstIndex[runAtLeast(max + 1L)]);
+    }
+
+    /**
+     * Gets the words with ranks from one rank to another, in order of rank, where 1 is the rank of the most common word.
+     * @param from the first rank, at least 1
+     * @param to the last rank, at most uniqueWords()
+     * @return the words, empty if to is less than from
+     * @throws NoSuchElementException if from or to is not the rank of a word
+     */
+    public String[] wordsInRankRange(int from, int to) throws NoSuchElementException {
+        if (to < from) {
+            return new String[0];
+        }
+
+        if (from < 1 || to > uniqueWords()) {
+            throw new NoSuchElementException();
+        }
+
+        return wordsAt(uniqueWords() - to, uniqueWords() - from + 1);
+    }
+
+    /**
+     * Gets the count at a percentile of the distinct words, by the nearest-rank method: the smallest count that at least
+     * that percent of the words have or are below.  The 50th percentile is the median count of a word, and the 100th the
+     * largest count.
+     * @param percentile the percentile, from 0 to 100
+     * @return the count
+     * @throws IllegalArgumentException if percentile is not from 0 to 100
+     * @throws NoSuchElementException if there are no words
+     */
+    public int countAtPercentile(double percentile) throws NoSuchElementException {
+        if (!(percentile >= 0 && percentile <= 100)) {
+            throw new IllegalArgumentException("percentile must be from 0 to 100");
+        }
+
+        if (uniqueWords() == 0) {
+            throw new NoSuchElementException();
+        }
+
+        int index = Math.max(0, (int)Math.ceil(percentile / 100 * uniqueWords()) - 1);
+        return counts[runOf(index)];
+    }
+
+    /**
+     * Gets the number of words of the text made by the k most common distinct words.
+     * @param k the number of distinct words
+     * @return the number of words of the text they cover
+     * @throws kIsTooLargeException if k exceeds the number of distinct words
+     */
+    public long wordsCoveredBy(int k) throws kIsTooLargeException {
+        if (k > uniqueWords()) {
+            throw new kIsTooLargeException();
+        }
+
+        return totalWords() - tokensBefore(uniqueWords() - Math.max(0, k));
+    }
+
+    /**
+     * Gets the fewest of the most common distinct words that together make at least a fraction of the words of the text:
+     * the size of vocabulary needed to cover it.
+     * @param fraction the fraction of the text, from 0 to 1
+     * @return the number of distinct words
+     * @throws IllegalArgumentException if fraction is not from 0 to 1
+     */
+    public int vocabularyToCover(double fraction) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("fraction must be from 0 to 1");
+        }
+
+        /* in decimal, so that a fraction such as 0.07 of 100 words needs 7 words rather than the 7.000000000000001 of a double */
+        long needed = BigDecimal.valueOf(fraction).multiply(BigDecimal.valueOf(totalWords()))
+                                .setScale(0, RoundingMode.CEILING).longValueExact();
+
+        /* the words from index i on cover enough while tokensBefore(i) <= totalWords - needed; find the largest such i */
+        long limit = totalWords() - needed;
+        int low = 0;
+        int high = counts.length;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (tokensBefore[middle] <= limit) {
+                low = middle;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+
+        int index = firstIndex[low];
+        if (low < counts.length) {
+            index += (int)Math.min((limit - tokensBefore[low]) / counts[low], firstIndex[low + 1] - firstIndex[low]);
+        }
+
+        return uniqueWords() - index;
+    }
+
+    /**
+     * A helper method to find the first run with a count of at least a value.
+     * @param count the value, as a long so that one more than Integer.MAX_VALUE can be given
+     * @return the run, or the number of runs if every count is smaller
+     */
+    private int runAtLeast(long count) {
+        int low = 0;
+        int high = counts.length;
+
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+
+            if (counts[middle] < count) {
+                low = middle + 1;
+            }
+            else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * A helper method to find the run holding the word at an index of sortedWords.
+     * @param index the index
+     * @return the run
+     */
+    private int runOf(int index) {
+        int low = 0;
+        int high = counts.length - 1;
+
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+
+            if (firstIndex[middle] <= index) {
+                low = middle;
+            }
+            else {
+                high = middle - 1;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * A helper method to find the number of words of the text made by the words before an index of sortedWords.
+     * @param index the index, from 0 to uniqueWords()
+     * @return the number of words
+     */
+    private long tokensBefore(int index) {
+        if (index == uniqueWords()) {
+            return totalWords();
+        }
+
+        int run = runOf(index);
+        return tokensBefore[run] + (long)(index - firstIndex[run]) * counts[run];
+    }
+
+    /**
+     * A helper method to get the words from one index of sortedWords up to another, most common first.
+     * @param from the first index
+     * @param to the index after the last
+     * @return the words
+     */
+    private String[] wordsAt(int from, int to) {
+        String[] words = new String[to - from];
+
+        for (int i = 0; i < words.length; i++) {
+            words[i] = sortedWords.get(to - 1 - i).getKey();
+        }
+
+        return words;
+    }
+}
@@ -0,0 +1,131 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+
+/**
+ * A class to test FrequencyDistribution.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class FrequencyDistributionTest {
+
+    // get the current path of this .java file, **MAKE SURE .TXT FILES ARE IN SAME FOLDER**
+    public String path = this.getClass().getClassLoader().getResource("").getPath();
+                                                                                        //CONDITION:
+    @Test
+    public void testSmall() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        /* a: 4, b: 3, c: 2, d: 1 */
+        FrequencyDistribution test = new WordStat(new String[]{"a", "b", "a", "c", "a", "b", "d", "c", "a", "b"})
+                                        .frequencyDistribution();
+        assertEquals(4, test.uniqueWords());
+        assertEquals(10, test.totalWords());
+        assertEquals(4, test.distinctCounts());
+
+        assertEquals(2, test.wordsWithCountBetween(2, 3));                              //count range
+        assertArrayEquals(new String[]{"b", "c"}, test.wordsInCountRange(2, 3));
+        assertArrayEquals(new String[]{"a", "b", "c", "d"}, test.wordsInCountRange(0, Integer.MAX_VALUE));
+        assertEquals(0, test.wordsInCountRange(5, 9).length);                           //no words in range
+        assertArrayEquals(new String[]{"b", "c"}, test.wordsInRankRange(2, 3));         //rank range
+
+        assertEquals(1, test.countAtPercentile(0));                                     //smallest count
+        assertEquals(2, test.countAtPercentile(50));                                    //median
+        assertEquals(4, test.countAtPercentile(100));                                   //largest count
+
+        assertEquals(7, test.wordsCoveredBy(2));                                        //coverage of top words
+        assertEquals(0, test.vocabularyToCover(0));
+        assertEquals(1, test.vocabularyToCover(0.4));                                   //exactly covered
+        assertEquals(2, test.vocabularyToCover(0.41));
+        assertEquals(4, test.vocabularyToCover(1));
+    }
+
+    @Test
+    public void testMatchesWordStat() throws FileNotFoundException, IOException, NoSuchMethodException,
+                                            SecurityException, IllegalAccessException, IllegalArgumentException,
+                                            InvocationTargetException, kIsTooLargeException{
+        WordStat stat = new WordStat(path + "\\Collocs.txt");
+        FrequencyDistribution test = stat.frequencyDistribution();
+        String[] words = stat.mostCommonWords(test.uniqueWords());
+        long total = 0;
+        for(String word : words){
+            total += stat.wordCount(word);
+        }
+        assertEquals(total, test.totalWords());
+
+        for(int min = 1; min <= 6; min++){
+            for(int max = min; max <= 6; max++){
+                ArrayList<String> expected = new ArrayList<String>();
+                for(String word : words){
+                    if(stat.wordCount(word) >= min && stat.wordCount(word) <= max){
+                        expected.add(word);
+                    }
+                }
+                assertArrayEquals(expected.toArray(new String[0]), test.wordsInCountRange(min, max));  //every range
+                assertEquals(expected.size(), test.wordsWithCountBetween(min, max));
+            }
+        }
+
+        long covered = 0;
+        for(int k = 1; k <= words.length; k++){
+            covered += stat.wordCount(words[k - 1]);
+            assertEquals(covered, test.wordsCoveredBy(k));                              //every k
+            assertEquals(k, test.vocabularyToCover((covered - 0.5) / total));           //just enough to need k words
+        }
+    }
+
+    @Test
+    public void testDecimalFraction() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                            IllegalArgumentException, InvocationTargetException{
+        String[] words = new String[100];
+        for(int i = 0; i < words.length; i++){
+            words[i] = "" + (char)('a' + i / 26) + (char)('a' + i % 26);
+        }
+        FrequencyDistribution test = new WordStat(words).frequencyDistribution();
+
+        assertEquals(100, test.totalWords());
+        assertEquals(7, test.vocabularyToCover(0.07));                                  //0.07 * 100 is not 7 in a double
+        assertEquals(29, test.vocabularyToCover(0.29));
+        assertEquals(57, test.vocabularyToCover(0.57));
+        assertEquals(8, test.vocabularyToCover(0.0701));
+    }
+
+    @Test
+    public void testErrors() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        FrequencyDistribution test = new WordStat(new String[0]).frequencyDistribution();
+        assertEquals(0, test.vocabularyToCover(1));                                     //zero words
+
+        try{
+            test.countAtPercentile(50);
+            fail();                                                                     //zero words
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.countAtPercentile(101);
+            fail();                                                                     //percentile too large
+        }
+        catch(IllegalArgumentException e){
+        }
+
+        try{
+            test.wordsInRankRange(1, 1);
+            fail();                                                                     //rank too large
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.wordsCoveredBy(1);
+            fail();                                                                     //k is too large
+        }
+        catch(kIsTooLargeException e){
+        }
+    }
+}
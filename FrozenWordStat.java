@@ -0,0 +1,271 @@
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+
+/**
+ * A read-only copy of the word and word pair counts and ranks of a WordStat, made by WordStat.freeze.  The keys of each
+ * table are compiled into a MinimalPerfectHash, and the count and rank of each key are stored in parallel int[]s at the
+ * index the hash gives it, so one lookup finds both without walking a chain.  The keys themselves are stored once, as
+ * UTF-8 bytes, only so that a lookup of a String that was never counted can be told apart from the key it collides with.
+ * A word pair is hashed and compared as "w1 w2" without building that String.  A FrozenWordStat is never changed after
+ * it is made, so it can be read from any number of threads.
+ * @author Josh Hager
+ */
+public class FrozenWordStat {
+
+    private final Table words;
+
+    private final Table pairs;
+
+    /**
+     * Creates a new FrozenWordStat from the sorted entries of a WordStat.
+     * @param sortedWords the word entries, each holding its count and rank
+     * @param sortedPairs the word pair entries, each holding its count and rank
+     */
+    FrozenWordStat(ArrayList<HashEntry> sortedWords, ArrayList<HashEntry> sortedPairs) {
+        this.words = new Table(sortedWords);
+        this.pairs = new Table(sortedPairs);
+    }
+
+    /**
+     * Gets the word count of a specified word.
+     * @param word the word to get the count of
+     * @return the count of that word
+     */
+    public int wordCount(String word) {
+        int index = words.indexOf(word, null);
+        return index == -1 ? 0 : words.counts[index];
+    }
+
+    /**
+     * Gets the count of a specified word pair.
+     * @param w1 the first word in the pair
+     * @param w2 the second word in the pair
+     * @return the count of the word pair
+     */
+    public int wordPairCount(String w1, String w2) {
+        int index = pairs.indexOf(w1, w2);
+        return index == -1 ? 0 : pairs.counts[index];
+    }
+
+    /**
+     * Gets the rank of the specified word, where 1 is the rank of the most common word.
+     * @param word the word to get the rank of
+     * @return the rank of the word
+     * @throws NoSuchElementException if the word is not in the text
+     */
+    public int wordRank(String word) throws NoSuchElementException {
+        int index = words.indexOf(word, null);
+
+        if (index == -1) {
+            throw new NoSuchElementException();
+        }
+
+        return words.ranks[index];
+    }
+
+    /**
+     * Gets the rank of the specified word pair, where 1 is the rank of the most common word pair.
+     * @param w1 the first word in the word pair
+     * @param w2 the second word in the word pair
+     * @return the rank of the word pair
+     * @throws NoSuchElementException if the word pair is not in the text
+     */
+    public int wordPairRank(String w1, String w2) throws NoSuchElementException {
+        int index = pairs.indexOf(w1, w2);
+
+        if (index == -1) {
+            throw new NoSuchElementException();
+        }
+
+        return pairs.ranks[index];
+    }
+
+    /**
+     * Gets the count and rank of a word with one lookup.
+     * @param word the word
+     * @return the count and rank of the word
+     * @throws NoSuchElementException if the word is not in the text
+     */
+    public WordStat.Stats wordStats(String word) throws NoSuchElementException {
+        int index = words.indexOf(word, null);
+
+        if (index == -1) {
+            throw new NoSuchElementException();
+        }
+
+        return new WordStat.Stats(words.counts[index], words.ranks[index]);
+    }
+
+    /**
+     * Gets the count and rank of a word pair with one lookup.
+     * @param w1 the first word in the word pair
+     * @param w2 the second word in the word pair
+     * @return the count and rank of the word pair
+     * @throws NoSuchElementException if the word pair is not in the text
+     */
+    public WordStat.Stats wordPairStats(String w1, String w2) throws NoSuchElementException {
+        int index = pairs.indexOf(w1, w2);
+
+        if (index == -1) {
+            throw new NoSuchElementException();
+        }
+
+        return new WordStat.Stats(pairs.counts[index], pairs.ranks[index]);
+    }
+
+    /**
+     * Gets the number of distinct words.
+     * @return the number of distinct words
+     */
+    public int uniqueWords() {
+        return words.counts.length;
+    }
+
+    /**
+     * Gets the number of distinct word pairs.
+     * @return the number of distinct word pairs
+     */
+    public int uniqueWordPairs() {
+        return pairs.counts.length;
+    }
+
+    /**
+     * Gets the memory used per word by the hash function, not counting the keys, counts and ranks.
+     * @return the number of bits per word
+     */
+    public double wordHashBitsPerKey() {
+        return words.hash.bitsPerKey();
+    }
+
+    /**
+     * Gets the memory used per word pair by the hash function, not counting the keys, counts and ranks.
+     * @return the number of bits per word pair
+     */
+    public double pairHashBitsPerKey() {
+        return pairs.hash.bitsPerKey();
+    }
+
+    /**
+     * The keys, counts and ranks of one table, all indexed by a MinimalPerfectHash of the keys.
+     */
+    private static class Table {
+
+        private final MinimalPerfectHash hash;
+
+        /* the UTF-8 bytes of the key at index i are keyBytes[keyOffsets[i]] up to keyBytes[keyOffsets[i + 1]] */
+        private final byte[] keyBytes;
+        private final int[] keyOffsets;
+
+        private final int[] counts;
+
+        private final int[] ranks;
+
+        /**
+         * Compiles a table from its entries.
+         * @param sortedEntries the entries, each holding its count and rank
+         */
+        private Table(ArrayList<HashEntry> sortedEntries) {
+            int size = sortedEntries.size();
+            long[] hashes = new long[size];
+
+            for (int i = 0; i < size; i++) {
+                hashes[i] = MinimalPerfectHash.hash(sortedEntries.get(i).getKey(), null);
+            }
+
+            hash = new MinimalPerfectHash(hashes, 2);
+            counts = new int[size];
+            ranks = new int[size];
+
+            byte[][] keys = new byte[size][];
+            int totalBytes = 0;
+
+            for (int i = 0; i < size; i++) {
+                HashEntry entry = sortedEntries.get(i);
+                int index = hash.indexOf(hashes[i]);
+
+                keys[index] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+                counts[index] = entry.getValue();
+                ranks[index] = entry.getRank();
+                totalBytes += keys[index].length;
+            }
+
+            keyBytes = new byte[totalBytes];
+            keyOffsets = new int[size + 1];
+
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(keys[i], 0, keyBytes, keyOffsets[i], keys[i].length);
+                keyOffsets[i + 1] = keyOffsets[i] + keys[i].length;
+            }
+        }
+
+        /**
+         * Finds the index of a key.
+         * @param first the key, or the first word of a pair
+         * @param second the second word of a pair, or null
+         * @return the index of the key, or -1 if it is not in the table
+         */
+        private int indexOf(String first, String second) {
+            int index = hash.indexOf(MinimalPerfectHash.hash(first, second));
+
+            if (index < 0 || index >= counts.length) {
+                return -1;
+            }
+
+            int end = keyOffsets[index + 1];
+            int position = match(first, keyOffsets[index], end);
+
+            if (second != null && position >= 0) {
+                position = position < end && keyBytes[position] == ' ' ? match(second, position + 1, end) : -1;
+            }
+
+            return position == end ? index : -1;
+        }
+
+        /**
+         * Compares a String with stored key bytes, encoding it as UTF-8 as it goes.
+         * @param s the String
+         * @param position the first byte to compare
+         * @param end the end of the key
+         * @return the byte after the match, or -1 if the bytes differ
+         */
+        private int match(String s, int position, int end) {
+            for (int i = 0; i < s.length(); ) {
+                int c = s.codePointAt(i);
+                i += Character.charCount(c);
+
+                if (c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE) {
+                    c = '?';
+                }
+
+                if (c < 0x80) {
+                    if (position >= end || keyBytes[position++] != (byte)c) {
+                        return -1;
+                    }
+                    continue;
+                }
+
+                int length = c < 0x800 ? 2 : c < 0x10000 ? 3 : 4;
+
+                if (position + length > end) {
+                    return -1;
+                }
+
+                int shift = 6 * (length - 1);
+                byte lead = (byte)((0xf00 >>> length) | (c >>> shift));
+
+                if (keyBytes[position++] != lead) {
+                    return -1;
+                }
+
+                for (shift -= 6; shift >= 0; shift -= 6) {
+                    if (keyBytes[position++] != (byte)(0x80 | ((c >>> shift) & 0x3f))) {
+                        return -1;
+                    }
+                }
+            }
+
+            return position;
+        }
+    }
+}
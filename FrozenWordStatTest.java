@@ -0,0 +1,109 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+
+/**
+ * A class to test FrozenWordStat.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class FrozenWordStatTest {
+
+    // get the current path of this .java file, **MAKE SURE .TXT FILES ARE IN SAME FOLDER**
+    public String path = this.getClass().getClassLoader().getResource("").getPath();
+                                                                                        //CONDITION:
+    @Test
+    public void testCounts() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        FrozenWordStat test = new WordStat(new String[0]).freeze();
+        assertEquals(0, test.wordCount("bulbasaur"));                                   //zero words
+        assertEquals(0, test.wordPairCount("bulbasaur", "squirtle"));
+        assertEquals(0, test.uniqueWords());
+
+        test = new WordStat(new String[]{"bulbasaur", "squirtle", "bulbasaur", "squirtle", "bulbasaur"}).freeze();
+        assertEquals(3, test.wordCount("bulbasaur"));                                   //>1 word
+        assertEquals(2, test.wordCount("squirtle"));
+        assertEquals(0, test.wordCount("charizard"));                                   //word is not in table
+        assertEquals(2, test.wordPairCount("bulbasaur", "squirtle"));                   //word pair
+        assertEquals(0, test.wordPairCount("squirtle", "squirtle"));                    //word pair is not in table
+        assertEquals(0, test.wordPairCount("bulbasaursquirtle", ""));                   //same chars, no space
+        assertEquals(2, test.uniqueWords());
+        assertEquals(2, test.uniqueWordPairs());
+    }
+
+    @Test
+    public void testRanks() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        FrozenWordStat test = new WordStat(new String[]{"bulbasaur", "squirtle", "bulbasaur", "charmander",
+                                                        "bulbasaur", "squirtle"}).freeze();
+        assertEquals(1, test.wordRank("bulbasaur"));                                    //most common word
+        assertEquals(2, test.wordRank("squirtle"));
+        assertEquals(3, test.wordRank("charmander"));                                   //least common word
+        assertEquals(3, test.wordStats("bulbasaur").getCount());                        //count and rank together
+        assertEquals(1, test.wordStats("bulbasaur").getRank());
+        assertEquals(2, test.wordPairStats("bulbasaur", "squirtle").getCount());
+
+        try{
+            test.wordRank("charizard");
+            fail();                                                                     //word is not in table
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.wordPairRank("charizard", "bulbasaur");
+            fail();                                                                     //word pair is not in table
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.wordStats("charizard");
+            fail();                                                                     //word is not in table
+        }
+        catch(NoSuchElementException e){
+        }
+    }
+
+    @Test
+    public void testMatchesWordStat() throws FileNotFoundException, IOException, NoSuchMethodException,
+                                            SecurityException, IllegalAccessException, IllegalArgumentException,
+                                            InvocationTargetException{
+        String[] words = new Tokenizer(path + "\\TestWords.txt").wordList().toArray(new String[0]);
+        WordStat stat = new WordStat(words);
+        FrozenWordStat test = stat.freeze();
+
+        for(int i = 0; i < words.length; i++){
+            assertEquals(stat.wordCount(words[i]), test.wordCount(words[i]));           //every word, same count
+            assertEquals(stat.wordRank(words[i]), test.wordRank(words[i]));             //every word, same rank
+
+            if(i > 0){
+                assertEquals(stat.wordPairCount(words[i - 1], words[i]),                //every word pair, same count
+                                test.wordPairCount(words[i - 1], words[i]));
+                assertEquals(stat.wordPairRank(words[i - 1], words[i]),                 //every word pair, same rank
+                                test.wordPairRank(words[i - 1], words[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testNonAscii() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        FrozenWordStat test = new WordStat(new String[]{"caf\u00e9", "\u65e5\u672c", "caf\u00e9"}).freeze();
+        assertEquals(2, test.wordCount("caf\u00e9"));                                   //2-byte UTF-8
+        assertEquals(1, test.wordCount("\u65e5\u672c"));                                //3-byte UTF-8
+        assertEquals(0, test.wordCount("cafe"));                                        //differs only in a byte
+        assertEquals(1, test.wordPairCount("caf\u00e9", "\u65e5\u672c"));
+
+        ArrayList<HashEntry> entries = new ArrayList<HashEntry>();
+        entries.add(new HashEntry("\ud840\udc00", 1));
+        entries.get(0).setRank(1);
+        test = new FrozenWordStat(entries, new ArrayList<HashEntry>());
+        assertEquals(1, test.wordCount("\ud840\udc00"));                                //4-byte UTF-8
+        assertEquals(0, test.wordCount("\ud840"));                                      //unpaired surrogate
+    }
+}
@@ -10,6 +10,9 @@ public class HashEntry implements Comparable<HashEntry>{
 
     private int value;
 
+    /* the rank of the entry among the entries of its table, set once the table is sorted; 0 until then */
+    private int rank;
+
     /* used for closed addressing in HashTable */
     private LinkedList<HashEntry> chain;
 
@@ -35,6 +38,14 @@ public class HashEntry implements Comparable<HashEntry>{
         this.value = value;
     }
 
+    public int getRank(){
+        return rank;
+    }
+
+    public void setRank(int rank){
+        this.rank = rank;
+    }
+
     public LinkedList<HashEntry> getChain(){
         return chain;
     }
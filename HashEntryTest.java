@@ -32,6 +32,17 @@ public class HashEntryTest {
         assertEquals(5, test.getValue());                   //should return set value
     }
 
+    @Test
+    public void testRank(){
+        HashEntry test = new HashEntry("a", 1);
+
+        assertEquals(0, test.getRank());                    //not ranked yet
+
+        test.setRank(3);
+        assertEquals(3, test.getRank());                    //should return set rank
+        assertEquals(1, test.getValue());                   //value is unchanged
+    }
+
     @Test
     public void testGetChain(){
         HashEntry test = new HashEntry("a", 1);
@@ -1,3 +1,4 @@
+import java.util.ArrayList;
 import java.util.LinkedList;
 
 /**
@@ -14,6 +15,12 @@ public class HashTable {
     /* the number of entries in the table, not counting entries in chains */
     private int slotsFilled = 0;
 
+    /* the number of entries in the table, including entries in chains */
+    private int size = 0;
+
+    /* the number of times the table has been rehashed */
+    private int rehashCount = 0;
+
     /**
      * Creates a new HashTable with default size 100.
      */
@@ -61,6 +68,7 @@ public class HashTable {
         if (table[i] == null) {
             table[i] = new HashEntry(key, value);
             slotsFilled++;
+            size++;
         } 
         else if (table[i].getKey().equals(key)) {
             table[i].setValue(table[i].getValue() + 1);
@@ -68,6 +76,7 @@ public class HashTable {
         else if (!table[i].hasChain()) {
             table[i].setChain(new LinkedList<HashEntry>());
             table[i].getChain().add(new HashEntry(key, value));
+            size++;
         } 
         else {
             boolean keyFound = false;
@@ -81,6 +90,7 @@ public class HashTable {
 
             if (!keyFound) {
                 table[i].getChain().add(new HashEntry(key, value));
+                size++;
             }
         }
     }
@@ -101,6 +111,53 @@ public class HashTable {
         }
     }
 
+    /**
+     * Adds an amount to the value associated with a given key.  If the key is not in the hash table, it is added with the
+     * amount as its value.
+     * @param key the key
+     * @param amount the amount to add to the key's value
+     */
+    public void add(String key, int amount) {
+        HashEntry targetEntry = getHashEntry(key, key.hashCode());
+
+        if (targetEntry != null) {
+            targetEntry.setValue(targetEntry.getValue() + amount);
+        } 
+        else {
+            put(key, amount);
+        }
+    }
+
+    /**
+     * Adds every key in another hash table to this one, adding the other table's values to the values already here.
+     * @param other the hash table to add
+     */
+    public void addAll(HashTable other) {
+        for (HashEntry entry : other.entries()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Returns a list of every entry in the hash table, including entries in chains, in table order.
+     * @return a new list containing the entries
+     */
+    public ArrayList<HashEntry> entries() {
+        ArrayList<HashEntry> entries = new ArrayList<HashEntry>(size);
+
+        for (HashEntry entry : table) {
+            if (entry != null) {
+                entries.add(entry);
+
+                if (entry.hasChain()) {
+                    entries.addAll(entry.getChain());
+                }
+            }
+        }
+
+        return entries;
+    }
+
     /**
      * Returns the value of a given key, searching using Java's hashCode() function.
      * @param key the key to look for
@@ -126,6 +183,16 @@ public class HashTable {
         return targetEntry.getValue();
     }
 
+    /**
+     * Returns the HashEntry of a given key, searching using Java's hashCode() function, so that every field of the entry
+     * can be read with one probe.  Rehashing replaces the entries, so the entry should not be kept while keys are added.
+     * @param key the key to look for
+     * @return that key's HashEntry, null if key is not in table
+     */
+    public HashEntry getEntry(String key) {
+        return getHashEntry(key, key.hashCode());
+    }
+
     /**
      * Returns the HashEntry in the table with the specified key.
      * @param key the key to search for
@@ -162,6 +229,8 @@ public class HashTable {
      * Rehashes the hash table.
      */
     public void rehash(){
+        rehashCount++;
+
         if (table.length != 0){
             HashTable newTable = new HashTable(table.length * 2);
 
@@ -187,6 +256,22 @@ public class HashTable {
         }
     }
 
+    /**
+     * Gets the number of entries in this hash table, including entries in chains.
+     * @return the number of entries in this hash table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of times this hash table has been rehashed.
+     * @return the number of rehashes
+     */
+    public int getRehashCount() {
+        return rehashCount;
+    }
+
     /**
      * Gets the load factor of this hash table.
      * @return the load factor of this hash table
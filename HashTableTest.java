@@ -128,6 +128,21 @@ public class HashTableTest {
         assertEquals(-1, test.get("handle"));                                                   //key not in table
     }
 
+    @Test
+    public void testGetEntry(){
+        HashTable test = new HashTable();
+
+        assertEquals(null, test.getEntry("hello"));                                             //key not in table
+
+        test.put("hello", 1);
+        test.put("hello", 1);
+        assertEquals("hello", test.getEntry("hello").getKey());
+        assertEquals(2, test.getEntry("hello").getValue());                                     //key is in table
+
+        test.getEntry("hello").setRank(1);
+        assertEquals(1, test.getEntry("hello").getRank());                                      //same entry is returned
+    }
+
     @Test
     public void testGet2(){
         HashTable test = new HashTable();
@@ -239,4 +254,51 @@ public class HashTableTest {
         test.setLoadFactor(.81);
         assertEquals(.81, test.getLoadFactor(), .001);                                          //check method changes loadFactor
     }
+
+    @Test
+    public void testSize(){
+        HashTable test = new HashTable(20);
+
+        assertEquals(0, test.size());                                                               //empty table
+
+        test.put("hello", 1, 50);
+        test.put("hello", 1, 50);
+        assertEquals(1, test.size());                                                               //repeated key
+
+        test.put("hotdog", 1, 50);
+        test.put("helper", 1, 50);
+        assertEquals(3, test.size());                                                               //keys in chains are counted
+    }
+
+    @Test
+    public void testGetRehashCount(){
+        HashTable test = new HashTable(4);
+
+        assertEquals(0, test.getRehashCount());                                                     //no rehash
+
+        for(int i = 0; i < 10; i++){
+            test.put("key" + i, 1);
+        }
+        assertEquals(true, test.getRehashCount() > 0);                                              //rehashes are counted
+        assertEquals(10, test.size());                                                              //size is kept after rehash
+    }
+
+    @Test
+    public void testAdd(){
+        HashTable test = new HashTable();
+
+        test.add("hello", 3);
+        assertEquals(3, test.get("hello"));                                                         //key is not in table
+
+        test.add("hello", 4);
+        assertEquals(7, test.get("hello"));                                                         //key is in table
+
+        HashTable other = new HashTable();
+        other.add("hello", 1);
+        other.add("world", 2);
+        test.addAll(other);
+        assertEquals(8, test.get("hello"));                                                         //addAll adds values
+        assertEquals(2, test.get("world"));
+        assertEquals(2, test.entries().size());                                                     //entries
+    }
 }
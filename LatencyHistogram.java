@@ -0,0 +1,112 @@
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of request latencies that many threads can record into without locking.  Latencies are counted in
+ * buckets whose upper bounds double from 1 microsecond, so bucket b holds latencies of at most 2^b microseconds, and the
+ * last bucket holds everything slower.
+ * @author Josh Hager
+ */
+public class LatencyHistogram {
+
+    /* the number of buckets, the last of which has no upper bound */
+    static final int BUCKETS = 32;
+
+    /* the number of latencies in each bucket */
+    private AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /* the number of latencies recorded */
+    private LongAdder count = new LongAdder();
+
+    /* the sum of every latency recorded, in nanoseconds */
+    private LongAdder totalNanos = new LongAdder();
+
+    /**
+     * Records one latency.
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        counts.incrementAndGet(bucketOf(nanos));
+        count.increment();
+        totalNanos.add(Math.max(nanos, 0));
+    }
+
+    /**
+     * Gets the number of latencies recorded.
+     * @return the number of latencies recorded
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Gets the mean of the latencies recorded.
+     * @return the mean latency in microseconds, 0 if none have been recorded
+     */
+    public double getMeanMicros() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1e3 / n;
+    }
+
+    /**
+     * Gets the number of latencies in a bucket.
+     * @param bucket the bucket, between 0 and BUCKETS - 1
+     * @return the number of latencies in the bucket
+     */
+    public long getBucketCount(int bucket) {
+        return counts.get(bucket);
+    }
+
+    /**
+     * Gets the upper bound of a bucket.
+     * @param bucket the bucket, between 0 and BUCKETS - 1
+     * @return the largest latency in microseconds counted in the bucket, Long.MAX_VALUE for the last bucket
+     */
+    public static long getBucketBound(int bucket) {
+        return bucket == BUCKETS - 1 ? Long.MAX_VALUE : 1L << bucket;
+    }
+
+    /**
+     * Estimates a percentile of the latencies recorded as the upper bound of the bucket it falls in.
+     * @param percentile the percentile, between 0 and 100
+     * @return the estimated latency in microseconds, 0 if none have been recorded
+     */
+    public long getPercentileMicros(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long n = 0;
+
+        for (int b = 0; b < BUCKETS; b++) {
+            snapshot[b] = counts.get(b);
+            n += snapshot[b];
+        }
+
+        long rank = (long)Math.ceil(n * percentile / 100);
+        long seen = 0;
+
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += snapshot[b];
+
+            if (seen >= rank && seen > 0) {
+                return getBucketBound(b);
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * Finds the bucket a latency is counted in.
+     * @param nanos the latency in nanoseconds
+     * @return the bucket
+     */
+    static int bucketOf(long nanos) {
+        long micros = nanos / 1000 + (nanos % 1000 > 0 ? 1 : 0);
+
+        if (micros <= 1) {
+            return 0;
+        }
+
+        /* the smallest b with micros <= 2^b */
+        return Math.min(64 - Long.numberOfLeadingZeros(micros - 1), BUCKETS - 1);
+    }
+}
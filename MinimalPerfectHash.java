@@ -0,0 +1,287 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * A minimal perfect hash function over a fixed set of Strings, built with the BBHash algorithm.  Each of the n keys is
+ * mapped to its own index between 0 and n - 1, using a few bits per key and without storing the keys.  A String that is
+ * not in the set is mapped to an arbitrary index or to -1, so callers that may look up other Strings must check the key
+ * stored at the index.
+ *
+ * The keys are hashed into a bit array of gamma * n bits.  Keys that land on a bit of their own set it; the keys that
+ * collide are hashed again, with a different seed, into a smaller array for the next level, until every key has a bit.
+ * The index of a key is the number of set bits before its bit across all levels, which is counted with a stored rank
+ * for every 512 bits plus a popcount of at most eight words.  A MinimalPerfectHash is never changed after it is built.
+ * @author Josh Hager
+ */
+public class MinimalPerfectHash {
+
+    /* the largest number of levels before the remaining keys are put in a fallback map */
+    private static final int MAX_LEVELS = 32;
+
+    /* each rank covers this many 64-bit words */
+    private static final int RANK_WORDS = 8;
+
+    /* the bits of every level, one after another */
+    private final long[] bits;
+
+    /* the first word of each level in bits, and the number of bits in each level */
+    private final int[] levelStart;
+    private final int[] levelSize;
+
+    /* the number of set bits before each block of RANK_WORDS words */
+    private final int[] ranks;
+
+    /* the indices of keys that still collided after MAX_LEVELS levels, keyed by their hash; almost always empty */
+    private final HashMap<Long, Integer> fallback = new HashMap<Long, Integer>();
+
+    /* the number of keys */
+    private final int size;
+
+    /**
+     * Builds a minimal perfect hash function over a set of distinct keys, using 2 bits per key in the first level.
+     * @param keys the keys, with no duplicates
+     * @throws IllegalArgumentException if the keys contain duplicates
+     */
+    public MinimalPerfectHash(String[] keys) {
+        this(keys, 2);
+    }
+
+    /**
+     * Builds a minimal perfect hash function over a set of distinct keys.
+     * @param keys the keys, with no duplicates
+     * @param gamma the number of bits per remaining key in each level, at least 1; larger is faster to build and query
+     *              but uses more memory
+     * @throws IllegalArgumentException if the keys contain duplicates or gamma is less than 1
+     */
+    public MinimalPerfectHash(String[] keys, double gamma) {
+        this(hashAll(keys), gamma);
+    }
+
+    /**
+     * Builds a minimal perfect hash function over keys that have already been hashed with hash(String, String).
+     * @param hashes the hash of each key, with no duplicates
+     * @param gamma the number of bits per remaining key in each level, at least 1
+     * @throws IllegalArgumentException if the hashes contain duplicates or gamma is less than 1
+     */
+    MinimalPerfectHash(long[] hashes, double gamma) {
+        if (gamma < 1) {
+            throw new IllegalArgumentException("gamma must be at least 1");
+        }
+
+        size = hashes.length;
+
+        ArrayList<long[]> levels = new ArrayList<long[]>();
+        ArrayList<Integer> sizes = new ArrayList<Integer>();
+        long[] remaining = hashes;
+        int remainingCount = hashes.length;
+
+        while (remainingCount > 0 && levels.size() < MAX_LEVELS) {
+            int level = levels.size();
+            int levelBits = (int)Math.min(Integer.MAX_VALUE - 63, Math.max(64, (long)Math.ceil(gamma * remainingCount)));
+            levelBits = (levelBits + 63) & ~63;
+
+            long[] seen = new long[levelBits >>> 6];
+            long[] collided = new long[levelBits >>> 6];
+
+            for (int i = 0; i < remainingCount; i++) {
+                int position = position(remaining[i], level, levelBits);
+                long bit = 1L << position;
+
+                if ((seen[position >>> 6] & bit) != 0) {
+                    collided[position >>> 6] |= bit;
+                }
+                else {
+                    seen[position >>> 6] |= bit;
+                }
+            }
+
+            long[] next = new long[remainingCount];
+            int nextCount = 0;
+
+            for (int i = 0; i < remainingCount; i++) {
+                int position = position(remaining[i], level, levelBits);
+
+                if ((collided[position >>> 6] & (1L << position)) != 0) {
+                    next[nextCount++] = remaining[i];
+                }
+            }
+
+            for (int w = 0; w < seen.length; w++) {
+                seen[w] &= ~collided[w];
+            }
+
+            levels.add(seen);
+            sizes.add(levelBits);
+            remaining = next;
+            remainingCount = nextCount;
+        }
+
+        int words = 0;
+        levelStart = new int[levels.size()];
+        levelSize = new int[levels.size()];
+
+        for (int level = 0; level < levels.size(); level++) {
+            levelStart[level] = words;
+            levelSize[level] = sizes.get(level);
+            words += levels.get(level).length;
+        }
+
+        bits = new long[words];
+        for (int level = 0; level < levels.size(); level++) {
+            System.arraycopy(levels.get(level), 0, bits, levelStart[level], levels.get(level).length);
+        }
+
+        ranks = new int[(words + RANK_WORDS - 1) / RANK_WORDS];
+        int count = 0;
+
+        for (int w = 0; w < words; w++) {
+            if (w % RANK_WORDS == 0) {
+                ranks[w / RANK_WORDS] = count;
+            }
+
+            count += Long.bitCount(bits[w]);
+        }
+
+        /* keys that collided on every level; with gamma >= 1 this is vanishingly rare */
+        Arrays.sort(remaining, 0, remainingCount);
+        for (int i = 0; i < remainingCount; i++) {
+            if (fallback.put(remaining[i], count + i) != null) {
+                throw new IllegalArgumentException("keys must be distinct");
+            }
+        }
+    }
+
+    /**
+     * Finds the index of a key.
+     * @param key the key
+     * @return the index of the key between 0 and size() - 1 if it is in the set; otherwise any index, or -1
+     */
+    public int indexOf(String key) {
+        return indexOf(hash(key, null));
+    }
+
+    /**
+     * Finds the index of a key from its hash.
+     * @param hash the hash of the key from hash(String, String)
+     * @return the index of the key between 0 and size() - 1 if it is in the set; otherwise any index, or -1
+     */
+    int indexOf(long hash) {
+        for (int level = 0; level < levelSize.length; level++) {
+            int position = position(hash, level, levelSize[level]);
+            int word = levelStart[level] + (position >>> 6);
+
+            if ((bits[word] & (1L << position)) != 0) {
+                return rank(word, position & 63);
+            }
+        }
+
+        Integer index = fallback.get(hash);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Gets the number of keys.
+     * @return the number of keys
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of levels.
+     * @return the number of levels
+     */
+    public int levels() {
+        return levelSize.length;
+    }
+
+    /**
+     * Gets the memory used per key, counting the bit arrays and the ranks.
+     * @return the number of bits used per key
+     */
+    public double bitsPerKey() {
+        return size == 0 ? 0 : (bits.length * 64.0 + ranks.length * 32.0) / size;
+    }
+
+    /**
+     * Hashes a key, or a word pair as if it were the String first + " " + second without building that String.
+     * @param first the key, or the first word of a pair
+     * @param second the second word of a pair, or null
+     * @return a 64-bit hash
+     */
+    static long hash(String first, String second) {
+        long hash = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < first.length(); i++) {
+            hash = (hash ^ first.charAt(i)) * 0x100000001b3L;
+        }
+
+        if (second != null) {
+            hash = (hash ^ ' ') * 0x100000001b3L;
+
+            for (int i = 0; i < second.length(); i++) {
+                hash = (hash ^ second.charAt(i)) * 0x100000001b3L;
+            }
+        }
+
+        return mix(hash);
+    }
+
+    /**
+     * A helper method to hash every key.
+     * @param keys the keys
+     * @return the hash of each key
+     */
+    private static long[] hashAll(String[] keys) {
+        long[] hashes = new long[keys.length];
+
+        for (int i = 0; i < keys.length; i++) {
+            hashes[i] = hash(keys[i], null);
+        }
+
+        return hashes;
+    }
+
+    /**
+     * A helper method to count the set bits before a bit.
+     * @param word the index of the word holding the bit
+     * @param bit the position of the bit in its word
+     * @return the number of set bits before it across all levels
+     */
+    private int rank(int word, int bit) {
+        int rank = ranks[word / RANK_WORDS];
+
+        for (int w = word - word % RANK_WORDS; w < word; w++) {
+            rank += Long.bitCount(bits[w]);
+        }
+
+        return rank + Long.bitCount(bits[word] & ((1L << bit) - 1));
+    }
+
+    /**
+     * A helper method to find the position of a key in a level.
+     * @param hash the hash of the key
+     * @param level the level
+     * @param levelBits the number of bits in the level
+     * @return the position, between 0 and levelBits - 1
+     */
+    private static int position(long hash, int level, int levelBits) {
+        long mixed = mix(hash + (level + 1) * 0x9e3779b97f4a7c15L);
+        return (int)(((mixed >>> 32) * levelBits) >>> 32);
+    }
+
+    /**
+     * A helper method to scramble the bits of a hash, using the finalizer of MurmurHash3.
+     * @param x the hash
+     * @return the scrambled hash
+     */
+    private static long mix(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb93fe53a87ebL;
+        x ^= x >>> 33;
+        return x;
+    }
+}
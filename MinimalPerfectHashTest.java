@@ -0,0 +1,78 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * A class to test MinimalPerfectHash.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class MinimalPerfectHashTest {
+                                                                                        //CONDITION:
+    @Test
+    public void testIndexOf(){
+        MinimalPerfectHash test = new MinimalPerfectHash(new String[0]);
+        assertEquals(0, test.size());                                                   //no keys
+        assertEquals(-1, test.indexOf("bulbasaur"));
+
+        test = new MinimalPerfectHash(new String[]{"bulbasaur"});
+        assertEquals(0, test.indexOf("bulbasaur"));                                     //1 key
+
+        String[] keys = new String[20000];
+        for(int i = 0; i < keys.length; i++){
+            keys[i] = "word" + i;
+        }
+
+        test = new MinimalPerfectHash(keys);
+        boolean[] used = new boolean[keys.length];
+
+        for(String key : keys){
+            int index = test.indexOf(key);
+            assertTrue(index >= 0 && index < keys.length);                              //many keys, every index in range
+            assertTrue(!used[index]);                                                   //many keys, no two keys share an index
+            used[index] = true;
+        }
+
+        assertEquals(keys.length, test.size());
+    }
+
+    @Test
+    public void testPairHash(){
+        assertEquals(MinimalPerfectHash.hash("bulbasaur squirtle", null),               //pair hashes like its joined String
+                        MinimalPerfectHash.hash("bulbasaur", "squirtle"));
+        assertTrue(MinimalPerfectHash.hash("bulbasaur", "squirtle")
+                        != MinimalPerfectHash.hash("squirtle", "bulbasaur"));           //order matters
+    }
+
+    @Test
+    public void testMemory(){
+        String[] keys = new String[50000];
+        for(int i = 0; i < keys.length; i++){
+            keys[i] = Integer.toHexString(i * 31);
+        }
+
+        MinimalPerfectHash test = new MinimalPerfectHash(keys);
+        assertTrue(test.bitsPerKey() < 5);                                              //gamma 2, a few bits per key
+        assertTrue(test.levels() > 1);
+
+        MinimalPerfectHash loose = new MinimalPerfectHash(keys, 4);
+        assertTrue(loose.bitsPerKey() > test.bitsPerKey());                             //larger gamma, more memory
+    }
+
+    @Test
+    public void testErrors(){
+        try{
+            new MinimalPerfectHash(new String[]{"bulbasaur", "bulbasaur"});
+            fail();                                                                     //duplicate keys
+        }
+        catch(IllegalArgumentException e){
+        }
+
+        try{
+            new MinimalPerfectHash(new String[]{"bulbasaur"}, 0.5);
+            fail();                                                                     //gamma less than 1
+        }
+        catch(IllegalArgumentException e){
+        }
+    }
+}
@@ -0,0 +1,14 @@
+/**
+ * One stage of turning a token into the form that is counted, such as lowercasing or stemming.  Stages are combined in a
+ * NormalizerChain.
+ * @author Josh Hager
+ */
+public interface Normalizer {
+
+    /**
+     * Normalizes a word.
+     * @param word the word, as produced by the previous stage
+     * @return the normalized word, or "" to drop the word
+     */
+    String normalize(String word);
+}
@@ -0,0 +1,197 @@
+import java.util.ArrayList;
+
+/**
+ * Runs a token through a sequence of Normalizers, such as Tokenizer.normalize followed by a PorterStemmer, and remembers
+ * the result.  The same surface forms repeat throughout a text, so the final form of each raw token is kept in a bounded,
+ * direct-mapped cache: the raw token's hash picks one slot, and a different token hashing to the same slot replaces it.
+ * A lookup hashes and compares the chars of a CharSequence in place, so a hit allocates nothing, and each distinct
+ * token is normally run through the stages only once per build.  A TokenFilter given with a token is applied after the
+ * first stage, so that a filter meant for words as Tokenizer.normalize gives them, such as one dropping stop words, sees
+ * each word before a later stage such as a PorterStemmer changes it.  A NormalizerChain is not thread-safe.
+ * @author Josh Hager
+ */
+public class NormalizerChain implements Normalizer {
+
+    /* the default number of cache slots */
+    private static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    private ArrayList<Normalizer> stages = new ArrayList<Normalizer>();
+
+    /* the number of cache slots, a power of two, or 0 for no cache */
+    private int cacheSize = DEFAULT_CACHE_SIZE;
+
+    /* the raw token, its hash and its normalized form in each slot, created on first use */
+    private String[] cacheKeys;
+    private int[] cacheHashes;
+    private String[] cacheValues;
+
+    /* the TokenFilter the cached forms were found with */
+    private TokenFilter cacheFilter;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    /**
+     * Creates a new NormalizerChain with no stages, which returns each token unchanged.
+     */
+    public NormalizerChain() {
+    }
+
+    /**
+     * Creates a new NormalizerChain whose first stage is Tokenizer.normalize, giving the same words a Tokenizer gives
+     * until more stages are added.
+     * @return the chain
+     */
+    public static NormalizerChain standard() {
+        return new NormalizerChain().add(Tokenizer::normalize);
+    }
+
+    /**
+     * Adds a stage to the end of the chain.  The cache is cleared.
+     * @param stage the stage
+     * @return this NormalizerChain
+     */
+    public NormalizerChain add(Normalizer stage) {
+        stages.add(stage);
+        cacheKeys = null;
+        return this;
+    }
+
+    /**
+     * Sets the number of cache slots, rounded up to a power of two.  The default is 65536.  The cache is cleared.
+     * @param cacheSize the new number of slots, or 0 for no cache
+     * @return this NormalizerChain
+     * @throws IllegalArgumentException if cacheSize is negative or larger than 2^30
+     */
+    public NormalizerChain setCacheSize(int cacheSize) {
+        if (cacheSize < 0 || cacheSize > 1 << 30) {
+            throw new IllegalArgumentException("cacheSize must be between 0 and 2^30");
+        }
+
+        int rounded = Integer.highestOneBit(cacheSize);
+        this.cacheSize = rounded == cacheSize ? cacheSize : rounded << 1;
+        this.cacheKeys = null;
+        return this;
+    }
+
+    /**
+     * Runs a token through every stage, stopping early if a stage drops it.
+     * @param word the raw token
+     * @return the normalized token, or "" if a stage dropped it
+     */
+    @Override
+    public String normalize(String word) {
+        return normalize((CharSequence)word);
+    }
+
+    /**
+     * Runs a token through every stage, or returns its cached result.  A hit does not allocate.
+     * @param raw the raw token
+     * @return the normalized token, or "" if a stage dropped it
+     */
+    public String normalize(CharSequence raw) {
+        return normalize(raw, null);
+    }
+
+    /**
+     * Runs a token through every stage, checking it with a TokenFilter after the first stage, or returns its cached
+     * result.  A hit does not allocate.  The cache is cleared when a different filter is given than the last time.
+     * @param raw the raw token
+     * @param filter decides which words are kept after the first stage, or null to keep every word
+     * @return the normalized token, "" if a stage dropped it, or null if the filter dropped it
+     */
+    public String normalize(CharSequence raw, TokenFilter filter) {
+        if (cacheSize == 0) {
+            misses++;
+            return apply(raw.toString(), filter);
+        }
+
+        if (cacheKeys == null || filter != cacheFilter) {
+            cacheFilter = filter;
+            cacheKeys = new String[cacheSize];
+            cacheHashes = new int[cacheSize];
+            cacheValues = new String[cacheSize];
+        }
+
+        int hash = hash(raw);
+        int slot = (hash ^ (hash >>> 16)) & (cacheSize - 1);
+        String key = cacheKeys[slot];
+
+        if (key != null && cacheHashes[slot] == hash && key.contentEquals(raw)) {
+            hits++;
+            return cacheValues[slot];
+        }
+
+        misses++;
+        key = raw.toString();
+        String value = apply(key, filter);
+
+        cacheKeys[slot] = key;
+        cacheHashes[slot] = hash;
+        cacheValues[slot] = value;
+
+        return value;
+    }
+
+    /**
+     * Gets the number of tokens answered from the cache.
+     * @return the number of hits
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of tokens that were run through the stages.
+     * @return the number of misses
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * A helper method to run a token through every stage, checking it with a TokenFilter after the first.
+     * @param word the raw token
+     * @param filter decides which words are kept after the first stage, or null to keep every word
+     * @return the normalized token, "" if a stage dropped it, or null if the filter dropped it
+     */
+    private String apply(String word, TokenFilter filter) {
+        if (stages.isEmpty()) {
+            return filter == null || word.isEmpty() || filter.accept(word) ? word : null;
+        }
+
+        for (int i = 0; i < stages.size(); i++) {
+            word = stages.get(i).normalize(word);
+
+            if (word.isEmpty()) {
+                return "";
+            }
+
+            if (i == 0 && filter != null && !filter.accept(word)) {
+                return null;
+            }
+        }
+
+        return word;
+    }
+
+    /**
+     * A helper method to hash the chars of a CharSequence the same way String.hashCode does, using the hash a String
+     * already caches when given one.
+     * @param chars the chars
+     * @return the hash
+     */
+    private static int hash(CharSequence chars) {
+        if (chars instanceof String) {
+            return chars.hashCode();
+        }
+
+        int hash = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            hash = 31 * hash + chars.charAt(i);
+        }
+
+        return hash;
+    }
+}
@@ -0,0 +1,83 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A class to test NormalizerChain.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class NormalizerChainTest {
+                                                                                                        //CONDITION:
+    @Test
+    public void testNormalize(){
+        assertEquals("Swallows!", new NormalizerChain().normalize("Swallows!"));                        //no stages
+        assertEquals("swallows", NormalizerChain.standard().normalize("Swallows!"));                    //Tokenizer.normalize
+        assertEquals("swallow", NormalizerChain.standard().add(new PorterStemmer()).normalize("Swallows!"));//stages in order
+        assertEquals("", NormalizerChain.standard().add(w -> w.toUpperCase()).normalize("!?"));        //dropped word stops the chain
+    }
+
+    @Test
+    public void testCache(){
+        int[] calls = new int[1];
+        NormalizerChain test = new NormalizerChain().add(w -> { calls[0]++; return w.toLowerCase(); });
+
+        String first = test.normalize("Ni");
+        assertSame(first, test.normalize(new StringBuilder("Ni")));                                     //hit for equal chars
+        assertEquals(1, calls[0]);                                                                      //each form is processed once
+        assertEquals(1, test.getHits());
+        assertEquals(1, test.getMisses());
+
+        test.setCacheSize(1);
+        test.normalize("Ni");
+        test.normalize("Shrubbery");
+        test.normalize("Ni");
+        assertEquals(4, calls[0]);                                                                      //cache is bounded
+
+        test.setCacheSize(0);
+        test.normalize("Ni");
+        test.normalize("Ni");
+        assertEquals(6, calls[0]);                                                                      //no cache
+    }
+
+    @Test
+    public void testTokenizer() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException{
+        String text = "The swallow, the Swallows; the SWALLOWING caf\u00e9s";
+        NormalizerChain chain = NormalizerChain.standard().add(new PorterStemmer());
+
+        Tokenizer test = new Tokenizer(text.split(" "), null, chain);
+        assertEquals("[the, swallow, the, swallow, the, swallow, caf\u00e9s]", test.wordList().toString()); //String[] input
+        assertEquals(6, chain.getMisses());                                                             //each distinct raw token processed once
+
+        test = new Tokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, null, chain);
+        assertEquals("[the, swallow, the, swallow, the, swallow, caf\u00e9s]", test.wordList().toString()); //UTF-8 input
+
+        WordStat stats = new WordStat(test, 1);
+        assertEquals(3, stats.wordCount("swallow"));                                                    //forms counted together
+    }
+
+    @Test
+    public void testStopWords() throws IOException{
+        String text = "This was the only thing because ni";
+        TokenFilter filter = new TokenFilter().setStopWords(StopWordSet.english()).setPairMode(TokenFilter.PairMode.BREAK);
+        NormalizerChain chain = NormalizerChain.standard().add(new PorterStemmer());
+
+        Tokenizer test = new Tokenizer(text.split(" "), filter, chain);
+        assertEquals("[thing, ni]", test.wordList().toString());                                        //stop words dropped before stemming
+        assertTrue(test.isPairBreak(1));                                                                //dropped words break pairs
+
+        test = new Tokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), StandardCharsets.UTF_8, filter, chain);
+        assertEquals("[thing, ni]", test.wordList().toString());                                        //UTF-8 input
+
+        test = new Tokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_16)), StandardCharsets.UTF_16, filter, chain);
+        assertEquals("[thing, ni]", test.wordList().toString());                                        //Reader input
+
+        test = new Tokenizer(text.split(" "), null, chain);
+        assertEquals("[thi, wa, the, onli, thing, becaus, ni]", test.wordList().toString());            //same chain without a filter
+    }
+}
@@ -0,0 +1,193 @@
+import java.util.Arrays;
+
+/**
+ * A hash table containing long keys and int values, used to count pairs of int ids without creating an object per pair.
+ * Open addressing with linear probing is used to handle collisions, so keys and values are stored in two parallel arrays.
+ * Keys must be non-negative; pack(a, b) produces such a key from two non-negative ids.
+ * @author Josh Hager
+ */
+public class PairCountTable {
+
+    /* marks an empty slot in keys */
+    private static final long EMPTY = -1L;
+
+    private long[] keys;
+
+    private int[] values;
+
+    private double loadFactor = .5;
+
+    /* the number of keys in the table */
+    private int size = 0;
+
+    /**
+     * Creates a new PairCountTable with default capacity 64.
+     */
+    public PairCountTable() {
+        this(64);
+    }
+
+    /**
+     * Creates a new PairCountTable with a specified capacity.  The capacity is rounded up to a power of two.
+     * @param capacity the specified capacity
+     */
+    public PairCountTable(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        keys = new long[size];
+        values = new int[size];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Packs two non-negative ids into a single key, with the first id in the high 32 bits.
+     * @param first the first id
+     * @param second the second id
+     * @return the packed key
+     */
+    public static long pack(int first, int second) {
+        return ((long)first << 32) | (second & 0xffffffffL);
+    }
+
+    /**
+     * Gets the first id of a packed key.
+     * @param key the packed key
+     * @return the first id
+     */
+    public static int first(long key) {
+        return (int)(key >>> 32);
+    }
+
+    /**
+     * Gets the second id of a packed key.
+     * @param key the packed key
+     * @return the second id
+     */
+    public static int second(long key) {
+        return (int)key;
+    }
+
+    /**
+     * Adds an amount to the value of a key.  If the key is not in the table, it is added with the amount as its value.
+     * @param key the key, which must be non-negative
+     * @param amount the amount to add
+     */
+    public void add(long key, int amount) {
+
+        if (size + 1 > keys.length * loadFactor) {
+            rehash();
+        }
+
+        int i = slot(key);
+
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            size++;
+        }
+
+        values[i] += amount;
+    }
+
+    /**
+     * Returns the value of a given key.
+     * @param key the key to look for
+     * @return that key's value, 0 if key is not in table
+     */
+    public int get(long key) {
+        int i = slot(key);
+
+        if (keys[i] == EMPTY) {
+            return 0;
+        }
+
+        return values[i];
+    }
+
+    /**
+     * Gets the number of keys in this table.
+     * @return the number of keys in this table
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of slots in this table, to be used with keyAt and valueAt to iterate without allocating.
+     * @return the number of slots in this table
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * Checks whether a slot holds a key.
+     * @param slot the slot, between 0 and capacity() - 1
+     * @return true if the slot holds a key
+     */
+    public boolean isFilled(int slot) {
+        return keys[slot] != EMPTY;
+    }
+
+    /**
+     * Gets the key in a slot.
+     * @param slot the slot, between 0 and capacity() - 1
+     * @return the key in that slot, -1 if the slot is empty
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * Gets the value in a slot.
+     * @param slot the slot, between 0 and capacity() - 1
+     * @return the value in that slot, 0 if the slot is empty
+     */
+    public int valueAt(int slot) {
+        return values[slot];
+    }
+
+    /**
+     * Finds the slot holding a key, or the empty slot where it would be placed.
+     * @param key the key to look for
+     * @return the slot index
+     */
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = mix(key) & mask;
+
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+
+        return i;
+    }
+
+    /**
+     * Spreads the bits of a key so that packed ids with small values still use the whole table.
+     * @param key the key
+     * @return the mixed hash code
+     */
+    private static int mix(long key) {
+        key *= 0x9E3779B97F4A7C15L;
+        return (int)(key ^ (key >>> 32));
+    }
+
+    /**
+     * Doubles the capacity of the table.
+     */
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        keys = new long[oldKeys.length * 2];
+        values = new int[oldValues.length * 2];
+        Arrays.fill(keys, EMPTY);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int j = slot(oldKeys[i]);
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A class to test PairCountTable.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class PairCountTableTest {
+                                                                                        //CONDITION:
+    @Test
+    public void testAdd(){
+        PairCountTable test = new PairCountTable(4);
+
+        test.add(PairCountTable.pack(1, 2), 1);
+        assertEquals(1, test.get(PairCountTable.pack(1, 2)));                           //new key
+
+        test.add(PairCountTable.pack(1, 2), 3);
+        assertEquals(4, test.get(PairCountTable.pack(1, 2)));                           //existing key
+
+        assertEquals(0, test.get(PairCountTable.pack(2, 1)));                           //key is not in table
+
+        for(int i = 0; i < 1000; i++){
+            test.add(PairCountTable.pack(i, i + 1), i);
+        }
+        assertEquals(999, test.get(PairCountTable.pack(999, 1000)));                    //after rehash
+        assertEquals(5, test.get(PairCountTable.pack(1, 2)));
+        assertEquals(1000, test.size());
+    }
+
+    @Test
+    public void testPack(){
+        long key = PairCountTable.pack(7, Integer.MAX_VALUE);
+
+        assertEquals(7, PairCountTable.first(key));                                     //first id
+        assertEquals(Integer.MAX_VALUE, PairCountTable.second(key));                    //second id
+    }
+
+    @Test
+    public void testIteration(){
+        PairCountTable test = new PairCountTable();
+        test.add(PairCountTable.pack(1, 2), 2);
+        test.add(PairCountTable.pack(3, 4), 5);
+
+        int total = 0;
+        for(int slot = 0; slot < test.capacity(); slot++){
+            if(test.isFilled(slot)){
+                total += test.valueAt(slot);
+            }
+        }
+        assertEquals(7, total);                                                         //every filled slot is visited
+    }
+}
@@ -0,0 +1,240 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Decompresses a file of gzip members on several threads.  This only works when every member records its own compressed
+ * size in a "BC" extra field, as the BGZF format used by bgzip does, because that is what allows the next member to be
+ * found without decompressing the current one.  Members are read from disk in order on the calling thread, decompressed
+ * in parallel a few members ahead of the reader, and handed back in their original order.
+ * @author Josh Hager
+ */
+public class ParallelGzipInputStream extends InputStream {
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private RandomAccessFile file;
+
+    private ExecutorService executor;
+
+    /* the members being decompressed, in file order */
+    private ArrayDeque<Future<byte[]>> pending = new ArrayDeque<Future<byte[]>>();
+
+    /* the largest number of members decompressed ahead of the reader */
+    private int lookahead;
+
+    /* the uncompressed bytes of the current member, and the position of the next byte to return */
+    private byte[] current = new byte[0];
+    private int position = 0;
+
+    /**
+     * Opens a BGZF file for parallel decompression.
+     * @param fileName the name of the file
+     * @param threads the number of threads to decompress with, at least 1
+     * @throws IOException if the file cannot be read
+     */
+    public ParallelGzipInputStream(String fileName, int threads) throws IOException {
+        this.file = new RandomAccessFile(fileName, "r");
+        this.lookahead = threads * 2;
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "gzip-inflater");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Checks whether a file starts with a gzip member that records its compressed size, so it can be decompressed in parallel.
+     * @param fileName the name of the file
+     * @return true if the first member has a BGZF "BC" extra field
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isSplittable(String fileName) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(fileName, "r")) {
+            return blockSize(file) > 0;
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] one = new byte[1];
+        return read(one, 0, 1) == -1 ? -1 : one[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+
+        while (position == current.length) {
+            fill();
+
+            if (pending.isEmpty()) {
+                return -1;
+            }
+
+            try {
+                current = pending.removeFirst().get();
+                position = 0;
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            catch (ExecutionException e) {
+                throw e.getCause() instanceof IOException ? (IOException)e.getCause() : new IOException(e.getCause());
+            }
+        }
+
+        int n = Math.min(len, current.length - position);
+        System.arraycopy(current, position, b, off, n);
+        position += n;
+        return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+        executor.shutdownNow();
+        file.close();
+    }
+
+    /**
+     * Reads members from the file and starts decompressing them until lookahead members are pending or the file ends.
+     * @throws IOException if the file cannot be read or a member has no BGZF size
+     */
+    private void fill() throws IOException {
+        while (pending.size() < lookahead && file.getFilePointer() < file.length()) {
+            long start = file.getFilePointer();
+            int size = blockSize(file);
+
+            if (size <= 0) {
+                throw new IOException("gzip member at byte " + start + " does not record its size");
+            }
+
+            byte[] block = new byte[size];
+            file.seek(start);
+            file.readFully(block);
+
+            pending.addLast(executor.submit(() -> inflate(block)));
+        }
+    }
+
+    /**
+     * Reads the header of the gzip member at the file pointer and finds its total size.  The file pointer is moved.
+     * @param file the file
+     * @return the size of the member in bytes, -1 if the header has no BGZF "BC" extra field
+     * @throws IOException if the file cannot be read or is not gzip
+     */
+    private static int blockSize(RandomAccessFile file) throws IOException {
+        byte[] header = new byte[12];
+        file.readFully(header);
+
+        if ((header[0] & 0xff) != 0x1f || (header[1] & 0xff) != 0x8b) {
+            throw new IOException("not in gzip format");
+        }
+
+        if ((header[3] & FEXTRA) == 0) {
+            return -1;
+        }
+
+        byte[] extra = new byte[unsignedShort(header, 10)];
+        file.readFully(extra);
+
+        for (int i = 0; i + 4 <= extra.length; ) {
+            int length = unsignedShort(extra, i + 2);
+
+            if (extra[i] == 'B' && extra[i + 1] == 'C' && length == 2) {
+                return unsignedShort(extra, i + 4) + 1;
+            }
+
+            i += 4 + length;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Decompresses one whole gzip member and checks it against its CRC and size.
+     * @param block the bytes of the member
+     * @return the uncompressed bytes
+     * @throws IOException if the member is corrupt
+     */
+    private static byte[] inflate(byte[] block) throws IOException {
+        int flags = block[3];
+        int offset = 10;
+
+        if ((flags & FEXTRA) != 0) {
+            offset += 2 + unsignedShort(block, 10);
+        }
+        if ((flags & FNAME) != 0) {
+            while (block[offset++] != 0) { }
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (block[offset++] != 0) { }
+        }
+        if ((flags & FHCRC) != 0) {
+            offset += 2;
+        }
+
+        int trailer = block.length - 8;
+        long expectedCrc = unsignedInt(block, trailer);
+        byte[] out = new byte[(int)unsignedInt(block, trailer + 4)];
+
+        Inflater inflater = new Inflater(true);
+
+        try {
+            inflater.setInput(block, offset, trailer - offset);
+            int n = 0;
+
+            while (n < out.length && !inflater.finished()) {
+                int inflated = inflater.inflate(out, n, out.length - n);
+
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+
+                n += inflated;
+            }
+
+            if (n != out.length) {
+                throw new IOException("corrupt gzip member: expected " + out.length + " bytes, got " + n);
+            }
+        }
+        catch (DataFormatException e) {
+            throw new IOException("corrupt gzip member", e);
+        }
+        finally {
+            inflater.end();
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out);
+
+        if (crc.getValue() != expectedCrc) {
+            throw new IOException("corrupt gzip member: CRC mismatch");
+        }
+
+        return out;
+    }
+
+    private static int unsignedShort(byte[] b, int i) {
+        return (b[i] & 0xff) | (b[i + 1] & 0xff) << 8;
+    }
+
+    private static long unsignedInt(byte[] b, int i) {
+        return (unsignedShort(b, i) | (long)unsignedShort(b, i + 2) << 16);
+    }
+}
@@ -0,0 +1,419 @@
+/**
+ * Martin Porter's suffix-stripping algorithm for English, as published in 1980, so that forms such as "swallow" and
+ * "swallows" are counted as one word.  It works on lowercase words of the letters a to z, which is what
+ * Tokenizer.normalize produces from English text; a word containing any other character is returned unchanged.
+ * A PorterStemmer holds a buffer and is not thread-safe.
+ * @author Josh Hager
+ */
+public class PorterStemmer implements Normalizer {
+
+    /* the word being stemmed */
+    private char[] b = new char[64];
+
+    /* the index of the last char of the word, and the end of the stem while checking a suffix */
+    private int k;
+    private int j;
+
+    /**
+     * Stems a word.
+     * @param word the word, in lowercase
+     * @return the stem, or the word unchanged if it has two or fewer letters or is not made of the letters a to z
+     */
+    @Override
+    public String normalize(String word) {
+        if (word.length() <= 2) {
+            return word;
+        }
+
+        if (b.length < word.length()) {
+            b = new char[word.length() * 2];
+        }
+
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+
+            if (c < 'a' || c > 'z') {
+                return word;
+            }
+
+            b[i] = c;
+        }
+
+        k = word.length() - 1;
+
+        step1ab();
+        if (k > 0) {
+            step1c();
+            step2();
+            step3();
+            step4();
+            step5();
+        }
+
+        return isUnchanged(word) ? word : new String(b, 0, k + 1);
+    }
+
+    /**
+     * Checks whether the stem in b[0..k] is the same as the word it came from, so that the word can be returned without
+     * allocating a new String.
+     */
+    private boolean isUnchanged(String word) {
+        if (k != word.length() - 1) {
+            return false;
+        }
+
+        for (int i = 0; i <= k; i++) {
+            if (b[i] != word.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Checks whether the char at an index is a consonant.  A y is a consonant at the start of a word or after a vowel.
+     */
+    private boolean isConsonant(int i) {
+        switch (b[i]) {
+            case 'a':
+            case 'e':
+            case 'i':
+            case 'o':
+            case 'u':
+                return false;
+
+            case 'y':
+                return i == 0 || !isConsonant(i - 1);
+
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Measures the stem b[0..j] as the number of vowel-consonant sequences m in the form [C](VC){m}[V].
+     */
+    private int measure() {
+        int n = 0;
+        int i = 0;
+
+        while (true) {
+            if (i > j) {
+                return n;
+            }
+            if (!isConsonant(i)) {
+                break;
+            }
+            i++;
+        }
+        i++;
+
+        while (true) {
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (isConsonant(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+            n++;
+
+            while (true) {
+                if (i > j) {
+                    return n;
+                }
+                if (!isConsonant(i)) {
+                    break;
+                }
+                i++;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Checks whether the stem b[0..j] contains a vowel.
+     */
+    private boolean vowelInStem() {
+        for (int i = 0; i <= j; i++) {
+            if (!isConsonant(i)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Checks whether b[i - 1..i] is a double consonant.
+     */
+    private boolean isDoubleConsonant(int i) {
+        return i >= 1 && b[i] == b[i - 1] && isConsonant(i);
+    }
+
+    /**
+     * Checks whether b[i - 2..i] is consonant-vowel-consonant, where the last consonant is not w, x or y.  This is used
+     * to restore an e in words such as "hope" from "hoping", but not in "hopping".
+     */
+    private boolean isCvc(int i) {
+        if (i < 2 || !isConsonant(i) || isConsonant(i - 1) || !isConsonant(i - 2)) {
+            return false;
+        }
+
+        return b[i] != 'w' && b[i] != 'x' && b[i] != 'y';
+    }
+
+    /**
+     * Checks whether the word ends with a suffix, and if it does sets j to the end of the stem before it.
+     */
+    private boolean endsWith(String suffix) {
+        int length = suffix.length();
+        int offset = k - length + 1;
+
+        if (offset < 0) {
+            return false;
+        }
+
+        for (int i = 0; i < length; i++) {
+            if (b[offset + i] != suffix.charAt(i)) {
+                return false;
+            }
+        }
+
+        j = k - length;
+        return true;
+    }
+
+    /**
+     * Replaces the chars after the stem b[0..j] with a new suffix.
+     */
+    private void setSuffix(String suffix) {
+        int length = suffix.length();
+
+        for (int i = 0; i < length; i++) {
+            b[j + 1 + i] = suffix.charAt(i);
+        }
+
+        k = j + length;
+    }
+
+    /**
+     * Replaces the suffix found by endsWith if the stem before it has a measure greater than 0.
+     */
+    private void replace(String suffix) {
+        if (measure() > 0) {
+            setSuffix(suffix);
+        }
+    }
+
+    /**
+     * Removes plurals and -ed or -ing, as in caresses to caress, ponies to poni, meetings to meet and hopping to hop.
+     */
+    private void step1ab() {
+        if (b[k] == 's') {
+            if (endsWith("sses")) {
+                k -= 2;
+            }
+            else if (endsWith("ies")) {
+                setSuffix("i");
+            }
+            else if (b[k - 1] != 's') {
+                k--;
+            }
+        }
+
+        if (endsWith("eed")) {
+            if (measure() > 0) {
+                k--;
+            }
+        }
+        else if ((endsWith("ed") || endsWith("ing")) && vowelInStem()) {
+            k = j;
+
+            if (endsWith("at")) {
+                setSuffix("ate");
+            }
+            else if (endsWith("bl")) {
+                setSuffix("ble");
+            }
+            else if (endsWith("iz")) {
+                setSuffix("ize");
+            }
+            else if (isDoubleConsonant(k)) {
+                if (b[k] != 'l' && b[k] != 's' && b[k] != 'z') {
+                    k--;
+                }
+            }
+            else if (measure() == 1 && isCvc(k)) {
+                j = k;
+                setSuffix("e");
+            }
+        }
+    }
+
+    /**
+     * Turns a final y into i when there is another vowel in the stem, as in happy to happi.
+     */
+    private void step1c() {
+        if (endsWith("y") && vowelInStem()) {
+            b[k] = 'i';
+        }
+    }
+
+    /**
+     * Maps double suffixes to single ones, as in relational to relate and generalization to generalize.
+     */
+    private void step2() {
+        switch (b[k - 1]) {
+            case 'a':
+                if (endsWith("ational")) { replace("ate"); break; }
+                if (endsWith("tional")) { replace("tion"); break; }
+                break;
+            case 'c':
+                if (endsWith("enci")) { replace("ence"); break; }
+                if (endsWith("anci")) { replace("ance"); break; }
+                break;
+            case 'e':
+                if (endsWith("izer")) { replace("ize"); break; }
+                break;
+            case 'l':
+                if (endsWith("bli")) { replace("ble"); break; }
+                if (endsWith("alli")) { replace("al"); break; }
+                if (endsWith("entli")) { replace("ent"); break; }
+                if (endsWith("eli")) { replace("e"); break; }
+                if (endsWith("ousli")) { replace("ous"); break; }
+                break;
+            case 'o':
+                if (endsWith("ization")) { replace("ize"); break; }
+                if (endsWith("ation")) { replace("ate"); break; }
+                if (endsWith("ator")) { replace("ate"); break; }
+                break;
+            case 's':
+                if (endsWith("alism")) { replace("al"); break; }
+                if (endsWith("iveness")) { replace("ive"); break; }
+                if (endsWith("fulness")) { replace("ful"); break; }
+                if (endsWith("ousness")) { replace("ous"); break; }
+                break;
+            case 't':
+                if (endsWith("aliti")) { replace("al"); break; }
+                if (endsWith("iviti")) { replace("ive"); break; }
+                if (endsWith("biliti")) { replace("ble"); break; }
+                break;
+            case 'g':
+                if (endsWith("logi")) { replace("log"); break; }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Removes or simplifies -ic-, -full, -ness and similar suffixes, as in hopeful to hope.
+     */
+    private void step3() {
+        switch (b[k]) {
+            case 'e':
+                if (endsWith("icate")) { replace("ic"); break; }
+                if (endsWith("ative")) { replace(""); break; }
+                if (endsWith("alize")) { replace("al"); break; }
+                break;
+            case 'i':
+                if (endsWith("iciti")) { replace("ic"); break; }
+                break;
+            case 'l':
+                if (endsWith("ical")) { replace("ic"); break; }
+                if (endsWith("ful")) { replace(""); break; }
+                break;
+            case 's':
+                if (endsWith("ness")) { replace(""); break; }
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Removes -ant, -ence and similar suffixes from stems with a measure greater than 1, as in adjustment to adjust.
+     */
+    private void step4() {
+        if (k < 1) {
+            return;
+        }
+
+        switch (b[k - 1]) {
+            case 'a':
+                if (endsWith("al")) break;
+                return;
+            case 'c':
+                if (endsWith("ance")) break;
+                if (endsWith("ence")) break;
+                return;
+            case 'e':
+                if (endsWith("er")) break;
+                return;
+            case 'i':
+                if (endsWith("ic")) break;
+                return;
+            case 'l':
+                if (endsWith("able")) break;
+                if (endsWith("ible")) break;
+                return;
+            case 'n':
+                if (endsWith("ant")) break;
+                if (endsWith("ement")) break;
+                if (endsWith("ment")) break;
+                if (endsWith("ent")) break;
+                return;
+            case 'o':
+                if (endsWith("ion") && j >= 0 && (b[j] == 's' || b[j] == 't')) break;
+                if (endsWith("ou")) break;
+                return;
+            case 's':
+                if (endsWith("ism")) break;
+                return;
+            case 't':
+                if (endsWith("ate")) break;
+                if (endsWith("iti")) break;
+                return;
+            case 'u':
+                if (endsWith("ous")) break;
+                return;
+            case 'v':
+                if (endsWith("ive")) break;
+                return;
+            case 'z':
+                if (endsWith("ize")) break;
+                return;
+            default:
+                return;
+        }
+
+        if (measure() > 1) {
+            k = j;
+        }
+    }
+
+    /**
+     * Removes a final -e and turns a final -ll into -l when the stem is long enough, as in probate to probat and
+     * controll to control.
+     */
+    private void step5() {
+        j = k;
+
+        if (b[k] == 'e') {
+            int m = measure();
+
+            if (m > 1 || m == 1 && !isCvc(k - 1)) {
+                k--;
+            }
+        }
+
+        if (b[k] == 'l' && isDoubleConsonant(k) && measure() > 1) {
+            k--;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A class to test PorterStemmer against examples from Porter's paper.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class PorterStemmerTest {
+
+    /**
+     * A helper method to check the stems of several words.
+     * @param pairs each word followed by its expected stem
+     */
+    private static void check(String... pairs){
+        PorterStemmer test = new PorterStemmer();
+
+        for(int i = 0; i < pairs.length; i += 2){
+            assertEquals(pairs[i], pairs[i + 1], test.normalize(pairs[i]));
+        }
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testStep1(){
+        check("caresses", "caress", "ponies", "poni", "ties", "ti", "caress", "caress", "cats", "cat");  //plurals
+        check("feed", "feed", "agreed", "agre", "plastered", "plaster", "bled", "bled",
+                "motoring", "motor", "sing", "sing");                                                   //-ed and -ing
+        check("conflated", "conflat", "troubled", "troubl", "sized", "size", "hopping", "hop",
+                "tanned", "tan", "falling", "fall", "hissing", "hiss", "fizzed", "fizz",
+                "failing", "fail", "filing", "file");                                                   //restoring -e, undoubling
+        check("happy", "happi", "sky", "sky");                                                          //final y
+    }
+
+    @Test
+    public void testLaterSteps(){
+        check("relational", "relat", "conditional", "condit", "rational", "ration", "valenci", "valenc",
+                "digitizer", "digit", "conformabli", "conform", "radicalli", "radic", "differentli", "differ",
+                "vileli", "vile", "analogousli", "analog", "vietnamization", "vietnam", "predication", "predic",
+                "operator", "oper", "feudalism", "feudal", "decisiveness", "decis", "hopefulness", "hope",
+                "callousness", "callous", "formaliti", "formal", "sensitiviti", "sensit", "sensibiliti", "sensibl");//step 2
+        check("triplicate", "triplic", "formative", "form", "formalize", "formal", "electriciti", "electr",
+                "electrical", "electr", "hopeful", "hope", "goodness", "good");                               //step 3
+        check("revival", "reviv", "allowance", "allow", "inference", "infer", "airliner", "airlin",
+                "adjustable", "adjust", "defensible", "defens", "irritant", "irrit", "replacement", "replac",
+                "adjustment", "adjust", "dependent", "depend", "adoption", "adopt", "homologou", "homolog",
+                "communism", "commun", "activate", "activ", "angulariti", "angular", "homologous", "homolog",
+                "effective", "effect", "bowdlerize", "bowdler");                                               //step 4
+        check("probate", "probat", "rate", "rate", "cease", "ceas", "controll", "control", "roll", "roll");//step 5
+    }
+
+    @Test
+    public void testOtherWords(){
+        check("swallow", "swallow", "swallows", "swallow", "a", "a", "is", "is",
+                "caf\u00e9s", "caf\u00e9s", "ies", "i");                                      //short and non-ASCII words
+    }
+}
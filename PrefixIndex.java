@@ -0,0 +1,451 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Finds the words of a WordStat that start with a prefix, or match a pattern such as "swallow*", and adds up or ranks
+ * their counts without reading every word.  Made by WordStat.prefixIndex.
+ *
+ * The words are sorted, so the words under each node of a trie of them are a contiguous run, and every node is only the
+ * bounds of its run and the length of the prefix it stands for.  The trie is path compressed: a node is only made where
+ * words branch, and the characters of the edge into a node are read from the first word of its run, so there are fewer
+ * than two nodes per word however long the words are.  Finding a prefix follows one edge per branch, comparing each
+ * character of the prefix once.  The total count of a run is the difference of two cumulative counts, and the most common
+ * words of a run are taken from a segment tree of the position of the largest count in each range, so a prefix count
+ * takes time in proportion to the prefix and the top k words by prefix take k steps of log n each.
+ *
+ * Patterns may use '*' for any run of characters and '?' for any one character.  The characters before the first
+ * wildcard are found as a prefix; a pattern that is a prefix followed by one '*' needs nothing more, and any other
+ * pattern is checked against each word under the prefix.  Words with equal counts are ranked in order of their Strings.
+ * @author Josh Hager
+ */
+public class PrefixIndex {
+
+    /* the words in increasing order, and their counts */
+    private String[] words;
+    private int[] counts;
+
+    /* cumulativeCounts[i] is the sum of the counts of the words before index i */
+    private long[] cumulativeCounts;
+
+    /* for each node: the run of words under it, the length of its prefix, the first character of the edge into it, and
+       its children, which are stored next to each other in order of that character */
+    private int[] runStart;
+    private int[] runEnd;
+    private int[] depth;
+    private char[] label;
+    private int[] firstChild;
+    private int[] childCount;
+    private int nodes = 0;
+
+    /* a segment tree: leaf i holds i, and each inner node the index of the largest count among its leaves */
+    private int[] maxTree;
+    private int leaves;
+
+    /**
+     * Creates a new PrefixIndex over word entries.
+     * @param wordEntries the word entries, each holding its count
+     */
+    PrefixIndex(ArrayList<HashEntry> wordEntries) {
+        HashEntry[] sorted = wordEntries.toArray(new HashEntry[0]);
+        Arrays.sort(sorted, (a, b) -> a.getKey().compareTo(b.getKey()));
+
+        int n = sorted.length;
+        words = new String[n];
+        counts = new int[n];
+        cumulativeCounts = new long[n + 1];
+
+        for (int i = 0; i < n; i++) {
+            words[i] = sorted[i].getKey();
+            counts[i] = sorted[i].getValue();
+            cumulativeCounts[i + 1] = cumulativeCounts[i] + counts[i];
+        }
+
+        buildTrie();
+        buildMaxTree();
+    }
+
+    /**
+     * Gets the total count of the words that start with a prefix.
+     * @param prefix the prefix, "" for every word
+     * @return the total count
+     */
+    public long prefixCount(String prefix) {
+        int node = find(prefix);
+        return node == -1 ? 0 : cumulativeCounts[runEnd[node]] - cumulativeCounts[runStart[node]];
+    }
+
+    /**
+     * Gets the number of distinct words that start with a prefix.
+     * @param prefix the prefix, "" for every word
+     * @return the number of words
+     */
+    public int wordsWithPrefix(String prefix) {
+        int node = find(prefix);
+        return node == -1 ? 0 : runEnd[node] - runStart[node];
+    }
+
+    /**
+     * Returns the k most common words that start with a prefix, in decreasing order of their count.
+     * @param k the number of words to retrieve
+     * @param prefix the prefix, "" for every word
+     * @return a String[] containing the k most common words with the prefix
+     * @throws kIsTooLargeException if k exceeds the number of distinct words with the prefix
+     */
+    public String[] mostCommonWithPrefix(int k, String prefix) throws kIsTooLargeException {
+        int node = find(prefix);
+
+        if (node == -1 || k > runEnd[node] - runStart[node]) {
+            throw new kIsTooLargeException();
+        }
+
+        return top(k, runStart[node], runEnd[node]);
+    }
+
+    /**
+     * Gets the total count of the words that match a pattern, where '*' stands for any run of characters and '?' for any
+     * one character.  A pattern without wildcards gives the count of that word.
+     * @param pattern the pattern
+     * @return the total count
+     */
+    public long count(String pattern) {
+        String prefix = literalPrefix(pattern);
+
+        if (isPrefixPattern(pattern, prefix)) {
+            return prefixCount(prefix);
+        }
+
+        int node = find(prefix);
+        long total = 0;
+
+        if (node != -1) {
+            for (int i = runStart[node]; i < runEnd[node]; i++) {
+                if (matches(pattern, words[i])) {
+                    total += counts[i];
+                }
+            }
+        }
+
+        return total;
+    }
+
+    /**
+     * Returns the k most common words that match a pattern, where '*' stands for any run of characters and '?' for any
+     * one character, in decreasing order of their count.
+     * @param k the number of words to retrieve
+     * @param pattern the pattern
+     * @return a String[] containing the k most common matching words
+     * @throws kIsTooLargeException if k exceeds the number of distinct matching words
+     */
+    public String[] mostCommonMatching(int k, String pattern) throws kIsTooLargeException {
+        String prefix = literalPrefix(pattern);
+
+        if (isPrefixPattern(pattern, prefix)) {
+            return mostCommonWithPrefix(k, prefix);
+        }
+
+        int node = find(prefix);
+        ArrayList<Integer> matching = new ArrayList<Integer>();
+
+        if (node != -1) {
+            for (int i = runStart[node]; i < runEnd[node]; i++) {
+                if (matches(pattern, words[i])) {
+                    matching.add(i);
+                }
+            }
+        }
+
+        if (k > matching.size()) {
+            throw new kIsTooLargeException();
+        }
+
+        matching.sort((a, b) -> counts[a] != counts[b] ? Integer.compare(counts[b], counts[a]) : Integer.compare(a, b));
+
+        String[] mostCommon = new String[k];
+        for (int i = 0; i < k; i++) {
+            mostCommon[i] = words[matching.get(i)];
+        }
+
+        return mostCommon;
+    }
+
+    /**
+     * Gets the number of nodes in the trie.
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return nodes;
+    }
+
+    /**
+     * A helper method to find the node whose run holds exactly the words that start with a prefix.
+     * @param prefix the prefix
+     * @return the node, or -1 if no word starts with the prefix
+     */
+    private int find(String prefix) {
+        int node = 0;
+        int matched = 0;
+
+        while (matched < prefix.length()) {
+            int child = child(node, prefix.charAt(matched));
+
+            if (child == -1) {
+                return -1;
+            }
+
+            /* the rest of the edge, as far as the prefix goes */
+            int end = Math.min(depth[child], prefix.length());
+            if (!prefix.regionMatches(matched + 1, words[runStart[child]], matched + 1, end - matched - 1)) {
+                return -1;
+            }
+
+            node = child;
+            matched = depth[child];
+        }
+
+        return node;
+    }
+
+    /**
+     * A helper method to find the child of a node whose edge starts with a character, with a binary search.
+     * @param node the node
+     * @param c the character
+     * @return the child, or -1 if there is none
+     */
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = low + childCount[node] - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (label[middle] < c) {
+                low = middle + 1;
+            }
+            else if (label[middle] > c) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * A helper method to get the k most common words from one index up to another.  The largest count of a range is
+     * taken from a heap of ranges, and the two ranges on either side of it are put back, so only k ranges are split.
+     * @param k the number of words
+     * @param from the first index
+     * @param to the index after the last
+     * @return the words
+     */
+    private String[] top(int k, int from, int to) {
+        String[] top = new String[k];
+
+        /* each element is {index of the largest count, range start, range end} */
+        PriorityQueue<int[]> ranges = new PriorityQueue<int[]>(Math.max(1, 2 * k),
+                                        (a, b) -> counts[a[0]] != counts[b[0]] ? Integer.compare(counts[b[0]], counts[a[0]])
+                                                                               : Integer.compare(a[0], b[0]));
+        if (k > 0) {
+            ranges.add(new int[]{maxIn(from, to), from, to});
+        }
+
+        for (int i = 0; i < k; i++) {
+            int[] range = ranges.poll();
+            int max = range[0];
+            top[i] = words[max];
+
+            if (range[1] < max) {
+                ranges.add(new int[]{maxIn(range[1], max), range[1], max});
+            }
+            if (max + 1 < range[2]) {
+                ranges.add(new int[]{maxIn(max + 1, range[2]), max + 1, range[2]});
+            }
+        }
+
+        return top;
+    }
+
+    /**
+     * A helper method to find the index of the largest count from one index up to another, the first if there are several.
+     * @param from the first index
+     * @param to the index after the last, greater than from
+     * @return the index
+     */
+    private int maxIn(int from, int to) {
+        int best = -1;
+
+        for (int low = from + leaves, high = to + leaves; low < high; low >>= 1, high >>= 1) {
+            if ((low & 1) == 1) {
+                best = better(best, maxTree[low++]);
+            }
+            if ((high & 1) == 1) {
+                best = better(best, maxTree[--high]);
+            }
+        }
+
+        return best;
+    }
+
+    /**
+     * A helper method to choose the index of the larger count, or the smaller index if the counts are equal.
+     * @return the better index; -1 is worse than any index
+     */
+    private int better(int a, int b) {
+        if (a == -1 || b == -1) {
+            return Math.max(a, b);
+        }
+
+        if (counts[a] != counts[b]) {
+            return counts[a] > counts[b] ? a : b;
+        }
+
+        return Math.min(a, b);
+    }
+
+    /**
+     * A helper method to build the trie breadth first, so that the children of each node are made together.  The
+     * children of a node split its run where the character after its prefix changes, and each child's prefix runs on to
+     * the longest prefix shared by all of its words.
+     */
+    private void buildTrie() {
+        int capacity = Math.max(16, 2 * words.length + 1);
+        runStart = new int[capacity];
+        runEnd = new int[capacity];
+        depth = new int[capacity];
+        label = new char[capacity];
+        firstChild = new int[capacity];
+        childCount = new int[capacity];
+
+        addNode(0, words.length, 0, (char)0);
+
+        for (int node = 0; node < nodes; node++) {
+            int d = depth[node];
+            int i = runStart[node];
+
+            /* a word that ends at this node has no child; it is the first of the run, being the shortest */
+            if (i < runEnd[node] && words[i].length() == d) {
+                i++;
+            }
+
+            firstChild[node] = nodes;
+
+            while (i < runEnd[node]) {
+                char c = words[i].charAt(d);
+                int j = i + 1;
+
+                while (j < runEnd[node] && words[j].charAt(d) == c) {
+                    j++;
+                }
+
+                addNode(i, j, commonPrefix(words[i], words[j - 1]), c);
+                i = j;
+            }
+
+            childCount[node] = nodes - firstChild[node];
+        }
+    }
+
+    /**
+     * A helper method to add a node to the trie.
+     */
+    private void addNode(int start, int end, int prefixLength, char c) {
+        runStart[nodes] = start;
+        runEnd[nodes] = end;
+        depth[nodes] = prefixLength;
+        label[nodes] = c;
+        nodes++;
+    }
+
+    /**
+     * A helper method to build the segment tree of the largest counts.
+     */
+    private void buildMaxTree() {
+        leaves = Math.max(1, Integer.highestOneBit(Math.max(1, words.length - 1)) << 1);
+        maxTree = new int[2 * leaves];
+        Arrays.fill(maxTree, -1);
+
+        for (int i = 0; i < words.length; i++) {
+            maxTree[leaves + i] = i;
+        }
+
+        for (int i = leaves - 1; i > 0; i--) {
+            maxTree[i] = better(maxTree[2 * i], maxTree[2 * i + 1]);
+        }
+    }
+
+    /**
+     * A helper method to find the length of the longest prefix two words share.
+     */
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+
+        return i;
+    }
+
+    /**
+     * A helper method to find the characters of a pattern before its first wildcard.
+     */
+    private static String literalPrefix(String pattern) {
+        int i = 0;
+
+        while (i < pattern.length() && pattern.charAt(i) != '*' && pattern.charAt(i) != '?') {
+            i++;
+        }
+
+        return pattern.substring(0, i);
+    }
+
+    /**
+     * A helper method to check whether a pattern is its literal prefix followed by a single '*'.
+     */
+    private static boolean isPrefixPattern(String pattern, String prefix) {
+        return pattern.length() == prefix.length() + 1 && pattern.charAt(prefix.length()) == '*';
+    }
+
+    /**
+     * A helper method to match a word against a pattern.  After a '*', a mismatch goes back to just after that '*' and
+     * lets it take one more character, so no character of the word is read more than once per '*'.
+     * @param pattern the pattern
+     * @param word the word
+     * @return true if the whole word matches the whole pattern
+     */
+    static boolean matches(String pattern, String word) {
+        int p = 0;
+        int w = 0;
+        int star = -1;
+        int starWord = 0;
+
+        while (w < word.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == word.charAt(w))
+                    && pattern.charAt(p) != '*') {
+                p++;
+                w++;
+            }
+            else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                starWord = w;
+            }
+            else if (star != -1) {
+                p = star + 1;
+                w = ++starWord;
+            }
+            else {
+                return false;
+            }
+        }
+
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+
+        return p == pattern.length();
+    }
+}
@@ -0,0 +1,110 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+
+/**
+ * A class to test PrefixIndex.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class PrefixIndexTest {
+
+    // get the current path of this .java file, **MAKE SURE .TXT FILES ARE IN SAME FOLDER**
+    public String path = this.getClass().getClassLoader().getResource("").getPath();
+                                                                                        //CONDITION:
+    @Test
+    public void testPrefixes() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        PrefixIndex test = new WordStat(new String[]{"swallow", "swallows", "swallow", "swallowed", "swan", "ni",
+                                                    "nil", "ni", "ni", "swallowed", "swallowed"}).prefixIndex();
+        assertEquals(7, test.prefixCount("swa"));                                       //prefix of several words
+        assertEquals(4, test.wordsWithPrefix("sw"));
+        assertEquals(6, test.prefixCount("swallow"));                                   //prefix is also a word
+        assertEquals(3, test.prefixCount("swallowe"));                                  //prefix ends inside an edge
+        assertEquals(0, test.prefixCount("swallowz"));                                  //no word with prefix
+        assertEquals(0, test.prefixCount("swallowedly"));                               //longer than every word
+        assertEquals(11, test.prefixCount(""));                                         //every word
+
+        assertArrayEquals(new String[]{"swallowed", "swallow"}, test.mostCommonWithPrefix(2, "swa"));
+        assertArrayEquals(new String[]{"ni", "nil"}, test.mostCommonWithPrefix(2, "n"));
+        assertTrue(test.nodeCount() <= 2 * 6 + 1);                                      //path compressed
+    }
+
+    @Test
+    public void testPatterns() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        PrefixIndex test = new WordStat(new String[]{"swallow", "swallows", "swallow", "swallowed", "swan", "ni",
+                                                    "nil", "ni", "ni"}).prefixIndex();
+        assertEquals(4, test.count("swallow*"));                                        //trailing wildcard
+        assertEquals(2, test.count("swallow"));                                         //no wildcard
+        assertEquals(1, test.count("*ed"));                                             //leading wildcard
+        assertEquals(1, test.count("swa?"));                                            //one character
+        assertEquals(4, test.count("n*"));
+        assertEquals(1, test.count("s*w*s*"));                                          //several wildcards
+        assertArrayEquals(new String[]{"swallow", "swallowed"}, test.mostCommonMatching(2, "*ow*"));
+
+        assertTrue(PrefixIndex.matches("a*b*c", "aXbYbc"));
+        assertFalse(PrefixIndex.matches("a*b?c", "abc"));
+    }
+
+    @Test
+    public void testMatchesScan() throws FileNotFoundException, IOException, NoSuchMethodException,
+                                        SecurityException, IllegalAccessException, IllegalArgumentException,
+                                        InvocationTargetException, kIsTooLargeException{
+        WordStat stat = new WordStat(path + "\\Collocs.txt");
+        PrefixIndex test = stat.prefixIndex();
+        String[] words = stat.mostCommonWords(stat.view().uniqueWords());
+
+        for(String word : words){
+            for(int length = 0; length <= word.length(); length++){
+                String prefix = word.substring(0, length);
+                long total = 0;
+                ArrayList<String> withPrefix = new ArrayList<String>();
+
+                for(String other : words){
+                    if(other.startsWith(prefix)){
+                        total += stat.wordCount(other);
+                        withPrefix.add(other);
+                    }
+                }
+
+                assertEquals(total, test.prefixCount(prefix));                          //every prefix of every word
+                assertEquals(withPrefix.size(), test.wordsWithPrefix(prefix));
+
+                String[] top = test.mostCommonWithPrefix(withPrefix.size(), prefix);
+                for(int i = 1; i < top.length; i++){
+                    int above = stat.wordCount(top[i - 1]);
+                    int below = stat.wordCount(top[i]);
+                    assertTrue(above > below || (above == below && top[i - 1].compareTo(top[i]) < 0));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testErrors() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        PrefixIndex test = new WordStat(new String[0]).prefixIndex();
+        assertEquals(0, test.prefixCount("ni"));                                        //zero words
+
+        try{
+            test.mostCommonWithPrefix(1, "");
+            fail();                                                                     //k is too large
+        }
+        catch(kIsTooLargeException e){
+        }
+
+        try{
+            test.mostCommonMatching(1, "*n?");
+            fail();                                                                     //k is too large
+        }
+        catch(kIsTooLargeException e){
+        }
+    }
+}
@@ -0,0 +1,165 @@
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded least-recently-used cache of top-k query results.  Results are keyed by the query method, word and offset,
+ * but not by k: the longest result computed so far is kept, and any request for a k no larger than it is answered with a
+ * prefix of that result.  Each cached result remembers the version of the statistics it was computed from, and the whole
+ * cache is cleared the first time a request arrives with a newer version.  A request with an older version, from a
+ * reader still holding older statistics, is run without the cache and neither uses nor clears it.
+ * @author Josh Hager
+ */
+public class QueryCache {
+
+    /**
+     * A top-k query that can be run when the cache misses.
+     */
+    public interface Query {
+
+        /**
+         * Runs the query.
+         * @param k the number of results to retrieve
+         * @return the k results
+         * @throws kIsTooLargeException if there are less than k results
+         */
+        String[] run(int k) throws kIsTooLargeException;
+    }
+
+    /* the maximum number of results held */
+    private int capacity;
+
+    /* stores query keys and their longest computed result, in order from least to most recently used */
+    private LinkedHashMap<String, String[]> results;
+
+    /* the version of the statistics the cached results were computed from */
+    private long version = 0;
+
+    private long hits = 0;
+
+    private long misses = 0;
+
+    /**
+     * Creates a new QueryCache holding at most a specified number of results.
+     * @param capacity the maximum number of results, at least 1
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public QueryCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be at least 1");
+        }
+
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<String, String[]>(16, .75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String[]> eldest) {
+                return size() > QueryCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the result of a query on statistics that never change, from the cache if a long enough result is held for
+     * the same method, word and offset, or by running the query otherwise.  A query that throws is not cached.
+     * @param method the name of the query method
+     * @param k the number of results to retrieve
+     * @param word the word the query is about, or "" if there is none
+     * @param offset the offset the query is about, or 0 if there is none
+     * @param query the query to run on a miss
+     * @return a new array containing the k results
+     * @throws kIsTooLargeException if the query is run and there are less than k results
+     */
+    public String[] get(String method, int k, String word, int offset, Query query) throws kIsTooLargeException {
+        long current;
+
+        synchronized (this) {
+            current = version;
+        }
+
+        return get(method, k, word, offset, current, query);
+    }
+
+    /**
+     * Returns the result of a query, from the cache if a long enough result is held for the same method, word and offset,
+     * or by running the query otherwise.  A query that throws is not cached.
+     * @param method the name of the query method
+     * @param k the number of results to retrieve
+     * @param word the word the query is about, or "" if there is none
+     * @param offset the offset the query is about, or 0 if there is none
+     * @param version the current version of the statistics being queried
+     * @param query the query to run on a miss
+     * @return a new array containing the k results
+     * @throws kIsTooLargeException if the query is run and there are less than k results
+     */
+    public String[] get(String method, int k, String word, int offset, long version, Query query) throws kIsTooLargeException {
+        String key = method + '\u0000' + word + '\u0000' + offset;
+
+        synchronized (this) {
+            if (version > this.version) {
+                results.clear();
+                this.version = version;
+            }
+
+            String[] cached = version == this.version ? results.get(key) : null;
+
+            if (cached != null && k <= cached.length) {
+                hits++;
+                return Arrays.copyOf(cached, k);
+            }
+
+            misses++;
+        }
+
+        /* run the query outside the lock, so that a slow query does not hold up hits on other keys */
+        String[] result = query.run(k);
+
+        synchronized (this) {
+            String[] cached = results.get(key);
+
+            if (version == this.version && (cached == null || cached.length < result.length)) {
+                results.put(key, result.clone());
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Removes every result from the cache.  The hit and miss counts are kept.
+     */
+    public synchronized void clear() {
+        results.clear();
+    }
+
+    /**
+     * Gets the number of requests answered from the cache.
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    /**
+     * Gets the number of requests that had to run their query.
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the number of results held.
+     * @return the number of results held
+     */
+    public synchronized int size() {
+        return results.size();
+    }
+
+    /**
+     * Gets the maximum number of results held.
+     * @return the capacity of this cache
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
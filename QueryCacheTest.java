@@ -0,0 +1,128 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.util.Arrays;
+
+/**
+ * A class to test QueryCache.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class QueryCacheTest {
+
+    /* the number of times the test query has run */
+    private int runs = 0;
+
+    /**
+     * A query returning the first k letters of the alphabet, or throwing if k is more than 26.
+     * @param k the number of letters
+     * @return the first k letters
+     * @throws kIsTooLargeException if k is more than 26
+     */
+    private String[] letters(int k) throws kIsTooLargeException{
+        runs++;
+
+        if(k > 26){
+            throw new kIsTooLargeException();
+        }
+
+        String[] letters = new String[k];
+        for(int i = 0; i < k; i++){
+            letters[i] = String.valueOf((char)('a' + i));
+        }
+        return letters;
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testGet() throws kIsTooLargeException{
+        QueryCache test = new QueryCache(10);
+
+        assertEquals("[a, b, c]", Arrays.toString(test.get("letters", 3, "", 0, 0, this::letters)));   //miss
+        assertEquals(1, runs);
+        assertEquals(1, test.getMisses());
+
+        assertEquals("[a, b, c]", Arrays.toString(test.get("letters", 3, "", 0, 0, this::letters)));   //same k is a hit
+        assertEquals("[a, b]", Arrays.toString(test.get("letters", 2, "", 0, 0, this::letters)));      //smaller k is a prefix
+        assertEquals(1, runs);
+        assertEquals(2, test.getHits());
+
+        assertEquals(5, test.get("letters", 5, "", 0, 0, this::letters).length);                        //larger k runs the query
+        assertEquals(2, runs);
+        assertEquals(4, test.get("letters", 4, "", 0, 0, this::letters).length);                        //and replaces the cached result
+        assertEquals(2, runs);
+
+        test.get("letters", 1, "word", 0, 0, this::letters);
+        test.get("letters", 1, "", 1, 0, this::letters);
+        assertEquals(4, runs);                                                                          //word and offset are part of the key
+    }
+
+    @Test
+    public void testReturnedArrayIsCopy() throws kIsTooLargeException{
+        QueryCache test = new QueryCache(10);
+
+        test.get("letters", 2, "", 0, 0, this::letters)[0] = "z";
+        assertEquals("[a, b]", Arrays.toString(test.get("letters", 2, "", 0, 0, this::letters)));      //caller cannot change cached result
+    }
+
+    @Test
+    public void testVersion() throws kIsTooLargeException{
+        QueryCache test = new QueryCache(10);
+
+        test.get("letters", 2, "", 0, 0, this::letters);
+        test.get("letters", 2, "", 0, 1, this::letters);
+        assertEquals(2, runs);                                                                          //new version invalidates
+        assertEquals(1, test.size());
+
+        test.get("letters", 2, "", 0, 0, this::letters);
+        assertEquals(3, runs);                                                                          //older version is not answered from the cache
+        test.get("letters", 2, "", 0, 1, this::letters);
+        assertEquals(3, runs);                                                                          //older version does not clear the cache
+    }
+
+    @Test
+    public void testUnversioned() throws kIsTooLargeException{
+        QueryCache test = new QueryCache(10);
+
+        test.get("letters", 3, "", 0, this::letters);
+        assertEquals("[a, b]", Arrays.toString(test.get("letters", 2, "", 0, this::letters)));
+        assertEquals(1, runs);                                                                          //unchanging statistics are never invalidated
+    }
+
+    @Test
+    public void testEviction() throws kIsTooLargeException{
+        QueryCache test = new QueryCache(2);
+
+        test.get("letters", 1, "a", 0, 0, this::letters);
+        test.get("letters", 1, "b", 0, 0, this::letters);
+        test.get("letters", 1, "a", 0, 0, this::letters);
+        test.get("letters", 1, "c", 0, 0, this::letters);
+        assertEquals(2, test.size());                                                                   //capacity is kept
+
+        test.get("letters", 1, "a", 0, 0, this::letters);
+        assertEquals(3, runs);                                                                          //recently used result is kept
+
+        test.get("letters", 1, "b", 0, 0, this::letters);
+        assertEquals(4, runs);                                                                          //least recently used result is evicted
+    }
+
+    @Test
+    public void testExceptions() throws kIsTooLargeException{
+        QueryCache test = new QueryCache(2);
+
+        try{
+            test.get("letters", 27, "", 0, 0, this::letters);
+            fail("No exception thrown when query throws");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //query throws
+        }
+        assertEquals(0, test.size());                                                                   //exceptions are not cached
+
+        try{
+            new QueryCache(0);
+            fail("No exception thrown when capacity is 0");
+        }
+        catch(IllegalArgumentException e){
+            /* correct exception was thrown */                                                          //capacity is 0
+        }
+    }
+}
@@ -0,0 +1,320 @@
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+
+/**
+ * Keys with counts kept in order of rank as the counts change, so that the rank of a key, the key at a rank and the keys
+ * in a range of ranks are found in O(log n) time without sorting.  Keys are ranked by higher count first, then by their
+ * Strings in increasing order, and the most common key has rank 1.
+ *
+ * The keys are held in an indexed skip list: each link from one node to a later node records how many nodes it passes
+ * over, so the rank of a node is the sum of the widths of the links followed to reach it, and the node at a rank is found
+ * by following the links whose widths still fit.  A change of count takes the node out and puts it back in its new place.
+ * @author Josh Hager
+ */
+public class RankIndex {
+
+    /* the most levels a node can have, enough for far more keys than fit in memory */
+    private static final int MAX_LEVEL = 32;
+
+    /**
+     * A key in the skip list, with a link and the width of that link at each of its levels.
+     */
+    private static final class Node {
+        final String key;
+        int count;
+        final Node[] next;
+        final int[] width;
+
+        Node(String key, int count, int levels) {
+            this.key = key;
+            this.count = count;
+            this.next = new Node[levels];
+            this.width = new int[levels];
+        }
+    }
+
+    /* a node before the first key, with every level */
+    private final Node head = new Node(null, 0, MAX_LEVEL);
+
+    /* the number of levels in use */
+    private int levels = 1;
+
+    private final HashMap<String, Node> nodes = new HashMap<String, Node>();
+
+    /* the state of the generator of node levels; fixed, so the same updates build the same list */
+    private long seed = 0x9E3779B97F4A7C15L;
+
+    /**
+     * Creates a new, empty RankIndex.
+     */
+    public RankIndex() {
+    }
+
+    /**
+     * Adds an amount to the count of a key, adding the key if it is not in the index.
+     * @param key the key
+     * @param amount the amount to add
+     * @throws ArithmeticException if the count no longer fits in an int
+     */
+    public void add(String key, int amount) {
+        Node node = nodes.get(key);
+        update(key, node == null ? amount : Math.addExact(node.count, amount));
+    }
+
+    /**
+     * Sets the count of a key, adding the key if it is not in the index.
+     * @param key the key
+     * @param count the new count
+     */
+    public void update(String key, int count) {
+        Node node = nodes.remove(key);
+
+        if (node != null) {
+            if (node.count == count) {
+                nodes.put(key, node);
+                return;
+            }
+
+            unlink(node);
+        }
+
+        nodes.put(key, insert(key, count));
+    }
+
+    /**
+     * Takes a key out of the index.
+     * @param key the key
+     * @return true if the key was in the index
+     */
+    public boolean remove(String key) {
+        Node node = nodes.remove(key);
+
+        if (node == null) {
+            return false;
+        }
+
+        unlink(node);
+        return true;
+    }
+
+    /**
+     * Gets the count of a key.
+     * @param key the key
+     * @return the count, or 0 if the key is not in the index
+     */
+    public int count(String key) {
+        Node node = nodes.get(key);
+        return node == null ? 0 : node.count;
+    }
+
+    /**
+     * Gets the rank of a key, where 1 is the rank of the most common key.
+     * @param key the key
+     * @return the rank
+     * @throws NoSuchElementException if the key is not in the index
+     */
+    public int rank(String key) throws NoSuchElementException {
+        Node node = nodes.get(key);
+
+        if (node == null) {
+            throw new NoSuchElementException();
+        }
+
+        Node x = head;
+        int rank = 0;
+
+        for (int level = levels - 1; level >= 0; level--) {
+            while (x.next[level] != null && compare(x.next[level], node.count, node.key) <= 0) {
+                rank += x.width[level];
+                x = x.next[level];
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Gets the key at a rank.
+     * @param rank the rank, from 1 to size()
+     * @return the key
+     * @throws NoSuchElementException if no key has the rank
+     */
+    public String keyAt(int rank) throws NoSuchElementException {
+        return nodeAt(rank).key;
+    }
+
+    /**
+     * Gets the keys with ranks from one rank to another, in order of rank.
+     * @param from the first rank, at least 1
+     * @param to the last rank, at most size()
+     * @return the keys, empty if to is less than from
+     * @throws NoSuchElementException if from or to is not the rank of a key
+     */
+    public String[] range(int from, int to) throws NoSuchElementException {
+        if (to < from) {
+            return new String[0];
+        }
+
+        if (to > size()) {
+            throw new NoSuchElementException();
+        }
+
+        String[] range = new String[to - from + 1];
+        Node x = nodeAt(from);
+
+        for (int i = 0; i < range.length; i++) {
+            range[i] = x.key;
+            x = x.next[0];
+        }
+
+        return range;
+    }
+
+    /**
+     * Gets the number of keys.
+     * @return the number of keys
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Copies the keys and counts into a new HashTable.
+     * @return the HashTable
+     */
+    public HashTable toHashTable() {
+        HashTable table = new HashTable(Math.max(1, size() * 2));
+
+        for (Node x = head.next[0]; x != null; x = x.next[0]) {
+            table.put(x.key, x.count);
+        }
+
+        return table;
+    }
+
+    /**
+     * A helper method to find the node at a rank by following the links whose widths fit.
+     * @param rank the rank
+     * @return the node
+     * @throws NoSuchElementException if no key has the rank
+     */
+    private Node nodeAt(int rank) throws NoSuchElementException {
+        if (rank < 1 || rank > size()) {
+            throw new NoSuchElementException();
+        }
+
+        Node x = head;
+        int passed = 0;
+
+        for (int level = levels - 1; level >= 0; level--) {
+            while (x.next[level] != null && passed + x.width[level] <= rank) {
+                passed += x.width[level];
+                x = x.next[level];
+            }
+        }
+
+        return x;
+    }
+
+    /**
+     * A helper method to put a new node in its place, widening the links that pass over it.
+     * @param key the key
+     * @param count the count
+     * @return the new node
+     */
+    private Node insert(String key, int count) {
+        Node[] before = new Node[MAX_LEVEL];
+        int[] rankBefore = new int[MAX_LEVEL];
+        Node x = head;
+        int rank = 0;
+
+        for (int level = levels - 1; level >= 0; level--) {
+            while (x.next[level] != null && compare(x.next[level], count, key) < 0) {
+                rank += x.width[level];
+                x = x.next[level];
+            }
+
+            before[level] = x;
+            rankBefore[level] = rank;
+        }
+
+        int nodeLevels = randomLevels();
+
+        /* a new level starts as one link from the head past every node */
+        for (int level = levels; level < nodeLevels; level++) {
+            before[level] = head;
+            rankBefore[level] = 0;
+            head.width[level] = size();
+        }
+        levels = Math.max(levels, nodeLevels);
+
+        Node node = new Node(key, count, nodeLevels);
+
+        for (int level = 0; level < nodeLevels; level++) {
+            Node b = before[level];
+
+            node.next[level] = b.next[level];
+            b.next[level] = node;
+
+            /* the old link is split at the node: rank - rankBefore nodes before it, the rest after */
+            node.width[level] = b.width[level] - (rank - rankBefore[level]);
+            b.width[level] = rank - rankBefore[level] + 1;
+        }
+
+        for (int level = nodeLevels; level < levels; level++) {
+            before[level].width[level]++;
+        }
+
+        return node;
+    }
+
+    /**
+     * A helper method to take a node out, narrowing the links that passed over it.
+     * @param node the node
+     */
+    private void unlink(Node node) {
+        Node x = head;
+
+        for (int level = levels - 1; level >= 0; level--) {
+            while (x.next[level] != null && compare(x.next[level], node.count, node.key) < 0) {
+                x = x.next[level];
+            }
+
+            if (x.next[level] == node) {
+                x.width[level] += node.width[level] - 1;
+                x.next[level] = node.next[level];
+            }
+            else {
+                x.width[level]--;
+            }
+        }
+
+        while (levels > 1 && head.next[levels - 1] == null) {
+            levels--;
+        }
+    }
+
+    /**
+     * A helper method to order a node against a count and key by rank.
+     * @return a negative number if the node is ranked above them, positive if below, 0 if it holds them
+     */
+    private static int compare(Node node, int count, String key) {
+        if (node.count != count) {
+            return node.count > count ? -1 : 1;
+        }
+
+        return node.key.compareTo(key);
+    }
+
+    /**
+     * A helper method to choose how many levels a new node has: each level after the first with a chance of 1 in 4.
+     * @return the number of levels, from 1 to MAX_LEVEL
+     */
+    private int randomLevels() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+
+        return Math.min(1 + Long.numberOfTrailingZeros(seed | (1L << 62)) / 2, MAX_LEVEL);
+    }
+}
@@ -0,0 +1,116 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ * A class to test RankIndex.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class RankIndexTest {
+                                                                                        //CONDITION:
+    @Test
+    public void testRanks(){
+        RankIndex test = new RankIndex();
+        assertEquals(0, test.size());                                                   //empty index
+        assertEquals(0, test.count("bulbasaur"));
+
+        test.add("bulbasaur", 3);
+        test.add("squirtle", 2);
+        test.add("charmander", 2);
+        assertEquals(1, test.rank("bulbasaur"));                                        //most common key
+        assertEquals(2, test.rank("charmander"));                                       //equal counts, by String
+        assertEquals(3, test.rank("squirtle"));
+        assertEquals("charmander", test.keyAt(2));
+        assertArrayEquals(new String[]{"bulbasaur", "charmander", "squirtle"}, test.range(1, 3));
+
+        test.add("squirtle", 2);
+        assertEquals(1, test.rank("squirtle"));                                         //count raised past others
+        assertEquals(4, test.count("squirtle"));
+        assertArrayEquals(new String[]{"bulbasaur", "charmander"}, test.range(2, 3));
+
+        test.update("squirtle", 1);
+        assertEquals(3, test.rank("squirtle"));                                         //count lowered
+        assertTrue(test.remove("bulbasaur"));
+        assertFalse(test.remove("bulbasaur"));                                          //key already removed
+        assertEquals(1, test.rank("charmander"));
+        assertEquals(2, test.size());
+        assertEquals(0, test.range(2, 1).length);                                       //empty range
+    }
+
+    @Test
+    public void testMatchesSort(){
+        RankIndex test = new RankIndex();
+        HashMap<String, Integer> counts = new HashMap<String, Integer>();
+        Random random = new Random(3);
+
+        for(int n = 0; n < 20000; n++){
+            String key = "k" + random.nextInt(2000);
+            int amount = 1 + random.nextInt(5);
+
+            if(random.nextInt(50) == 0){
+                test.remove(key);                                                       //keys come and go
+                counts.remove(key);
+            }
+            else{
+                test.add(key, amount);
+                counts.merge(key, amount, Integer::sum);
+            }
+        }
+
+        ArrayList<String> sorted = new ArrayList<String>(counts.keySet());
+        sorted.sort((a, b) -> counts.get(a).equals(counts.get(b)) ? a.compareTo(b) : counts.get(b) - counts.get(a));
+
+        assertEquals(sorted.size(), test.size());
+        for(int i = 0; i < sorted.size(); i++){
+            assertEquals(i + 1, test.rank(sorted.get(i)));                              //every rank
+            assertEquals(sorted.get(i), test.keyAt(i + 1));                             //every key at a rank
+            assertEquals((int)counts.get(sorted.get(i)), test.count(sorted.get(i)));
+        }
+        assertArrayEquals(sorted.subList(100, 200).toArray(new String[0]), test.range(101, 200));
+
+        HashTable table = test.toHashTable();
+        assertEquals(sorted.size(), table.size());                                      //copied to a HashTable
+        assertEquals((int)counts.get(sorted.get(0)), table.get(sorted.get(0)));
+    }
+
+    @Test
+    public void testErrors(){
+        RankIndex test = new RankIndex();
+        test.add("ni", 1);
+
+        try{
+            test.rank("shrubbery");
+            fail();                                                                     //key is not in index
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.keyAt(2);
+            fail();                                                                     //rank is too large
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.range(0, 1);
+            fail();                                                                     //rank is too small
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.add("ni", Integer.MAX_VALUE);
+            fail();                                                                     //count overflows
+        }
+        catch(ArithmeticException e){
+        }
+    }
+}
@@ -0,0 +1,207 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * The keys of a HashTable and their counts, held in two parallel arrays sorted by key.  Because both arrays are in the
+ * same order, the counts of any number of tables can be added together with a single k-way merge that reads each array
+ * once from front to back, instead of hashing every key of every table again.
+ * @author Josh Hager
+ */
+public class SortedCounts {
+
+    /* the keys, in increasing order */
+    private String[] keys;
+
+    /* the count of the key at the same index */
+    private int[] counts;
+
+    /**
+     * Creates a new SortedCounts from arrays that are already sorted by key, without copying them.
+     * @param keys the keys, in increasing order with no duplicates
+     * @param counts the count of each key
+     */
+    private SortedCounts(String[] keys, int[] counts) {
+        this.keys = keys;
+        this.counts = counts;
+    }
+
+    /**
+     * Creates a new SortedCounts holding every key of a HashTable and its value.
+     * @param table the HashTable
+     * @return the sorted keys and counts
+     */
+    public static SortedCounts of(HashTable table) {
+        ArrayList<HashEntry> entries = table.entries();
+        HashEntry[] sorted = entries.toArray(new HashEntry[0]);
+        Arrays.sort(sorted, (a, b) -> a.getKey().compareTo(b.getKey()));
+
+        String[] keys = new String[sorted.length];
+        int[] counts = new int[sorted.length];
+
+        for (int i = 0; i < sorted.length; i++) {
+            keys[i] = sorted[i].getKey();
+            counts[i] = sorted[i].getValue();
+        }
+
+        return new SortedCounts(keys, counts);
+    }
+
+    /**
+     * Adds the counts of several SortedCounts together with a k-way merge.  The next key of every part is kept in a
+     * binary heap, so each key is compared against log k others rather than all k.
+     * @param parts the SortedCounts to add
+     * @return a new SortedCounts holding every key of the parts, with the sum of its counts
+     * @throws ArithmeticException if a sum does not fit in an int
+     */
+    public static SortedCounts merge(SortedCounts... parts) {
+        int total = 0;
+        for (SortedCounts part : parts) {
+            total += part.size();
+        }
+
+        String[] keys = new String[total];
+        int[] counts = new int[total];
+        int n = 0;
+
+        /* heap holds the indices of the parts that have keys left, ordered by their next key */
+        int[] heap = new int[parts.length];
+        int[] next = new int[parts.length];
+        int heapSize = 0;
+
+        for (int p = 0; p < parts.length; p++) {
+            if (parts[p].size() > 0) {
+                heap[heapSize++] = p;
+                siftUp(heap, heapSize - 1, parts, next);
+            }
+        }
+
+        while (heapSize > 0) {
+            int p = heap[0];
+            String key = parts[p].keys[next[p]];
+            int count = parts[p].counts[next[p]];
+
+            if (n > 0 && keys[n - 1].equals(key)) {
+                counts[n - 1] = Math.addExact(counts[n - 1], count);
+            }
+            else {
+                keys[n] = key;
+                counts[n] = count;
+                n++;
+            }
+
+            next[p]++;
+
+            if (next[p] == parts[p].size()) {
+                heap[0] = heap[--heapSize];
+            }
+
+            siftDown(heap, heapSize, parts, next);
+        }
+
+        return new SortedCounts(Arrays.copyOf(keys, n), Arrays.copyOf(counts, n));
+    }
+
+    /**
+     * Puts every key and its count into a new HashTable, sized so that it is not rehashed while it is filled.
+     * @return the HashTable
+     */
+    public HashTable toHashTable() {
+        HashTable table = new HashTable(Math.max((int)(keys.length / .75) + 1, 100));
+
+        for (int i = 0; i < keys.length; i++) {
+            table.put(keys[i], counts[i]);
+        }
+
+        return table;
+    }
+
+    /**
+     * Gets the number of keys.
+     * @return the number of keys
+     */
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * Gets a key.
+     * @param i the index of the key, in increasing order of key
+     * @return the key
+     */
+    public String getKey(int i) {
+        return keys[i];
+    }
+
+    /**
+     * Gets a count.
+     * @param i the index of the key whose count to get, in increasing order of key
+     * @return the count
+     */
+    public int getCount(int i) {
+        return counts[i];
+    }
+
+    /**
+     * A helper method for merge to move a part up the heap until its next key is no smaller than its parent's.
+     * @param heap the heap of part indices
+     * @param i the position in the heap to move up from
+     * @param parts the parts
+     * @param next the index of the next key of each part
+     */
+    private static void siftUp(int[] heap, int i, SortedCounts[] parts, int[] next) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+
+            if (compare(heap[i], heap[parent], parts, next) >= 0) {
+                return;
+            }
+
+            int swap = heap[i];
+            heap[i] = heap[parent];
+            heap[parent] = swap;
+            i = parent;
+        }
+    }
+
+    /**
+     * A helper method for merge to move the part at the top of the heap down until its next key is no larger than its
+     * children's.
+     * @param heap the heap of part indices
+     * @param heapSize the number of parts in the heap
+     * @param parts the parts
+     * @param next the index of the next key of each part
+     */
+    private static void siftDown(int[] heap, int heapSize, SortedCounts[] parts, int[] next) {
+        int i = 0;
+
+        while (2 * i + 1 < heapSize) {
+            int child = 2 * i + 1;
+
+            if (child + 1 < heapSize && compare(heap[child + 1], heap[child], parts, next) < 0) {
+                child++;
+            }
+
+            if (compare(heap[i], heap[child], parts, next) <= 0) {
+                return;
+            }
+
+            int swap = heap[i];
+            heap[i] = heap[child];
+            heap[child] = swap;
+            i = child;
+        }
+    }
+
+    /**
+     * A helper method to compare the next keys of two parts, breaking ties by part index so the merge is deterministic.
+     * @param a the index of the first part
+     * @param b the index of the second part
+     * @param parts the parts
+     * @param next the index of the next key of each part
+     * @return a negative number, zero or a positive number as the first part's key is smaller, equal or larger
+     */
+    private static int compare(int a, int b, SortedCounts[] parts, int[] next) {
+        int c = parts[a].keys[next[a]].compareTo(parts[b].keys[next[b]]);
+        return c != 0 ? c : a - b;
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * A class to test SortedCounts.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class SortedCountsTest {
+
+    /**
+     * A helper method to write a SortedCounts as a String of keys and counts.
+     * @param counts the SortedCounts
+     * @return the keys and counts, in order
+     */
+    private static String toString(SortedCounts counts){
+        StringBuilder s = new StringBuilder();
+        for(int i = 0; i < counts.size(); i++){
+            s.append(i > 0 ? " " : "").append(counts.getKey(i)).append('=').append(counts.getCount(i));
+        }
+        return s.toString();
+    }
+
+    /**
+     * A helper method to make a SortedCounts from keys, where each occurrence of a key adds 1 to its count.
+     * @param keys the keys
+     * @return the SortedCounts
+     */
+    private static SortedCounts of(String... keys){
+        HashTable table = new HashTable();
+        for(String key : keys){
+            table.put(key, 1);
+        }
+        return SortedCounts.of(table);
+    }
+                                                                                        //CONDITION:
+    @Test
+    public void testOf(){
+        assertEquals("", toString(of()));                                               //empty table
+        assertEquals("a=2 b=1 c=1", toString(of("c", "a", "b", "a")));                  //sorted by key
+    }
+
+    @Test
+    public void testMerge(){
+        SortedCounts merged = SortedCounts.merge(of("a", "c"), of(), of("b", "c", "c"), of("a", "d"));
+        assertEquals("a=2 b=1 c=3 d=1", toString(merged));                              //counts are added
+
+        assertEquals("", toString(SortedCounts.merge()));                               //no parts
+        assertEquals("a=1", toString(SortedCounts.merge(of("a"))));                     //one part
+
+        HashTable table = merged.toHashTable();
+        assertEquals(3, table.get("c"));                                                //back into a HashTable
+        assertEquals(4, table.size());
+    }
+
+    @Test(expected = ArithmeticException.class)
+    public void testOverflow(){
+        HashTable table = new HashTable();
+        table.put("a", Integer.MAX_VALUE);
+        SortedCounts.merge(SortedCounts.of(table), of("a"));                            //count overflows
+    }
+}
@@ -0,0 +1,194 @@
+import java.util.Arrays;
+
+/**
+ * An immutable set of stop words, held as a compact trie.  The nodes are numbered in breadth-first order, so the
+ * children of each node are a contiguous, sorted run of the node arrays and the children of node n end where the children
+ * of node n + 1 begin.  The whole trie is three primitive arrays, with no node objects, and a lookup walks one char at
+ * a time with a binary search among each node's children, without hashing or allocating.
+ * @author Josh Hager
+ */
+public class StopWordSet {
+
+    /* common English words, before normalization */
+    private static final String[] ENGLISH = new String[]{
+        "a", "about", "above", "after", "again", "against", "all", "am", "an", "and", "any", "are", "as", "at", "be",
+        "because", "been", "before", "being", "below", "between", "both", "but", "by", "can", "could", "did", "do", "does",
+        "doing", "don't", "down", "during", "each", "few", "for", "from", "further", "had", "has", "have", "having", "he",
+        "her", "here", "hers", "herself", "him", "himself", "his", "how", "i", "if", "in", "into", "is", "it", "its",
+        "itself", "just", "me", "more", "most", "my", "myself", "no", "nor", "not", "now", "of", "off", "on", "once",
+        "only", "or", "other", "our", "ours", "ourselves", "out", "over", "own", "same", "she", "should", "so", "some",
+        "such", "than", "that", "the", "their", "theirs", "them", "themselves", "then", "there", "these", "they", "this",
+        "those", "through", "to", "too", "under", "until", "up", "very", "was", "we", "were", "what", "when", "where",
+        "which", "while", "who", "whom", "why", "will", "with", "would", "you", "your", "yours", "yourself", "yourselves"
+    };
+
+    /* the char leading to each node; the root's is unused */
+    private char[] labels;
+
+    /* the children of node n are the nodes from firstChild[n] up to firstChild[n + 1] */
+    private int[] firstChild;
+
+    /* true for each node that ends a word */
+    private boolean[] terminal;
+
+    /* the number of words in the set */
+    private int size;
+
+    /**
+     * Creates a new StopWordSet of words.  Each word is normalized with Tokenizer.normalize first, so that the set
+     * matches the words a Tokenizer produces.
+     * @param words the stop words
+     */
+    public StopWordSet(String... words) {
+        String[] sorted = new String[words.length];
+        int n = 0;
+
+        for (String word : words) {
+            String normalized = Tokenizer.normalize(word);
+
+            if (!normalized.isEmpty()) {
+                sorted[n++] = normalized;
+            }
+        }
+
+        Arrays.sort(sorted, 0, n);
+
+        /* remove duplicates */
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || !sorted[i].equals(sorted[unique - 1])) {
+                sorted[unique++] = sorted[i];
+            }
+        }
+
+        size = unique;
+        build(Arrays.copyOf(sorted, unique));
+    }
+
+    /**
+     * Creates a new StopWordSet of common English words.
+     * @return the set
+     */
+    public static StopWordSet english() {
+        return new StopWordSet(ENGLISH);
+    }
+
+    /**
+     * Checks whether a word is in the set.
+     * @param word the word, already normalized
+     * @return true if the word is a stop word
+     */
+    public boolean contains(CharSequence word) {
+        int node = 0;
+
+        for (int i = 0; i < word.length(); i++) {
+            node = child(node, word.charAt(i));
+
+            if (node == -1) {
+                return false;
+            }
+        }
+
+        return terminal[node];
+    }
+
+    /**
+     * Gets the number of words in the set.
+     * @return the number of words
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the number of nodes in the trie, including the root.
+     * @return the number of nodes
+     */
+    public int nodeCount() {
+        return labels.length;
+    }
+
+    /**
+     * Finds the child of a node reached by a char.
+     * @param node the node
+     * @param c the char
+     * @return the child, -1 if the node has no child for c
+     */
+    private int child(int node, char c) {
+        int low = firstChild[node];
+        int high = firstChild[node + 1] - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            if (labels[middle] < c) {
+                low = middle + 1;
+            }
+            else if (labels[middle] > c) {
+                high = middle - 1;
+            }
+            else {
+                return middle;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Builds the trie from sorted, distinct words.  Each node covers the run of words sharing its prefix; the nodes are
+     * visited in breadth-first order, and each one's run is split into one child per distinct next char.
+     * @param words the words, sorted with no duplicates
+     */
+    private void build(String[] words) {
+        int capacity = 1;
+        for (String word : words) {
+            capacity += word.length();
+        }
+
+        labels = new char[capacity];
+        firstChild = new int[capacity + 1];
+        terminal = new boolean[capacity];
+
+        /* the run of words covered by each node, and the depth of the node */
+        int[] from = new int[capacity];
+        int[] to = new int[capacity];
+        int[] depth = new int[capacity];
+
+        to[0] = words.length;
+        int nodes = 1;
+
+        for (int node = 0; node < nodes; node++) {
+            firstChild[node] = nodes;
+            int d = depth[node];
+            int i = from[node];
+
+            /* a word ending here sorts before every longer word with the same prefix */
+            if (i < to[node] && words[i].length() == d) {
+                terminal[node] = true;
+                i++;
+            }
+
+            while (i < to[node]) {
+                char c = words[i].charAt(d);
+                int start = i;
+
+                while (i < to[node] && words[i].charAt(d) == c) {
+                    i++;
+                }
+
+                labels[nodes] = c;
+                from[nodes] = start;
+                to[nodes] = i;
+                depth[nodes] = d + 1;
+                nodes++;
+            }
+        }
+
+        firstChild[nodes] = nodes;
+
+        labels = Arrays.copyOf(labels, nodes);
+        firstChild = Arrays.copyOf(firstChild, nodes + 1);
+        terminal = Arrays.copyOf(terminal, nodes);
+    }
+}
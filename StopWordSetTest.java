@@ -0,0 +1,43 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * A class to test StopWordSet.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class StopWordSetTest {
+                                                                                        //CONDITION:
+    @Test
+    public void testContains(){
+        StopWordSet test = new StopWordSet("the", "then", "them", "a", "of", "THE", "Don't");
+
+        assertTrue(test.contains("the"));                                               //word in the set
+        assertTrue(test.contains("then"));                                              //word with a prefix in the set
+        assertTrue(test.contains("a"));                                                 //one letter word
+        assertTrue(test.contains("dont"));                                              //words are normalized
+        assertFalse(test.contains("th"));                                               //prefix of a word
+        assertFalse(test.contains("thee"));                                             //not in the set
+        assertFalse(test.contains(""));                                                 //empty word
+        assertEquals(6, test.size());                                                   //duplicates are removed
+        assertEquals(13, test.nodeCount());                                             //prefixes are shared
+    }
+
+    @Test
+    public void testEmpty(){
+        StopWordSet test = new StopWordSet();
+
+        assertFalse(test.contains("the"));                                              //empty set
+        assertEquals(0, test.size());
+    }
+
+    @Test
+    public void testEnglish(){
+        StopWordSet test = StopWordSet.english();
+
+        assertTrue(test.contains("the"));
+        assertTrue(test.contains("yourselves"));
+        assertFalse(test.contains("shrubbery"));                                        //English stop words
+    }
+}
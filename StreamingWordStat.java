@@ -0,0 +1,364 @@
+import java.lang.reflect.InvocationTargetException;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Counts words and word pairs from a stream of text as it arrives, for text that comes from a message bus or a socket
+ * rather than a file.  A StreamingWordStat is a Flow.Subscriber of UTF-8 text chunks; tokenBatches gives a
+ * Flow.Subscriber of word batches that counts into the same tables.  Either asks its publisher for a few items at a time
+ * and asks for more only as it finishes them, so a fast publisher cannot fill memory with text that has not been counted.
+ *
+ * Chunks may be cut anywhere, even inside a word or a multi-byte character: the cut-off word is finished by the next
+ * chunk, and the last word of each chunk makes a pair with the first word of the next, so the counts are the same as
+ * reading the whole text with a Tokenizer.  The statistics can be read at any time, from any thread, with snapshot,
+ * which gives a WordStat of every item counted so far and never part of one.  A word cut off at the end of the chunks
+ * so far is counted once it is finished, or when the stream completes.
+ *
+ * The words are kept in a RankIndex as they are counted, so the count and rank of a word, and the words at a range of
+ * ranks, can also be read directly in logarithmic time without making a snapshot.  Words with equal counts are ranked
+ * there in order of their Strings.
+ * @author Josh Hager
+ */
+public class StreamingWordStat implements Flow.Subscriber<byte[]> {
+
+    /* the word counts so far, kept in order of rank; guarded by this */
+    private RankIndex wordRanks = new RankIndex();
+
+    /* the word pair counts so far; guarded by this */
+    private HashTable wordPairTable = new HashTable();
+
+    /* the last word counted, which makes a pair with the next; null at the start or after a pair break */
+    private String lastWord;
+
+    /* the number of words counted so far; guarded by this */
+    private long words = 0;
+
+    /* splits the text chunks into words, carrying a cut-off word from one chunk to the next */
+    private Utf8TokenScanner scanner;
+
+    /* decides which words are counted, null to count every word; with a normalizer, applied after its first stage */
+    private TokenFilter filter;
+
+    /* normalizes each word, null to use Tokenizer.normalize */
+    private NormalizerChain normalizer;
+
+    /* the most items asked for and not yet received */
+    private int prefetch;
+
+    /* receives the text chunks for this StreamingWordStat */
+    private Feed<byte[]> text;
+
+    /* counted down when the stream completes or fails */
+    private CountDownLatch terminated = new CountDownLatch(1);
+
+    /* the error the stream failed with, null if it has not failed */
+    private volatile Throwable error;
+
+    /**
+     * Creates a new StreamingWordStat that normalizes words with Tokenizer.normalize, counts every word and asks for 16
+     * items at a time.
+     */
+    public StreamingWordStat() {
+        this(null, null, 16);
+    }
+
+    /**
+     * Creates a new StreamingWordStat.
+     * @param filter decides which words are counted, or null to count every word
+     * @param normalizer normalizes each word, or null to use Tokenizer.normalize
+     * @param prefetch the most items asked for at once, at least 1
+     * @throws IllegalArgumentException if prefetch is less than 1
+     */
+    public StreamingWordStat(TokenFilter filter, NormalizerChain normalizer, int prefetch) {
+        if (prefetch < 1) {
+            throw new IllegalArgumentException("prefetch must be at least 1");
+        }
+
+        this.filter = filter;
+        this.normalizer = normalizer;
+        this.prefetch = prefetch;
+        this.scanner = new Utf8TokenScanner(normalizer, filter);
+        this.text = new Feed<byte[]>(this::addText);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        text.onSubscribe(subscription);
+    }
+
+    @Override
+    public void onNext(byte[] chunk) {
+        text.onNext(chunk);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        text.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        text.onComplete();
+    }
+
+    /**
+     * Gives a Flow.Subscriber of word batches that counts into this StreamingWordStat, for a stream that has already been
+     * split into words.  Each word is normalized as Tokenizer normalizes the words of a String array.  The last word of
+     * one batch makes a pair with the first word of the next.  Only one publisher should feed this StreamingWordStat at a
+     * time, and the stream ends when either kind of subscriber completes.
+     * @return the subscriber
+     */
+    public Flow.Subscriber<String[]> tokenBatches() {
+        return new Feed<String[]>(this::addTokens);
+    }
+
+    /**
+     * Makes a WordStat of everything counted so far.  The tables are copied while no item is being counted, so the
+     * snapshot holds whole items only, and counting goes on while the copy is ranked.
+     * @return a new WordStat
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    public WordStat snapshot() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException {
+        HashTable wordCopy;
+        HashTable pairCopy;
+
+        synchronized (this) {
+            wordCopy = wordRanks.toHashTable();
+            pairCopy = copy(wordPairTable);
+        }
+
+        return new WordStat(wordCopy, pairCopy, null);
+    }
+
+    /**
+     * Gets the count of a word so far.
+     * @param word the word to get the count of
+     * @return the count of that word
+     */
+    public synchronized int wordCount(String word) {
+        return wordRanks.count(word);
+    }
+
+    /**
+     * Gets the rank of a word so far, where 1 is the rank of the most common word.
+     * @param word the word to get the rank of
+     * @return the rank of the word
+     * @throws NoSuchElementException if the word has not been counted
+     */
+    public synchronized int wordRank(String word) throws NoSuchElementException {
+        return wordRanks.rank(word);
+    }
+
+    /**
+     * Gets the word at a rank so far.
+     * @param rank the rank, from 1 to the number of distinct words
+     * @return the word
+     * @throws NoSuchElementException if no word has the rank
+     */
+    public synchronized String wordAtRank(int rank) throws NoSuchElementException {
+        return wordRanks.keyAt(rank);
+    }
+
+    /**
+     * Gets the words with ranks from one rank to another so far, in order of rank.
+     * @param from the first rank, at least 1
+     * @param to the last rank, at most the number of distinct words
+     * @return the words, empty if to is less than from
+     * @throws NoSuchElementException if from or to is not the rank of a word
+     */
+    public synchronized String[] wordsInRankRange(int from, int to) throws NoSuchElementException {
+        return wordRanks.range(from, to);
+    }
+
+    /**
+     * Gets the number of words counted so far.
+     * @return the number of words
+     */
+    public synchronized long wordsCounted() {
+        return words;
+    }
+
+    /**
+     * Checks whether the stream has completed or failed.
+     * @return true if no more items will be counted
+     */
+    public boolean isDone() {
+        return terminated.getCount() == 0;
+    }
+
+    /**
+     * Gets the error the stream failed with, either from the publisher or from counting an item.
+     * @return the error, or null if the stream has not failed
+     */
+    public Throwable getError() {
+        return error;
+    }
+
+    /**
+     * Waits for the stream to complete or fail.
+     * @param timeout the longest time to wait
+     * @param unit the unit of timeout
+     * @return true if the stream has completed or failed, false if the time ran out first
+     * @throws InterruptedException if the wait is interrupted
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    /**
+     * A helper method to count the words of a text chunk.
+     * @param chunk the text, in UTF-8
+     */
+    private synchronized void addText(byte[] chunk) {
+        scanner.scan(chunk, 0, chunk.length, this::addWord);
+    }
+
+    /**
+     * A helper method to count a batch of words.
+     * @param batch the words, not yet normalized
+     */
+    private synchronized void addTokens(String[] batch) {
+        for (String word : batch) {
+            addWord(normalizer == null ? Tokenizer.normalize(word) : normalizer.normalize(word, filter));
+        }
+    }
+
+    /**
+     * A helper method to count a normalized word and the pair it ends, the way Tokenizer and WordStat would.  A word
+     * dropped by a filter in BREAK mode means the words on either side of it are not a pair.  With a NormalizerChain, the
+     * chain has already checked the word with the filter after its first stage.
+     * @param word the normalized word, or null if the NormalizerChain's filter dropped it
+     */
+    private void addWord(String word) {
+        if (word != null && word.isEmpty()) {
+            return;
+        }
+
+        if (word == null || normalizer == null && filter != null && !filter.accept(word)) {
+            if (filter.getPairMode() == TokenFilter.PairMode.BREAK) {
+                lastWord = null;
+            }
+            return;
+        }
+
+        wordRanks.add(word, 1);
+
+        if (lastWord != null) {
+            wordPairTable.put(lastWord + " " + word, 1);
+        }
+
+        lastWord = word;
+        words++;
+    }
+
+    /**
+     * A helper method to end the stream, counting the word cut off at the end of the text.
+     * @param throwable the error the stream failed with, or null if it completed
+     */
+    private void terminate(Throwable throwable) {
+        synchronized (this) {
+            if (isDone()) {
+                return;
+            }
+
+            if (throwable == null) {
+                scanner.finish(this::addWord);
+            }
+            else {
+                error = throwable;
+            }
+        }
+
+        terminated.countDown();
+    }
+
+    /**
+     * A helper method to copy a HashTable into new entries, so ranking the copy does not change the original.
+     * @param table the table
+     * @return the copy
+     */
+    private static HashTable copy(HashTable table) {
+        HashTable copy = new HashTable(Math.max(1, table.size() * 2));
+        copy.addAll(table);
+        return copy;
+    }
+
+    /**
+     * A Flow.Subscriber that passes each item to a StreamingWordStat and asks for more items as it finishes them.
+     * @param <T> the type of item
+     */
+    private class Feed<T> implements Flow.Subscriber<T> {
+
+        /* counts one item */
+        private Consumer<T> action;
+
+        /* the subscription, null before onSubscribe */
+        private Flow.Subscription subscription;
+
+        /* the number of items finished since more were last asked for */
+        private int finished = 0;
+
+        /**
+         * Creates a new Feed.
+         * @param action counts one item
+         */
+        Feed(Consumer<T> action) {
+            this.action = action;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (this.subscription != null || isDone()) {
+                subscription.cancel();
+                return;
+            }
+
+            this.subscription = subscription;
+            subscription.request(prefetch);
+        }
+
+        @Override
+        public void onNext(T item) {
+            if (item == null) {
+                throw new NullPointerException();
+            }
+
+            if (isDone()) {
+                return;
+            }
+
+            try {
+                action.accept(item);
+            }
+            catch (RuntimeException e) {
+                subscription.cancel();
+                terminate(e);
+                return;
+            }
+
+            /* ask for more once half of what was asked for is finished, so the publisher is rarely kept waiting */
+            if (++finished >= Math.max(1, prefetch / 2)) {
+                subscription.request(finished);
+                finished = 0;
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            terminate(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            terminate(null);
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class to test StreamingWordStat.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class StreamingWordStatTest {
+
+    // get the current path of this .java file, **MAKE SURE .TXT FILES ARE IN SAME FOLDER**
+    public String path = this.getClass().getClassLoader().getResource("").getPath();
+                                                                                        //CONDITION:
+    @Test
+    public void testChunksMatchTokenizer() throws Exception{
+        byte[] bytes = Files.readAllBytes(Paths.get(path + "\\Collocs.txt"));
+        WordStat expected = new WordStat(new Tokenizer(path + "\\Collocs.txt", StandardCharsets.UTF_8), 1);
+
+        StreamingWordStat test = new StreamingWordStat();
+        try(SubmissionPublisher<byte[]> publisher = new SubmissionPublisher<byte[]>()){
+            publisher.subscribe(test);
+
+            /* chunks of 1 to 7 bytes, cutting words apart */
+            Random random = new Random(42);
+            for(int i = 0; i < bytes.length; ){
+                int n = Math.min(bytes.length - i, 1 + random.nextInt(7));
+                publisher.submit(Arrays.copyOfRange(bytes, i, i + n));
+                i += n;
+            }
+        }
+
+        assertTrue(test.awaitTermination(30, TimeUnit.SECONDS));
+        assertNull(test.getError());
+        assertSameCounts(expected, test.snapshot());                                    //words cut across chunks
+    }
+
+    @Test
+    public void testMultiByteCut() throws Exception{
+        byte[] bytes = "caf\u00e9 caf\u00e9 na\u00efve".getBytes(StandardCharsets.UTF_8);
+        StreamingWordStat test = new StreamingWordStat();
+        Subscription subscription = new Subscription();
+
+        test.onSubscribe(subscription);
+        for(byte b : bytes){
+            test.onNext(new byte[]{b});                                                 //one byte at a time
+        }
+
+        assertEquals(2, test.snapshot().wordCount("caf\u00e9"));                       //characters cut across chunks
+        assertEquals(0, test.snapshot().wordCount("na\u00efve"));                      //last word not finished yet
+        test.onComplete();
+        assertEquals(1, test.snapshot().wordCount("na\u00efve"));                      //finished on complete
+        assertEquals(1, test.snapshot().wordPairCount("caf\u00e9", "na\u00efve"));
+        assertEquals(3, test.wordsCounted());
+        assertTrue(test.isDone());
+    }
+
+    @Test
+    public void testLiveRanks() throws Exception{
+        StreamingWordStat test = new StreamingWordStat();
+        test.onSubscribe(new Subscription());
+
+        test.onNext("ni ni shrubbery ".getBytes(StandardCharsets.UTF_8));
+        assertEquals(1, test.wordRank("ni"));                                           //ranked as counted
+        assertEquals("shrubbery", test.wordAtRank(2));
+
+        test.onNext("shrubbery shrubbery it".getBytes(StandardCharsets.UTF_8));
+        assertEquals(3, test.wordCount("shrubbery"));
+        assertEquals(1, test.wordRank("shrubbery"));                                    //rank changed by more text
+        assertArrayEquals(new String[]{"shrubbery", "ni"}, test.wordsInRankRange(1, 2));
+        assertEquals(0, test.wordCount("it"));                                          //last word not finished yet
+    }
+
+    @Test
+    public void testTokenBatches() throws Exception{
+        String[] words = new String[]{"the", "knights", "who", "say", "Ni!", "the", "knights"};
+        WordStat expected = new WordStat(words);
+
+        StreamingWordStat test = new StreamingWordStat();
+        Flow.Subscriber<String[]> batches = test.tokenBatches();
+        Subscription subscription = new Subscription();
+
+        batches.onSubscribe(subscription);
+        batches.onNext(Arrays.copyOfRange(words, 0, 2));
+        batches.onNext(Arrays.copyOfRange(words, 2, 5));
+        batches.onNext(Arrays.copyOfRange(words, 5, 7));
+        batches.onComplete();
+
+        assertSameCounts(expected, test.snapshot());                                    //pairs across batches
+        assertEquals(2, test.snapshot().wordPairCount("the", "knights"));
+        assertEquals(1, test.snapshot().wordPairCount("ni", "the"));
+    }
+
+    @Test
+    public void testFilter() throws Exception{
+        TokenFilter filter = new TokenFilter().setMinLength(3).setPairMode(TokenFilter.PairMode.BREAK);
+        StreamingWordStat test = new StreamingWordStat(filter, null, 4);
+
+        test.onSubscribe(new Subscription());
+        test.onNext("who is there".getBytes(StandardCharsets.UTF_8));
+        test.onComplete();
+
+        assertEquals(0, test.snapshot().wordCount("is"));                               //word dropped
+        assertEquals(0, test.snapshot().wordPairCount("who", "there"));                 //pair broken
+    }
+
+    @Test
+    public void testStemmedStopWords() throws Exception{
+        TokenFilter filter = new TokenFilter().setStopWords(StopWordSet.english());
+        StreamingWordStat test = new StreamingWordStat(filter, NormalizerChain.standard().add(new PorterStemmer()), 4);
+
+        test.onSubscribe(new Subscription());
+        test.onNext("This was the only thing because things".getBytes(StandardCharsets.UTF_8));
+        test.onComplete();
+
+        assertEquals(2, test.snapshot().wordCount("thing"));                            //content words stemmed
+        assertEquals(0, test.snapshot().wordCount("thi"));                              //stop words dropped before stemming
+        assertEquals(0, test.snapshot().wordCount("onli"));
+        assertEquals(1, test.snapshot().wordPairCount("thing", "thing"));               //skipped words keep pairs
+    }
+
+    @Test
+    public void testBackpressure() throws Exception{
+        StreamingWordStat test = new StreamingWordStat(null, null, 4);
+        Subscription subscription = new Subscription();
+
+        test.onSubscribe(subscription);
+        assertEquals(4, subscription.requested);                                        //asks for prefetch
+
+        for(int i = 0; i < 100; i++){
+            assertTrue(subscription.requested - i > 0);                                 //never sent more than asked
+            assertTrue(subscription.requested - i <= 4);                                //never asks for more than prefetch
+            test.onNext("ni ".getBytes(StandardCharsets.UTF_8));
+        }
+
+        Subscription second = new Subscription();
+        test.onSubscribe(second);
+        assertTrue(second.cancelled);                                                   //second subscription
+
+        test.onError(new IllegalStateException());
+        assertTrue(test.isDone());                                                      //stream failed
+        assertTrue(test.getError() instanceof IllegalStateException);
+        assertEquals(100, test.snapshot().wordCount("ni"));
+    }
+
+    /**
+     * A helper method to check that two WordStats hold the same words and word pairs with the same counts.  Words with
+     * equal counts may be ranked in a different order, since the tables are filled in a different order.
+     */
+    private static void assertSameCounts(WordStat expected, WordStat actual) throws kIsTooLargeException{
+        int words = count(expected, true);
+        int pairs = count(expected, false);
+        assertEquals(words, count(actual, true));
+        assertEquals(pairs, count(actual, false));
+
+        for(String word : expected.mostCommonWords(words)){
+            assertEquals(expected.wordCount(word), actual.wordCount(word));
+        }
+        for(String pair : expected.mostCommonWordPairs(pairs)){
+            String[] split = pair.split(" ");
+            assertEquals(expected.wordPairCount(split[0], split[1]), actual.wordPairCount(split[0], split[1]));
+        }
+    }
+
+    /**
+     * A helper method to count the distinct words or word pairs of a WordStat.
+     */
+    private static int count(WordStat stat, boolean words){
+        return words ? stat.view().uniqueWords() : stat.view().uniqueWordPairs();
+    }
+
+    /**
+     * A Flow.Subscription that records what is asked of it.
+     */
+    private static class Subscription implements Flow.Subscription{
+        long requested = 0;
+        boolean cancelled = false;
+
+        @Override
+        public void request(long n){
+            requested += n;
+        }
+
+        @Override
+        public void cancel(){
+            cancelled = true;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+/**
+ * Words for tests that need many distinct ones, and a way to compare the collocations of classes that answer the same
+ * queries.  Tokenizer.normalize keeps only letters, so numbers are spelled in letters rather than written as digits.
+ * @author Josh Hager
+ */
+final class TestWords {
+
+    /**
+     * The mostCommonCollocs query, as answered by WordStat, WordStatView and CompactWordStat.
+     */
+    interface CollocsQuery {
+
+        /**
+         * Returns the k most common collocations of a base word at a relative position.
+         * @param k the number of collocations to retrieve
+         * @param baseWord the word to obtain the collocations from
+         * @param i the relative position to the base word
+         * @return the k most common collocations
+         * @throws kIsTooLargeException if the word has fewer than k collocations at that position
+         */
+        String[] mostCommonCollocs(int k, String baseWord, int i) throws kIsTooLargeException;
+    }
+
+    private TestWords(){
+    }
+
+    /**
+     * Spells a number in letters.
+     * @param n the number, at least 0
+     * @return the number in base 26, a to z, least significant letter first
+     */
+    static String letters(int n){
+        StringBuilder spelled = new StringBuilder();
+        do{
+            spelled.append((char)('a' + n % 26));
+            n /= 26;
+        }while(n > 0);
+        return spelled.toString();
+    }
+
+    /**
+     * Runs a mostCommonCollocs query, so that a query with too large a k can be compared with another.
+     * @param query the query, such as stat::mostCommonCollocs
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word
+     * @return the collocations, or null if k is too large
+     */
+    static String[] collocs(CollocsQuery query, int k, String baseWord, int i){
+        try{
+            return query.mostCommonCollocs(k, baseWord, i);
+        }
+        catch(kIsTooLargeException e){
+            return null;
+        }
+    }
+}
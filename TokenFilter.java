@@ -0,0 +1,114 @@
+import java.util.function.Predicate;
+
+/**
+ * Decides which normalized words are kept by a Tokenizer or CorpusBuilder.  A word is dropped if it is a stop word, is
+ * shorter or longer than the length limits, or fails a custom predicate, and a dropped word is never counted.  The pair
+ * mode decides what happens to the word pair around a dropped word.  With a NormalizerChain, a word is checked after the
+ * chain's first stage, before a later stage such as a PorterStemmer changes it.  By default every word is kept.
+ * @author Josh Hager
+ */
+public class TokenFilter {
+
+    /**
+     * What happens to the words on either side of a dropped word when word pairs are counted.
+     */
+    public enum PairMode {
+
+        /** the dropped word is skipped, so the words on either side of it are counted as a pair */
+        SKIP,
+
+        /** the dropped word breaks the text, so the words on either side of it are not counted as a pair */
+        BREAK
+    }
+
+    private StopWordSet stopWords;
+
+    /* the shortest and longest word kept, in chars */
+    private int minLength = 1;
+    private int maxLength = Integer.MAX_VALUE;
+
+    private Predicate<String> predicate;
+
+    private PairMode pairMode = PairMode.SKIP;
+
+    /**
+     * Creates a new TokenFilter that keeps every word.
+     */
+    public TokenFilter() {
+    }
+
+    /**
+     * Sets the stop words to drop.  The default is none.
+     * @param stopWords the stop words, or null to drop none
+     * @return this TokenFilter
+     */
+    public TokenFilter setStopWords(StopWordSet stopWords) {
+        this.stopWords = stopWords;
+        return this;
+    }
+
+    /**
+     * Sets the shortest word to keep.  The default is 1.
+     * @param minLength the new minimum length in chars
+     * @return this TokenFilter
+     */
+    public TokenFilter setMinLength(int minLength) {
+        this.minLength = minLength;
+        return this;
+    }
+
+    /**
+     * Sets the longest word to keep.  The default is no limit.
+     * @param maxLength the new maximum length in chars
+     * @return this TokenFilter
+     */
+    public TokenFilter setMaxLength(int maxLength) {
+        this.maxLength = maxLength;
+        return this;
+    }
+
+    /**
+     * Sets a custom test every kept word must pass, after the stop words and length limits.  The default is none.
+     * @param predicate returns true for words to keep, or null to have no custom test
+     * @return this TokenFilter
+     */
+    public TokenFilter setPredicate(Predicate<String> predicate) {
+        this.predicate = predicate;
+        return this;
+    }
+
+    /**
+     * Sets what happens to the word pair around a dropped word.  The default is SKIP.
+     * @param pairMode the new pair mode
+     * @return this TokenFilter
+     */
+    public TokenFilter setPairMode(PairMode pairMode) {
+        this.pairMode = pairMode;
+        return this;
+    }
+
+    /**
+     * Gets what happens to the word pair around a dropped word.
+     * @return the pair mode
+     */
+    public PairMode getPairMode() {
+        return pairMode;
+    }
+
+    /**
+     * Checks whether a normalized word is kept.
+     * @param word the word
+     * @return true if the word passes every test
+     */
+    public boolean accept(String word) {
+        if (word.length() < minLength || word.length() > maxLength) {
+            return false;
+        }
+
+        if (stopWords != null && stopWords.contains(word)) {
+            return false;
+        }
+
+        return predicate == null || predicate.test(word);
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+/**
+ * A class to test TokenFilter.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class TokenFilterTest {
+                                                                                                        //CONDITION:
+    @Test
+    public void testAccept(){
+        TokenFilter test = new TokenFilter();
+        assertTrue(test.accept("the"));                                                                 //default keeps every word
+
+        test.setStopWords(new StopWordSet("the", "of")).setMinLength(2).setMaxLength(5).setPredicate(w -> !w.startsWith("x"));
+        assertFalse(test.accept("the"));                                                                //stop word
+        assertFalse(test.accept("a"));                                                                  //too short
+        assertFalse(test.accept("shrubbery"));                                                          //too long
+        assertFalse(test.accept("xylo"));                                                               //fails predicate
+        assertTrue(test.accept("ni"));                                                                  //passes every test
+    }
+
+    @Test
+    public void testTokenizer(){
+        String[] inputWords = new String[]{"The", "knights", "of", "the", "round", "table"};
+        TokenFilter filter = new TokenFilter().setStopWords(StopWordSet.english());
+
+        Tokenizer test = new Tokenizer(inputWords, filter);
+        assertEquals("[knights, round, table]", test.wordList().toString());                            //stop words are dropped
+        assertFalse(test.isPairBreak(1));                                                               //SKIP mode
+
+        test = new Tokenizer(inputWords, filter.setPairMode(TokenFilter.PairMode.BREAK));
+        assertEquals("[knights, round, table]", test.wordList().toString());
+        assertTrue(test.isPairBreak(1));                                                                //BREAK mode
+        assertFalse(test.isPairBreak(2));
+    }
+
+    @Test
+    public void testWordStat() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        String[] inputWords = new String[]{"The", "knights", "of", "the", "round", "table", "and", "the", "knights"};
+        TokenFilter filter = new TokenFilter().setStopWords(StopWordSet.english());
+
+        WordStat test = new WordStat(new Tokenizer(inputWords, filter), 2);
+        assertEquals(0, test.wordCount("the"));                                                         //stop words are not counted
+        assertEquals("[knights]", Arrays.toString(test.mostCommonWords(1)));
+        assertEquals(1, test.wordPairCount("knights", "round"));                                        //SKIP pairs the words around a stop word
+        assertEquals(1, test.wordPairCount("table", "knights"));
+
+        test = new WordStat(new Tokenizer(inputWords, filter.setPairMode(TokenFilter.PairMode.BREAK)), 2);
+        assertEquals(0, test.wordPairCount("knights", "round"));                                        //BREAK does not
+        assertEquals(1, test.wordPairCount("round", "table"));
+        assertEquals("[table]", Arrays.toString(test.mostCommonCollocs(1, "round", 1)));
+        try{
+            test.mostCommonCollocs(1, "knights", 2);
+            fail("Collocation counted across a break");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //collocations are broken too
+        }
+    }
+}
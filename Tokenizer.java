@@ -1,8 +1,12 @@
 import java.io.BufferedReader;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.BitSet;
 
 /**
  * Reads text from a file, normalizes the words, and inserts them into an ArrayList.
@@ -12,24 +16,221 @@ public class Tokenizer {
 
     private ArrayList<String> wordList = new ArrayList<String>();
 
+    /* decides which words are added to wordList, null to add every word; with a normalizer, applied after its first stage */
+    private TokenFilter filter;
+
+    /* normalizes each word, null to use Tokenizer.normalize */
+    private NormalizerChain normalizer;
+
+    /* bit i is set if the word pair ending at wordList index i was broken by a dropped word */
+    private BitSet pairBreaks = new BitSet();
+
+    /* the time taken to tokenize the input, null if BuildStats was disabled */
+    private BuildStats.Phase tokenizePhase;
+
     /**
      * Creates a new Tokenizer, obtains and normalizes words from the specified file, and enters them into the Tokenizer's wordList.
+     * Gzip compressed files are recognised by their first bytes and decompressed as they are read.
      * @param fileName the name of the file to read the words from
      * @throws FileNotFoundException if the file cannot be found
      * @throws IOException if an I/O error occurs
      */
     public Tokenizer(String fileName) throws FileNotFoundException, IOException{
-        BufferedReader reader = new BufferedReader(new FileReader(fileName));
+        this(CompressedInput.open(fileName));
+    }
+
+    /**
+     * Creates a new Tokenizer, obtains and normalizes words from the specified file in a specified charset, and enters them
+     * into the Tokenizer's wordList.  With UTF-8, words are found and normalized directly on the file's bytes, with a
+     * lookup table for ASCII words, giving the same words much faster.  Gzip compressed files are decompressed as they are read.
+     * @param fileName the name of the file to read the words from
+     * @param charset the charset the file is encoded in
+     * @throws FileNotFoundException if the file cannot be found
+     * @throws IOException if an I/O error occurs
+     */
+    public Tokenizer(String fileName, Charset charset) throws FileNotFoundException, IOException{
+        this(CompressedInput.open(fileName), charset);
+    }
+
+    /**
+     * Creates a new Tokenizer, obtains and normalizes words from the specified file in a specified charset, and enters the
+     * words a TokenFilter keeps into the Tokenizer's wordList.
+     * @param fileName the name of the file to read the words from
+     * @param charset the charset the file is encoded in
+     * @param filter decides which words are kept, or null to keep every word
+     * @throws FileNotFoundException if the file cannot be found
+     * @throws IOException if an I/O error occurs
+     */
+    public Tokenizer(String fileName, Charset charset, TokenFilter filter) throws FileNotFoundException, IOException{
+        this(CompressedInput.open(fileName), charset, filter);
+    }
+
+    /**
+     * Creates a new Tokenizer, obtains words from the specified file in a specified charset, normalizes them with a
+     * NormalizerChain, and enters the words a TokenFilter keeps into the Tokenizer's wordList.
+     * @param fileName the name of the file to read the words from
+     * @param charset the charset the file is encoded in
+     * @param filter decides which words are kept, or null to keep every word
+     * @param normalizer normalizes each word, or null to use Tokenizer.normalize
+     * @throws FileNotFoundException if the file cannot be found
+     * @throws IOException if an I/O error occurs
+     */
+    public Tokenizer(String fileName, Charset charset, TokenFilter filter, NormalizerChain normalizer) 
+                        throws FileNotFoundException, IOException{
+        this(CompressedInput.open(fileName), charset, filter, normalizer);
+    }
+
+    /**
+     * Creates a new Tokenizer, obtains and normalizes words from a stream of text in the platform charset, and enters them
+     * into the Tokenizer's wordList.  The stream is read to its end and closed.  This allows input such as
+     * CompressedInput.open(fileName, threads) to be tokenized.
+     * @param input the stream to read the words from
+     * @throws IOException if an I/O error occurs
+     */
+    public Tokenizer(InputStream input) throws IOException{
+        this(input, Charset.defaultCharset(), false, null, null);
+    }
+
+    /**
+     * Creates a new Tokenizer, obtains and normalizes words from a stream of text in a specified charset, and enters them
+     * into the Tokenizer's wordList.  The stream is read to its end and closed.  With UTF-8, words are found and
+     * normalized directly on the stream's bytes.
+     * @param input the stream to read the words from
+     * @param charset the charset the stream is encoded in
+     * @throws IOException if an I/O error occurs
+     */
+    public Tokenizer(InputStream input, Charset charset) throws IOException{
+        this(input, charset, true, null, null);
+    }
+
+    /**
+     * Creates a new Tokenizer, obtains and normalizes words from a stream of text in a specified charset, and enters the
+     * words a TokenFilter keeps into the Tokenizer's wordList.  The stream is read to its end and closed.
+     * @param input the stream to read the words from
+     * @param charset the charset the stream is encoded in
+     * @param filter decides which words are kept, or null to keep every word
+     * @throws IOException if an I/O error occurs
+     */
+    public Tokenizer(InputStream input, Charset charset, TokenFilter filter) throws IOException{
+        this(input, charset, true, filter, null);
+    }
+
+    /**
+     * Creates a new Tokenizer, obtains words from a stream of text in a specified charset, normalizes them with a
+     * NormalizerChain, and enters the words a TokenFilter keeps into the Tokenizer's wordList.  The stream is read to its
+     * end and closed.
+     * @param input the stream to read the words from
+     * @param charset the charset the stream is encoded in
+     * @param filter decides which words are kept, or null to keep every word
+     * @param normalizer normalizes each word, or null to use Tokenizer.normalize
+     * @throws IOException if an I/O error occurs
+     */
+    public Tokenizer(InputStream input, Charset charset, TokenFilter filter, NormalizerChain normalizer) throws IOException{
+        this(input, charset, true, filter, normalizer);
+    }
+
+    /**
+     * Creates a new Tokenizer from a stream of text.
+     * @param input the stream to read the words from
+     * @param charset the charset the stream is encoded in
+     * @param scanBytes true to read UTF-8 with a Utf8TokenScanner rather than a Reader
+     * @param filter decides which words are kept, or null to keep every word
+     * @param normalizer normalizes each word, or null to use Tokenizer.normalize
+     * @throws IOException if an I/O error occurs
+     */
+    private Tokenizer(InputStream input, Charset charset, boolean scanBytes, TokenFilter filter, NormalizerChain normalizer) 
+                        throws IOException{
+        this.filter = filter;
+        this.normalizer = normalizer;
+
+        BuildStats stats = BuildStats.isEnabled() ? new BuildStats() : null;
+        if(stats != null){
+            stats.begin("tokenize");
+        }
+
+        long read;
+
+        if(scanBytes && charset.equals(StandardCharsets.UTF_8)){
+            read = scanUtf8(input);
+        }
+        else{
+            read = readLines(new BufferedReader(new InputStreamReader(input, charset), CompressedInput.BUFFER_SIZE));
+        }
+
+        if(stats != null){
+            tokenizePhase = stats.end(wordList.size(), read, 0, 0);
+        }
+    }
+
+    /**
+     * Creates a new Tokenizer, normalizes the words in the inputted String array, and enters them into the Tokenizer's wordList.
+     * @param inputWords the array of input words
+     */
+    public Tokenizer(String[] inputWords){
+        this(inputWords, null);
+    }
+
+    /**
+     * Creates a new Tokenizer, normalizes the words in the inputted String array, and enters the words a TokenFilter keeps
+     * into the Tokenizer's wordList.
+     * @param inputWords the array of input words
+     * @param filter decides which words are kept, or null to keep every word
+     */
+    public Tokenizer(String[] inputWords, TokenFilter filter){
+        this(inputWords, filter, null);
+    }
+
+    /**
+     * Creates a new Tokenizer, normalizes the words in the inputted String array with a NormalizerChain, and enters the
+     * words a TokenFilter keeps into the Tokenizer's wordList.
+     * @param inputWords the array of input words
+     * @param filter decides which words are kept, or null to keep every word
+     * @param normalizer normalizes each word, or null to use Tokenizer.normalize
+     */
+    public Tokenizer(String[] inputWords, TokenFilter filter, NormalizerChain normalizer){
+        this.filter = filter;
+        this.normalizer = normalizer;
+
+        BuildStats stats = BuildStats.isEnabled() ? new BuildStats() : null;
+        if(stats != null){
+            stats.begin("tokenize");
+        }
+
+        long chars = 0;
+
+        for(String word : inputWords){
+            chars += word.length();
+            word = normalizeWord(word);
+
+            if(word != ""){
+                addWord(word);
+            }
+        }
+
+        if(stats != null){
+            tokenizePhase = stats.end(wordList.size(), chars, 0, 0);
+        }
+    }
+
+    /**
+     * A helper method to read a text line by line, normalize its words and add them to the wordList.  The reader is closed.
+     * @param reader the reader to read the text from
+     * @return the number of characters read, counting each line break as one
+     * @throws IOException if an I/O error occurs
+     */
+    private long readLines(BufferedReader reader) throws IOException{
         String line = reader.readLine();
+        long chars = 0;
 
         while(line != null){ 
+            chars += line.length() + 1;
             String[] lineArray = line.split("\s");
 
             for(String word : lineArray){
-                word = Tokenizer.normalize(word);
+                word = normalizeWord(word);
 
                 if(word != ""){
-                    wordList.add(word);
+                    addWord(word);
                 }
             }
 
@@ -37,20 +238,70 @@ public class Tokenizer {
         }
 
         reader.close();
+        return chars;
     }
 
     /**
-     * Creates a new Tokenizer, normalizes the words in the inputted String array, and enters them into the Tokenizer's wordList.
-     * @param inputWords the array of input words
+     * A helper method to read UTF-8 text in blocks of bytes, find and normalize its words with a Utf8TokenScanner, and add
+     * them to the wordList.  The stream is closed.
+     * @param input the stream to read the text from
+     * @return the number of bytes read
+     * @throws IOException if an I/O error occurs
      */
-    public Tokenizer(String[] inputWords){
-        for(String word : inputWords){
-            word = Tokenizer.normalize(word);
+    private long scanUtf8(InputStream input) throws IOException{
+        Utf8TokenScanner scanner = new Utf8TokenScanner(normalizer, filter);
+        byte[] buffer = new byte[CompressedInput.BUFFER_SIZE];
+        long bytes = 0;
+        int n;
 
-            if(word != ""){
-                wordList.add(word);
+        try(input){
+            while((n = input.read(buffer)) != -1){
+                scanner.scan(buffer, 0, n, this::addWord);
+                bytes += n;
             }
         }
+
+        scanner.finish(this::addWord);
+        return bytes;
+    }
+
+    /**
+     * A helper method to normalize a word with this Tokenizer's NormalizerChain, or Tokenizer.normalize if it has none.
+     * The chain checks the word with the filter after its first stage, so that stop words are dropped before a later
+     * stage such as a PorterStemmer changes them.
+     * @param word the raw word
+     * @return the normalized word, or null if the chain's filter dropped it
+     */
+    private String normalizeWord(String word){
+        return normalizer == null ? Tokenizer.normalize(word) : normalizer.normalize(word, filter);
+    }
+
+    /**
+     * A helper method to add a normalized word to the wordList if the filter keeps it.  A word dropped by a filter in
+     * BREAK mode marks a pair break before the next word added.
+     * @param word the normalized word, or null if the NormalizerChain's filter already dropped it
+     */
+    private void addWord(String word){
+        if(word != null && word.isEmpty()){
+            return;
+        }
+
+        if(word != null && (normalizer != null || filter == null || filter.accept(word))){
+            wordList.add(word);
+        }
+        else if(filter.getPairMode() == TokenFilter.PairMode.BREAK && !wordList.isEmpty()){
+            pairBreaks.set(wordList.size());
+        }
+    }
+
+    /**
+     * Checks whether the word pair made of the words at index i - 1 and i of the wordList should not be counted, because
+     * a word between them was dropped by a TokenFilter in BREAK mode.
+     * @param i the index of the second word of the pair
+     * @return true if the pair is broken
+     */
+    public boolean isPairBreak(int i){
+        return pairBreaks.get(i);
     }
 
     /**
@@ -61,6 +312,14 @@ public class Tokenizer {
         return wordList;
     }
 
+    /**
+     * Gets the time and allocation measurements of tokenizing this Tokenizer's input.
+     * @return the tokenize phase, null if BuildStats was disabled when this Tokenizer was created
+     */
+    public BuildStats.Phase getTokenizePhase(){
+        return tokenizePhase;
+    }
+
     /**
      * Normalizes a given String.
      * @param word the String/word to be normalized
@@ -0,0 +1,93 @@
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * Measures how many bytes per second each way of tokenizing a text runs at: the Reader path that splits each line with
+ * a regular expression and normalizes each word, the byte-at-a-time Utf8TokenScanner, and the Utf8TokenScanner with the
+ * VectorTokenizerKernel.  The file is read into memory first, so only tokenizing is timed, and the ways take turns for
+ * several rounds with the fastest run of each reported.  To include the vector kernel, compile it with vector/compile.sh
+ * and run with --add-modules jdk.incubator.vector.
+ * Usage: TokenizerBenchmark file [runs]
+ * @author Josh Hager
+ */
+public class TokenizerBenchmark {
+
+    /**
+     * A way of tokenizing the bytes of a text.
+     */
+    private interface Run {
+
+        /**
+         * Tokenizes the text.
+         * @param bytes the text, in UTF-8
+         * @return the Tokenizer holding the words
+         * @throws IOException never, since the text is in memory
+         */
+        Tokenizer tokenize(byte[] bytes) throws IOException;
+    }
+
+    /**
+     * Runs the benchmark and prints one line per way of tokenizing.
+     * @param args the text file to tokenize and the number of runs of each way (10 by default)
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("usage: TokenizerBenchmark file [runs]");
+            System.exit(2);
+        }
+
+        byte[] bytes = Files.readAllBytes(Paths.get(args[0]));
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        boolean vector = Utf8TokenScanner.setVectorEnabled(true);
+        Utf8TokenScanner.setVectorEnabled(false);
+
+        String[] names = new String[]{"reader", "scalar", "vector"};
+        Run[] ways = new Run[]{
+            text -> new Tokenizer(new ByteArrayInputStream(text)),
+            text -> new Tokenizer(new ByteArrayInputStream(text), StandardCharsets.UTF_8),
+            text -> {
+                Utf8TokenScanner.setVectorEnabled(true);
+                try {
+                    return new Tokenizer(new ByteArrayInputStream(text), StandardCharsets.UTF_8);
+                }
+                finally {
+                    Utf8TokenScanner.setVectorEnabled(false);
+                }
+            }
+        };
+
+        long[] best = new long[ways.length];
+        int[] words = new int[ways.length];
+        Arrays.fill(best, Long.MAX_VALUE);
+        BuildStats.setEnabled(false);
+
+        /* the ways take turns, so each is warmed up by the JIT as much as the others */
+        for (int r = 0; r < runs; r++) {
+            for (int w = 0; w < ways.length; w++) {
+                if (w == 2 && !vector) {
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                words[w] = ways[w].tokenize(bytes).wordList().size();
+                best[w] = Math.min(best[w], System.nanoTime() - start);
+            }
+        }
+
+        System.out.printf("%-12s %12s %10s%n", "tokenizer", "MB/s", "words");
+
+        for (int w = 0; w < ways.length; w++) {
+            if (w == 2 && !vector) {
+                System.out.printf("%-12s %12s%n", names[w], "unavailable");
+            }
+            else {
+                System.out.printf("%-12s %12.1f %10d%n", names[w], bytes.length / 1e6 / (best[w] / 1e9), words[w]);
+            }
+        }
+    }
+}
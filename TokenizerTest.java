@@ -1,7 +1,9 @@
 import org.junit.Test;
 import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 /**
  * A class to test Tokenizer. Conditions for each test are found on the right.
@@ -105,4 +107,19 @@ public class TokenizerTest {
         test = "AnD";
         assertEquals("and", Tokenizer.normalize(test));                                         //>1 capital letter
     }
+
+    @Test
+    public void testCharsetConstructor() throws FileNotFoundException, IOException{
+        for(String file : new String[]{"\\Empty.txt", "\\OneCharacter.txt", "\\OneLine.txt", "\\MultipleLines.txt", "\\Collocs.txt"}){
+            Tokenizer expected = new Tokenizer(path + file);
+            Tokenizer test = new Tokenizer(path + file, StandardCharsets.UTF_8);
+            assertEquals(expected.wordList().toString(), test.wordList().toString());                   //UTF-8 gives the same words
+        }
+
+        Tokenizer test = new Tokenizer(new ByteArrayInputStream("Caf\u00e9, NA\u00cfVE!".getBytes("UTF-8")), StandardCharsets.UTF_8);
+        assertEquals("[caf\u00e9, na\u00efve]", test.wordList().toString());                            //non-ASCII words
+
+        test = new Tokenizer(new ByteArrayInputStream("Caf\u00e9".getBytes("ISO-8859-1")), StandardCharsets.ISO_8859_1);
+        assertEquals("[caf\u00e9]", test.wordList().toString());                                        //other charsets
+    }
 }
@@ -0,0 +1,325 @@
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Splits UTF-8 bytes into normalized words without decoding the whole input into Strings first.  Words are split at the
+ * same characters Tokenizer's Reader path splits on, the space and the line breaks \n and \r, which are all single ASCII
+ * bytes and never appear inside a multi-byte UTF-8 sequence.  Other control characters such as tabs do not split words;
+ * like any other non-letter they are dropped by normalizing.  A word made only of ASCII bytes is lowercased and stripped of non-letters through a lookup table;
+ * a word containing any other byte is decoded and passed to Tokenizer.normalize, so both give the same words.
+ * Input can be given in any number of pieces; a word cut off at the end of one piece is finished by the next.
+ * When a NormalizerChain is given, every word is normalized by the chain instead; an ASCII word is passed to it as a
+ * view of its bytes, so a cache hit allocates nothing.  A TokenFilter given with the chain is applied after its first
+ * stage, and a word the filter drops is passed to the sink as null.
+ *
+ * When setVectorEnabled(true) has been called and the jdk.incubator.vector module is available, scanners created
+ * afterwards hand whole blocks of input to a VectorTokenizerKernel, which finds whitespace and lowercases ASCII letters a
+ * vector of bytes at a time and falls back to the byte-at-a-time loop for any block holding a non-ASCII byte.  The kernel
+ * is in the vector directory and is compiled separately with vector/compile.sh; it is loaded by reflection, so this class
+ * works the same without it or without the module.
+ * @author Josh Hager
+ */
+public class Utf8TokenScanner {
+
+    /**
+     * Scans whole blocks of input into a Utf8TokenScanner, a block at a time.
+     */
+    interface Kernel {
+
+        /**
+         * Scans as many whole blocks of input as fit between offset and end, adding their bytes to the scanner's word with
+         * append and ending words with endWord.
+         * @param scanner the scanner to add the bytes to
+         * @param buffer the bytes
+         * @param offset the position of the first byte to read
+         * @param end the position after the last byte that may be read
+         * @param lowercase true if ASCII letters may be lowercased as they are added
+         * @param sink receives each finished word
+         * @return the position after the last byte scanned; the bytes from there to end are left for the caller
+         */
+        int scan(Utf8TokenScanner scanner, byte[] buffer, int offset, int end, boolean lowercase, Consumer<String> sink);
+    }
+
+    /* true if new scanners should use the vector kernel when it can be loaded */
+    private static volatile boolean vectorEnabled = false;
+
+    /* the vector kernel, loaded the first time it is asked for; null if it cannot be loaded */
+    private static Kernel vectorKernel;
+
+    private static boolean vectorKernelLoaded = false;
+
+    /* for each ASCII byte, its lowercase form if it is a letter, 0 otherwise */
+    static final char[] LOWER_LETTER = new char[128];
+
+    /* for each byte, true if Tokenizer splits words on it: a space, or a line break as read by BufferedReader.readLine */
+    static final boolean[] WHITESPACE = new boolean[256];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) {
+            LOWER_LETTER[c] = c;
+            LOWER_LETTER[c - 'a' + 'A'] = c;
+        }
+
+        for (char c : new char[]{' ', '\n', '\r'}) {
+            WHITESPACE[c] = true;
+        }
+    }
+
+    /* the bytes of the word being read */
+    private byte[] word = new byte[64];
+
+    /* the number of bytes in word */
+    private int length = 0;
+
+    /* true while every byte of the word being read is ASCII */
+    private boolean ascii = true;
+
+    /* holds the lowercased letters of an ASCII word */
+    private char[] letters = new char[64];
+
+    /* normalizes each word instead of the lookup table and Tokenizer.normalize, null to use those */
+    private NormalizerChain normalizer;
+
+    /* checks each word after the normalizer's first stage, null to keep every word */
+    private TokenFilter filter;
+
+    /* scans whole blocks of input, null to scan a byte at a time */
+    private Kernel kernel = vectorEnabled ? loadVectorKernel() : null;
+
+    /* the bytes of the word being read, seen as chars, for an ASCII word passed to the normalizer */
+    private CharSequence asciiWord = new CharSequence() {
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char)word[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return toString().subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return new String(word, 0, length, StandardCharsets.US_ASCII);
+        }
+    };
+
+    /**
+     * Creates a new Utf8TokenScanner that normalizes words the way Tokenizer.normalize does.
+     */
+    public Utf8TokenScanner() {
+    }
+
+    /**
+     * Creates a new Utf8TokenScanner that normalizes words with a NormalizerChain.
+     * @param normalizer the chain to normalize each word with, or null to normalize the way Tokenizer.normalize does
+     */
+    public Utf8TokenScanner(NormalizerChain normalizer) {
+        this(normalizer, null);
+    }
+
+    /**
+     * Creates a new Utf8TokenScanner that normalizes words with a NormalizerChain and checks them with a TokenFilter after
+     * the chain's first stage.
+     * @param normalizer the chain to normalize each word with, or null to normalize the way Tokenizer.normalize does
+     * @param filter decides which words are kept, or null to keep every word; ignored if normalizer is null
+     */
+    public Utf8TokenScanner(NormalizerChain normalizer, TokenFilter filter) {
+        this.normalizer = normalizer;
+        this.filter = normalizer == null ? null : filter;
+    }
+
+    /**
+     * Splits the next piece of input into words and passes each finished, non-empty normalized word to a sink, and null
+     * for each word the TokenFilter drops.
+     * @param buffer the bytes
+     * @param offset the position of the first byte to read
+     * @param count the number of bytes to read
+     * @param sink receives each word
+     */
+    public void scan(byte[] buffer, int offset, int count, Consumer<String> sink) {
+        int end = offset + count;
+
+        if (kernel != null) {
+            offset = kernel.scan(this, buffer, offset, end, normalizer == null, sink);
+        }
+
+        scanBytes(buffer, offset, end, sink);
+    }
+
+    /**
+     * Turns the vector kernel on or off for scanners created afterwards.  It is off by default.
+     * @param enabled true to use the vector kernel when it can be loaded
+     * @return true if the vector kernel will be used, which needs the jdk.incubator.vector module
+     */
+    public static boolean setVectorEnabled(boolean enabled) {
+        vectorEnabled = enabled;
+        return isVectorEnabled();
+    }
+
+    /**
+     * Checks whether scanners created now use the vector kernel.
+     * @return true if the vector kernel is turned on and can be loaded
+     */
+    public static boolean isVectorEnabled() {
+        return vectorEnabled && loadVectorKernel() != null;
+    }
+
+    /**
+     * Checks whether this scanner uses the vector kernel.
+     * @return true if whole blocks of input are scanned by the vector kernel
+     */
+    public boolean isVectorized() {
+        return kernel != null;
+    }
+
+    /**
+     * Splits bytes into words one byte at a time.
+     * @param buffer the bytes
+     * @param offset the position of the first byte to read
+     * @param end the position after the last byte to read
+     * @param sink receives each finished word
+     */
+    void scanBytes(byte[] buffer, int offset, int end, Consumer<String> sink) {
+        for (int i = offset; i < end; i++) {
+            byte b = buffer[i];
+
+            if (WHITESPACE[b & 0xff]) {
+                if (length > 0) {
+                    emit(sink);
+                }
+            }
+            else {
+                if (length == word.length) {
+                    word = Arrays.copyOf(word, word.length * 2);
+                }
+
+                word[length++] = b;
+                ascii &= b >= 0;
+            }
+        }
+    }
+
+    /**
+     * Adds bytes that contain no whitespace to the word being read.  The bytes must all be ASCII.
+     * @param bytes the bytes
+     * @param from the position of the first byte to add
+     * @param to the position after the last byte to add
+     */
+    void append(byte[] bytes, int from, int to) {
+        int count = to - from;
+
+        if (length + count > word.length) {
+            word = Arrays.copyOf(word, Math.max(length + count, word.length * 2));
+        }
+
+        System.arraycopy(bytes, from, word, length, count);
+        length += count;
+    }
+
+    /**
+     * Checks whether part of a word has been read and not yet ended.
+     * @return true if the scanner holds part of a word
+     */
+    boolean hasWord() {
+        return length > 0;
+    }
+
+    /**
+     * Ends the word being read at a whitespace byte, passing it to a sink if there is one.
+     * @param sink receives the word
+     */
+    void endWord(Consumer<String> sink) {
+        if (length > 0) {
+            emit(sink);
+        }
+    }
+
+    /**
+     * Passes the word at the end of the input, if there is one, to a sink.  Must be called after the last piece.
+     * @param sink receives the word
+     */
+    public void finish(Consumer<String> sink) {
+        if (length > 0) {
+            emit(sink);
+        }
+    }
+
+    /**
+     * A helper method to load the vector kernel the first time it is needed.
+     * @return the kernel, or null if the jdk.incubator.vector module is not available
+     */
+    private static synchronized Kernel loadVectorKernel() {
+        if (!vectorKernelLoaded) {
+            vectorKernelLoaded = true;
+
+            try {
+                vectorKernel = (Kernel)Class.forName("VectorTokenizerKernel").getDeclaredConstructor().newInstance();
+            }
+            catch (ReflectiveOperationException | LinkageError e) {
+                vectorKernel = null;
+            }
+        }
+
+        return vectorKernel;
+    }
+
+    /**
+     * Normalizes the bytes of one whole word and passes it to a sink if it is not empty, or null if the TokenFilter drops
+     * it.
+     * @param sink receives the word
+     */
+    private void emit(Consumer<String> sink) {
+        String normalized;
+
+        if (normalizer == null) {
+            normalized = normalize(word, 0, length, ascii);
+        }
+        else {
+            normalized = normalizer.normalize(ascii ? asciiWord : new String(word, 0, length, StandardCharsets.UTF_8), filter);
+        }
+
+        length = 0;
+        ascii = true;
+
+        if (normalized == null || !normalized.isEmpty()) {
+            sink.accept(normalized);
+        }
+    }
+
+    /**
+     * Normalizes the UTF-8 bytes of one word the way Tokenizer.normalize would normalize the decoded word.
+     * @param bytes the bytes
+     * @param offset the position of the first byte of the word
+     * @param count the number of bytes in the word
+     * @param ascii true if every byte of the word is ASCII, which allows the lookup table to be used
+     * @return the normalized word
+     */
+    String normalize(byte[] bytes, int offset, int count, boolean ascii) {
+        if (!ascii) {
+            return Tokenizer.normalize(new String(bytes, offset, count, StandardCharsets.UTF_8));
+        }
+
+        if (letters.length < count) {
+            letters = new char[Math.max(count, letters.length * 2)];
+        }
+
+        int n = 0;
+
+        for (int i = offset; i < offset + count; i++) {
+            char c = LOWER_LETTER[bytes[i]];
+
+            if (c != 0) {
+                letters[n++] = c;
+            }
+        }
+
+        return n == 0 ? "" : new String(letters, 0, n);
+    }
+}
@@ -0,0 +1,119 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * A class to test Utf8TokenScanner.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class Utf8TokenScannerTest {
+
+    /**
+     * A helper method to tokenize text the way Tokenizer does with a Reader.  The text is given to Tokenizer in UTF-16,
+     * which it always reads with a Reader.
+     * @param text the text
+     * @return the words
+     * @throws IOException if an I/O error occurs
+     */
+    private static ArrayList<String> expected(String text) throws IOException{
+        return new Tokenizer(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_16)), StandardCharsets.UTF_16)
+                    .wordList();
+    }
+
+    /**
+     * A helper method to scan text with a Utf8TokenScanner, cutting the bytes into two pieces at a given position.
+     * @param text the text
+     * @param cut the position to cut the bytes at
+     * @return the words
+     */
+    private static ArrayList<String> scan(String text, int cut){
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        ArrayList<String> words = new ArrayList<String>();
+        Utf8TokenScanner scanner = new Utf8TokenScanner();
+
+        scanner.scan(bytes, 0, cut, words::add);
+        scanner.scan(bytes, cut, bytes.length - cut, words::add);
+        scanner.finish(words::add);
+        return words;
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testScan() throws IOException{
+        String[] texts = new String[]{"",                                                               //empty text
+                                        "a",                                                            //one letter
+                                        "The Fitnessgram Pacer Test!",                                  //ASCII words
+                                        "  leading\tand\r\ntrailing \f\u000B",                          //line breaks and control characters
+                                        "it's 1 o'clock -- 2nd",                                        //ASCII non-letters
+                                        "Caf\u00e9 na\u00efve \u00c9COLE stra\u00dfe \u03a9\u03bc\u03ad\u03b3\u03b1",  //non-ASCII letters
+                                        "\u65e5\u672c\u8a9e \u30c6\u30ad\u30b9\u30c8",                  //multi-byte letters
+                                        "emoji\ud83d\ude00word \u2603 \u00a0nbsp",                      //non-letters outside ASCII
+                                        "\u0130stanbul"};                                               //lowercasing changes length
+
+        for(String text : texts){
+            ArrayList<String> expected = expected(text);
+            int length = text.getBytes(StandardCharsets.UTF_8).length;
+
+            for(int cut = 0; cut <= length; cut++){
+                assertEquals(text + " cut at " + cut, expected, scan(text, cut));                       //same words wherever the input is cut
+            }
+        }
+    }
+
+    @Test
+    public void testControlCharacters() throws IOException{
+        String text = "alpha\tbeta gamma\fdelta\u000Bepsilon\rzeta\nend";
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(expected(text), scan(text, 7));                                                    //same words as the Reader path
+        assertEquals("[alphabeta, gammadeltaepsilon, zeta, end]", scan(text, 7).toString());            //tab, VT and FF do not split words
+        assertEquals(expected(text), new Tokenizer(new ByteArrayInputStream(bytes), StandardCharsets.UTF_8).wordList());
+    }
+
+    @Test
+    public void testLongWord() throws IOException{
+        StringBuilder text = new StringBuilder();
+        for(int i = 0; i < 1000; i++){
+            text.append("Ab");
+        }
+
+        assertEquals(expected(text.toString()), scan(text.toString(), 3));                              //word longer than the buffers
+    }
+
+    @Test
+    public void testVector() throws IOException{
+        boolean available = Utf8TokenScanner.setVectorEnabled(true);
+
+        try{
+            assertEquals(available, new Utf8TokenScanner().isVectorized());             //kernel used when available
+
+            StringBuilder text = new StringBuilder();
+            for(int i = 0; i < 40; i++){
+                text.append("The Knights WHO say\tNi!  it's 1 o'clock\r\n");              //ASCII blocks
+                text.append(i % 3 == 0 ? "Caf\u00e9 na\u00efve " : "");                  //some non-ASCII blocks
+                text.append(i % 7 == 0 ? "averyveryveryveryveryveryveryveryveryveryveryveryverylongword " : "");
+            }
+
+            ArrayList<String> expected = expected(text.toString());
+            int length = text.toString().getBytes(StandardCharsets.UTF_8).length;
+
+            for(int cut : new int[]{0, 1, 31, 32, 33, 64, length / 2, length}){
+                assertEquals(expected, scan(text.toString(), cut));                     //same words as a Reader, any cut
+            }
+
+            ArrayList<String> words = new ArrayList<String>();
+            Utf8TokenScanner scanner = new Utf8TokenScanner(NormalizerChain.standard());
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            scanner.scan(bytes, 0, bytes.length, words::add);
+            scanner.finish(words::add);
+            assertEquals(expected, words);                                              //with a NormalizerChain
+        }
+        finally{
+            Utf8TokenScanner.setVectorEnabled(false);
+        }
+
+        assertEquals(false, new Utf8TokenScanner().isVectorized());                     //switched off
+    }
+}
@@ -6,6 +6,9 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
 
 /**
  * A class to compute various statistics on a collection of words.
@@ -13,10 +16,13 @@ import java.util.NoSuchElementException;
  */
 public class WordStat {
 
-    /* stores words in text as keys and their counts as values */
+    /* tables with at least this many entries are sorted and ranked on every processor */
+    private static volatile int parallelRankingThreshold = 1 << 16;
+
+    /* stores words in text as keys and their counts as values, with the rank of each word in its entry */
     private HashTable wordTable;
 
-    /* stores word pairs ("word1 word2") as keys and their counts as values */
+    /* stores word pairs ("word1 word2") as keys and their counts as values, with the rank of each pair in its entry */
     private HashTable wordPairTable;
 
     /* a list of the HashEntries from wordTable sorted in order of their value (count) */
@@ -25,15 +31,50 @@ public class WordStat {
     /* a list of the HashEntries from wordPairTable sorted in order of their value (count) */
     private ArrayList<HashEntry> sortedPairs;
 
-    /* stores words as keys and their rank as values */
-    private HashTable wordRankTable;
+    /* counts of words at each offset from each other, up to the collocation window */
+    private CollocationIndex collocationIndex;
+
+    /* the counts of every word pair and its words in parallel arrays, created on the first association query */
+    private CollocationRanker collocationRanker;
+
+    /* the cumulative histogram of the word counts, created on the first distribution query */
+    private FrequencyDistribution frequencyDistribution;
+
+    /* a trie of the words for prefix and pattern queries, created on the first such query */
+    private PrefixIndex prefixIndex;
+
+    /* caches the results of top-k queries, null unless enableQueryCache has been called */
+    private QueryCache queryCache;
 
-    /* stores word pairs as keys and their rank as values */
-    private HashTable pairRankTable;
+    /* the time and allocation measurements of building this WordStat, null if BuildStats was disabled */
+    private BuildStats buildStats;
 
     /* stores the current path of this .java file */
     private String path = this.getClass().getClassLoader().getResource("").getPath();
     
+    /**
+     * Sets the number of entries at which a table is sorted and ranked in parallel rather than on the calling thread.
+     * Both give the same ranks, ties included.  The default is 65536; Integer.MAX_VALUE ranks every table on the calling
+     * thread.  WordStats that have already been built are not affected.
+     * @param threshold the number of entries, at least 1
+     * @throws IllegalArgumentException if threshold is less than 1
+     */
+    public static void setParallelRankingThreshold(int threshold){
+        if(threshold < 1){
+            throw new IllegalArgumentException("threshold must be at least 1");
+        }
+
+        parallelRankingThreshold = threshold;
+    }
+
+    /**
+     * Gets the number of entries at which a table is sorted and ranked in parallel.
+     * @return the number of entries
+     */
+    public static int getParallelRankingThreshold(){
+        return parallelRankingThreshold;
+    }
+
     /**
      * Creates a new WordStat that computes word statistics from a file.
      * @param fileName the name of the file
@@ -48,45 +89,318 @@ public class WordStat {
     public WordStat(String fileName) throws FileNotFoundException, IOException, NoSuchMethodException, 
                                             SecurityException, IllegalAccessException, IllegalArgumentException, 
                                             InvocationTargetException{
-        Tokenizer t = new Tokenizer(fileName);
+        this(new Tokenizer(fileName), 1);
+    }
 
-        wordTable = hashWords(t);
+    /**
+     * Creates a new WordStat that computes word statistics from a String array.
+     * @param inputWords the String array containing the input words
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    public WordStat(String[] inputWords) throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                                IllegalArgumentException, InvocationTargetException{
+        this(new Tokenizer(inputWords), 1);
+    }
 
-        wordPairTable = hashWordPairs(t);
+    /**
+     * Creates a new WordStat that computes word statistics from the words of a Tokenizer, counting collocations up to a
+     * specified distance apart so that mostCommonCollocs can be used with any offset within that distance.
+     * @param t the Tokenizer containing the input words
+     * @param collocationWindow the largest offset supported by mostCommonCollocs, at least 1
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method, or collocationWindow is less than 1
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    public WordStat(Tokenizer t, int collocationWindow) throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                                            IllegalArgumentException, InvocationTargetException{
+        BuildStats stats = BuildStats.isEnabled() ? new BuildStats() : null;
 
-        sortedWords = sortEntries(wordTable);
+        if(stats != null && t.getTokenizePhase() != null){
+            stats.add(t.getTokenizePhase());
+        }
 
-        sortedPairs = sortEntries(wordPairTable);
+        collocationIndex = new CollocationIndex(collocationWindow);
+
+        beginPhase(stats, "hashWords");
+        wordTable = hashWords(t);
+        endPhase(stats, t.wordList().size(), wordTable.size(), wordTable.getRehashCount());
 
-        wordRankTable = hashSortedEntries(sortedWords);
+        beginPhase(stats, "hashWordPairs");
+        wordPairTable = hashWordPairs(t, collocationIndex);
+        endPhase(stats, t.wordList().size(), wordPairTable.size(), wordPairTable.getRehashCount());
 
-        pairRankTable = hashSortedEntries(sortedPairs);
+        rankEntries(stats);
     }
 
     /**
-     * Creates a new WordStat that computes word statistics from a String array.
-     * @param inputWords the String array containing the input words
+     * Creates a new WordStat from word and word pair counts that have already been made, such as by a CorpusBuilder.
+     * Collocations are indexed from the word pair counts, so the collocation window is 1.
+     * @param wordTable a HashTable with words as keys and their counts as values
+     * @param wordPairTable a HashTable with word pairs ("word1 word2") as keys and their counts as values
+     * @param stats the measurements of the build so far, to which the ranking phases are added; null to not record them
      * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
      * @throws SecurityException if there is a security exception in reflection of getTable method
      * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
      * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
      * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
      */
-    public WordStat(String[] inputWords) throws NoSuchMethodException, SecurityException, IllegalAccessException, 
-                                                IllegalArgumentException, InvocationTargetException{
-        Tokenizer t = new Tokenizer(inputWords);
+    WordStat(HashTable wordTable, HashTable wordPairTable, BuildStats stats) throws NoSuchMethodException, SecurityException, 
+                                                                            IllegalAccessException, IllegalArgumentException, 
+                                                                            InvocationTargetException{
+        this(wordTable, wordPairTable, pairIndex(wordPairTable), stats);
+    }
 
-        wordTable = hashWords(t);
+    /**
+     * Creates a new WordStat from word and word pair counts and a collocation index that have already been made.
+     * @param wordTable a HashTable with words as keys and their counts as values
+     * @param wordPairTable a HashTable with word pairs ("word1 word2") as keys and their counts as values
+     * @param collocationIndex an index of the same text, which is compiled if it has not been already
+     * @param stats the measurements of the build so far, to which the ranking phases are added; null to not record them
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    private WordStat(HashTable wordTable, HashTable wordPairTable, CollocationIndex collocationIndex, BuildStats stats) 
+                                    throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException{
+        this.wordTable = wordTable;
+        this.wordPairTable = wordPairTable;
+        this.collocationIndex = collocationIndex;
+
+        rankEntries(stats);
+    }
 
-        wordPairTable = hashWordPairs(t);
+    /**
+     * Combines several WordStats into one, as if their texts had been read one after another, without tokenizing any
+     * text again.  The counts of each word and word pair are added together with a k-way merge of each WordStat's
+     * entries sorted by key, and the ranks are built once for the combined counts.  A pair made of the last word of one
+     * text and the first word of the next is not counted, since the texts are treated as separate documents.  The
+     * collocation window of the result is the smallest window of the WordStats combined.
+     * @param parts the WordStats to combine, at least one
+     * @return a new WordStat holding the combined statistics
+     * @throws IllegalArgumentException if no WordStats are given
+     * @throws ArithmeticException if a combined count does not fit in an int
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    public static WordStat merge(WordStat... parts) throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                                        IllegalArgumentException, InvocationTargetException{
+        return merge(1, parts);
+    }
 
+    /**
+     * Combines several WordStats into one, as merge(WordStat...) does, merging on several threads.  The WordStats are
+     * combined as a tree reduction: each half of the list is merged on its own thread, and the two halves are then merged
+     * together, so the result is the same as merging serially.
+     * @param parallelism the number of threads to merge with, 1 to merge on the calling thread with a single k-way merge
+     * @param parts the WordStats to combine, at least one
+     * @return a new WordStat holding the combined statistics
+     * @throws IllegalArgumentException if no WordStats are given or parallelism is less than 1
+     * @throws ArithmeticException if a combined count does not fit in an int
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    public static WordStat merge(int parallelism, WordStat... parts) throws NoSuchMethodException, SecurityException, 
+                                                                        IllegalAccessException, IllegalArgumentException, 
+                                                                        InvocationTargetException{
+        if(parts.length == 0){
+            throw new IllegalArgumentException("at least one WordStat must be given");
+        }
+
+        if(parallelism < 1){
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        BuildStats stats = BuildStats.isEnabled() ? new BuildStats() : null;
+        SortedCounts[] words = new SortedCounts[parts.length];
+        SortedCounts[] pairs = new SortedCounts[parts.length];
+        int window = Integer.MAX_VALUE;
+
+        for(int i = 0; i < parts.length; i++){
+            window = Math.min(window, parts[i].getCollocationIndex().getWindow());
+        }
+
+        beginPhase(stats, "mergeCounts");
+        if(parallelism == 1){
+            for(int i = 0; i < parts.length; i++){
+                words[i] = SortedCounts.of(parts[i].getWordTable());
+                pairs[i] = SortedCounts.of(parts[i].getWordPairTable());
+            }
+
+            words[0] = SortedCounts.merge(words);
+            pairs[0] = SortedCounts.merge(pairs);
+        }
+        else{
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+            try{
+                SortedCounts[] merged = pool.invoke(new MergeTask(parts, 0, parts.length));
+                words[0] = merged[0];
+                pairs[0] = merged[1];
+            }
+            finally{
+                pool.shutdown();
+            }
+        }
+        HashTable wordTable = words[0].toHashTable();
+        HashTable wordPairTable = pairs[0].toHashTable();
+        endPhase(stats, wordTable.size() + wordPairTable.size(), wordTable.size() + wordPairTable.size(), 0);
+
+        beginPhase(stats, "mergeCollocations");
+        CollocationIndex index = new CollocationIndex(window);
+        for(WordStat part : parts){
+            index.addCounts(part.getCollocationIndex());
+        }
+        endPhase(stats, parts.length, 0, 0);
+
+        return new WordStat(wordTable, wordPairTable, index, stats);
+    }
+
+    /**
+     * Merges the word and word pair counts of a range of WordStats, splitting the range in half until a single WordStat
+     * is left.
+     */
+    private static class MergeTask extends RecursiveTask<SortedCounts[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private WordStat[] parts;
+
+        private int from;
+
+        private int to;
+
+        private MergeTask(WordStat[] parts, int from, int to){
+            this.parts = parts;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Merges the range.
+         * @return the merged word counts at index 0 and the merged word pair counts at index 1
+         */
+        @Override
+        protected SortedCounts[] compute(){
+            if(to - from == 1){
+                return new SortedCounts[]{SortedCounts.of(parts[from].getWordTable()), 
+                                            SortedCounts.of(parts[from].getWordPairTable())};
+            }
+
+            int middle = (from + to) >>> 1;
+            MergeTask left = new MergeTask(parts, from, middle);
+            MergeTask right = new MergeTask(parts, middle, to);
+
+            right.fork();
+            SortedCounts[] leftCounts = left.compute();
+            SortedCounts[] rightCounts = right.join();
+
+            return new SortedCounts[]{SortedCounts.merge(leftCounts[0], rightCounts[0]), 
+                                        SortedCounts.merge(leftCounts[1], rightCounts[1])};
+        }
+    }
+
+    /**
+     * The count and rank of a word or word pair, found with one lookup.
+     */
+    public static class Stats {
+
+        private final int count;
+
+        private final int rank;
+
+        /**
+         * Creates a new Stats.
+         * @param count the count
+         * @param rank the rank, where 1 is the rank of the most common word or word pair
+         */
+        public Stats(int count, int rank){
+            this.count = count;
+            this.rank = rank;
+        }
+
+        /**
+         * Gets the count.
+         * @return the count
+         */
+        public int getCount(){
+            return count;
+        }
+
+        /**
+         * Gets the rank, where 1 is the rank of the most common word or word pair.
+         * @return the rank
+         */
+        public int getRank(){
+            return rank;
+        }
+    }
+
+    /**
+     * A helper method to build a collocation index with a window of 1 from word pair counts.
+     * @param wordPairTable a HashTable with word pairs ("word1 word2") as keys and their counts as values
+     * @return the index, not yet compiled
+     */
+    private static CollocationIndex pairIndex(HashTable wordPairTable){
+        CollocationIndex index = new CollocationIndex(1);
+
+        for(HashEntry pair : wordPairTable.entries()){
+            int space = pair.getKey().indexOf(' ');
+            index.addPair(pair.getKey().substring(0, space), pair.getKey().substring(space + 1), 1, pair.getValue());
+        }
+
+        return index;
+    }
+
+    /**
+     * A helper method for the constructors that compiles the collocation index, then sorts and ranks the entries of
+     * wordTable and wordPairTable.
+     * @param stats the measurements of the build, null if it is not being recorded
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    private void rankEntries(BuildStats stats) throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                                    IllegalArgumentException, InvocationTargetException{
+        beginPhase(stats, "compileCollocations");
+        collocationIndex.compile();
+        endPhase(stats, wordPairTable.size(), 0, 0);
+
+        beginPhase(stats, "sortWords");
         sortedWords = sortEntries(wordTable);
+        endPhase(stats, sortedWords.size(), 0, 0);
 
+        beginPhase(stats, "sortPairs");
         sortedPairs = sortEntries(wordPairTable);
+        endPhase(stats, sortedPairs.size(), 0, 0);
 
-        wordRankTable = hashSortedEntries(sortedWords);
+        beginPhase(stats, "hashSortedWords");
+        rankSortedEntries(sortedWords);
+        endPhase(stats, sortedWords.size(), 0, 0);
 
-        pairRankTable = hashSortedEntries(sortedPairs);
+        beginPhase(stats, "hashSortedPairs");
+        rankSortedEntries(sortedPairs);
+        endPhase(stats, sortedPairs.size(), 0, 0);
+
+        if(stats != null){
+            stats.finish();
+        }
+
+        buildStats = stats;
     }
 
     /**
@@ -127,13 +441,13 @@ public class WordStat {
      * @throws NoSuchElementException if the word is not in the text
      */
     public int wordRank(String word) throws NoSuchElementException{
-        int wordRank = getWordRankTable().get(word);
+        HashEntry entry = getWordTable().getEntry(word);
 
-        if(wordRank == -1){
+        if(entry == null){
             throw new NoSuchElementException();
         }
 
-        return wordRank;
+        return entry.getRank();
     }
 
     /**
@@ -144,13 +458,46 @@ public class WordStat {
      * @throws NoSuchElementException if the word pair is not in the text
      */
     public int wordPairRank(String w1, String w2) throws NoSuchElementException{
-        int wordPairRank = getPairRankTable().get(w1 + " " + w2);
+        HashEntry entry = getWordPairTable().getEntry(w1 + " " + w2);
+
+        if(entry == null){
+            throw new NoSuchElementException();
+        }
+
+        return entry.getRank();
+    }
+
+    /**
+     * Gets the count and rank of a word with one lookup.
+     * @param word the word
+     * @return the count and rank of the word
+     * @throws NoSuchElementException if the word is not in the text
+     */
+    public Stats wordStats(String word) throws NoSuchElementException{
+        HashEntry entry = getWordTable().getEntry(word);
 
-        if(wordPairRank == -1){
+        if(entry == null){
             throw new NoSuchElementException();
         }
 
-        return wordPairRank;
+        return new Stats(entry.getValue(), entry.getRank());
+    }
+
+    /**
+     * Gets the count and rank of a word pair with one lookup.
+     * @param w1 the first word in the word pair
+     * @param w2 the second word in the word pair
+     * @return the count and rank of the word pair
+     * @throws NoSuchElementException if the word pair is not in the text
+     */
+    public Stats wordPairStats(String w1, String w2) throws NoSuchElementException{
+        HashEntry entry = getWordPairTable().getEntry(w1 + " " + w2);
+
+        if(entry == null){
+            throw new NoSuchElementException();
+        }
+
+        return new Stats(entry.getValue(), entry.getRank());
     }
 
     /**
@@ -160,6 +507,20 @@ public class WordStat {
      * @throws kIsTooLargeException if there are less than k words in the text, excluding duplicates
      */
     public String[] mostCommonWords(int k) throws kIsTooLargeException{
+        if(getQueryCache() != null){
+            return getQueryCache().get("mostCommonWords", k, "", 0, size -> findMostCommonWords(size));
+        }
+
+        return findMostCommonWords(k);
+    }
+
+    /**
+     * A helper method that runs mostCommonWords without the query cache.
+     * @param k the number of most common words to retrieve
+     * @return the result of mostCommonWords
+     * @throws kIsTooLargeException if mostCommonWords throws kIsTooLargeException
+     */
+    private String[] findMostCommonWords(int k) throws kIsTooLargeException{
 
         /* if there are <k words in sortedWords, k is too large */
         if(k > getSortedWords().size()){
@@ -183,6 +544,20 @@ public class WordStat {
      * @throws kIsTooLargeException if there are less than k words in the text, excluding duplicates
      */
     public String[] leastCommonWords(int k) throws kIsTooLargeException{
+        if(getQueryCache() != null){
+            return getQueryCache().get("leastCommonWords", k, "", 0, size -> findLeastCommonWords(size));
+        }
+
+        return findLeastCommonWords(k);
+    }
+
+    /**
+     * A helper method that runs leastCommonWords without the query cache.
+     * @param k the number of least common words to retrieve
+     * @return the result of leastCommonWords
+     * @throws kIsTooLargeException if leastCommonWords throws kIsTooLargeException
+     */
+    private String[] findLeastCommonWords(int k) throws kIsTooLargeException{
         
         /* if there are <k words in sortedWords, k is too large */
         if(k > getSortedWords().size()){
@@ -206,6 +581,20 @@ public class WordStat {
      * @throws kIsTooLargeException if there are less than k word pairs in the text, including duplicates
      */
     public String[] mostCommonWordPairs(int k) throws kIsTooLargeException{
+        if(getQueryCache() != null){
+            return getQueryCache().get("mostCommonWordPairs", k, "", 0, size -> findMostCommonWordPairs(size));
+        }
+
+        return findMostCommonWordPairs(k);
+    }
+
+    /**
+     * A helper method that runs mostCommonWordPairs without the query cache.
+     * @param k the number of most common word pairs to retrieve
+     * @return the result of mostCommonWordPairs
+     * @throws kIsTooLargeException if mostCommonWordPairs throws kIsTooLargeException
+     */
+    private String[] findMostCommonWordPairs(int k) throws kIsTooLargeException{
         
         /* if there are <k word pairs in sortedPairs, k is too large */
         if(k > getSortedPairs().size()){
@@ -223,82 +612,191 @@ public class WordStat {
     }
 
     /**
-     * Returns the k most common collocations of a base word, within one word.
+     * Returns the k most common collocations of a base word at a relative position.  Collocations are read from the base
+     * word's row of the collocation index, and are only supported up to the collocation window this WordStat was built with.
+     * At offsets 1 and -1, collocations with the same count are in the order of their pair's rank.
      * @param k the number of collocations to retrieve
      * @param baseWord the word to obtain the collocations from
-     * @param i the relative position to the base word; only i = 1 (directly following base word) or i = -1 (directly preceding base word) are supported
+     * @param i the relative position to the base word, e.g. i = 1 (directly following base word), i = -1 (directly preceding base word), or i = 3 (three words after base word)
      * @return a String[] containing the k most common collocations of the base word
      * @throws kIsTooLargeException if k exceeds the number of word pairs in the text, or k exceeds the number of different collocations a word has
-     * @throws UnsupportedOperationException if i is a number other than 1 or -1
+     * @throws UnsupportedOperationException if i is 0 or further from the base word than the collocation window
      */
     public String[] mostCommonCollocs(int k, String baseWord, int i) throws kIsTooLargeException{
+        if(getQueryCache() != null){
+            return getQueryCache().get("mostCommonCollocs", k, baseWord, i, size -> findMostCommonCollocs(size, baseWord, i));
+        }
 
-        if(!(i == 1 || i == -1)){
+        return findMostCommonCollocs(k, baseWord, i);
+    }
+
+    /**
+     * A helper method that runs mostCommonCollocs without the query cache.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word
+     * @return the result of mostCommonCollocs
+     * @throws kIsTooLargeException if mostCommonCollocs throws kIsTooLargeException
+     */
+    private String[] findMostCommonCollocs(int k, String baseWord, int i) throws kIsTooLargeException{
+
+        if(i == 0 || Math.abs(i) > getCollocationIndex().getWindow()){
             throw new UnsupportedOperationException();
         }
 
-        /* if there are <k word pairs in sortedPairs, k is too large */
-        if(k > getSortedPairs().size()){
-            throw new kIsTooLargeException();
+        if(!(i == 1 || i == -1)){
+            return getCollocationIndex().mostCommon(k, baseWord, i);
         }
 
-        String[] mostCommonCollocs = new String[k];
-
-        if(i == 1){
+        /* collocations with the same count come in the order of their pair's rank, as in mostCommonWordPairs */
+        return getCollocationIndex().mostCommon(k, baseWord, i, 
+                                                other -> i == 1 ? wordPairRank(baseWord, other) : wordPairRank(other, baseWord));
+    }
 
-            // start at the back of the list of pairs (most common)
-            int pairsIndex = getSortedPairs().size() - 1;
+    /**
+     * Returns the k most common words occurring within n positions of a base word on either side, with the counts at each
+     * offset added together.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param n the number of positions on either side of the base word to include
+     * @return a String[] containing the k most common collocations of the base word, in decreasing order of their count
+     * @throws kIsTooLargeException if k exceeds the number of different words within n positions of the base word
+     * @throws UnsupportedOperationException if n is less than 1 or greater than the collocation window
+     */
+    public String[] mostCommonCollocsWithin(int k, String baseWord, int n) throws kIsTooLargeException{
+        if(getQueryCache() != null){
+            return getQueryCache().get("mostCommonCollocsWithin", k, baseWord, n, size -> findMostCommonCollocsWithin(size, baseWord, n));
+        }
 
-            // and add to the front of the collocs list
-            int collocsIndex = 0;
+        return findMostCommonCollocsWithin(k, baseWord, n);
+    }
 
-            while(collocsIndex < mostCommonCollocs.length){
+    /**
+     * A helper method that runs mostCommonCollocsWithin without the query cache.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param n the number of positions on either side of the base word to include
+     * @return the result of mostCommonCollocsWithin
+     * @throws kIsTooLargeException if mostCommonCollocsWithin throws kIsTooLargeException
+     */
+    private String[] findMostCommonCollocsWithin(int k, String baseWord, int n) throws kIsTooLargeException{
+        return getCollocationIndex().mostCommonWithin(k, baseWord, n);
+    }
 
-                // if we've checked all the word pairs and there aren't enough to fill the array, then k is too large
-                if(pairsIndex < 0){
-                    throw new kIsTooLargeException();
-                }
+    /**
+     * Returns the k word pairs in the text that are most strongly associated under a measure such as PMI, rather than the
+     * most frequent.  Pairs seen fewer than minCount times are ignored.
+     * @param k the number of word pairs to retrieve
+     * @param measure the association measure to rank by
+     * @param minCount the smallest count a pair must have to be ranked
+     * @return a String[] of the k most strongly associated word pairs, with each element in the form "word1 word2"
+     * @throws kIsTooLargeException if there are less than k word pairs with a count of at least minCount, excluding duplicates
+     */
+    public String[] strongestWordPairs(int k, AssociationMeasure measure, int minCount) throws kIsTooLargeException{
+        return getCollocationRanker().strongest(k, measure, minCount);
+    }
 
-                String pair = getSortedPairs().get(pairsIndex).getKey();
+    /**
+     * Returns the k collocations directly following (i = 1) or preceding (i = -1) a base word that are most strongly
+     * associated with it under a measure such as PMI.  Pairs seen fewer than minCount times are ignored.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word; only i = 1 or i = -1 are supported
+     * @param measure the association measure to rank by
+     * @param minCount the smallest count a pair must have to be ranked
+     * @return a String[] containing the k most strongly associated collocations of the base word
+     * @throws kIsTooLargeException if the base word has less than k collocations with a count of at least minCount
+     * @throws UnsupportedOperationException if i is a number other than 1 or -1
+     */
+    public String[] strongestCollocs(int k, String baseWord, int i, AssociationMeasure measure, int minCount) 
+                                        throws kIsTooLargeException{
+        return getCollocationRanker().strongestCollocs(k, baseWord, i, measure, minCount);
+    }
 
-                // add the other word in the pair to the list of collocs if the pair begins with base word
-                if(pair.contains(baseWord + " ")){
-                    mostCommonCollocs[collocsIndex] = pair.substring(baseWord.length() + 1);
-                    collocsIndex++;
-                }
+    /**
+     * Gets the FrequencyDistribution of this WordStat's word counts, which answers count-range, rank-range, percentile
+     * and coverage queries with binary searches of a histogram rather than by reading every word.  It is made the first
+     * time it is asked for.
+     * @return the FrequencyDistribution
+     */
+    public FrequencyDistribution frequencyDistribution(){
+        if(frequencyDistribution == null){
+            frequencyDistribution = new FrequencyDistribution(getSortedWords());
+        }
 
-                pairsIndex--;
-            }
+        return frequencyDistribution;
+    }
 
+    /**
+     * Gets the PrefixIndex of this WordStat's words, which adds up and ranks the counts of the words that start with a
+     * prefix, or match a pattern such as "swallow*", without reading every word.  It is made the first time it is asked for.
+     * @return the PrefixIndex
+     */
+    public PrefixIndex prefixIndex(){
+        if(prefixIndex == null){
+            prefixIndex = new PrefixIndex(getSortedWords());
         }
-        else if(i == -1){
 
-            // start at the back of the list of pairs (most common)
-            int pairsIndex = getSortedPairs().size() - 1;
+        return prefixIndex;
+    }
 
-            // and add to the front of the collocs list
-            int collocsIndex = 0;
+    /**
+     * Compares this WordStat with an older one, to find the words and word pairs whose count rose or fell the most.
+     * @param older the WordStat of the older text
+     * @return a WordStatDiff from older to this WordStat
+     */
+    public WordStatDiff diff(WordStat older){
+        return new WordStatDiff(SortedCounts.of(older.getWordTable()), SortedCounts.of(older.getWordPairTable()),
+                                SortedCounts.of(getWordTable()), SortedCounts.of(getWordPairTable()));
+    }
 
-            while(collocsIndex < mostCommonCollocs.length){
+    /**
+     * Compiles the word and word pair counts and ranks into a read-only FrozenWordStat, where each lookup is one minimal
+     * perfect hash and the count and rank are found together.
+     * @return the FrozenWordStat
+     */
+    public FrozenWordStat freeze(){
+        return new FrozenWordStat(getSortedWords(), getSortedPairs());
+    }
 
-                // if we've checked all the word pairs and there aren't enough to fill the array, then k is too large
-                if(pairsIndex < 0){
-                    throw new kIsTooLargeException();
-                }
+    /**
+     * Makes an immutable, read-only view of this WordStat that any number of threads can query at once without locks.
+     * This WordStat itself should only be queried from the thread that built it, so a WordStat shared between threads,
+     * such as by a WordStatServer, should be queried through a view made once after it is built.
+     * @return the view
+     */
+    public WordStatView view(){
+        return new WordStatView(freeze(), getSortedWords(), getSortedPairs(), getCollocationIndex());
+    }
 
-                String pair = getSortedPairs().get(pairsIndex).getKey();
+    /**
+     * Copies the word and word pair counts and ranks into a read-only CompactWordStat, which keeps the words front coded
+     * in sorted order and the word pairs as the indices of their words, for texts whose tables do not fit in memory.
+     * @return the CompactWordStat
+     */
+    public CompactWordStat compact(){
+        return new CompactWordStat(getSortedWords(), getSortedPairs());
+    }
 
-                // add the other word in the pair to the list of collocs if the pair ends with base word
-                if(pair.contains(" " + baseWord)){
-                    mostCommonCollocs[collocsIndex] = pair.substring(0, pair.length() - baseWord.length() - 1);
-                    collocsIndex++;
-                }
+    /**
+     * Puts a bounded cache in front of mostCommonWords, leastCommonWords, mostCommonWordPairs, mostCommonCollocs and
+     * mostCommonCollocsWithin, so that repeated queries are answered without rescanning the sorted entries.  A query for
+     * a smaller k than a cached result is answered with a prefix of that result.  A WordStat's statistics do not change
+     * after it is built, so a cached result never goes stale and the cache is never cleared on its own.
+     * @param capacity the maximum number of results to cache
+     * @return the new QueryCache, which can be used to read the hit and miss counts
+     * @throws IllegalArgumentException if capacity is less than 1
+     */
+    public QueryCache enableQueryCache(int capacity){
+        queryCache = new QueryCache(capacity);
+        return queryCache;
+    }
 
-                pairsIndex--;
-            }
-        }
-        
-        return mostCommonCollocs;
+    /**
+     * Removes the query cache, if there is one.
+     */
+    public void disableQueryCache(){
+        queryCache = null;
     }
 
     /**
@@ -317,18 +815,31 @@ public class WordStat {
     }
 
     /**
-     * A helper method to hash word pairs from a Tokenizer's wordList into a HashTable. 
+     * A helper method to hash word pairs from a Tokenizer's wordList into a HashTable.  The words are added to a
+     * CollocationIndex in the same pass.  Pairs broken by the Tokenizer's TokenFilter are not counted, and neither are
+     * collocations across them.
      * @param t the Tokenizer to obtain the wordList from
+     * @param index the CollocationIndex to add the words to
      * @return the HashTable containing the words
      */
-    private HashTable hashWordPairs(Tokenizer t){
+    private HashTable hashWordPairs(Tokenizer t, CollocationIndex index){
         HashTable wordPairTable = new HashTable();
 
         for(int i = 0; i < t.wordList().size() - 1; i++){
 
-            String wordPair = t.wordList().get(i) + " " + t.wordList().get(i + 1);
-            wordPairTable.put(wordPair, 1);
-    
+            if(!t.isPairBreak(i + 1)){
+                String wordPair = t.wordList().get(i) + " " + t.wordList().get(i + 1);
+                wordPairTable.put(wordPair, 1);
+            }
+            index.addWord(t.wordList().get(i));
+
+            if(t.isPairBreak(i + 1)){
+                index.endSequence();
+            }
+        }
+
+        if(t.wordList().size() > 0){
+            index.addWord(t.wordList().get(t.wordList().size() - 1));
         }
         
         return wordPairTable;
@@ -363,25 +874,75 @@ public class WordStat {
             }
         }
 
+        if(sortedEntries.size() >= parallelRankingThreshold){
+            return parallelSortEntries(sortedEntries);
+        }
+
         Collections.sort(sortedEntries);
 
         return sortedEntries;
     }
 
+    /**
+     * A helper method to be used in place of Collections.sort in sortEntries for large tables.  Each entry's count and
+     * its position in the list are packed into a long, count in the high half, and the longs are sorted with
+     * Arrays.parallelSort.  Entries with equal counts are ordered by their position, so the order is the same as the
+     * stable Collections.sort, ties included.
+     * @param entries the unsorted entries
+     * @return the list of sorted entries
+     */
+    private static ArrayList<HashEntry> parallelSortEntries(ArrayList<HashEntry> entries){
+        long[] packed = new long[entries.size()];
+        Arrays.parallelSetAll(packed, i -> ((long)entries.get(i).getValue() << 32) | i);
+        Arrays.parallelSort(packed);
+
+        HashEntry[] sorted = new HashEntry[packed.length];
+        Arrays.parallelSetAll(sorted, i -> entries.get((int)packed[i]));
+
+        return new ArrayList<HashEntry>(Arrays.asList(sorted));
+    }
+
     /**
      * A helper method to be used in conjunction with sortEntries. In order to support random access to the rank
-     * of each word, this method is to be used to hash each word with its rank stored as its HashEntry's value.
+     * of each word, this method stores each entry's rank in the entry itself, next to its count, so that no second
+     * table is built.
      * @param sortedEntries the list of sorted entries
-     * @return a HashTable where each HashEntry's value is its rank
      */
-    private HashTable hashSortedEntries(ArrayList<HashEntry> sortedEntries){
-        HashTable rankTable = new HashTable();
+    private void rankSortedEntries(ArrayList<HashEntry> sortedEntries){
+        int size = sortedEntries.size();
 
-        for(int i = 0; i < sortedEntries.size(); i++){
-            rankTable.put(sortedEntries.get(i).getKey(), sortedEntries.size() - i);
+        if(size >= parallelRankingThreshold){
+            IntStream.range(0, size).parallel().forEach(i -> sortedEntries.get(i).setRank(size - i));
+            return;
         }
 
-        return rankTable;
+        for(int i = 0; i < size; i++){
+            sortedEntries.get(i).setRank(size - i);
+        }
+    }
+
+    /**
+     * A helper method to begin timing a build phase, if the build is being recorded.
+     * @param stats the measurements of the build, null if it is not being recorded
+     * @param name the name of the phase
+     */
+    private static void beginPhase(BuildStats stats, String name){
+        if(stats != null){
+            stats.begin(name);
+        }
+    }
+
+    /**
+     * A helper method to end timing a build phase, if the build is being recorded.
+     * @param stats the measurements of the build, null if it is not being recorded
+     * @param items the number of words or entries processed in the phase
+     * @param entries the number of HashEntries created in the phase
+     * @param rehashes the number of times a HashTable was rehashed in the phase
+     */
+    private static void endPhase(BuildStats stats, long items, long entries, long rehashes){
+        if(stats != null){
+            stats.end(items, 0, entries, rehashes);
+        }
     }
 
     /**
@@ -418,12 +979,39 @@ public class WordStat {
         return sortedPairs;
     }
 
-    private HashTable getWordRankTable(){
-        return wordRankTable;
+
+    private QueryCache getQueryCache(){
+        return queryCache;
     }
 
-    private HashTable getPairRankTable(){
-        return this.pairRankTable;
+    private CollocationIndex getCollocationIndex(){
+        return collocationIndex;
+    }
+
+    /**
+     * Gets the CollocationRanker of this WordStat, creating it from the collocation index and wordTable the first time.
+     * @return the CollocationRanker of this WordStat
+     */
+    private CollocationRanker getCollocationRanker(){
+        if(collocationRanker == null){
+            long totalWords = 0;
+
+            for(HashEntry entry : getSortedWords()){
+                totalWords += entry.getValue();
+            }
+
+            collocationRanker = getCollocationIndex().ranker(getWordTable(), totalWords);
+        }
+
+        return collocationRanker;
+    }
+
+    /**
+     * Gets the time and allocation measurements of each phase of building this WordStat.
+     * @return the BuildStats of this WordStat, null if BuildStats was disabled when it was built
+     */
+    public BuildStats getBuildStats(){
+        return buildStats;
     }
 
     public String getPath(){
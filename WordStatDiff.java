@@ -0,0 +1,267 @@
+/**
+ * Compares the word and word pair counts of two WordStats, an older and a newer one, to find the words that rose or fell
+ * the most.  The counts of both are held as SortedCounts, so each query joins the two vocabularies with one merge-join
+ * pass over sorted arrays: a key present in only one of them has a count of 0 in the other, and no joined table is built.
+ * Each key is scored as it is passed, and the best k are kept in a bounded heap.
+ * @author Josh Hager
+ */
+public class WordStatDiff {
+
+    private static final double LN_2 = Math.log(2);
+
+    /* the word and word pair counts of the older and newer WordStat */
+    private SortedCounts olderWords;
+    private SortedCounts newerWords;
+    private SortedCounts olderPairs;
+    private SortedCounts newerPairs;
+
+    /* the total number of words and word pairs counted in each WordStat */
+    private long olderWordTotal;
+    private long newerWordTotal;
+    private long olderPairTotal;
+    private long newerPairTotal;
+
+    /**
+     * Creates a new WordStatDiff from the sorted counts of two WordStats.
+     * @param olderWords the word counts of the older WordStat
+     * @param olderPairs the word pair counts of the older WordStat
+     * @param newerWords the word counts of the newer WordStat
+     * @param newerPairs the word pair counts of the newer WordStat
+     */
+    public WordStatDiff(SortedCounts olderWords, SortedCounts olderPairs, SortedCounts newerWords, SortedCounts newerPairs) {
+        this.olderWords = olderWords;
+        this.olderPairs = olderPairs;
+        this.newerWords = newerWords;
+        this.newerPairs = newerPairs;
+        this.olderWordTotal = total(olderWords);
+        this.newerWordTotal = total(newerWords);
+        this.olderPairTotal = total(olderPairs);
+        this.newerPairTotal = total(newerPairs);
+    }
+
+    /**
+     * Returns the k words whose count rose the most, in decreasing order of their score.  Only words with a positive
+     * score are risers.
+     * @param k the number of words to retrieve
+     * @param measure the measure to score the change by
+     * @param minCount the smallest count a word must have in at least one of the texts to be ranked
+     * @return a String[] of the k words that rose the most
+     * @throws kIsTooLargeException if fewer than k words rose
+     */
+    public String[] risingWords(int k, DiffMeasure measure, int minCount) throws kIsTooLargeException {
+        return select(olderWords, newerWords, olderWordTotal, newerWordTotal, k, measure, minCount, 1);
+    }
+
+    /**
+     * Returns the k words whose count fell the most, in decreasing order of how much they fell.  Only words with a
+     * negative score are fallers.
+     * @param k the number of words to retrieve
+     * @param measure the measure to score the change by
+     * @param minCount the smallest count a word must have in at least one of the texts to be ranked
+     * @return a String[] of the k words that fell the most
+     * @throws kIsTooLargeException if fewer than k words fell
+     */
+    public String[] fallingWords(int k, DiffMeasure measure, int minCount) throws kIsTooLargeException {
+        return select(olderWords, newerWords, olderWordTotal, newerWordTotal, k, measure, minCount, -1);
+    }
+
+    /**
+     * Returns the k word pairs whose count rose the most, in decreasing order of their score.
+     * @param k the number of word pairs to retrieve
+     * @param measure the measure to score the change by
+     * @param minCount the smallest count a pair must have in at least one of the texts to be ranked
+     * @return a String[] of the k word pairs that rose the most, with each element in the form "word1 word2"
+     * @throws kIsTooLargeException if fewer than k word pairs rose
+     */
+    public String[] risingWordPairs(int k, DiffMeasure measure, int minCount) throws kIsTooLargeException {
+        return select(olderPairs, newerPairs, olderPairTotal, newerPairTotal, k, measure, minCount, 1);
+    }
+
+    /**
+     * Returns the k word pairs whose count fell the most, in decreasing order of how much they fell.
+     * @param k the number of word pairs to retrieve
+     * @param measure the measure to score the change by
+     * @param minCount the smallest count a pair must have in at least one of the texts to be ranked
+     * @return a String[] of the k word pairs that fell the most, with each element in the form "word1 word2"
+     * @throws kIsTooLargeException if fewer than k word pairs fell
+     */
+    public String[] fallingWordPairs(int k, DiffMeasure measure, int minCount) throws kIsTooLargeException {
+        return select(olderPairs, newerPairs, olderPairTotal, newerPairTotal, k, measure, minCount, -1);
+    }
+
+    /**
+     * Scores the change in a count.
+     * @param measure the measure to score the change by
+     * @param older the count in the older text
+     * @param newer the count in the newer text
+     * @param olderTotal the total of all counts in the older text
+     * @param newerTotal the total of all counts in the newer text
+     * @return the score, positive if the word became more common and negative if it became less common
+     */
+    static double score(DiffMeasure measure, int older, int newer, long olderTotal, long newerTotal) {
+        switch (measure) {
+            case DELTA:
+                return (double)newer - older;
+
+            case RATIO:
+                return Math.log(((newer + 1.0) / (newerTotal + 1.0)) / ((older + 1.0) / (olderTotal + 1.0))) / LN_2;
+
+            default:
+                double total = (double)olderTotal + newerTotal;
+                double expectedOlder = olderTotal * (older + (double)newer) / total;
+                double expectedNewer = newerTotal * (older + (double)newer) / total;
+                double g2 = 2 * (xLogXOverY(older, expectedOlder) + xLogXOverY(newer, expectedNewer));
+                boolean rose = (double)newer * olderTotal > (double)older * newerTotal;
+
+                return rose ? g2 : -g2;
+        }
+    }
+
+    /**
+     * A helper method to join the older and newer counts with a single merge-join pass and keep the k keys whose score,
+     * multiplied by direction, is largest.  The heap's root is the worst of the best keys found so far; ties are broken
+     * in increasing order of key.
+     * @param older the older counts
+     * @param newer the newer counts
+     * @param olderTotal the total of all older counts
+     * @param newerTotal the total of all newer counts
+     * @param k the number of keys to keep
+     * @param measure the measure to score the change by
+     * @param minCount the smallest count a key must have in at least one of the texts to be ranked
+     * @param direction 1 to keep the largest positive scores, -1 to keep the most negative scores
+     * @return the k keys, best first
+     * @throws kIsTooLargeException if fewer than k keys changed in the given direction
+     */
+    private static String[] select(SortedCounts older, SortedCounts newer, long olderTotal, long newerTotal, int k,
+                                    DiffMeasure measure, int minCount, int direction) throws kIsTooLargeException {
+        String[] heapKeys = new String[Math.max(k, 0)];
+        double[] heapScores = new double[Math.max(k, 0)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < older.size() || j < newer.size()) {
+            int c = i == older.size() ? 1 : j == newer.size() ? -1 : older.getKey(i).compareTo(newer.getKey(j));
+            String key = c <= 0 ? older.getKey(i) : newer.getKey(j);
+            int olderCount = c <= 0 ? older.getCount(i++) : 0;
+            int newerCount = c >= 0 ? newer.getCount(j++) : 0;
+
+            if (Math.max(olderCount, newerCount) < minCount) {
+                continue;
+            }
+
+            double score = direction * score(measure, olderCount, newerCount, olderTotal, newerTotal);
+
+            if (!(score > 0)) {
+                continue;
+            }
+
+            if (size < k) {
+                heapKeys[size] = key;
+                heapScores[size] = score;
+                siftUp(heapKeys, heapScores, size);
+                size++;
+            }
+            else if (k > 0 && isBetter(key, score, heapKeys[0], heapScores[0])) {
+                heapKeys[0] = key;
+                heapScores[0] = score;
+                siftDown(heapKeys, heapScores, size);
+            }
+        }
+
+        if (size < k) {
+            throw new kIsTooLargeException();
+        }
+
+        /* repeatedly removing the root puts the worst key at the back */
+        String[] ordered = new String[k];
+        for (int n = k - 1; n >= 0; n--) {
+            ordered[n] = heapKeys[0];
+            size--;
+            heapKeys[0] = heapKeys[size];
+            heapScores[0] = heapScores[size];
+            siftDown(heapKeys, heapScores, size);
+        }
+
+        return ordered;
+    }
+
+    /**
+     * Checks whether key a ranks above key b.
+     * @return true if a has the higher score, or the same score and the smaller key
+     */
+    private static boolean isBetter(String a, double aScore, String b, double bScore) {
+        if (aScore != bScore) {
+            return aScore > bScore;
+        }
+
+        return a.compareTo(b) < 0;
+    }
+
+    private static void siftUp(String[] keys, double[] scores, int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+
+            if (!isBetter(keys[parent], scores[parent], keys[i], scores[i])) {
+                break;
+            }
+
+            swap(keys, scores, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(String[] keys, double[] scores, int size) {
+        int i = 0;
+
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+
+            if (child + 1 < size && isBetter(keys[child], scores[child], keys[child + 1], scores[child + 1])) {
+                child++;
+            }
+
+            if (!isBetter(keys[i], scores[i], keys[child], scores[child])) {
+                break;
+            }
+
+            swap(keys, scores, i, child);
+            i = child;
+        }
+    }
+
+    private static void swap(String[] keys, double[] scores, int a, int b) {
+        String key = keys[a];
+        keys[a] = keys[b];
+        keys[b] = key;
+
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+
+    /**
+     * Adds up every count.
+     * @param counts the counts
+     * @return the total
+     */
+    private static long total(SortedCounts counts) {
+        long total = 0;
+
+        for (int i = 0; i < counts.size(); i++) {
+            total += counts.getCount(i);
+        }
+
+        return total;
+    }
+
+    /**
+     * Computes x * ln(x / y), taken to be 0 when x is 0.
+     * @param x a non-negative number
+     * @param y a positive number
+     * @return x * ln(x / y)
+     */
+    private static double xLogXOverY(double x, double y) {
+        return x == 0 ? 0 : x * Math.log(x / y);
+    }
+}
@@ -0,0 +1,67 @@
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.lang.reflect.InvocationTargetException;
+import java.util.Arrays;
+
+/**
+ * A class to test WordStatDiff.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class WordStatDiffTest {
+
+    /**
+     * A helper method to compare two texts.
+     * @param older the words of the older text
+     * @param newer the words of the newer text
+     * @return the diff from older to newer
+     */
+    private static WordStatDiff diff(String[] older, String[] newer) throws NoSuchMethodException, SecurityException, 
+                                                                    IllegalAccessException, IllegalArgumentException, 
+                                                                    InvocationTargetException{
+        return new WordStat(newer).diff(new WordStat(older));
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testRisingWords() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        WordStatDiff test = diff(new String[]{"a", "a", "b", "c", "c", "c"},
+                                    new String[]{"a", "a", "a", "a", "b", "b", "d"});
+
+        assertEquals("[a, b]", Arrays.toString(test.risingWords(2, DiffMeasure.DELTA, 1)));             //largest count change first
+        assertEquals("[d]", Arrays.toString(test.risingWords(1, DiffMeasure.RATIO, 1)));                //new word has the largest ratio
+        assertEquals("[c]", Arrays.toString(test.fallingWords(1, DiffMeasure.DELTA, 1)));               //word missing from the newer text
+        assertEquals("[a, b]", Arrays.toString(test.risingWords(2, DiffMeasure.RATIO, 2)));             //minCount leaves out the new word
+
+        try{
+            test.fallingWords(2, DiffMeasure.DELTA, 1);
+            fail("No exception thrown when too few words fell");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //only one faller
+        }
+    }
+
+    @Test
+    public void testWordPairs() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        WordStatDiff test = diff(new String[]{"holy", "grail", "holy", "grail", "the", "end"},
+                                    new String[]{"holy", "hand", "grenade", "holy", "hand", "grenade", "holy", "grail"});
+
+        assertEquals("[grenade holy, hand grenade]", 
+                        Arrays.toString(test.risingWordPairs(2, DiffMeasure.DELTA, 1)));                //ties in order of pair
+        assertEquals("[grail holy]", Arrays.toString(test.fallingWordPairs(1, DiffMeasure.LOG_LIKELIHOOD, 1)));
+    }
+
+    @Test
+    public void testScore(){
+        assertEquals(3, WordStatDiff.score(DiffMeasure.DELTA, 2, 5, 10, 10), 0);                        //delta
+        assertEquals(1, WordStatDiff.score(DiffMeasure.RATIO, 1, 3, 9, 9), 1e-9);                       //ratio doubles
+        assertEquals(0, WordStatDiff.score(DiffMeasure.LOG_LIKELIHOOD, 10, 20, 100, 200), 1e-9);        //same relative frequency
+        assertTrue(WordStatDiff.score(DiffMeasure.LOG_LIKELIHOOD, 10, 30, 100, 100) > 0);               //rose
+        assertTrue(WordStatDiff.score(DiffMeasure.LOG_LIKELIHOOD, 30, 10, 100, 100) < 0);               //fell
+        assertTrue(WordStatDiff.score(DiffMeasure.LOG_LIKELIHOOD, 100, 300, 1000, 1000) 
+                        > WordStatDiff.score(DiffMeasure.LOG_LIKELIHOOD, 10, 30, 1000, 1000));          //more evidence scores higher
+    }
+}
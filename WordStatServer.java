@@ -0,0 +1,476 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A small HTTP server answering queries on one loaded WordStat, so that several services can share a single copy of the
+ * statistics instead of each building their own.  It is built on the JDK's com.sun.net.httpserver and handles each
+ * request on its own virtual thread when the JDK has them, or on a cached thread pool otherwise.  Queries are answered
+ * from a WordStatView made when the server is created, so concurrent requests never lock or wait on each other.
+ *
+ * Every query method has a GET endpoint taking its arguments as query parameters, for example
+ * /wordCount?word=ni or /mostCommonCollocs?k=3&word=sir&i=1, answered with a JSON number for counts and ranks or a
+ * JSON array of Strings for the top-k methods.  Failed queries are answered with a JSON object holding an error message,
+ * with status 404 for a word not in the text or a k that is too large, and 400 for a bad argument.  The count and rank methods
+ * and mostCommonCollocs also have a POST endpoint under /batch/ taking one query per line of the body, with the
+ * arguments of each line separated by spaces, answered with a JSON array holding one result per line.  /metrics returns
+ * the number of requests and a latency histogram for each endpoint.
+ * @author Josh Hager
+ */
+public class WordStatServer {
+
+    /**
+     * Answers one request to an endpoint.
+     */
+    private interface Endpoint {
+
+        /**
+         * Answers a request.
+         * @param exchange the request
+         * @return the JSON body of the response
+         * @throws Exception if the request cannot be answered; the exception type decides the status code
+         */
+        String answer(HttpExchange exchange) throws Exception;
+    }
+
+    /**
+     * Answers one line of a batch request.
+     */
+    private interface BatchQuery {
+
+        /**
+         * Answers one line.
+         * @param args the arguments on the line
+         * @return the JSON result for the line
+         * @throws Exception if the line cannot be answered, in which case its result is null
+         */
+        String answer(String[] args) throws Exception;
+    }
+
+    private WordStat stats;
+
+    /* the read-only view of stats that every request is answered from */
+    private final WordStatView view;
+
+    private HttpServer server;
+
+    private ExecutorService executor;
+
+    /* stores each endpoint's path and the latencies of the requests it has answered */
+    private Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<String, LatencyHistogram>();
+
+    /**
+     * Creates a new WordStatServer for a WordStat, listening on every address of this machine.  The server does not
+     * answer requests until start() is called.
+     * @param stats the WordStat to answer queries on
+     * @param port the port to listen on, or 0 to pick a free port
+     * @throws IOException if the port cannot be bound
+     */
+    public WordStatServer(WordStat stats, int port) throws IOException {
+        this(stats, new InetSocketAddress(port));
+    }
+
+    /**
+     * Creates a new WordStatServer for a WordStat, listening on a specified address.  The server does not answer
+     * requests until start() is called.
+     * @param stats the WordStat to answer queries on
+     * @param address the address to listen on, with port 0 to pick a free port
+     * @throws IOException if the address cannot be bound
+     */
+    public WordStatServer(WordStat stats, InetSocketAddress address) throws IOException {
+        this.stats = stats;
+        this.view = stats.view();
+        this.server = HttpServer.create(address, 0);
+
+        addEndpoint("/wordCount", exchange -> String.valueOf(view.wordCount(param(exchange, "word"))));
+        addEndpoint("/wordPairCount", exchange -> String.valueOf(view.wordPairCount(param(exchange, "w1"), param(exchange, "w2"))));
+        addEndpoint("/wordRank", exchange -> String.valueOf(view.wordRank(param(exchange, "word"))));
+        addEndpoint("/wordPairRank", exchange -> String.valueOf(view.wordPairRank(param(exchange, "w1"), param(exchange, "w2"))));
+        addEndpoint("/mostCommonWords", exchange -> toJson(view.mostCommonWords(kParam(exchange))));
+        addEndpoint("/mostCommonWordPairs", exchange -> toJson(view.mostCommonWordPairs(kParam(exchange))));
+        addEndpoint("/mostCommonCollocs", exchange -> toJson(view.mostCommonCollocs(kParam(exchange),
+                                                        param(exchange, "word"), intParam(exchange, "i"))));
+
+        addBatchEndpoint("/batch/wordCount", 1, args -> String.valueOf(view.wordCount(args[0])));
+        addBatchEndpoint("/batch/wordPairCount", 2, args -> String.valueOf(view.wordPairCount(args[0], args[1])));
+        addBatchEndpoint("/batch/wordRank", 1, args -> String.valueOf(view.wordRank(args[0])));
+        addBatchEndpoint("/batch/wordPairRank", 2, args -> String.valueOf(view.wordPairRank(args[0], args[1])));
+        addBatchEndpoint("/batch/mostCommonCollocs", 3, args -> toJson(view.mostCommonCollocs(parseK(args[0]),
+                                                        args[1], parseInt(args[2], "i"))));
+
+        server.createContext("/metrics", exchange -> respond(exchange, 200, metricsJson()));
+    }
+
+    /**
+     * Starts answering requests.
+     */
+    public void start() {
+        executor = newExecutor();
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stops answering requests, waiting up to a specified time for requests in progress to finish.
+     * @param delay the longest time to wait, in seconds
+     */
+    public void stop(int delay) {
+        server.stop(delay);
+
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gets the port this server listens on, which is the port picked when it was created with port 0.
+     * @return the port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the latency histogram of an endpoint.
+     * @param path the path of the endpoint, such as "/wordCount"
+     * @return the latency histogram, or null if there is no such endpoint
+     */
+    public LatencyHistogram getLatencies(String path) {
+        return latencies.get(path);
+    }
+
+    /**
+     * Gets the WordStat this server answers queries on.
+     * @return the WordStat
+     */
+    public WordStat getWordStat() {
+        return stats;
+    }
+
+    /**
+     * Gets the read-only view of the WordStat that requests are answered from.
+     * @return the view
+     */
+    public WordStatView getView() {
+        return view;
+    }
+
+    /**
+     * Adds an endpoint that times each request and turns exceptions into error responses.  Endpoints under /batch/ only
+     * accept POST requests, and every other endpoint only accepts GET requests.
+     * @param path the path of the endpoint
+     * @param endpoint answers each request
+     */
+    private void addEndpoint(String path, Endpoint endpoint) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        latencies.put(path, histogram);
+
+        server.createContext(path, exchange -> {
+            long start = System.nanoTime();
+
+            try {
+                if (!exchange.getRequestMethod().equals(path.startsWith("/batch/") ? "POST" : "GET")) {
+                    respond(exchange, 405, error("method not allowed"));
+                }
+                else {
+                    respond(exchange, 200, endpoint.answer(exchange));
+                }
+            }
+            catch (NoSuchElementException e) {
+                respond(exchange, 404, error("not found"));
+            }
+            catch (kIsTooLargeException e) {
+                respond(exchange, 404, error("k is too large"));
+            }
+            catch (IllegalArgumentException | UnsupportedOperationException e) {
+                respond(exchange, 400, error(e.getMessage() == null ? "unsupported argument" : e.getMessage()));
+            }
+            catch (IOException e) {
+                throw e;
+            }
+            catch (Exception e) {
+                respond(exchange, 500, error("internal error"));
+            }
+            finally {
+                histogram.record(System.nanoTime() - start);
+            }
+        });
+    }
+
+    /**
+     * Adds a POST endpoint that answers one query for each line of the request body.  A line that cannot be answered,
+     * such as the rank of a word that is not in the text, has a null result.
+     * @param path the path of the endpoint
+     * @param arity the number of arguments on each line
+     * @param query answers each line
+     */
+    private void addBatchEndpoint(String path, int arity, BatchQuery query) {
+        addEndpoint(path, exchange -> {
+            String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            StringBuilder json = new StringBuilder("[");
+
+            for (String line : body.split("\n")) {
+                String[] args = line.trim().split(" +");
+
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                if (args.length != arity) {
+                    throw new IllegalArgumentException("expected " + arity + " arguments per line: " + line.trim());
+                }
+
+                String result;
+                try {
+                    result = query.answer(args);
+                }
+                catch (NoSuchElementException | kIsTooLargeException | UnsupportedOperationException e) {
+                    result = "null";
+                }
+
+                json.append(json.length() > 1 ? "," : "").append(result);
+            }
+
+            return json.append("]").toString();
+        });
+    }
+
+    /**
+     * Writes the latencies of every endpoint as JSON.  Only buckets holding at least one request are listed, each with
+     * its upper bound in microseconds.
+     * @return the JSON
+     */
+    private String metricsJson() {
+        StringBuilder json = new StringBuilder("{");
+
+        for (Map.Entry<String, LatencyHistogram> entry : new TreeMap<String, LatencyHistogram>(latencies).entrySet()) {
+            LatencyHistogram histogram = entry.getValue();
+
+            json.append(json.length() > 1 ? "," : "").append(quote(entry.getKey())).append(":{")
+                .append("\"count\":").append(histogram.getCount())
+                .append(",\"meanMicros\":").append(String.format("%.1f", histogram.getMeanMicros()))
+                .append(",\"p50Micros\":").append(histogram.getPercentileMicros(50))
+                .append(",\"p99Micros\":").append(histogram.getPercentileMicros(99))
+                .append(",\"buckets\":{");
+
+            boolean first = true;
+            for (int b = 0; b < LatencyHistogram.BUCKETS; b++) {
+                if (histogram.getBucketCount(b) > 0) {
+                    long bound = LatencyHistogram.getBucketBound(b);
+                    json.append(first ? "" : ",").append(bound == Long.MAX_VALUE ? "\"+Inf\"" : quote(String.valueOf(bound)))
+                        .append(":").append(histogram.getBucketCount(b));
+                    first = false;
+                }
+            }
+
+            json.append("}}");
+        }
+
+        return json.append("}").toString();
+    }
+
+    /**
+     * A helper method to write a JSON response and close the exchange.
+     * @param exchange the request
+     * @param status the HTTP status code
+     * @param json the body
+     * @throws IOException if the response cannot be written
+     */
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * A helper method to get a query parameter of a request.
+     * @param exchange the request
+     * @param name the name of the parameter
+     * @return the decoded value of the parameter
+     * @throws IllegalArgumentException if the parameter is missing
+     */
+    private static String param(HttpExchange exchange, String name) {
+        String query = exchange.getRequestURI().getRawQuery();
+
+        if (query != null) {
+            for (String pair : query.split("&")) {
+                int equals = pair.indexOf('=');
+                String key = URLDecoder.decode(equals == -1 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+
+                if (key.equals(name)) {
+                    return equals == -1 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+                }
+            }
+        }
+
+        throw new IllegalArgumentException("missing parameter " + name);
+    }
+
+    /**
+     * A helper method to get an integer query parameter of a request.
+     * @param exchange the request
+     * @param name the name of the parameter
+     * @return the value of the parameter
+     * @throws IllegalArgumentException if the parameter is missing or not an integer
+     */
+    private static int intParam(HttpExchange exchange, String name) {
+        return parseInt(param(exchange, name), name);
+    }
+
+    /**
+     * A helper method to get the k query parameter of a request, the number of results to retrieve.
+     * @param exchange the request
+     * @return the value of k
+     * @throws IllegalArgumentException if k is missing, not an integer or negative
+     */
+    private static int kParam(HttpExchange exchange) {
+        return parseK(param(exchange, "k"));
+    }
+
+    /**
+     * A helper method to parse an integer argument.
+     * @param value the argument
+     * @param name the name of the argument, for the error message
+     * @return the integer
+     * @throws IllegalArgumentException if the argument is not an integer
+     */
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException("parameter " + name + " must be an integer");
+        }
+    }
+
+    /**
+     * A helper method to parse a number of results to retrieve.
+     * @param value the argument
+     * @return the number of results
+     * @throws IllegalArgumentException if the argument is not an integer or is negative
+     */
+    private static int parseK(String value) {
+        int k = parseInt(value, "k");
+
+        if (k < 0) {
+            throw new IllegalArgumentException("parameter k must not be negative");
+        }
+
+        return k;
+    }
+
+    /**
+     * A helper method to write an array of Strings as a JSON array.
+     * @param values the Strings
+     * @return the JSON
+     */
+    static String toJson(String[] values) {
+        StringBuilder json = new StringBuilder("[");
+
+        for (int i = 0; i < values.length; i++) {
+            json.append(i > 0 ? "," : "").append(quote(values[i]));
+        }
+
+        return json.append("]").toString();
+    }
+
+    /**
+     * A helper method to write an error message as a JSON object.
+     * @param message the message
+     * @return the JSON
+     */
+    private static String error(String message) {
+        return "{\"error\":" + quote(message) + "}";
+    }
+
+    /**
+     * A helper method to write a String as a JSON string, escaping quotes, backslashes and control characters.
+     * @param value the String
+     * @return the quoted JSON string
+     */
+    static String quote(String value) {
+        StringBuilder json = new StringBuilder("\"");
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            }
+            else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int)c));
+            }
+            else {
+                json.append(c);
+            }
+        }
+
+        return json.append('"').toString();
+    }
+
+    /**
+     * Creates the executor requests are handled on: a new virtual thread per request if the JDK has virtual threads, and
+     * a cached pool of daemon platform threads otherwise.  Virtual threads are looked up by reflection so that this
+     * class still compiles and runs on JDKs without them.
+     * @return the executor
+     */
+    private static ExecutorService newExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "wordstat-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * Loads a WordStat and serves it until the process is stopped.
+     * Usage: WordStatServer file-or-directory [port] [collocation window]
+     * A directory is loaded with a CorpusBuilder, whose index has a collocation window of 1.
+     * @param args the file or directory to load, the port to listen on (8080 by default) and the collocation window
+     *             (1 by default)
+     * @throws IOException if the input cannot be read or the port cannot be bound
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     */
+    public static void main(String[] args) throws IOException, NoSuchMethodException, SecurityException,
+                                            IllegalAccessException, IllegalArgumentException, InvocationTargetException {
+        if (args.length < 1) {
+            System.err.println("usage: WordStatServer file-or-directory [port] [collocation window]");
+            System.exit(2);
+        }
+
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 8080;
+        int window = args.length > 2 ? Integer.parseInt(args[2]) : 1;
+
+        WordStat stats = new File(args[0]).isDirectory() ? new CorpusBuilder().addDirectory(args[0]).build()
+                                                          : new WordStat(new Tokenizer(args[0]), window);
+
+        WordStatServer server = new WordStatServer(stats, port);
+        server.start();
+        System.out.println("serving " + args[0] + " on port " + server.getPort());
+    }
+}
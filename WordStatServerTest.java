@@ -0,0 +1,140 @@
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+/**
+ * A class to test WordStatServer against localhost.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class WordStatServerTest {
+
+    private WordStatServer server;
+
+    private HttpClient client = HttpClient.newHttpClient();
+
+    @Before
+    public void startServer() throws IOException, NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        String[] inputWords = new String[]{"the", "knights", "who", "say", "ni", "the", "knights", "of", "ni", "the"};
+        server = new WordStatServer(new WordStat(inputWords), new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+        server.start();
+    }
+
+    @After
+    public void stopServer(){
+        server.stop(0);
+    }
+
+    /**
+     * A helper method to send a GET request to the server.
+     * @param pathAndQuery the path and query of the request
+     * @return the response
+     */
+    private HttpResponse<String> get(String pathAndQuery) throws IOException, InterruptedException{
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + pathAndQuery)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * A helper method to send a POST request to the server.
+     * @param path the path of the request
+     * @param body the body of the request
+     * @return the response
+     */
+    private HttpResponse<String> post(String path, String body) throws IOException, InterruptedException{
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path))
+                                            .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+                                                                                                        //CONDITION:
+    @Test
+    public void testQueries() throws IOException, InterruptedException, kIsTooLargeException{
+        assertEquals("2", get("/wordCount?word=ni").body());                                            //count of a word
+        assertEquals("0", get("/wordCount?word=shrubbery").body());                                     //count of a word not in the text
+        assertEquals("2", get("/wordPairCount?w1=the&w2=knights").body());                              //count of a pair
+        assertEquals("1", get("/wordRank?word=the").body());                                            //rank of a word
+        assertEquals(String.valueOf(server.getWordStat().wordPairRank("the", "knights")),
+                        get("/wordPairRank?w1=the&w2=knights").body());                                 //rank of a pair
+        assertEquals("[\"the\"]", get("/mostCommonWords?k=1").body());                                    //most common words
+        assertEquals(WordStatServer.toJson(server.getWordStat().mostCommonWordPairs(2)),
+                        get("/mostCommonWordPairs?k=2").body());                                        //most common pairs
+        assertEquals("[\"knights\"]", get("/mostCommonCollocs?k=1&word=the&i=1").body());               //collocations
+    }
+
+    @Test
+    public void testErrors() throws IOException, InterruptedException{
+        assertEquals(404, get("/wordRank?word=shrubbery").statusCode());                                //word not in the text
+        assertEquals(404, get("/mostCommonWords?k=100").statusCode());                                  //k is too large
+        assertEquals(400, get("/mostCommonWords").statusCode());                                        //missing parameter
+        assertEquals(400, get("/mostCommonWords?k=many").statusCode());                                 //parameter is not a number
+        assertEquals(400, get("/mostCommonWords?k=-1").statusCode());                                   //k is negative
+        assertEquals(400, get("/mostCommonCollocs?k=-1&word=the&i=1").statusCode());
+        assertTrue(get("/mostCommonWordPairs?k=-1").body().contains("negative"));                      //reason, not an exception
+        assertEquals(400, get("/mostCommonCollocs?k=1&word=the&i=2").statusCode());                     //offset is outside the window
+        assertEquals(405, post("/wordCount", "ni").statusCode());                                       //wrong method
+        assertTrue(get("/wordRank?word=shrubbery").body().startsWith("{\"error\":"));                   //error body
+    }
+
+    @Test
+    public void testBatch() throws IOException, InterruptedException{
+        assertEquals("[2,0,3]", post("/batch/wordCount", "ni\nshrubbery\nthe\n").body());               //counts of words
+        assertEquals("[2,1]", post("/batch/wordPairCount", "the knights\nknights who").body());         //counts of pairs
+        assertEquals("[1,null]", post("/batch/wordRank", "the\nshrubbery").body());                     //ranks, one not in the text
+        assertEquals("[" + server.getWordStat().wordPairRank("the", "knights") + ",null]",
+                        post("/batch/wordPairRank", "the knights\nni ni").body());                     //pair ranks, one not in the text
+        assertEquals("[[\"knights\"],null]", post("/batch/mostCommonCollocs", "1 the 1\n5 the 1").body()); //collocations, one too large
+        assertEquals("[]", post("/batch/wordCount", "").body());                                        //empty batch
+        assertEquals(400, post("/batch/wordPairCount", "the").statusCode());                            //wrong number of arguments
+        assertEquals(400, post("/batch/mostCommonCollocs", "1 the 1\n-1 the 1").statusCode());          //k is negative
+        assertEquals(400, post("/batch/mostCommonCollocs", "1 the one").statusCode());                  //offset is not a number
+        assertEquals(405, get("/batch/wordCount").statusCode());                                        //wrong method
+    }
+
+    @Test
+    public void testMetrics() throws IOException, InterruptedException{
+        for(int i = 0; i < 5; i++){
+            get("/wordCount?word=ni");
+        }
+        get("/wordRank?word=shrubbery");
+
+        assertEquals(5, server.getLatencies("/wordCount").getCount());                                  //successful requests are timed
+        assertEquals(1, server.getLatencies("/wordRank").getCount());                                   //failed requests are timed
+
+        String metrics = get("/metrics").body();
+        assertTrue(metrics.contains("\"/wordCount\":{\"count\":5,"));                                   //metrics list the count
+        assertTrue(metrics.contains("\"buckets\":{\""));                                                //metrics list the histogram
+    }
+
+    @Test
+    public void testHistogram(){
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentileMicros(50));                                             //empty histogram
+
+        histogram.record(500);
+        histogram.record(3000);
+        histogram.record(3000);
+        histogram.record(1000000);
+
+        assertEquals(4, histogram.getCount());
+        assertEquals(1, histogram.getBucketCount(0));                                                   //under a microsecond
+        assertEquals(2, histogram.getBucketCount(2));                                                   //between 2 and 4 microseconds
+        assertEquals(4, histogram.getPercentileMicros(50));                                             //median
+        assertEquals(1024, histogram.getPercentileMicros(100));                                         //maximum
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketOf(Long.MAX_VALUE));          //slowest bucket
+    }
+
+    @Test
+    public void testQuote(){
+        assertEquals("\"a\\\"b\\\\c\\u000a\"", WordStatServer.quote("a\"b\\c\n"));                     //quotes, backslashes and control characters
+    }
+}
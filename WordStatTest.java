@@ -153,6 +153,38 @@ public class WordStatTest {
         assertEquals(5, test.wordRank("quandale"));                                     //read input file
     }
 
+    @Test
+    public void testWordStats() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException, FileNotFoundException, IOException{
+        WordStat test = new WordStat(new String[]{"hello", "world", "hello"});
+
+        assertEquals(2, test.wordStats("hello").getCount());                            //count and rank together
+        assertEquals(1, test.wordStats("hello").getRank());
+        assertEquals(1, test.wordStats("world").getCount());
+        assertEquals(2, test.wordStats("world").getRank());
+        assertEquals(1, test.wordPairStats("hello", "world").getCount());               //word pair
+
+        try{
+            test.wordStats("quandale");
+            fail();                                                                     //word does not exist
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.wordPairStats("world", "world");
+            fail();                                                                     //word pair does not exist
+        }
+        catch(NoSuchElementException e){
+        }
+
+        test = new WordStat(path + "\\UniqueWordCounts.txt");
+        for(String word : new String[]{"hello", "my", "name", "is", "quandale"}){
+            assertEquals(test.wordCount(word), test.wordStats(word).getCount());        //same as wordCount and wordRank
+            assertEquals(test.wordRank(word), test.wordStats(word).getRank());
+        }
+    }
+
     @Test
     public void testWordPairRank() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
                                         IllegalArgumentException, InvocationTargetException, FileNotFoundException, IOException{
@@ -487,4 +519,179 @@ public class WordStatTest {
         test = new WordStat(path + "\\Collocs.txt");
         assertEquals("[my, name, is]", Arrays.toString(test.mostCommonCollocs(3, "hello", 1)));   //read from a file
     }
+
+    @Test
+    public void testMostCommonCollocsWindow() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                                IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        String[] inputWords = new String[]{"the", "knights", "who", "say", "ni", "the", "knights", "of", "ni"};
+        WordStat test = new WordStat(new Tokenizer(inputWords), 3);
+
+        assertEquals("[ni]", Arrays.toString(test.mostCommonCollocs(1, "knights", 3)));                //i = 3
+        assertEquals("[the]", Arrays.toString(test.mostCommonCollocs(1, "ni", -3)));               //i = -3
+        assertEquals("[knights]", Arrays.toString(test.mostCommonCollocs(1, "the", 1)));               //i = 1 still works
+        assertEquals("[knights, the, of, who]", 
+                        Arrays.toString(test.mostCommonCollocsWithin(4, "ni", 3)));                     //within 3 words
+
+        try{                                                          
+            test.mostCommonCollocs(1, "the", 4);
+            fail("No exception thrown when i is outside the window");
+        }
+        catch(UnsupportedOperationException e){
+            /* correct exception was thrown */
+        }
+        catch(Exception e){
+            fail("Wrong type of exception thrown when i is outside the window");                        //i outside window
+        }
+    }
+
+    @Test
+    public void testMostCommonCollocsWholeWords() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        String[] inputWords = new String[]{"bathe", "the", "knights", "the", "knights", "bathe", "the", "witch"};
+        WordStat test = new WordStat(inputWords);
+
+        assertEquals("[knights, witch]", Arrays.toString(test.mostCommonCollocs(2, "the", 1)));         //i = 1
+        assertEquals("[bathe, knights]", Arrays.toString(test.mostCommonCollocs(2, "the", -1)));        //i = -1
+
+        try{                                                          
+            test.mostCommonCollocs(1, "he", 1);
+            fail("No exception thrown when the base word is only part of a word");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //whole words only
+        }
+    }
+
+    @Test
+    public void testStrongestWordPairs() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                            IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        String[] inputWords = new String[]{"of", "the", "holy", "grail", "of", "the", "knights", "of", "the", "holy", "grail",
+                                            "the", "the", "of", "of"};
+        WordStat test = new WordStat(inputWords);
+
+        assertEquals("[of the]", Arrays.toString(test.mostCommonWordPairs(1)));                         //most common pair is not a collocation
+        assertEquals("[holy grail]", Arrays.toString(test.strongestWordPairs(1, AssociationMeasure.PMI, 2)));     //PMI
+        assertEquals("[grail]", Arrays.toString(test.strongestCollocs(1, "holy", 1, AssociationMeasure.LOG_LIKELIHOOD, 1)));   //collocs
+    }
+
+    @Test
+    public void testQueryCache() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        String[] inputWords = new String[]{"hello", "my", "name", "hello", "is", "hello", "my", "reginald"};
+        WordStat test = new WordStat(inputWords);
+        QueryCache cache = test.enableQueryCache(10);
+
+        assertEquals("[my, is]", Arrays.toString(test.mostCommonCollocs(2, "hello", 1)));
+        assertEquals("[my]", Arrays.toString(test.mostCommonCollocs(1, "hello", 1)));                  //prefix of cached result
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+
+        assertEquals("[hello, my]", Arrays.toString(test.mostCommonWords(2)));
+        assertEquals("[hello, my]", Arrays.toString(test.mostCommonWords(2)));                         //repeated query
+        assertEquals(2, cache.getHits());
+
+        try{                                                          
+            test.mostCommonWords(9);
+            fail("No exception thrown when k is too large");
+        }
+        catch(kIsTooLargeException e){
+            /* correct exception was thrown */                                                          //exceptions still thrown
+        }
+
+        test.disableQueryCache();
+        assertEquals("[hello]", Arrays.toString(test.mostCommonWords(1)));
+        assertEquals(2, cache.getHits());                                                               //cache no longer used
+    }
+
+    @Test
+    public void testMerge() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        String[] monday = new String[]{"the", "knights", "who", "say", "ni"};
+        String[] tuesday = new String[]{"ni", "ni", "the", "knights"};
+        String[] wednesday = new String[]{"we", "are", "the", "knights", "who", "say", "ni"};
+        WordStat merged = WordStat.merge(new WordStat(monday), new WordStat(tuesday), new WordStat(wednesday));
+
+        assertEquals(3, merged.wordCount("the"));
+        assertEquals(4, merged.wordCount("ni"));                                                        //word counts are added
+        assertEquals(1, merged.wordCount("we"));                                                        //word in one part
+        assertEquals(3, merged.wordPairCount("the", "knights"));                                        //pair counts are added
+        assertEquals(0, merged.wordPairCount("ni", "we"));                                              //pairs across parts are not counted
+        assertEquals(1, merged.wordRank("ni"));                                                         //ranks are rebuilt
+        assertEquals("[ni]", Arrays.toString(merged.mostCommonWords(1)));
+        assertEquals("[knights]", Arrays.toString(merged.mostCommonCollocs(1, "the", 1)));              //collocations are merged
+
+        WordStat parallel = WordStat.merge(4, new WordStat(monday), new WordStat(tuesday), new WordStat(wednesday));
+        for(String word : new String[]{"the", "knights", "who", "say", "ni", "we", "are"}){
+            assertEquals(merged.wordCount(word), parallel.wordCount(word));                             //parallel merge gives the same counts
+            assertEquals(merged.wordPairCount("the", word), parallel.wordPairCount("the", word));
+        }
+
+        assertEquals(merged.wordCount("ni"), WordStat.merge(merged).wordCount("ni"));                   //one part
+
+        try{
+            WordStat.merge();
+            fail("No exception thrown when there is nothing to merge");
+        }
+        catch(IllegalArgumentException e){
+            /* correct exception was thrown */                                                          //no parts
+        }
+    }
+
+    @Test
+    public void testMergeWindow() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                    IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        WordStat first = new WordStat(new Tokenizer(new String[]{"a", "x", "b", "a", "y", "b"}), 3);
+        WordStat second = new WordStat(new Tokenizer(new String[]{"a", "z", "b", "a", "z", "c"}), 2);
+        WordStat merged = WordStat.merge(first, second);
+
+        assertEquals("[b]", Arrays.toString(merged.mostCommonCollocs(1, "a", 2)));                      //offsets within the smallest window
+
+        try{
+            merged.mostCommonCollocs(1, "a", 3);
+            fail("No exception thrown when i is outside the smallest window");
+        }
+        catch(UnsupportedOperationException e){
+            /* correct exception was thrown */                                                          //window is the smallest window
+        }
+    }
+
+    @Test
+    public void testParallelRanking() throws NoSuchMethodException, SecurityException, IllegalAccessException, 
+                                        IllegalArgumentException, InvocationTargetException, kIsTooLargeException{
+        String[] words = new String[20000];
+        for(int i = 0; i < words.length; i++){
+            words[i] = "" + (char)('a' + (i * 7919) % 26) + (char)('a' + (i * 31) % 23) + (char)('a' + i % 5);
+        }
+
+        int threshold = WordStat.getParallelRankingThreshold();
+        WordStat serial;
+        WordStat parallel;
+        try{
+            WordStat.setParallelRankingThreshold(Integer.MAX_VALUE);
+            serial = new WordStat(words);
+            WordStat.setParallelRankingThreshold(1);
+            parallel = new WordStat(words);
+        }
+        finally{
+            WordStat.setParallelRankingThreshold(threshold);
+        }
+
+        String[] ranked = serial.mostCommonWords(serial.view().uniqueWords());
+        assertEquals(Arrays.toString(ranked),
+                    Arrays.toString(parallel.mostCommonWords(parallel.view().uniqueWords())));          //same order, ties included
+        for(String word : ranked){
+            assertEquals(serial.wordRank(word), parallel.wordRank(word));
+        }
+        assertEquals(Arrays.toString(serial.mostCommonWordPairs(serial.view().uniqueWordPairs())),             //pairs ranked the same
+                    Arrays.toString(parallel.mostCommonWordPairs(parallel.view().uniqueWordPairs())));
+        assertEquals(Arrays.toString(serial.leastCommonWords(100)), Arrays.toString(parallel.leastCommonWords(100)));
+
+        try{
+            WordStat.setParallelRankingThreshold(0);
+            fail("No exception thrown when the threshold is less than 1");
+        }
+        catch(IllegalArgumentException e){
+            /* correct exception was thrown */                                                          //threshold too small
+        }
+    }
 }
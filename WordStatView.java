@@ -0,0 +1,225 @@
+import java.util.ArrayList;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable, read-only view of a built WordStat, made by WordStat.view, for answering queries from many threads at
+ * once.  A WordStat itself is only safe to read from the thread that built it: its fields are not final, its query cache
+ * and collocation ranker are filled in by the first query that needs them, and nothing publishes its tables to other
+ * threads.  A WordStatView copies everything it needs when it is made and never changes afterwards.  Every field is final
+ * and holds either a FrozenWordStat, a compiled CollocationIndex, or an array filled in before the constructor returns,
+ * so the view is safely published to any thread that is handed a reference to it, even through a data race.  Queries
+ * only read, so they take no locks and never wait on each other; each one allocates only its own result.
+ *
+ * Counts and ranks are answered by the FrozenWordStat, the top-k word and word pair queries by copying a prefix of the
+ * keys in rank order, and collocations by the CollocationIndex, giving the same answers as the WordStat the view was made
+ * from.
+ * @author Josh Hager
+ */
+public final class WordStatView {
+
+    private final FrozenWordStat frozen;
+
+    /* the key with rank r at index r - 1, so the most common key is first */
+    private final String[] wordsByRank;
+    private final String[] pairsByRank;
+
+    /* compiled before the view is made, and only read afterwards */
+    private final CollocationIndex collocationIndex;
+
+    /**
+     * Creates a new WordStatView from the state of a built WordStat.
+     * @param frozen the counts and ranks of the WordStat
+     * @param sortedWords the word entries, in increasing order of count
+     * @param sortedPairs the word pair entries, in increasing order of count
+     * @param collocationIndex the compiled collocation index of the WordStat
+     */
+    WordStatView(FrozenWordStat frozen, ArrayList<HashEntry> sortedWords, ArrayList<HashEntry> sortedPairs,
+                    CollocationIndex collocationIndex) {
+        this.frozen = frozen;
+        this.wordsByRank = byRank(sortedWords);
+        this.pairsByRank = byRank(sortedPairs);
+        this.collocationIndex = collocationIndex;
+    }
+
+    /**
+     * Gets the word count of a specified word.
+     * @param word the word to get the count of
+     * @return the count of that word
+     */
+    public int wordCount(String word) {
+        return frozen.wordCount(word);
+    }
+
+    /**
+     * Gets the count of a specified word pair.
+     * @param w1 the first word in the pair
+     * @param w2 the second word in the pair
+     * @return the count of the word pair
+     */
+    public int wordPairCount(String w1, String w2) {
+        return frozen.wordPairCount(w1, w2);
+    }
+
+    /**
+     * Gets the rank of the specified word, where 1 is the rank of the most common word.
+     * @param word the word to get the rank of
+     * @return the rank of the word
+     * @throws NoSuchElementException if the word is not in the text
+     */
+    public int wordRank(String word) throws NoSuchElementException {
+        return frozen.wordRank(word);
+    }
+
+    /**
+     * Gets the rank of the specified word pair, where 1 is the rank of the most common word pair.
+     * @param w1 the first word in the word pair
+     * @param w2 the second word in the word pair
+     * @return the rank of the word pair
+     * @throws NoSuchElementException if the word pair is not in the text
+     */
+    public int wordPairRank(String w1, String w2) throws NoSuchElementException {
+        return frozen.wordPairRank(w1, w2);
+    }
+
+    /**
+     * Gets the count and rank of a word with one lookup.
+     * @param word the word
+     * @return the count and rank of the word
+     * @throws NoSuchElementException if the word is not in the text
+     */
+    public WordStat.Stats wordStats(String word) throws NoSuchElementException {
+        return frozen.wordStats(word);
+    }
+
+    /**
+     * Gets the count and rank of a word pair with one lookup.
+     * @param w1 the first word in the word pair
+     * @param w2 the second word in the word pair
+     * @return the count and rank of the word pair
+     * @throws NoSuchElementException if the word pair is not in the text
+     */
+    public WordStat.Stats wordPairStats(String w1, String w2) throws NoSuchElementException {
+        return frozen.wordPairStats(w1, w2);
+    }
+
+    /**
+     * Returns a String[] containing the k most common words in the text, in decreasing order of their count.
+     * @param k the number of most common words to retrieve
+     * @return a String[] of the k most common words
+     * @throws kIsTooLargeException if there are less than k words in the text, excluding duplicates
+     */
+    public String[] mostCommonWords(int k) throws kIsTooLargeException {
+        if (k > wordsByRank.length) {
+            throw new kIsTooLargeException();
+        }
+
+        String[] mostCommonWords = new String[k];
+        System.arraycopy(wordsByRank, 0, mostCommonWords, 0, k);
+        return mostCommonWords;
+    }
+
+    /**
+     * Returns a String[] containing the k least common words in the text, in increasing order of their count.
+     * @param k the number of least common words to retrieve
+     * @return a String[] of the k least common words
+     * @throws kIsTooLargeException if there are less than k words in the text, excluding duplicates
+     */
+    public String[] leastCommonWords(int k) throws kIsTooLargeException {
+        if (k > wordsByRank.length) {
+            throw new kIsTooLargeException();
+        }
+
+        String[] leastCommonWords = new String[k];
+
+        for (int i = 0; i < k; i++) {
+            leastCommonWords[i] = wordsByRank[wordsByRank.length - i - 1];
+        }
+
+        return leastCommonWords;
+    }
+
+    /**
+     * Returns a String[] containing the k most common word pairs in the text, in decreasing order of their count.
+     * @param k the number of most common word pairs to retrieve
+     * @return a String[] of the k most common word pairs, with each element in the form "word1 word2"
+     * @throws kIsTooLargeException if there are less than k word pairs in the text, excluding duplicates
+     */
+    public String[] mostCommonWordPairs(int k) throws kIsTooLargeException {
+        if (k > pairsByRank.length) {
+            throw new kIsTooLargeException();
+        }
+
+        String[] mostCommonWordPairs = new String[k];
+        System.arraycopy(pairsByRank, 0, mostCommonWordPairs, 0, k);
+        return mostCommonWordPairs;
+    }
+
+    /**
+     * Returns the k most common collocations of a base word at a relative position.  Offsets other than 1 and -1 are
+     * only supported up to the collocation window the WordStat was built with.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param i the relative position to the base word, e.g. i = 1 (directly following base word) or i = -1 (directly preceding base word)
+     * @return a String[] containing the k most common collocations of the base word
+     * @throws kIsTooLargeException if k exceeds the number of word pairs in the text, or k exceeds the number of different collocations a word has
+     * @throws UnsupportedOperationException if i is 0 or further from the base word than the collocation window
+     */
+    public String[] mostCommonCollocs(int k, String baseWord, int i) throws kIsTooLargeException {
+        if (i == 0 || Math.abs(i) > collocationIndex.getWindow()) {
+            throw new UnsupportedOperationException();
+        }
+
+        if (!(i == 1 || i == -1)) {
+            return collocationIndex.mostCommon(k, baseWord, i);
+        }
+
+        /* collocations with the same count come in the order of their pair's rank, the same way WordStat orders them */
+        return collocationIndex.mostCommon(k, baseWord, i, 
+                                            other -> i == 1 ? wordPairRank(baseWord, other) : wordPairRank(other, baseWord));
+    }
+
+    /**
+     * Returns the k most common words occurring within n positions of a base word on either side, with the counts at each
+     * offset added together.
+     * @param k the number of collocations to retrieve
+     * @param baseWord the word to obtain the collocations from
+     * @param n the number of positions on either side of the base word to include
+     * @return a String[] containing the k most common collocations of the base word, in decreasing order of their count
+     * @throws kIsTooLargeException if k exceeds the number of different words within n positions of the base word
+     * @throws UnsupportedOperationException if n is less than 1 or greater than the collocation window
+     */
+    public String[] mostCommonCollocsWithin(int k, String baseWord, int n) throws kIsTooLargeException {
+        return collocationIndex.mostCommonWithin(k, baseWord, n);
+    }
+
+    /**
+     * Gets the number of distinct words.
+     * @return the number of distinct words
+     */
+    public int uniqueWords() {
+        return wordsByRank.length;
+    }
+
+    /**
+     * Gets the number of distinct word pairs.
+     * @return the number of distinct word pairs
+     */
+    public int uniqueWordPairs() {
+        return pairsByRank.length;
+    }
+
+    /**
+     * A helper method to list the keys of sorted entries from most to least common.
+     * @param sortedEntries the entries, in increasing order of count
+     * @return the keys, with the key of rank r at index r - 1
+     */
+    private static String[] byRank(ArrayList<HashEntry> sortedEntries) {
+        String[] keys = new String[sortedEntries.size()];
+
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = sortedEntries.get(keys.length - i - 1).getKey();
+        }
+
+        return keys;
+    }
+}
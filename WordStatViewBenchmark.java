@@ -0,0 +1,130 @@
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures how many wordStats queries per second a shared WordStatView answers as the number of threads querying it
+ * grows, on platform threads and, when the JDK has them, on virtual threads.  Each thread queries words of the text in a
+ * fixed pattern for a set time, and the total number of queries answered is divided by that time.
+ * Usage: WordStatViewBenchmark file [seconds per run] [largest thread count]
+ * @author Josh Hager
+ */
+public class WordStatViewBenchmark {
+
+    /**
+     * Runs the benchmark and prints one line per thread count.
+     * @param args the text file to load, the seconds to run each thread count for (1 by default) and the largest thread
+     *             count (4096 by default)
+     * @throws IOException if the file cannot be read
+     * @throws InterruptedException if the benchmark is interrupted
+     * @throws NoSuchMethodException if the getTable method used to gain access to the HashEntries cannot be found
+     * @throws SecurityException if there is a security exception in reflection of getTable method
+     * @throws IllegalAccessException when the getTable method used to gain access to the HashEntries cannot be accessed
+     * @throws IllegalArgumentException when there is an illegal argument in the reflection of the getTable method
+     * @throws InvocationTargetException when there is an exception thrown by the reflected getTable method
+     * @throws kIsTooLargeException never, since every word of the text is asked for
+     */
+    public static void main(String[] args) throws IOException, InterruptedException, NoSuchMethodException,
+                                            SecurityException, IllegalAccessException, IllegalArgumentException,
+                                            InvocationTargetException, kIsTooLargeException {
+        if (args.length < 1) {
+            System.err.println("usage: WordStatViewBenchmark file [seconds per run] [largest thread count]");
+            System.exit(2);
+        }
+
+        double seconds = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+        int maxThreads = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+
+        WordStatView view = new WordStat(args[0]).view();
+        String[] words = view.mostCommonWords(view.uniqueWords());
+
+        System.out.printf("%8s %16s %16s%n", "threads", "platform q/s", "virtual q/s");
+
+        for (int threads = 1; threads <= maxThreads; threads *= 4) {
+            ExecutorService platform = Executors.newFixedThreadPool(threads);
+            ExecutorService virtual = newVirtualExecutor();
+
+            double platformRate = run(platform, threads, view, words, seconds);
+            String virtualRate = virtual == null ? "unavailable"
+                                                 : String.format("%.0f", run(virtual, threads, view, words, seconds));
+
+            System.out.printf("%8d %16.0f %16s%n", threads, platformRate, virtualRate);
+        }
+    }
+
+    /**
+     * A helper method to run one thread count on one executor.
+     * @param executor the executor to run the readers on, which is shut down afterwards
+     * @param threads the number of readers
+     * @param view the view to query
+     * @param words the words to query
+     * @param seconds how long the readers query for
+     * @return the number of queries answered per second
+     * @throws InterruptedException if the run is interrupted
+     */
+    private static double run(ExecutorService executor, int threads, WordStatView view, String[] words, double seconds)
+                                throws InterruptedException {
+        LongAdder queries = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long nanos = (long)(seconds * 1e9);
+
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+
+            executor.execute(() -> {
+                try {
+                    start.await();
+                    long end = System.nanoTime() + nanos;
+                    long answered = 0;
+                    int i = seed;
+
+                    while (System.nanoTime() < end) {
+                        for (int n = 0; n < 256; n++) {
+                            i = (i + 7919) % words.length;
+                            view.wordStats(words[i]);
+                        }
+
+                        answered += 256;
+                    }
+
+                    queries.add(answered);
+                }
+                catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                finally {
+                    done.countDown();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        long elapsed = System.nanoTime() - begin;
+
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+
+        return queries.sum() * 1e9 / elapsed;
+    }
+
+    /**
+     * A helper method to create an executor that runs each task on a new virtual thread, looked up by reflection so that
+     * this class still compiles and runs on JDKs without virtual threads.
+     * @return the executor, or null if the JDK has no virtual threads
+     */
+    private static ExecutorService newVirtualExecutor() {
+        try {
+            return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        }
+        catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import org.junit.Test;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class to test WordStatView.  Conditions for each test are found on the right.
+ * @author Josh Hager
+ */
+public class WordStatViewTest {
+
+    // get the current path of this .java file, **MAKE SURE .TXT FILES ARE IN SAME FOLDER**
+    public String path = this.getClass().getClassLoader().getResource("").getPath();
+                                                                                        //CONDITION:
+    @Test
+    public void testMatchesWordStat() throws FileNotFoundException, IOException, NoSuchMethodException,
+                                            SecurityException, IllegalAccessException, IllegalArgumentException,
+                                            InvocationTargetException, kIsTooLargeException{
+        WordStat stat = new WordStat(new Tokenizer(path + "\\Collocs.txt"), 3);
+        WordStatView test = stat.view();
+        String[] words = stat.mostCommonWords(test.uniqueWords());
+
+        assertArrayEquals(words, test.mostCommonWords(words.length));                   //every word, same order
+        assertArrayEquals(stat.leastCommonWords(3), test.leastCommonWords(3));
+        assertArrayEquals(stat.mostCommonWordPairs(test.uniqueWordPairs()),             //every word pair, same order
+                            test.mostCommonWordPairs(test.uniqueWordPairs()));
+
+        for(String word : words){
+            assertEquals(stat.wordCount(word), test.wordCount(word));                   //every word, same count and rank
+            assertEquals(stat.wordRank(word), test.wordRank(word));
+
+            for(int i : new int[]{-3, -2, -1, 1, 2, 3}){
+                for(int k = 1; k <= 4; k++){
+                    assertArrayEquals(TestWords.collocs(stat::mostCommonCollocs, k, word, i),
+                                        TestWords.collocs(test::mostCommonCollocs, k, word, i));   //every offset, same collocations
+                }
+            }
+        }
+
+        assertArrayEquals(stat.mostCommonCollocsWithin(2, words[0], 3), test.mostCommonCollocsWithin(2, words[0], 3));
+    }
+
+    @Test
+    public void testErrors() throws NoSuchMethodException, SecurityException, IllegalAccessException,
+                                    IllegalArgumentException, InvocationTargetException{
+        WordStatView test = new WordStat(new String[]{"the", "knights", "who", "say", "ni"}).view();
+
+        assertEquals(0, test.wordCount("shrubbery"));                                   //word is not in text
+
+        try{
+            test.wordRank("shrubbery");
+            fail();                                                                     //word is not in text
+        }
+        catch(NoSuchElementException e){
+        }
+
+        try{
+            test.mostCommonWords(6);
+            fail();                                                                     //k is too large
+        }
+        catch(kIsTooLargeException e){
+        }
+
+        try{
+            test.mostCommonCollocs(1, "the", 2);
+            fail();                                                                     //offset outside window
+        }
+        catch(UnsupportedOperationException e){
+        }
+        catch(kIsTooLargeException e){
+            fail();
+        }
+
+        try{
+            test.mostCommonCollocs(2, "the", 1);
+            fail();                                                                     //not enough collocations
+        }
+        catch(kIsTooLargeException e){
+        }
+    }
+
+    @Test
+    public void testConcurrentReads() throws Exception{
+        String[] inputWords = new String[20000];
+        for(int i = 0; i < inputWords.length; i++){
+            inputWords[i] = "w" + Integer.toString((i * 7919) % 1500 % (1 + i % 97), 36);
+        }
+
+        WordStat stat = new WordStat(inputWords);
+        WordStatView test = stat.view();
+
+        /* the expected answers, computed on this thread before any reader starts */
+        String[] words = stat.mostCommonWords(test.uniqueWords());
+        int[] counts = new int[words.length];
+        int[] ranks = new int[words.length];
+        for(int i = 0; i < words.length; i++){
+            counts[i] = stat.wordCount(words[i]);
+            ranks[i] = stat.wordRank(words[i]);
+        }
+        String[] top = stat.mostCommonWordPairs(10);
+
+        List<ExecutorService> executors = new ArrayList<ExecutorService>();
+        executors.add(Executors.newFixedThreadPool(32));
+        try{
+            executors.add((ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null));
+        }
+        catch(ReflectiveOperationException e){
+            /* no virtual threads on this JDK */
+        }
+
+        for(ExecutorService executor : executors){
+            int readers = 64;
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+
+            for(int r = 0; r < readers; r++){
+                int seed = r;
+                Callable<Integer> reader = () -> {
+                    start.await();
+                    int mismatches = 0;
+
+                    for(int n = 0; n < 5000; n++){
+                        int i = (seed * 31 + n * 17) % words.length;
+                        WordStat.Stats stats = test.wordStats(words[i]);
+
+                        if(stats.getCount() != counts[i] || stats.getRank() != ranks[i]
+                            || test.wordCount(words[i]) != counts[i] || test.wordRank(words[i]) != ranks[i]){
+                            mismatches++;
+                        }
+
+                        if(n % 100 == 0 && !test.mostCommonWordPairs(10)[9].equals(top[9])){
+                            mismatches++;
+                        }
+                    }
+
+                    return mismatches;
+                };
+                results.add(executor.submit(reader));
+            }
+
+            start.countDown();
+
+            int mismatches = 0;
+            for(Future<Integer> result : results){
+                mismatches += result.get(60, TimeUnit.SECONDS);
+            }
+
+            executor.shutdown();
+            assertEquals(0, mismatches);                                                //many readers, same answers
+        }
+    }
+}
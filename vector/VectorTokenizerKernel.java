@@ -0,0 +1,156 @@
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Scans UTF-8 input for a Utf8TokenScanner a vector of bytes at a time, using the incubating Vector API.  Each block is
+ * checked for non-ASCII bytes with one comparison; a block holding any is given back to the scanner's byte-at-a-time
+ * loop.  In an ASCII block the whitespace bytes are found with a few lane comparisons, turned into a bit mask, and the
+ * words between them are copied to the scanner a run at a time, with the ASCII capital letters lowercased in the
+ * register first.  VectorMask.toLong is not compiled to vector instructions on every JDK with the module, so the mask
+ * is turned into bits with vector operations that are: each lane gets its own bit of a byte, the 8 bytes of each long
+ * lane are folded into one, and the long lanes are shifted into place and ORed together.  A word that lies wholly in
+ * one block and is made only of letters is passed on directly as a String of the lowercased bytes; any other word is
+ * added to the scanner's buffer and normalized by its lookup table as before, so the words are the same as without the
+ * kernel.
+ *
+ * This class needs the jdk.incubator.vector module at compile time and run time (--add-modules jdk.incubator.vector),
+ * so it lives in its own directory, out of the plain javac *.java build, and is compiled against the other classes with
+ * vector/compile.sh.  Utf8TokenScanner loads it by reflection, so nothing else depends on the module being there.  A kernel holds no state,
+ * so one instance is shared by every scanner.
+ * @author Josh Hager
+ */
+public class VectorTokenizerKernel implements Utf8TokenScanner.Kernel {
+
+    /* the widest vector of bytes this machine handles well: 16, 32 or 64 lanes */
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    /* the same vector seen as longs, 8 byte lanes to each long lane */
+    private static final VectorSpecies<Long> LONGS = LongVector.SPECIES_PREFERRED;
+
+    private static final ByteVector ZERO = ByteVector.zero(SPECIES);
+
+    /* the bit that makes an ASCII capital letter lowercase, in each lane */
+    private static final ByteVector CASE_BIT = ByteVector.broadcast(SPECIES, (byte)0x20);
+
+    /* 1 << (lane % 8) in each byte lane */
+    private static final ByteVector LANE_BITS;
+
+    /* 8 * lane in each long lane */
+    private static final LongVector LANE_SHIFTS;
+
+    static {
+        byte[] laneBits = new byte[SPECIES.length()];
+        for (int i = 0; i < laneBits.length; i++) {
+            laneBits[i] = (byte)(1 << (i % 8));
+        }
+
+        long[] laneShifts = new long[LONGS.length()];
+        for (int i = 0; i < laneShifts.length; i++) {
+            laneShifts[i] = 8L * i;
+        }
+
+        LANE_BITS = ByteVector.fromArray(SPECIES, laneBits, 0);
+        LANE_SHIFTS = LongVector.fromArray(LONGS, laneShifts, 0);
+    }
+
+    /**
+     * Creates a new VectorTokenizerKernel.
+     */
+    public VectorTokenizerKernel() {
+    }
+
+    /**
+     * Gets the number of bytes handled by each vector.
+     * @return the number of lanes
+     */
+    public static int blockSize() {
+        return SPECIES.length();
+    }
+
+    @Override
+    public int scan(Utf8TokenScanner scanner, byte[] buffer, int offset, int end, boolean lowercase,
+                    Consumer<String> sink) {
+        int lanes = SPECIES.length();
+        byte[] lowered = lowercase ? new byte[lanes] : null;
+        int i = offset;
+
+        for (; i + lanes <= end; i += lanes) {
+            ByteVector v = ByteVector.fromArray(SPECIES, buffer, i);
+
+            /* a byte below 0 starts or continues a multi-byte character */
+            if (v.compare(VectorOperators.LT, (byte)0).anyTrue()) {
+                scanner.scanBytes(buffer, i, i + lanes, sink);
+                continue;
+            }
+
+            /* the bytes of Utf8TokenScanner.WHITESPACE: ' ', \n and \r */
+            VectorMask<Byte> whitespace = v.compare(VectorOperators.EQ, (byte)' ')
+                                           .or(v.compare(VectorOperators.EQ, (byte)'\n'))
+                                           .or(v.compare(VectorOperators.EQ, (byte)'\r'));
+            long breaks = toBits(whitespace);
+
+            byte[] source = buffer;
+            int base = i;
+            long letters = 0;
+
+            if (lowercase) {
+                VectorMask<Byte> upper = v.compare(VectorOperators.GE, (byte)'A')
+                                          .and(v.compare(VectorOperators.LE, (byte)'Z'));
+                ByteVector lower = v.or(ZERO.blend(CASE_BIT, upper));
+                lower.intoArray(lowered, 0);
+                letters = toBits(lower.compare(VectorOperators.GE, (byte)'a')
+                                      .and(lower.compare(VectorOperators.LE, (byte)'z')));
+                source = lowered;
+                base = 0;
+            }
+
+            /* copy the run before each whitespace byte and end the word there */
+            int start = 0;
+
+            while (breaks != 0) {
+                int at = Long.numberOfTrailingZeros(breaks);
+
+                if (at > start) {
+                    long run = (-1L >>> (64 - (at - start))) << start;
+
+                    if ((letters & run) == run && !scanner.hasWord()) {
+                        sink.accept(new String(source, base + start, at - start, StandardCharsets.ISO_8859_1));
+                    }
+                    else {
+                        scanner.append(source, base + start, base + at);
+                    }
+                }
+
+                scanner.endWord(sink);
+                start = at + 1;
+                breaks &= breaks - 1;
+            }
+
+            if (start < lanes) {
+                scanner.append(source, base + start, base + lanes);
+            }
+        }
+
+        return i;
+    }
+
+    /**
+     * Turns a mask into bits, with bit i set if lane i is set, the same as VectorMask.toLong.
+     * @param mask the mask
+     * @return the bits
+     */
+    static long toBits(VectorMask<Byte> mask) {
+        LongVector x = ZERO.blend(LANE_BITS, mask).reinterpretAsLongs();
+
+        x = x.or(x.lanewise(VectorOperators.LSHR, 32));
+        x = x.or(x.lanewise(VectorOperators.LSHR, 16));
+        x = x.or(x.lanewise(VectorOperators.LSHR, 8));
+
+        return x.and(0xffL).lanewise(VectorOperators.LSHL, LANE_SHIFTS).reduceLanes(VectorOperators.OR);
+    }
+}
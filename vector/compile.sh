@@ -0,0 +1,12 @@
+#!/bin/sh
+# Compiles the optional vector kernel next to the other classes.  The kernel needs the incubating
+# jdk.incubator.vector module, so it is kept out of the plain "javac *.java" build of the top directory.
+#
+#   javac -d out *.java
+#   vector/compile.sh out
+#   java --add-modules jdk.incubator.vector -cp out ...
+#
+# Without this step, or without --add-modules at run time, Utf8TokenScanner scans a byte at a time.
+set -e
+OUT="${1:-.}"
+javac --add-modules jdk.incubator.vector -cp "$OUT" -d "$OUT" "$(dirname "$0")/VectorTokenizerKernel.java"